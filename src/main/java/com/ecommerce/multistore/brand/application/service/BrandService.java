@@ -7,6 +7,7 @@ import com.ecommerce.multistore.brand.application.dto.BrandResponse;
 import com.ecommerce.multistore.brand.application.dto.CreateBrandRequest;
 import com.ecommerce.multistore.brand.domain.Brand;
 import com.ecommerce.multistore.brand.infrastructure.BrandRepository;
+import com.ecommerce.multistore.shared.dto.CatalogVersion;
 import com.ecommerce.multistore.shared.exception.DuplicateResourceException;
 import com.ecommerce.multistore.shared.exception.ResourceNotFoundException;
 import com.ecommerce.multistore.shared.utils.SlugGenerator;
@@ -220,6 +221,34 @@ public class BrandService {
 
     // Helper Methods
 
+    /**
+     * تاريخ آخر تعديل - للطلبات الشرطية دون تحميل الكيان
+     * Last modification time - for conditional requests without loading the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedById(UUID id) {
+        return brandRepository.findUpdatedAtById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedByDisplayId(String displayId) {
+        return brandRepository.findUpdatedAtByDisplayId(displayId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedBySlug(String slug) {
+        return brandRepository.findUpdatedAtBySlug(slug);
+    }
+
+    /**
+     * نسخة العلامات التجارية - لـ ETag القوائم
+     * Brands version - for list ETags
+     */
+    @Transactional(readOnly = true)
+    public CatalogVersion getCatalogVersion() {
+        return brandRepository.findCatalogVersion();
+    }
+
     /**
      * تحويل Entity إلى Response DTO
      * Convert entity to response DTO
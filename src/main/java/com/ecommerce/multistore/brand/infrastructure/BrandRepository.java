@@ -1,6 +1,7 @@
 package com.ecommerce.multistore.brand.infrastructure;
 
 import com.ecommerce.multistore.brand.domain.Brand;
+import com.ecommerce.multistore.shared.dto.CatalogVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -74,4 +76,24 @@ public interface BrandRepository extends JpaRepository<Brand, UUID> {
      */
     @Query("SELECT b.id, COUNT(p.id) FROM Brand b LEFT JOIN Product p ON b.id = p.brandId GROUP BY b.id")
     List<Object[]> countProductsByBrand();
+
+    /**
+     * تاريخ آخر تعديل للعلامة التجارية - للطلبات الشرطية
+     * Brand last modification time - for conditional requests
+     */
+    @Query("SELECT b.updatedAt FROM Brand b WHERE b.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
+
+    @Query("SELECT b.updatedAt FROM Brand b WHERE b.displayId = :displayId")
+    Optional<LocalDateTime> findUpdatedAtByDisplayId(@Param("displayId") String displayId);
+
+    @Query("SELECT b.updatedAt FROM Brand b WHERE b.slug = :slug")
+    Optional<LocalDateTime> findUpdatedAtBySlug(@Param("slug") String slug);
+
+    /**
+     * نسخة جدول العلامات التجارية
+     * Brands table version
+     */
+    @Query("SELECT MAX(b.updatedAt) AS lastModified, COUNT(b) AS total FROM Brand b")
+    CatalogVersion findCatalogVersion();
 }
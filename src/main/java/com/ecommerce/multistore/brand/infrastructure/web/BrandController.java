@@ -6,10 +6,12 @@ import com.ecommerce.multistore.brand.application.service.BrandService;
 import com.ecommerce.multistore.shared.constants.AppConstants;
 import com.ecommerce.multistore.shared.dto.ApiResponse;
 import com.ecommerce.multistore.shared.dto.PaginatedResponse;
+import com.ecommerce.multistore.shared.utils.HttpCacheUtils;
 import com.ecommerce.multistore.shared.utils.PaginationUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -18,6 +20,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -53,7 +56,14 @@ public class BrandController {
     @GetMapping("/{id}")
     @Operation(summary = "Get Brand by ID", description = "الحصول على علامة تجارية بواسطة المعرف")
     public ResponseEntity<ApiResponse<BrandResponse>> getBrandById(
-            @Parameter(description = "Brand ID") @PathVariable UUID id) {
+            @Parameter(description = "Brand ID") @PathVariable UUID id,
+            HttpServletRequest httpRequest) {
+
+        LocalDateTime lastModified = brandService.findLastModifiedById(id).orElse(null);
+        String etag = HttpCacheUtils.weakETag(id, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
 
         return brandService.findById(id)
                 .map(brand -> {
@@ -62,7 +72,7 @@ public class BrandController {
                         "Brand retrieved successfully"
                     );
                     response.setMessageAr("تم استرجاع العلامة التجارية بنجاح");
-                    return ResponseEntity.ok(response);
+                    return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -70,7 +80,14 @@ public class BrandController {
     @GetMapping("/display/{displayId}")
     @Operation(summary = "Get Brand by Display ID", description = "الحصول على علامة تجارية بواسطة معرف العرض")
     public ResponseEntity<ApiResponse<BrandResponse>> getBrandByDisplayId(
-            @Parameter(description = "Brand Display ID") @PathVariable String displayId) {
+            @Parameter(description = "Brand Display ID") @PathVariable String displayId,
+            HttpServletRequest httpRequest) {
+
+        LocalDateTime lastModified = brandService.findLastModifiedByDisplayId(displayId).orElse(null);
+        String etag = HttpCacheUtils.weakETag(displayId, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
 
         return brandService.findByDisplayId(displayId)
                 .map(brand -> {
@@ -79,7 +96,7 @@ public class BrandController {
                         "Brand retrieved successfully"
                     );
                     response.setMessageAr("تم استرجاع العلامة التجارية بنجاح");
-                    return ResponseEntity.ok(response);
+                    return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -87,7 +104,14 @@ public class BrandController {
     @GetMapping("/slug/{slug}")
     @Operation(summary = "Get Brand by Slug", description = "الحصول على علامة تجارية بواسطة الرابط الودي")
     public ResponseEntity<ApiResponse<BrandResponse>> getBrandBySlug(
-            @Parameter(description = "Brand Slug") @PathVariable String slug) {
+            @Parameter(description = "Brand Slug") @PathVariable String slug,
+            HttpServletRequest httpRequest) {
+
+        LocalDateTime lastModified = brandService.findLastModifiedBySlug(slug).orElse(null);
+        String etag = HttpCacheUtils.weakETag(slug, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
 
         return brandService.findBySlug(slug)
                 .map(brand -> {
@@ -96,7 +120,7 @@ public class BrandController {
                         "Brand retrieved successfully"
                     );
                     response.setMessageAr("تم استرجاع العلامة التجارية بنجاح");
-                    return ResponseEntity.ok(response);
+                    return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -107,7 +131,13 @@ public class BrandController {
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "name") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir,
+            HttpServletRequest httpRequest) {
+
+        String etag = HttpCacheUtils.weakETag(brandService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
 
         Pageable pageable = PaginationUtils.createPageable(page, size, sortBy, sortDir);
         Page<BrandResponse> brands = brandService.getAllBrands(pageable);
@@ -120,12 +150,17 @@ public class BrandController {
         );
         response.setMessageAr("تم استرجاع العلامات التجارية بنجاح");
 
-        return ResponseEntity.ok(response);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     @GetMapping("/active")
     @Operation(summary = "Get Active Brands", description = "الحصول على العلامات التجارية النشطة")
-    public ResponseEntity<ApiResponse<List<BrandResponse>>> getActiveBrands() {
+    public ResponseEntity<ApiResponse<List<BrandResponse>>> getActiveBrands(HttpServletRequest httpRequest) {
+
+        String etag = HttpCacheUtils.weakETag(brandService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
 
         List<BrandResponse> brands = brandService.getActiveBrands();
         ApiResponse<List<BrandResponse>> response = ApiResponse.<List<BrandResponse>>success(
@@ -134,7 +169,7 @@ public class BrandController {
         );
         response.setMessageAr("تم استرجاع العلامات التجارية النشطة بنجاح");
 
-        return ResponseEntity.ok(response);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     @GetMapping("/search")
@@ -144,7 +179,13 @@ public class BrandController {
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "name") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir,
+            HttpServletRequest httpRequest) {
+
+        String etag = HttpCacheUtils.weakETag(brandService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_SEARCH);
+        }
 
         Pageable pageable = PaginationUtils.createPageable(page, size, sortBy, sortDir);
         Page<BrandResponse> brands = brandService.searchBrands(query, pageable);
@@ -157,7 +198,7 @@ public class BrandController {
         );
         response.setMessageAr("تم البحث في العلامات التجارية بنجاح");
 
-        return ResponseEntity.ok(response);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_SEARCH);
     }
 
     @PutMapping("/{id}")
@@ -8,6 +8,7 @@ import com.ecommerce.multistore.category.application.dto.CategoryTreeResponse;
 import com.ecommerce.multistore.category.application.dto.CreateCategoryRequest;
 import com.ecommerce.multistore.category.domain.Category;
 import com.ecommerce.multistore.category.infrastructure.CategoryRepository;
+import com.ecommerce.multistore.shared.dto.CatalogVersion;
 import com.ecommerce.multistore.shared.exception.BusinessException;
 import com.ecommerce.multistore.shared.exception.DuplicateResourceException;
 import com.ecommerce.multistore.shared.exception.ResourceNotFoundException;
@@ -289,6 +290,29 @@ public CategoryResponse deactivateCategory(UUID id) {
 
     // Helper Methods
 
+    /**
+     * تاريخ آخر تعديل - للطلبات الشرطية دون تحميل الكيان
+     * Last modification time - for conditional requests without loading the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedById(UUID id) {
+        return categoryRepository.findUpdatedAtById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedBySlug(String slug) {
+        return categoryRepository.findUpdatedAtBySlug(slug);
+    }
+
+    /**
+     * نسخة الفئات - لـ ETag القوائم والشجرة
+     * Categories version - for list and tree ETags
+     */
+    @Transactional(readOnly = true)
+    public CatalogVersion getCatalogVersion() {
+        return categoryRepository.findCatalogVersion();
+    }
+
     /**
      * تحويل Entity إلى Response DTO
      * Convert entity to response DTO
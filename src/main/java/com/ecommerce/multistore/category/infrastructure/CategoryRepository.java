@@ -1,6 +1,7 @@
 package com.ecommerce.multistore.category.infrastructure;
 
 import com.ecommerce.multistore.category.domain.Category;
+import com.ecommerce.multistore.shared.dto.CatalogVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -90,4 +92,21 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
      */
     @Query("SELECT c FROM Category c WHERE c.isActive = true ORDER BY c.parentId NULLS FIRST, c.sortOrder ASC")
     List<Category> findCategoryTree();
+
+    /**
+     * تاريخ آخر تعديل للفئة - للطلبات الشرطية
+     * Category last modification time - for conditional requests
+     */
+    @Query("SELECT c.updatedAt FROM Category c WHERE c.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
+
+    @Query("SELECT c.updatedAt FROM Category c WHERE c.slug = :slug")
+    Optional<LocalDateTime> findUpdatedAtBySlug(@Param("slug") String slug);
+
+    /**
+     * نسخة جدول الفئات
+     * Categories table version
+     */
+    @Query("SELECT MAX(c.updatedAt) AS lastModified, COUNT(c) AS total FROM Category c")
+    CatalogVersion findCatalogVersion();
 }
@@ -7,10 +7,12 @@ import com.ecommerce.multistore.category.application.service.CategoryService;
 import com.ecommerce.multistore.shared.constants.AppConstants;
 import com.ecommerce.multistore.shared.dto.ApiResponse;
 import com.ecommerce.multistore.shared.dto.PaginatedResponse;
+import com.ecommerce.multistore.shared.utils.HttpCacheUtils;
 import com.ecommerce.multistore.shared.utils.PaginationUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -19,6 +21,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -53,7 +56,15 @@ public class CategoryController {
     @GetMapping("/{id}")
     @Operation(summary = "Get Category by ID", description = "الحصول على فئة بواسطة المعرف")
     public ResponseEntity<ApiResponse<CategoryResponse>> getCategoryById(
-            @Parameter(description = "Category ID") @PathVariable UUID id) {
+            @Parameter(description = "Category ID") @PathVariable UUID id,
+            HttpServletRequest httpRequest) {
+
+        // التحقق من النسخة قبل تحميل الفئة
+        LocalDateTime lastModified = categoryService.findLastModifiedById(id).orElse(null);
+        String etag = HttpCacheUtils.weakETag(id, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
 
         return categoryService.findById(id)
                 .map(category -> {
@@ -62,7 +73,7 @@ public class CategoryController {
                         "Category retrieved successfully"
                     );
                     response.setMessageAr("تم استرجاع الفئة بنجاح");
-                    return ResponseEntity.ok(response);
+                    return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -70,7 +81,14 @@ public class CategoryController {
     @GetMapping("/slug/{slug}")
     @Operation(summary = "Get Category by Slug", description = "الحصول على فئة بواسطة الرابط الودي")
     public ResponseEntity<ApiResponse<CategoryResponse>> getCategoryBySlug(
-            @Parameter(description = "Category Slug") @PathVariable String slug) {
+            @Parameter(description = "Category Slug") @PathVariable String slug,
+            HttpServletRequest httpRequest) {
+
+        LocalDateTime lastModified = categoryService.findLastModifiedBySlug(slug).orElse(null);
+        String etag = HttpCacheUtils.weakETag(slug, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
 
         return categoryService.findBySlug(slug)
                 .map(category -> {
@@ -79,7 +97,7 @@ public class CategoryController {
                         "Category retrieved successfully"
                     );
                     response.setMessageAr("تم استرجاع الفئة بنجاح");
-                    return ResponseEntity.ok(response);
+                    return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -90,7 +108,13 @@ public class CategoryController {
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "name") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir,
+            HttpServletRequest httpRequest) {
+
+        String etag = HttpCacheUtils.weakETag(categoryService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
 
         Pageable pageable = PaginationUtils.createPageable(page, size, sortBy, sortDir);
         Page<CategoryResponse> categories = categoryService.getAllCategories(pageable);
@@ -103,12 +127,17 @@ public class CategoryController {
         );
         response.setMessageAr("تم استرجاع الفئات بنجاح");
 
-        return ResponseEntity.ok(response);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     @GetMapping("/parents")
     @Operation(summary = "Get Parent Categories", description = "الحصول على الفئات الرئيسية")
-    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getParentCategories() {
+    public ResponseEntity<ApiResponse<List<CategoryResponse>>> getParentCategories(HttpServletRequest httpRequest) {
+
+        String etag = HttpCacheUtils.weakETag(categoryService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
 
         List<CategoryResponse> categories = categoryService.getParentCategories();
         ApiResponse<List<CategoryResponse>> response = ApiResponse.<List<CategoryResponse>>success(
@@ -117,13 +146,19 @@ public class CategoryController {
         );
         response.setMessageAr("تم استرجاع الفئات الرئيسية بنجاح");
 
-        return ResponseEntity.ok(response);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     @GetMapping("/{parentId}/children")
     @Operation(summary = "Get Child Categories", description = "الحصول على الفئات الفرعية")
     public ResponseEntity<ApiResponse<List<CategoryResponse>>> getChildCategories(
-            @Parameter(description = "Parent Category ID") @PathVariable UUID parentId) {
+            @Parameter(description = "Parent Category ID") @PathVariable UUID parentId,
+            HttpServletRequest httpRequest) {
+
+        String etag = HttpCacheUtils.weakETag(categoryService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
 
         List<CategoryResponse> categories = categoryService.getChildCategories(parentId);
         ApiResponse<List<CategoryResponse>> response = ApiResponse.<List<CategoryResponse>>success(
@@ -132,12 +167,17 @@ public class CategoryController {
         );
         response.setMessageAr("تم استرجاع الفئات الفرعية بنجاح");
 
-        return ResponseEntity.ok(response);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     @GetMapping("/tree")
     @Operation(summary = "Get Category Tree", description = "الحصول على شجرة الفئات")
-    public ResponseEntity<ApiResponse<CategoryTreeResponse>> getCategoryTree() {
+    public ResponseEntity<ApiResponse<CategoryTreeResponse>> getCategoryTree(HttpServletRequest httpRequest) {
+
+        String etag = HttpCacheUtils.weakETag(categoryService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_ITEM);
+        }
 
         CategoryTreeResponse tree = categoryService.getCategoryTree();
         ApiResponse<CategoryTreeResponse> response = ApiResponse.<CategoryTreeResponse>success(
@@ -146,7 +186,7 @@ public class CategoryController {
         );
         response.setMessageAr("تم استرجاع شجرة الفئات بنجاح");
 
-        return ResponseEntity.ok(response);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_ITEM);
     }
 
     @GetMapping("/search")
@@ -156,7 +196,13 @@ public class CategoryController {
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "name") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir,
+            HttpServletRequest httpRequest) {
+
+        String etag = HttpCacheUtils.weakETag(categoryService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_SEARCH);
+        }
 
         Pageable pageable = PaginationUtils.createPageable(page, size, sortBy, sortDir);
         Page<CategoryResponse> categories = categoryService.searchCategories(query, pageable);
@@ -169,7 +215,7 @@ public class CategoryController {
         );
         response.setMessageAr("تم البحث في الفئات بنجاح");
 
-        return ResponseEntity.ok(response);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_SEARCH);
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,53 @@
+package com.ecommerce.multistore.checkout.application.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * عنصر في طلب الدفع
+ * One checkout line
+ *
+ * الاسم والرمز والسعر تُقرأ من الكتالوج؛ السعر المتوقع إن أُرسل يُقارن بسعر الكتالوج
+ * Name, SKU and price are read from the catalog; the expected price, when sent, is compared with it
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class CheckoutItem {
+
+    @NotNull(message = "Product ID is required")
+    private UUID productId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    /**
+     * السعر المعروض على العميل
+     * Price shown to the customer
+     */
+    @DecimalMin(value = "0.0", inclusive = false, message = "Expected unit price must be greater than 0")
+    private BigDecimal expectedUnitPrice;
+
+    private String attributes;
+
+    // Constructors
+    public CheckoutItem() {}
+
+    // Getters and Setters
+    public UUID getProductId() { return productId; }
+    public void setProductId(UUID productId) { this.productId = productId; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public BigDecimal getExpectedUnitPrice() { return expectedUnitPrice; }
+    public void setExpectedUnitPrice(BigDecimal expectedUnitPrice) { this.expectedUnitPrice = expectedUnitPrice; }
+
+    public String getAttributes() { return attributes; }
+    public void setAttributes(String attributes) { this.attributes = attributes; }
+}
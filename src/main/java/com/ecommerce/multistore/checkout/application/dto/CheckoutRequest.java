@@ -0,0 +1,94 @@
+package com.ecommerce.multistore.checkout.application.dto;
+
+import com.ecommerce.multistore.order.application.dto.AddressDto;
+import com.ecommerce.multistore.payment.domain.PaymentMethod;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * طلب إتمام الشراء - الطلب والدفع معاً
+ * Checkout request - order and payment together
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class CheckoutRequest {
+
+    private UUID userId;
+
+    @NotBlank(message = "Customer email is required")
+    @Email(message = "Invalid email format")
+    private String customerEmail;
+
+    private String customerPhone;
+
+    @NotBlank(message = "Customer name is required")
+    private String customerName;
+
+    @NotNull(message = "Shipping address is required")
+    private AddressDto shippingAddress;
+
+    private AddressDto billingAddress;
+
+    @NotEmpty(message = "Order items cannot be empty")
+    @Size(max = AppConstants.MAX_ORDER_ITEMS, message = "Too many items in one order")
+    private List<@Valid CheckoutItem> items;
+
+    private String shippingMethod;
+    private String couponCode;
+    private String notes;
+
+    @NotNull(message = "Payment method is required")
+    private PaymentMethod paymentMethod;
+
+    // للمحافظ الإلكترونية
+    private String walletPhone;
+
+    // Constructors
+    public CheckoutRequest() {}
+
+    // Getters and Setters
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public String getCustomerEmail() { return customerEmail; }
+    public void setCustomerEmail(String customerEmail) { this.customerEmail = customerEmail; }
+
+    public String getCustomerPhone() { return customerPhone; }
+    public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public AddressDto getShippingAddress() { return shippingAddress; }
+    public void setShippingAddress(AddressDto shippingAddress) { this.shippingAddress = shippingAddress; }
+
+    public AddressDto getBillingAddress() { return billingAddress; }
+    public void setBillingAddress(AddressDto billingAddress) { this.billingAddress = billingAddress; }
+
+    public List<CheckoutItem> getItems() { return items; }
+    public void setItems(List<CheckoutItem> items) { this.items = items; }
+
+    public String getShippingMethod() { return shippingMethod; }
+    public void setShippingMethod(String shippingMethod) { this.shippingMethod = shippingMethod; }
+
+    public String getCouponCode() { return couponCode; }
+    public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public String getWalletPhone() { return walletPhone; }
+    public void setWalletPhone(String walletPhone) { this.walletPhone = walletPhone; }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.multistore.checkout.application.dto;
+
+import com.ecommerce.multistore.order.application.dto.OrderResponse;
+import com.ecommerce.multistore.payment.application.dto.PaymentResponse;
+
+/**
+ * نتيجة إتمام الشراء
+ * Checkout result
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class CheckoutResponse {
+
+    private OrderResponse order;
+    private PaymentResponse payment;
+
+    // Constructors
+    public CheckoutResponse() {}
+
+    public CheckoutResponse(OrderResponse order, PaymentResponse payment) {
+        this.order = order;
+        this.payment = payment;
+    }
+
+    // Getters and Setters
+    public OrderResponse getOrder() { return order; }
+    public void setOrder(OrderResponse order) { this.order = order; }
+
+    public PaymentResponse getPayment() { return payment; }
+    public void setPayment(PaymentResponse payment) { this.payment = payment; }
+}
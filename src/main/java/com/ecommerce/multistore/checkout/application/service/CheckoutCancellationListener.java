@@ -0,0 +1,78 @@
+package com.ecommerce.multistore.checkout.application.service;
+
+import com.ecommerce.multistore.inventory.application.service.StockReservationService;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.event.OrderStatusChangedEvent;
+import com.ecommerce.multistore.order.domain.event.OrderStatusesChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * إعادة ما استهلكه إتمام الشراء عند إلغاء الطلب
+ * Give back what checkout consumed when an order is cancelled
+ *
+ * يستمع لانتقالات الطلب قبل التأكيد فيُحرَّر حجز المخزون ويُعاد استخدام الكوبون في معاملة الإلغاء
+ * نفسها، سواء كان الإلغاء فردياً أو جماعياً أو تعويضاً لدفع مرفوض
+ * Listens to order transitions before commit, so the stock reservation is released and the coupon
+ * use is given back in the cancelling transaction itself, whether the cancel is single, bulk or
+ * the compensation for a declined payment
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class CheckoutCancellationListener {
+
+    // حذف صف الاستخدام يضمن إعادته مرة واحدة فقط
+    private static final String RESTORE_COUPONS_SQL =
+            "WITH released AS ( " +
+            "    DELETE FROM coupon_redemptions WHERE order_id = ANY(?) RETURNING coupon_id " +
+            "), uses AS ( " +
+            "    SELECT coupon_id, COUNT(*) AS uses FROM released GROUP BY coupon_id " +
+            ") " +
+            "UPDATE coupons c " +
+            "SET used_count = GREATEST(COALESCE(c.used_count, 0) - uses.uses, 0), updated_at = NOW() " +
+            "FROM uses WHERE c.id = uses.coupon_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockReservationService stockReservationService;
+
+    @Autowired
+    public CheckoutCancellationListener(JdbcTemplate jdbcTemplate, StockReservationService stockReservationService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stockReservationService = stockReservationService;
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (cancelled(event)) {
+            release(List.of(event.getOrderId()));
+        }
+    }
+
+    @EventListener
+    public void onOrderStatusesChanged(OrderStatusesChangedEvent event) {
+        List<UUID> orderIds = event.getChanges().stream()
+                .filter(this::cancelled)
+                .map(OrderStatusChangedEvent::getOrderId)
+                .toList();
+        if (!orderIds.isEmpty()) {
+            release(orderIds);
+        }
+    }
+
+    private boolean cancelled(OrderStatusChangedEvent event) {
+        return event.getStatus() == OrderStatus.CANCELLED && event.getPreviousStatus() != OrderStatus.CANCELLED;
+    }
+
+    private void release(List<UUID> orderIds) {
+        stockReservationService.releaseOrders(orderIds);
+        jdbcTemplate.update(RESTORE_COUPONS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray())));
+    }
+}
@@ -0,0 +1,447 @@
+package com.ecommerce.multistore.checkout.application.service;
+
+import com.ecommerce.multistore.checkout.application.dto.CheckoutItem;
+import com.ecommerce.multistore.checkout.application.dto.CheckoutRequest;
+import com.ecommerce.multistore.checkout.application.dto.CheckoutResponse;
+import com.ecommerce.multistore.inventory.application.service.StockReservationService;
+import com.ecommerce.multistore.order.application.dto.CreateOrderRequest;
+import com.ecommerce.multistore.order.application.dto.OrderItemDto;
+import com.ecommerce.multistore.order.application.dto.OrderResponse;
+import com.ecommerce.multistore.order.application.service.OrderService;
+import com.ecommerce.multistore.payment.application.dto.CreatePaymentRequest;
+import com.ecommerce.multistore.payment.application.dto.PaymentResponse;
+import com.ecommerce.multistore.payment.application.service.PaymentService;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderGateway;
+import com.ecommerce.multistore.shared.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * خدمة إتمام الشراء
+ * Checkout orchestration service
+ *
+ * مرحلتان متوازيتان على مجمع محدود: القراءات (الكتالوج والأسعار، الكوبون، تكلفة الشحن) في معاملة
+ * قراءة واحدة على اتصال واحد، وحجز المخزون في معاملته القصيرة. فلا تشغل عملية الدفع أكثر من اتصالين
+ * من المجمع في آن واحد، ولا تمسك أي اتصال أثناء انتظار المرحلتين. بعدها معاملة واحدة قصيرة تكتب الطلب وعناصره وتنقل
+ * الحجز وتستهلك الكوبون وتنشئ نية الدفع. الحجز يُحرر عند أي فشل قبل الالتزام، وفشل دفع المحفظة أو
+ * رفضه بعد الالتزام يُعوَّض بإلغاء الطلب الذي يحرر المخزون والكوبون
+ * Two stages run in parallel on a bounded pool: the reads (catalog and prices, coupon, shipping cost)
+ * in one read-only transaction on one connection, and the stock reservation in its own short
+ * transaction. A checkout therefore holds at most two pooled connections at a time, and none while
+ * it waits for the stages. One short transaction then writes the order and its items, moves the reservation, consumes the
+ * coupon and creates the payment intent. The reservation is released on any failure before commit,
+ * and a wallet charge that fails or is declined after commit is compensated by cancelling the order,
+ * which releases the stock and the coupon
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+public class CheckoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutService.class);
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTemplate;
+    private final OrderService orderService;
+    private final PaymentService paymentService;
+    private final StockReservationService stockReservationService;
+    private final WalletProviderGateway walletProviderGateway;
+    private final Executor checkoutExecutor;
+
+    @Value("${app.checkout.stage-timeout-ms:3000}")
+    private long stageTimeoutMs;
+
+    @Autowired
+    public CheckoutService(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           OrderService orderService,
+                           PaymentService paymentService,
+                           StockReservationService stockReservationService,
+                           WalletProviderGateway walletProviderGateway,
+                           @Qualifier("checkoutExecutor") Executor checkoutExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.readTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readTemplate.setReadOnly(true);
+        this.orderService = orderService;
+        this.paymentService = paymentService;
+        this.stockReservationService = stockReservationService;
+        this.walletProviderGateway = walletProviderGateway;
+        this.checkoutExecutor = checkoutExecutor;
+    }
+
+    /**
+     * إتمام الشراء
+     * Checkout
+     *
+     * @param request السلة والعميل وطريقة الدفع
+     * @return CheckoutResponse الطلب ونية الدفع
+     * @throws BusinessException 409 لنقص المخزون أو تغير السعر، 400 لكوبون غير صالح، 503 عند انتهاء المهلة
+     * @throws IllegalArgumentException إذا كانت البيانات غير صحيحة
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CheckoutResponse checkout(CheckoutRequest request) {
+        boolean wallet = request.getPaymentMethod().isEWallet();
+        if (wallet) {
+            // رفض فوري لمحفظة معطلة قبل حجز أي شيء
+            walletProviderGateway.checkAvailable(WalletType.valueOf(request.getPaymentMethod().name()));
+        }
+
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (CheckoutItem item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        UUID checkoutId = UUID.randomUUID();
+
+        // 1. القراءات على اتصال واحد، متوازية مع الحجز
+        CompletableFuture<CheckoutReads> reads = stage(() -> readTemplate.execute(status -> new CheckoutReads(
+                loadProducts(quantities), loadCoupon(request.getCouponCode(), request.getUserId()), loadShippingRates())));
+        CompletableFuture<Integer> reservation = stage(() -> stockReservationService.reserve(checkoutId, quantities));
+
+        CheckoutResponse response;
+        try {
+            try {
+                CompletableFuture.allOf(reads, reservation).join();
+            } catch (CompletionException e) {
+                throw firstFailure(reads, reservation);
+            }
+
+            // 2. جمع النتائج وحساب المبالغ
+            Map<UUID, CatalogProduct> catalog = reads.join().catalog();
+            Coupon appliedCoupon = reads.join().coupon();
+            int reserved = reservation.join();
+            CreateOrderRequest orderRequest = buildOrderRequest(request, catalog);
+            BigDecimal subtotal = orderRequest.getItems().stream()
+                    .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            boolean requiresShipping = catalog.values().stream().anyMatch(CatalogProduct::requiresShipping);
+            BigDecimal shippingAmount = reads.join().shipping().quote(subtotal, requiresShipping, appliedCoupon);
+            BigDecimal discountAmount = appliedCoupon != null ? appliedCoupon.discount(subtotal) : BigDecimal.ZERO;
+
+            // 3. معاملة واحدة قصيرة: الطلب، الحجز، الكوبون، نية الدفع
+            response = transactionTemplate.execute(status -> {
+                OrderResponse order = orderService.createOrder(orderRequest, shippingAmount, discountAmount);
+                stockReservationService.claim(checkoutId, order.getId(), reserved);
+                if (appliedCoupon != null) {
+                    useCoupon(appliedCoupon, order.getId());
+                }
+                PaymentResponse payment = paymentService.createIntent(paymentRequest(request, order));
+                return new CheckoutResponse(order, payment);
+            });
+        } catch (RuntimeException e) {
+            // تعويض: تحرير ما حُجز (لا شيء إن لم يكتمل الحجز؛ حجز التزم بعد انتهاء مهلته يحرره المُجدول)
+            stockReservationService.release(StockReservationService.CHECKOUT_REFERENCE, checkoutId);
+            throw e;
+        }
+
+        // 4. دفع المحفظة يبدأ بعد الالتزام حتى لا تنتظر المعاملة المزود
+        if (wallet) {
+            UUID orderId = response.getOrder().getId();
+            UUID paymentId = response.getPayment().getId();
+            PaymentResponse payment;
+            try {
+                payment = paymentService.processIntent(paymentId, paymentRequest(request, response.getOrder()));
+            } catch (RuntimeException e) {
+                compensate(orderId, paymentId, "Checkout compensation: " + e.getMessage());
+                throw e;
+            }
+            if (payment.getStatus() == PaymentStatus.FAILED) {
+                // الرفض يعود طبيعياً والدفع مسجل FAILED مسبقاً - يبقى إلغاء الطلب وإعادة ما استهلكه
+                compensate(orderId, null, null);
+                throw new BusinessException("Wallet payment was declined: " + payment.getFailureReason(),
+                        "تم رفض الدفع بالمحفظة", 402);
+            }
+            response.setPayment(payment);
+        }
+
+        logger.info("Checkout {} created order {} for {} products", checkoutId,
+                response.getOrder().getOrderNumber(), quantities.size());
+        return response;
+    }
+
+    /**
+     * تشغيل مرحلة على المجمع مع مهلة
+     * Run a stage on the pool with a timeout
+     */
+    private <T> CompletableFuture<T> stage(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, checkoutExecutor).orTimeout(stageTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * أول مرحلة فاشلة بترتيب المراحل - حتى يكون الخطأ المُبلغ ثابتاً
+     * The first failed stage in stage order - so the reported error is deterministic
+     */
+    private RuntimeException firstFailure(CompletableFuture<?>... stages) {
+        for (CompletableFuture<?> stage : stages) {
+            if (!stage.isCompletedExceptionally()) {
+                continue;
+            }
+            try {
+                stage.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TimeoutException) {
+                    return new BusinessException("Checkout timed out, please retry", "انتهت مهلة إتمام الشراء، يرجى إعادة المحاولة", 503);
+                }
+                if (cause instanceof RuntimeException runtime) {
+                    return runtime;
+                }
+                return new IllegalStateException("Checkout stage failed", cause);
+            }
+        }
+        return new IllegalStateException("Checkout stage failed");
+    }
+
+    /**
+     * مرحلة الكتالوج: المنتجات موجودة ونشطة، مع الأسعار الحالية
+     * Catalog stage: products exist and are active, with current prices
+     */
+    private Map<UUID, CatalogProduct> loadProducts(Map<UUID, Integer> quantities) {
+        Map<UUID, CatalogProduct> catalog = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, name, name_ar, sku, price, COALESCE(is_active, TRUE) AS is_active, " +
+                "       COALESCE(requires_shipping, TRUE) AS requires_shipping " +
+                "FROM products WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", quantities.keySet().toArray())),
+                rs -> {
+                    catalog.put(rs.getObject("id", UUID.class), new CatalogProduct(
+                            rs.getString("name"), rs.getString("name_ar"), rs.getString("sku"),
+                            rs.getBigDecimal("price"), rs.getBoolean("is_active"), rs.getBoolean("requires_shipping")));
+                });
+
+        List<UUID> unavailable = quantities.keySet().stream()
+                .filter(productId -> catalog.get(productId) == null || !catalog.get(productId).active())
+                .toList();
+        if (!unavailable.isEmpty()) {
+            throw BusinessException.conflict("Products are not available: " + unavailable,
+                    "بعض المنتجات غير متاحة");
+        }
+        return catalog;
+    }
+
+    /**
+     * مرحلة الكوبون: صالح الآن ولم يستنفد حده العام أو حد المستخدم
+     * Coupon stage: valid now and within its global and per-user limits
+     */
+    private Coupon loadCoupon(String code, UUID userId) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        List<Coupon> coupons = jdbcTemplate.query(
+                "SELECT id, code, type, value, COALESCE(minimum_amount, 0) AS minimum_amount, maximum_discount, " +
+                "       usage_limit_per_user " +
+                "FROM coupons " +
+                "WHERE code = ? AND is_active AND (starts_at IS NULL OR starts_at <= NOW()) " +
+                "  AND (expires_at IS NULL OR expires_at > NOW()) " +
+                "  AND (usage_limit IS NULL OR used_count < usage_limit)",
+                (rs, rowNum) -> new Coupon(rs.getObject("id", UUID.class), rs.getString("code"), rs.getString("type"),
+                        rs.getBigDecimal("value"), rs.getBigDecimal("minimum_amount"), rs.getBigDecimal("maximum_discount"),
+                        (Integer) rs.getObject("usage_limit_per_user")),
+                code.trim());
+        if (coupons.isEmpty()) {
+            throw BusinessException.badRequest("Coupon is invalid or expired: " + code, "الكوبون غير صالح أو منتهي");
+        }
+
+        Coupon coupon = coupons.get(0);
+        if (userId != null && coupon.usageLimitPerUser() != null) {
+            Integer used = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders WHERE user_id = ? AND coupon_code = ? AND status <> 'CANCELLED'",
+                    Integer.class, userId, coupon.code());
+            if (used != null && used >= coupon.usageLimitPerUser()) {
+                throw BusinessException.badRequest("Coupon usage limit reached: " + code, "تم استنفاد حد استخدام الكوبون");
+            }
+        }
+        return coupon;
+    }
+
+    /**
+     * مرحلة الشحن: التكلفة الافتراضية وحد الشحن المجاني من إعدادات النظام
+     * Shipping stage: default cost and free-shipping threshold from the system settings
+     */
+    private ShippingRates loadShippingRates() {
+        Map<String, BigDecimal> settings = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT key, value #>> '{}' AS value FROM system_settings " +
+                "WHERE key IN ('default_shipping_cost', 'free_shipping_threshold')",
+                rs -> {
+                    try {
+                        settings.put(rs.getString("key"), new BigDecimal(rs.getString("value")));
+                    } catch (NumberFormatException | NullPointerException e) {
+                        logger.warn("Ignoring non-numeric system setting {}", rs.getString("key"));
+                    }
+                });
+        return new ShippingRates(settings.getOrDefault("default_shipping_cost", BigDecimal.valueOf(5000)),
+                settings.get("free_shipping_threshold"));
+    }
+
+    /**
+     * بناء طلب الإنشاء من الكتالوج - السعر المتوقع يجب أن يطابق الحالي
+     * Build the create request from the catalog - the expected price must match the current one
+     */
+    private CreateOrderRequest buildOrderRequest(CheckoutRequest request, Map<UUID, CatalogProduct> catalog) {
+        List<OrderItemDto> items = new ArrayList<>();
+        List<UUID> priceChanged = new ArrayList<>();
+        for (CheckoutItem checkoutItem : request.getItems()) {
+            CatalogProduct product = catalog.get(checkoutItem.getProductId());
+            if (checkoutItem.getExpectedUnitPrice() != null
+                    && checkoutItem.getExpectedUnitPrice().compareTo(product.price()) != 0) {
+                priceChanged.add(checkoutItem.getProductId());
+            }
+            OrderItemDto item = new OrderItemDto();
+            item.setProductId(checkoutItem.getProductId());
+            item.setProductName(product.name());
+            item.setProductNameAr(product.nameAr());
+            item.setProductSku(product.sku());
+            item.setQuantity(checkoutItem.getQuantity());
+            item.setUnitPrice(product.price());
+            item.setAttributes(checkoutItem.getAttributes());
+            items.add(item);
+        }
+        if (!priceChanged.isEmpty()) {
+            throw BusinessException.conflict("Prices changed for products: " + priceChanged, "تغيرت أسعار بعض المنتجات");
+        }
+
+        CreateOrderRequest orderRequest = new CreateOrderRequest();
+        orderRequest.setUserId(request.getUserId());
+        orderRequest.setCustomerEmail(request.getCustomerEmail());
+        orderRequest.setCustomerPhone(request.getCustomerPhone());
+        orderRequest.setCustomerName(request.getCustomerName());
+        orderRequest.setShippingAddress(request.getShippingAddress());
+        orderRequest.setBillingAddress(request.getBillingAddress());
+        orderRequest.setItems(items);
+        orderRequest.setShippingMethod(request.getShippingMethod());
+        orderRequest.setCouponCode(request.getCouponCode() != null ? request.getCouponCode().trim() : null);
+        orderRequest.setNotes(request.getNotes());
+        return orderRequest;
+    }
+
+    private CreatePaymentRequest paymentRequest(CheckoutRequest request, OrderResponse order) {
+        CreatePaymentRequest payment = new CreatePaymentRequest(order.getId(), request.getPaymentMethod(), order.getTotalAmount());
+        payment.setCurrency(order.getCurrency());
+        payment.setWalletPhone(request.getWalletPhone());
+        return payment;
+    }
+
+    /**
+     * استهلاك الكوبون وتسجيله على الطلب - التحقق من الحد العام يتكرر هنا لأن مرحلة الكوبون لا تقفل الصف
+     * Consume the coupon and record it against the order - the global limit is re-checked here because
+     * the coupon stage does not lock the row
+     */
+    private void useCoupon(Coupon coupon, UUID orderId) {
+        int updated = jdbcTemplate.update(
+                "UPDATE coupons SET used_count = COALESCE(used_count, 0) + 1, updated_at = NOW() " +
+                "WHERE id = ? AND (usage_limit IS NULL OR COALESCE(used_count, 0) < usage_limit)",
+                coupon.id());
+        if (updated == 0) {
+            throw BusinessException.badRequest("Coupon usage limit reached: " + coupon.code(), "تم استنفاد حد استخدام الكوبون");
+        }
+        jdbcTemplate.update("INSERT INTO coupon_redemptions (order_id, coupon_id) VALUES (?, ?)", orderId, coupon.id());
+    }
+
+    /**
+     * تعويض دفع فشل أو رُفض بعد الالتزام: إلغاء الطلب وإفشال نية الدفع إن لم تفشل بعد.
+     * المخزون والكوبون يعيدهما CheckoutCancellationListener في معاملة الإلغاء
+     * Compensate a payment that failed or was declined after commit: cancel the order and fail the
+     * payment intent if it has not failed already. CheckoutCancellationListener gives back the stock
+     * and the coupon in the cancelling transaction
+     *
+     * @param paymentId نية الدفع المراد إفشالها، أو null إذا سجلها المزود FAILED
+     */
+    private void compensate(UUID orderId, UUID paymentId, String reason) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderService.cancelOrder(orderId);
+                if (paymentId != null) {
+                    paymentService.rejectPayment(paymentId, reason);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("Checkout compensation failed for order {}", orderId, e);
+        }
+    }
+
+    /**
+     * نتائج مرحلة القراءات
+     * Results of the reads stage
+     */
+    private record CheckoutReads(Map<UUID, CatalogProduct> catalog, Coupon coupon, ShippingRates shipping) {}
+
+    /**
+     * منتج كما في الكتالوج لحظة الدفع
+     * Product as in the catalog at checkout time
+     */
+    private record CatalogProduct(String name, String nameAr, String sku, BigDecimal price,
+                                  boolean active, boolean requiresShipping) {}
+
+    /**
+     * كوبون صالح
+     * A valid coupon
+     */
+    private record Coupon(UUID id, String code, String type, BigDecimal value, BigDecimal minimumAmount,
+                          BigDecimal maximumDiscount, Integer usageLimitPerUser) {
+
+        BigDecimal discount(BigDecimal subtotal) {
+            if (subtotal.compareTo(minimumAmount) < 0) {
+                throw BusinessException.badRequest("Order does not reach the coupon minimum of " + minimumAmount,
+                        "الطلب أقل من الحد الأدنى للكوبون");
+            }
+            BigDecimal discount = switch (type) {
+                case "percentage" -> subtotal.multiply(value).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+                case "fixed_amount" -> value;
+                default -> BigDecimal.ZERO;
+            };
+            if (maximumDiscount != null) {
+                discount = discount.min(maximumDiscount);
+            }
+            return discount.min(subtotal);
+        }
+
+        boolean freeShipping() {
+            return "free_shipping".equals(type);
+        }
+    }
+
+    /**
+     * أسعار الشحن
+     * Shipping rates
+     */
+    private record ShippingRates(BigDecimal defaultCost, BigDecimal freeThreshold) {
+
+        BigDecimal quote(BigDecimal subtotal, boolean requiresShipping, Coupon coupon) {
+            if (!requiresShipping || (coupon != null && coupon.freeShipping())
+                    || (freeThreshold != null && subtotal.compareTo(freeThreshold) >= 0)) {
+                return BigDecimal.ZERO;
+            }
+            return defaultCost;
+        }
+    }
+}
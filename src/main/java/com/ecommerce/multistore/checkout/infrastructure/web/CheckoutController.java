@@ -0,0 +1,74 @@
+package com.ecommerce.multistore.checkout.infrastructure.web;
+
+import com.ecommerce.multistore.checkout.application.dto.CheckoutRequest;
+import com.ecommerce.multistore.checkout.application.dto.CheckoutResponse;
+import com.ecommerce.multistore.checkout.application.service.CheckoutService;
+import com.ecommerce.multistore.shared.idempotency.IdempotencyStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * وحدة التحكم في إتمام الشراء - REST API
+ * Checkout Controller - REST API for placing orders
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/checkout")
+@CrossOrigin(origins = "*")
+public class CheckoutController {
+
+    private static final String IDEMPOTENCY_SCOPE = "checkout";
+
+    private final CheckoutService checkoutService;
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Constructor لحقن CheckoutService
+     * Constructor for CheckoutService dependency injection
+     *
+     * @param checkoutService خدمة إتمام الشراء
+     * @param idempotencyStore مخزن مفاتيح عدم التكرار
+     */
+    @Autowired
+    public CheckoutController(CheckoutService checkoutService, IdempotencyStore idempotencyStore) {
+        this.checkoutService = checkoutService;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    /**
+     * إتمام الشراء - إنشاء الطلب والدفع في خطوة واحدة
+     * Checkout - create the order and its payment in one step
+     *
+     * تكرار الطلب بنفس ترويسة Idempotency-Key يعيد الاستجابة الأصلية دون طلب أو حجز جديد
+     * Repeating the request with the same Idempotency-Key header returns the original response
+     * without another order or reservation
+     *
+     * @param request بيانات السلة والعميل والدفع
+     * @param idempotencyKey مفتاح عدم التكرار (اختياري)
+     * @param httpRequest طلب HTTP - لتحديد مالك المفتاح
+     * @return ResponseEntity<CheckoutResponse> الطلب والدفع المُنشآن أو رسالة خطأ
+     *
+     * @apiNote POST /api/v1/checkout
+     * @since 1.0
+     */
+    @PostMapping
+    public ResponseEntity<CheckoutResponse> checkout(
+            @Valid @RequestBody CheckoutRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) {
+        try {
+            CheckoutResponse response = idempotencyStore.execute(IDEMPOTENCY_SCOPE, idempotencyKey,
+                    IdempotencyStore.callerOf(httpRequest), request, CheckoutResponse.class,
+                    () -> checkoutService.checkout(request));
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.multistore.inventory.application.dto;
+
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * طلب تحديث مخزون جماعي
+ * Bulk stock update request
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class BulkStockUpdateRequest {
+
+    @NotEmpty(message = "Updates list is required")
+    @Size(max = AppConstants.MAX_BULK_STOCK_UPDATES, message = "Too many updates in one request")
+    private List<StockUpdateRequest> updates;
+
+    @Size(max = 50, message = "Reference type cannot exceed 50 characters")
+    private String referenceType;
+
+    private String notes;
+
+    // Constructors
+    public BulkStockUpdateRequest() {}
+
+    // Getters and Setters
+    public List<StockUpdateRequest> getUpdates() { return updates; }
+    public void setUpdates(List<StockUpdateRequest> updates) { this.updates = updates; }
+
+    public String getReferenceType() { return referenceType; }
+    public void setReferenceType(String referenceType) { this.referenceType = referenceType; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+}
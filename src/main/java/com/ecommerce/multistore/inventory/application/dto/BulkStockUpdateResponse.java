@@ -0,0 +1,43 @@
+package com.ecommerce.multistore.inventory.application.dto;
+
+import java.util.List;
+
+/**
+ * استجابة تحديث المخزون الجماعي
+ * Bulk stock update response
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class BulkStockUpdateResponse {
+
+    private int total;
+    private int applied;
+    private int failed;
+    private List<StockUpdateResult> results;
+
+    // Constructors
+    public BulkStockUpdateResponse() {}
+
+    public BulkStockUpdateResponse(List<StockUpdateResult> results) {
+        this.results = results;
+        this.total = results.size();
+        this.applied = (int) results.stream()
+                .filter(result -> result.getStatus() == StockUpdateResult.Status.APPLIED)
+                .count();
+        this.failed = total - applied;
+    }
+
+    // Getters and Setters
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getApplied() { return applied; }
+    public void setApplied(int applied) { this.applied = applied; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<StockUpdateResult> getResults() { return results; }
+    public void setResults(List<StockUpdateResult> results) { this.results = results; }
+}
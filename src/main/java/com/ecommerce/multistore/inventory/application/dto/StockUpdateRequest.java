@@ -1,5 +1,64 @@
 package com.ecommerce.multistore.inventory.application.dto;
 
+import com.ecommerce.multistore.shared.constants.AppConstants;
+
+import java.util.UUID;
+
+/**
+ * طلب تحديث مخزون لمنتج واحد
+ * Single product stock update
+ *
+ * يُحدد المنتج بـ productId أو sku (أحدهما فقط)، والتغيير بـ delta أو quantity (أحدهما فقط)
+ * The product is identified by productId or sku (exactly one), and the change by
+ * delta or absolute quantity (exactly one)
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
 public class StockUpdateRequest {
-    
+
+    private UUID productId;
+    private String sku;
+
+    /**
+     * مقدار التغيير (موجب للإضافة، سالب للخصم)
+     * Relative change (positive adds, negative subtracts)
+     */
+    private Integer delta;
+
+    /**
+     * الكمية المطلقة الجديدة
+     * Absolute new quantity
+     */
+    private Integer quantity;
+
+    // Constructors
+    public StockUpdateRequest() {}
+
+    // Business Methods
+    public boolean hasValidTarget() {
+        return (productId != null) ^ (sku != null && !sku.isBlank());
+    }
+
+    public boolean hasValidChange() {
+        return (delta != null) ^ (quantity != null)
+                && (quantity == null || (quantity >= 0 && quantity <= AppConstants.MAX_STOCK_QUANTITY));
+    }
+
+    public boolean isAbsolute() {
+        return quantity != null;
+    }
+
+    // Getters and Setters
+    public UUID getProductId() { return productId; }
+    public void setProductId(UUID productId) { this.productId = productId; }
+
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
 }
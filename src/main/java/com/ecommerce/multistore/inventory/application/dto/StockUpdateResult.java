@@ -0,0 +1,53 @@
+package com.ecommerce.multistore.inventory.application.dto;
+
+import java.util.UUID;
+
+/**
+ * نتيجة تحديث مخزون لصف واحد
+ * Per-row stock update result
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class StockUpdateResult {
+
+    private int index;
+    private UUID productId;
+    private Status status;
+    private Integer stockQuantity;
+
+    // Constructors
+    public StockUpdateResult() {}
+
+    public StockUpdateResult(int index, UUID productId, Status status, Integer stockQuantity) {
+        this.index = index;
+        this.productId = productId;
+        this.status = status;
+        this.stockQuantity = stockQuantity;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public UUID getProductId() { return productId; }
+    public void setProductId(UUID productId) { this.productId = productId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+
+    /**
+     * حالة الصف
+     * Row status
+     */
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        EXCEEDS_MAX_STOCK,
+        INVALID
+    }
+}
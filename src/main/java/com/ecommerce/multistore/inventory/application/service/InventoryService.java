@@ -1,5 +1,255 @@
 package com.ecommerce.multistore.inventory.application.service;
 
+import com.ecommerce.multistore.inventory.application.dto.BulkStockUpdateRequest;
+import com.ecommerce.multistore.inventory.application.dto.BulkStockUpdateResponse;
+import com.ecommerce.multistore.inventory.application.dto.StockUpdateRequest;
+import com.ecommerce.multistore.inventory.application.dto.StockUpdateResult;
+import com.ecommerce.multistore.inventory.domain.InventoryMovement;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import com.ecommerce.multistore.shared.outbox.OutboxEventTypes;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * خدمة المخزون
+ * Inventory Service
+ *
+ * التحديث الجماعي يعمل على دفعات: استعلام واحد لتحديد المنتجات وقفلها، تحديث واحد
+ * قائم على المجموعات (UPDATE ... FROM VALUES)، ثم إدراج الحركات عبر JDBC batch.
+ * كل دفعة في معاملة مستقلة حتى لا تُحجز الصفوف طوال الطلب
+ * Bulk updates run in chunks: one query to resolve and lock products, one set-based
+ * UPDATE ... FROM VALUES, then movements through a JDBC batch. Each chunk has its
+ * own transaction so row locks are not held for the whole request
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
 public class InventoryService {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final String DEFAULT_REFERENCE_TYPE = "bulk_stock_update";
+
+    private static final String INSERT_MOVEMENT_SQL =
+            "INSERT INTO inventory_movements (product_id, movement_type, quantity, reference_type, notes, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxPublisher outboxPublisher;
+
+    @Autowired
+    public InventoryService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                            OutboxPublisher outboxPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxPublisher = outboxPublisher;
+    }
+
+    /**
+     * تحديث المخزون لعدد كبير من المنتجات
+     * Apply stock updates for many products
+     *
+     * الصفوف تُطبق بترتيبها، كل صف على الكمية الجارية لمنتجه؛ الصف الذي ينزل بالمخزون تحت الصفر أو
+     * يرفعه فوق MAX_STOCK_QUANTITY يُرفض وحده وتُطبق الصفوف التي بعده
+     * Rows apply in order, each against its product's running quantity; a row that would take
+     * the stock below zero or above MAX_STOCK_QUANTITY is rejected on its own and the rows after
+     * it still apply
+     *
+     * @param request قائمة التحديثات
+     * @return BulkStockUpdateResponse نتيجة لكل صف
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkStockUpdateResponse bulkUpdateStock(BulkStockUpdateRequest request) {
+        List<StockUpdateRequest> updates = request.getUpdates();
+        StockUpdateResult[] results = new StockUpdateResult[updates.size()];
+
+        for (int from = 0; from < updates.size(); from += AppConstants.BULK_STOCK_CHUNK_SIZE) {
+            int offset = from;
+            List<StockUpdateRequest> chunk = updates.subList(from, Math.min(from + AppConstants.BULK_STOCK_CHUNK_SIZE, updates.size()));
+            transactionTemplate.executeWithoutResult(status -> applyChunk(chunk, offset, request, results));
+        }
+
+        BulkStockUpdateResponse response = new BulkStockUpdateResponse(Arrays.asList(results));
+        logger.info("Bulk stock update: {} rows, {} applied, {} failed",
+                response.getTotal(), response.getApplied(), response.getFailed());
+        return response;
+    }
+
+    private void applyChunk(List<StockUpdateRequest> chunk, int offset,
+                            BulkStockUpdateRequest request, StockUpdateResult[] results) {
+        // 1. تحديد المنتجات وقفلها مع كمياتها باستعلام واحد
+        List<UUID> ids = new ArrayList<>();
+        List<String> skus = new ArrayList<>();
+        for (StockUpdateRequest row : chunk) {
+            if (!row.hasValidTarget()) {
+                continue;
+            }
+            if (row.getProductId() != null) {
+                ids.add(row.getProductId());
+            } else {
+                skus.add(row.getSku());
+            }
+        }
+        Map<UUID, Integer> stock = new HashMap<>();
+        Map<String, UUID> idsBySku = new HashMap<>();
+        lockProducts(ids, skus, stock, idsBySku);
+
+        // 2. كل صف على الكمية الجارية لمنتجه
+        Map<UUID, Integer> running = new HashMap<>(stock);
+        for (int i = 0; i < chunk.size(); i++) {
+            StockUpdateRequest row = chunk.get(i);
+            int index = offset + i;
+            UUID productId = row.getProductId() != null
+                    ? (stock.containsKey(row.getProductId()) ? row.getProductId() : null)
+                    : idsBySku.get(row.getSku());
+            if (!row.hasValidTarget() || !row.hasValidChange()) {
+                results[index] = new StockUpdateResult(index, productId != null ? productId : row.getProductId(),
+                        StockUpdateResult.Status.INVALID, null);
+                continue;
+            }
+            if (productId == null) {
+                results[index] = new StockUpdateResult(index, row.getProductId(), StockUpdateResult.Status.NOT_FOUND, null);
+                continue;
+            }
+            int current = running.get(productId);
+            long next = row.isAbsolute() ? row.getQuantity() : (long) current + row.getDelta();
+            if (next < 0) {
+                results[index] = new StockUpdateResult(index, productId, StockUpdateResult.Status.INSUFFICIENT_STOCK, current);
+            } else if (next > AppConstants.MAX_STOCK_QUANTITY) {
+                results[index] = new StockUpdateResult(index, productId, StockUpdateResult.Status.EXCEEDS_MAX_STOCK, current);
+            } else {
+                running.put(productId, (int) next);
+                results[index] = new StockUpdateResult(index, productId, StockUpdateResult.Status.APPLIED, (int) next);
+            }
+        }
+
+        // 3. تحديث واحد قائم على المجموعات للمنتجات التي تغيرت كميتها
+        Map<UUID, int[]> applied = new TreeMap<>();
+        running.forEach((productId, quantity) -> {
+            if (!quantity.equals(stock.get(productId))) {
+                applied.put(productId, new int[] { stock.get(productId), quantity });
+            }
+        });
+        if (!applied.isEmpty()) {
+            applyQuantities(applied);
+        }
+
+        // 4. حركات المخزون على دفعة واحدة
+        insertMovements(applied, request);
+
+        // 5. أحداث تغيير المخزون في نفس المعاملة
+        publishStockChanges(applied);
+    }
+
+    /**
+     * تحديد المنتجات بالمعرف أو SKU وقفل صفوفها بترتيب المعرف لتفادي الجمود بين الدفعات المتزامنة
+     * Resolve products by id or SKU and lock their rows in id order, avoiding deadlocks between
+     * concurrent chunks
+     */
+    private void lockProducts(List<UUID> ids, List<String> skus, Map<UUID, Integer> stock, Map<String, UUID> idsBySku) {
+        if (ids.isEmpty() && skus.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query("SELECT id, sku, stock_quantity FROM products WHERE id = ANY(?) OR sku = ANY(?) " +
+                           "ORDER BY id FOR UPDATE",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+                    ps.setArray(2, ps.getConnection().createArrayOf("text", skus.toArray()));
+                },
+                rs -> {
+                    UUID id = rs.getObject("id", UUID.class);
+                    stock.put(id, rs.getInt("stock_quantity"));
+                    idsBySku.put(rs.getString("sku"), id);
+                });
+    }
+
+    /**
+     * @param applied معرف المنتج -> {الكمية السابقة، الكمية الجديدة}، والصفوف مقفلة مسبقاً
+     */
+    private void applyQuantities(Map<UUID, int[]> applied) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < applied.size(); i++) {
+            values.append(i == 0 ? "" : ", ").append("(?::uuid, ?::int)");
+        }
+        String sql =
+                "UPDATE products p " +
+                "SET stock_quantity = v.quantity, version = p.version + 1, updated_at = NOW() " +
+                "FROM (VALUES " + values + ") AS v (product_id, quantity) " +
+                "WHERE p.id = v.product_id";
+
+        jdbcTemplate.update(sql, ps -> {
+            int index = 1;
+            for (Map.Entry<UUID, int[]> entry : applied.entrySet()) {
+                ps.setObject(index++, entry.getKey());
+                ps.setInt(index++, entry.getValue()[1]);
+            }
+        });
+    }
+
+    private void insertMovements(Map<UUID, int[]> applied, BulkStockUpdateRequest request) {
+        List<Map.Entry<UUID, int[]>> moved = new ArrayList<>(applied.entrySet());
+        if (moved.isEmpty()) {
+            return;
+        }
+
+        String referenceType = request.getReferenceType() != null ? request.getReferenceType() : DEFAULT_REFERENCE_TYPE;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<UUID, int[]> entry = moved.get(i);
+                int change = entry.getValue()[1] - entry.getValue()[0];
+                ps.setObject(1, entry.getKey());
+                ps.setString(2, (change > 0 ? InventoryMovement.MovementType.IN : InventoryMovement.MovementType.OUT).name());
+                ps.setInt(3, Math.abs(change));
+                ps.setString(4, referenceType);
+                ps.setString(5, request.getNotes());
+                ps.setTimestamp(6, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return moved.size();
+            }
+        });
+    }
+
+    private void publishStockChanges(Map<UUID, int[]> applied) {
+        Map<UUID, Map<String, Object>> payloads = new LinkedHashMap<>();
+        applied.forEach((productId, quantities) -> {
+            if (quantities[0] != quantities[1]) {
+                Map<String, Object> payload = new LinkedHashMap<>();
+                payload.put("productId", productId);
+                payload.put("from", quantities[0]);
+                payload.put("to", quantities[1]);
+                payloads.put(productId, payload);
+            }
+        });
+        outboxPublisher.publishAll(OutboxEventTypes.PRODUCT, OutboxEventTypes.PRODUCT_STOCK_CHANGED, payloads);
+    }
 }
@@ -0,0 +1,256 @@
+package com.ecommerce.multistore.inventory.application.service;
+
+import com.ecommerce.multistore.inventory.domain.InventoryMovement;
+import com.ecommerce.multistore.shared.exception.BusinessException;
+import com.ecommerce.multistore.shared.outbox.OutboxEventTypes;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * خدمة حجز المخزون أثناء إتمام الشراء
+ * Checkout stock reservation service
+ *
+ * الحجز يُنقص المخزون ويكتب حركة RESERVED بمرجع الدفع في معاملته القصيرة، قبل إنشاء الطلب.
+ * معاملة الطلب تنقل الحجز إلى الطلب، وعند الفشل يُحرَّر بحركة RELEASED. الحجوزات التي لم
+ * تُنقل خلال المهلة (توقف العقدة مثلاً) يحررها المُجدول، وإلغاء الطلب يحرر حجزه في معاملة الإلغاء
+ * A reservation decrements stock and writes a RESERVED movement referencing the checkout in its own
+ * short transaction, before the order exists. The order transaction moves the reservation to the
+ * order, and on failure it is released with a RELEASED movement. Reservations not moved within the
+ * timeout (a crashed node, say) are released by the scheduled sweep. Cancelling an order releases
+ * its reservation in the cancelling transaction
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    public static final String CHECKOUT_REFERENCE = "checkout";
+    public static final String ORDER_REFERENCE = "order";
+    private static final String RELEASED_REFERENCE = "checkout_released";
+
+    // "checkout" كمفتاح للقفل الاستشاري
+    private static final long SWEEP_LOCK_KEY = 0x636865636b6f7574L;
+
+    // يعيد الكمية لكل منتج محجوز ويعلّم الحجز كمحرر حتى لا يُحرر مرتين
+    private static final String RELEASE_SQL =
+            "WITH claimed AS ( " +
+            "    UPDATE inventory_movements SET reference_type = '" + RELEASED_REFERENCE + "' " +
+            "    WHERE movement_type = '" + InventoryMovement.MovementType.RESERVED.name() + "' AND %s " +
+            "    RETURNING product_id, quantity, reference_id " +
+            "), agg AS ( " +
+            "    SELECT product_id, SUM(quantity) AS quantity FROM claimed GROUP BY product_id " +
+            "), old AS ( " +
+            "    SELECT p.id, p.stock_quantity FROM products p JOIN agg ON agg.product_id = p.id " +
+            "    ORDER BY p.id FOR UPDATE OF p " +
+            "), upd AS ( " +
+            "    UPDATE products p " +
+            "    SET stock_quantity = old.stock_quantity + agg.quantity, version = p.version + 1, updated_at = NOW() " +
+            "    FROM old JOIN agg ON agg.product_id = old.id " +
+            "    WHERE p.id = old.id " +
+            "    RETURNING p.id, old.stock_quantity AS old_quantity, p.stock_quantity AS new_quantity " +
+            "), moved AS ( " +
+            "    INSERT INTO inventory_movements (product_id, movement_type, quantity, reference_type, reference_id, notes, created_at) " +
+            "    SELECT product_id, '" + InventoryMovement.MovementType.RELEASED.name() + "', quantity, '" + RELEASED_REFERENCE + "', reference_id, ?, NOW() FROM claimed " +
+            ") " +
+            "SELECT id, old_quantity, new_quantity FROM upd";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxPublisher outboxPublisher;
+
+    @Value("${app.checkout.reservation-ttl-seconds:900}")
+    private int reservationTtlSeconds;
+
+    @Autowired
+    public StockReservationService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   OutboxPublisher outboxPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxPublisher = outboxPublisher;
+    }
+
+    /**
+     * حجز الكميات لعملية دفع - الكل أو لا شيء
+     * Reserve quantities for a checkout - all or nothing
+     *
+     * المنتجات التي لا يُتتبع مخزونها لا تُحجز، والمنتجات غير الموجودة تُترك لتحقق الكتالوج
+     * Products without inventory tracking are not reserved, and unknown products are left to the catalog check
+     *
+     * @param checkoutId مرجع عملية الدفع
+     * @param quantities الكمية لكل منتج
+     * @return عدد المنتجات المحجوزة
+     * @throws BusinessException 409 إذا لم يكفِ مخزون أحد المنتجات
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int reserve(UUID checkoutId, Map<UUID, Integer> quantities) {
+        StringBuilder values = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            values.append(values.length() == 0 ? "" : ", ").append("(?::uuid, ?::int)");
+            args.add(productId);
+            args.add(quantity);
+        });
+        args.add(checkoutId);
+
+        // old يقفل الصفوف بترتيب ثابت حتى لا تتعارض عمليتا دفع على نفس المنتجات
+        String sql =
+                "WITH v (product_id, quantity) AS (VALUES " + values + "), " +
+                "old AS ( " +
+                "    SELECT p.id, COALESCE(p.stock_quantity, 0) AS stock_quantity, COALESCE(p.track_inventory, TRUE) AS tracked " +
+                "    FROM products p JOIN v ON v.product_id = p.id ORDER BY p.id FOR UPDATE OF p " +
+                "), upd AS ( " +
+                "    UPDATE products p " +
+                "    SET stock_quantity = old.stock_quantity - v.quantity, version = p.version + 1, updated_at = NOW() " +
+                "    FROM old JOIN v ON v.product_id = old.id " +
+                "    WHERE p.id = old.id AND old.tracked AND old.stock_quantity >= v.quantity " +
+                "    RETURNING p.id, v.quantity, old.stock_quantity AS old_quantity, p.stock_quantity AS new_quantity " +
+                "), moved AS ( " +
+                "    INSERT INTO inventory_movements (product_id, movement_type, quantity, reference_type, reference_id, created_at) " +
+                "    SELECT id, '" + InventoryMovement.MovementType.RESERVED.name() + "', quantity, '" + CHECKOUT_REFERENCE + "', ?, NOW() FROM upd " +
+                ") " +
+                "SELECT old.id, old.tracked, old.stock_quantity, v.quantity, upd.old_quantity, upd.new_quantity " +
+                "FROM old JOIN v ON v.product_id = old.id LEFT JOIN upd ON upd.id = old.id";
+
+        Integer reserved = transactionTemplate.execute(status -> {
+            Map<UUID, int[]> applied = new LinkedHashMap<>();
+            List<UUID> shortages = new ArrayList<>();
+            jdbcTemplate.query(sql, rs -> {
+                UUID productId = rs.getObject("id", UUID.class);
+                if (rs.getObject("new_quantity") != null) {
+                    applied.put(productId, new int[] { rs.getInt("old_quantity"), rs.getInt("new_quantity") });
+                } else if (rs.getBoolean("tracked")) {
+                    shortages.add(productId);
+                }
+            }, args.toArray());
+            if (!shortages.isEmpty()) {
+                // الاستثناء يتراجع عن الحجز الجزئي كاملاً
+                throw BusinessException.conflict("Insufficient stock for products: " + shortages,
+                        "الكمية المتوفرة غير كافية لبعض المنتجات");
+            }
+            publishStockChanges(applied);
+            return applied.size();
+        });
+        return reserved != null ? reserved : 0;
+    }
+
+    /**
+     * نقل حجز عملية الدفع إلى الطلب في معاملة الطلب
+     * Move a checkout's reservation to its order inside the order transaction
+     *
+     * @throws BusinessException 409 إذا حُرر الحجز قبل إنشاء الطلب
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void claim(UUID checkoutId, UUID orderId, int expected) {
+        int claimed = jdbcTemplate.update(
+                "UPDATE inventory_movements SET reference_type = ?, reference_id = ? " +
+                "WHERE movement_type = ? AND reference_type = ? AND reference_id = ?",
+                ORDER_REFERENCE, orderId, InventoryMovement.MovementType.RESERVED.name(), CHECKOUT_REFERENCE, checkoutId);
+        if (claimed != expected) {
+            throw BusinessException.conflict("Stock reservation expired, please retry checkout",
+                    "انتهت مهلة حجز المخزون، يرجى إعادة المحاولة");
+        }
+    }
+
+    /**
+     * تحرير حجز عملية دفع أو طلب - تعويض الفشل
+     * Release a checkout's or an order's reservation - failure compensation
+     *
+     * @param referenceType CHECKOUT_REFERENCE أو ORDER_REFERENCE
+     * @param referenceId معرف عملية الدفع أو الطلب
+     * @return عدد المنتجات المحررة
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int release(String referenceType, UUID referenceId) {
+        Integer released = transactionTemplate.execute(status ->
+                releaseWhere("reference_type = ? AND reference_id = ?", "Checkout compensation", referenceType, referenceId));
+        return released != null ? released : 0;
+    }
+
+    /**
+     * تحرير حجوزات طلبات أُلغيت في معاملة الإلغاء
+     * Release the reservations of cancelled orders inside the cancelling transaction
+     *
+     * الحجز المحرر يُعلَّم فلا يعيد إلغاء مكرر الكمية مرتين
+     * A released reservation is marked, so a repeated cancel does not return the quantity twice
+     *
+     * @param orderIds معرفات الطلبات الملغاة
+     * @return عدد المنتجات المحررة
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int releaseOrders(Collection<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(orderIds.size(), "?"));
+        Object[] args = new Object[orderIds.size() + 1];
+        args[0] = ORDER_REFERENCE;
+        System.arraycopy(orderIds.toArray(), 0, args, 1, orderIds.size());
+        return releaseWhere("reference_type = ? AND reference_id IN (" + placeholders + ")", "Order cancelled", args);
+    }
+
+    /**
+     * تحرير حجوزات الدفع المنتهية - عقدة واحدة في كل مرة
+     * Release expired checkout reservations - one node at a time
+     */
+    @Scheduled(fixedDelayString = "${app.checkout.reservation-sweep-ms:60000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void releaseExpired() {
+        Integer released = transactionTemplate.execute(status -> {
+            Boolean leader = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, SWEEP_LOCK_KEY);
+            if (!Boolean.TRUE.equals(leader)) {
+                return 0;
+            }
+            return releaseWhere("reference_type = ? AND created_at < NOW() - make_interval(secs => ?)",
+                    "Expired checkout reservation", CHECKOUT_REFERENCE, reservationTtlSeconds);
+        });
+        if (released != null && released > 0) {
+            logger.info("Released expired checkout reservations on {} products", released);
+        }
+    }
+
+    private int releaseWhere(String condition, String notes, Object... conditionArgs) {
+        Object[] args = new Object[conditionArgs.length + 1];
+        System.arraycopy(conditionArgs, 0, args, 0, conditionArgs.length);
+        args[conditionArgs.length] = notes;
+
+        Map<UUID, int[]> applied = new LinkedHashMap<>();
+        jdbcTemplate.query(String.format(RELEASE_SQL, condition), rs -> {
+            applied.put(rs.getObject("id", UUID.class), new int[] { rs.getInt("old_quantity"), rs.getInt("new_quantity") });
+        }, args);
+        publishStockChanges(applied);
+        return applied.size();
+    }
+
+    private void publishStockChanges(Map<UUID, int[]> applied) {
+        Map<UUID, Map<String, Object>> payloads = new LinkedHashMap<>();
+        applied.forEach((productId, quantities) -> {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("productId", productId);
+            payload.put("from", quantities[0]);
+            payload.put("to", quantities[1]);
+            payloads.put(productId, payload);
+        });
+        outboxPublisher.publishAll(OutboxEventTypes.PRODUCT, OutboxEventTypes.PRODUCT_STOCK_CHANGED, payloads);
+    }
+}
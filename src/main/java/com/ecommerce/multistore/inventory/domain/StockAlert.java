@@ -0,0 +1,69 @@
+package com.ecommerce.multistore.inventory.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * كيان تنبيه المخزون
+ * Stock Alert Entity
+ *
+ * يُدار بواسطة trigger على جدول المنتجات (trg_track_stock_threshold) ويُقرأ فقط من التطبيق،
+ * لذلك تلتقط المجموعة كل مسارات تعديل المخزون بما فيها التحديثات الجماعية عبر JDBC
+ * Maintained by a trigger on products (trg_track_stock_threshold) and read-only here,
+ * so every stock write path - including bulk JDBC updates - keeps the set current
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Entity
+@Immutable
+@Table(name = "stock_alerts")
+public class StockAlert {
+
+    @Id
+    @Column(name = "product_id")
+    private UUID productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "level", nullable = false)
+    private Level level;
+
+    @Column(name = "stock_quantity", nullable = false)
+    private Integer stockQuantity;
+
+    @Column(name = "min_stock_level", nullable = false)
+    private Integer minStockLevel;
+
+    @Column(name = "since", nullable = false)
+    private LocalDateTime since;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public StockAlert() {}
+
+    // Getters
+    public UUID getProductId() { return productId; }
+
+    public Level getLevel() { return level; }
+
+    public Integer getStockQuantity() { return stockQuantity; }
+
+    public Integer getMinStockLevel() { return minStockLevel; }
+
+    public LocalDateTime getSince() { return since; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    /**
+     * مستوى التنبيه
+     * Alert level
+     */
+    public enum Level {
+        LOW,    // stock_quantity <= min_stock_level
+        OUT     // stock_quantity <= 0
+    }
+}
@@ -1,5 +1,26 @@
 package com.ecommerce.multistore.inventory.infrastructure;
 
-public class InventoryMovementRepository {
-    
+import com.ecommerce.multistore.inventory.domain.InventoryMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * مستودع حركات المخزون
+ * Inventory Movement Repository
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Repository
+public interface InventoryMovementRepository extends JpaRepository<InventoryMovement, UUID> {
+
+    /**
+     * حركات منتج مرتبة من الأحدث
+     * Product movements, newest first
+     */
+    Page<InventoryMovement> findByProductIdOrderByCreatedAtDesc(UUID productId, Pageable pageable);
 }
@@ -1,5 +1,42 @@
 package com.ecommerce.multistore.inventory.infrastructure.web;
 
+import com.ecommerce.multistore.inventory.application.dto.BulkStockUpdateRequest;
+import com.ecommerce.multistore.inventory.application.dto.BulkStockUpdateResponse;
+import com.ecommerce.multistore.inventory.application.service.InventoryService;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import com.ecommerce.multistore.shared.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(AppConstants.API_BASE_PATH + "/inventory")
+@Tag(name = "Inventory", description = "إدارة المخزون - Inventory Management")
 public class InventoryController {
-    
+
+    private final InventoryService inventoryService;
+
+    @Autowired
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @PostMapping("/stock/bulk")
+    @Operation(summary = "تحديث المخزون بالجملة", description = "Bulk stock update by product ID or SKU")
+    public ResponseEntity<ApiResponse<BulkStockUpdateResponse>> bulkUpdateStock(
+            @Valid @RequestBody BulkStockUpdateRequest request) {
+
+        BulkStockUpdateResponse result = inventoryService.bulkUpdateStock(request);
+
+        ApiResponse<BulkStockUpdateResponse> response = ApiResponse.<BulkStockUpdateResponse>success(
+            result,
+            "Bulk stock update processed"
+        );
+        response.setMessageAr("تمت معالجة تحديث المخزون بالجملة");
+
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,36 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.UUID;
+
+/**
+ * عنصر في طلب انتقال جماعي
+ * One item of a bulk order transition request
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class BulkOrderItem {
+
+    @NotNull(message = "Order ID is required")
+    private UUID orderId;
+
+    /**
+     * رقم التتبع - مطلوب عند الشحن ويُتجاهل في غيره
+     * Tracking number - required when shipping, ignored otherwise
+     */
+    @Size(max = 255, message = "Tracking number cannot exceed 255 characters")
+    private String trackingNumber;
+
+    // Constructors
+    public BulkOrderItem() {}
+
+    // Getters and Setters
+    public UUID getOrderId() { return orderId; }
+    public void setOrderId(UUID orderId) { this.orderId = orderId; }
+
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+}
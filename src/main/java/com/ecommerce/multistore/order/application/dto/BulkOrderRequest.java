@@ -0,0 +1,29 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * طلب شحن أو تسليم أو إلغاء جماعي
+ * Bulk ship, deliver or cancel request
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class BulkOrderRequest {
+
+    @NotEmpty(message = "Items list is required")
+    @Size(max = AppConstants.MAX_BULK_ORDERS, message = "Too many orders in one request")
+    private List<@Valid BulkOrderItem> items;
+
+    // Constructors
+    public BulkOrderRequest() {}
+
+    // Getters and Setters
+    public List<BulkOrderItem> getItems() { return items; }
+    public void setItems(List<BulkOrderItem> items) { this.items = items; }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import java.util.List;
+
+/**
+ * تقرير الانتقال الجماعي
+ * Bulk transition report
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class BulkOrderResponse {
+
+    private int total;
+    private int applied;
+    private int failed;
+    private List<BulkOrderResult> results;
+
+    // Constructors
+    public BulkOrderResponse() {}
+
+    public BulkOrderResponse(List<BulkOrderResult> results) {
+        this.results = results;
+        this.total = results.size();
+        this.applied = (int) results.stream()
+                .filter(result -> result.getStatus() == BulkOrderResult.Status.APPLIED)
+                .count();
+        this.failed = total - applied;
+    }
+
+    // Getters and Setters
+    public int getTotal() { return total; }
+    public void setTotal(int total) { this.total = total; }
+
+    public int getApplied() { return applied; }
+    public void setApplied(int applied) { this.applied = applied; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<BulkOrderResult> getResults() { return results; }
+    public void setResults(List<BulkOrderResult> results) { this.results = results; }
+}
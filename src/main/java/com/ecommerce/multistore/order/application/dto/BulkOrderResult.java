@@ -0,0 +1,60 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import com.ecommerce.multistore.order.domain.OrderStatus;
+
+import java.util.UUID;
+
+/**
+ * نتيجة عنصر في انتقال جماعي
+ * Per-item result of a bulk transition
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class BulkOrderResult {
+
+    private int index;
+    private UUID orderId;
+    private Status status;
+    private OrderStatus orderStatus;
+    private String message;
+
+    // Constructors
+    public BulkOrderResult() {}
+
+    public BulkOrderResult(int index, UUID orderId, Status status, OrderStatus orderStatus, String message) {
+        this.index = index;
+        this.orderId = orderId;
+        this.status = status;
+        this.orderStatus = orderStatus;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public UUID getOrderId() { return orderId; }
+    public void setOrderId(UUID orderId) { this.orderId = orderId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public OrderStatus getOrderStatus() { return orderStatus; }
+    public void setOrderStatus(OrderStatus orderStatus) { this.orderStatus = orderStatus; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    /**
+     * حالة العنصر
+     * Item status
+     */
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        INVALID_STATE,  // حالة الطلب أو الدفع لا تسمح بالانتقال
+        DUPLICATE,      // نفس الطلب مكرر في الطلب - يُطبق أول ظهور فقط
+        INVALID
+    }
+}
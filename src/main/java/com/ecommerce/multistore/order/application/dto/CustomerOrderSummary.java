@@ -0,0 +1,71 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * ملخص طلب في قائمة "طلباتي"
+ * Order summary for the "My Orders" list
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class CustomerOrderSummary {
+
+    private UUID orderId;
+    private String orderNumber;
+    private String displayId;
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private BigDecimal totalAmount;
+    private String currency;
+    private int itemCount;
+    private String firstItemName;
+    private String firstItemNameAr;
+    private String firstItemThumbnail;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public CustomerOrderSummary() {}
+
+    // Getters and Setters
+    public UUID getOrderId() { return orderId; }
+    public void setOrderId(UUID orderId) { this.orderId = orderId; }
+
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public String getDisplayId() { return displayId; }
+    public void setDisplayId(String displayId) { this.displayId = displayId; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+
+    public String getFirstItemName() { return firstItemName; }
+    public void setFirstItemName(String firstItemName) { this.firstItemName = firstItemName; }
+
+    public String getFirstItemNameAr() { return firstItemNameAr; }
+    public void setFirstItemNameAr(String firstItemNameAr) { this.firstItemNameAr = firstItemNameAr; }
+
+    public String getFirstItemThumbnail() { return firstItemThumbnail; }
+    public void setFirstItemThumbnail(String firstItemThumbnail) { this.firstItemThumbnail = firstItemThumbnail; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
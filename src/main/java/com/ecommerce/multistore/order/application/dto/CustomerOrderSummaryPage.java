@@ -0,0 +1,36 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import java.util.List;
+
+/**
+ * صفحة من قائمة "طلباتي"
+ * A page of the "My Orders" list
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class CustomerOrderSummaryPage {
+
+    private List<CustomerOrderSummary> summaries;
+
+    /**
+     * مؤشر الصفحة التالية، أو null إذا كانت هذه الأخيرة
+     * Next-page cursor, or null when this is the last page
+     */
+    private String nextCursor;
+
+    // Constructors
+    public CustomerOrderSummaryPage() {}
+
+    public CustomerOrderSummaryPage(List<CustomerOrderSummary> summaries, String nextCursor) {
+        this.summaries = summaries;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<CustomerOrderSummary> getSummaries() { return summaries; }
+    public void setSummaries(List<CustomerOrderSummary> summaries) { this.summaries = summaries; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
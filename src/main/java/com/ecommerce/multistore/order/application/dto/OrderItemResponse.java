@@ -1,5 +1,9 @@
 package com.ecommerce.multistore.order.application.dto;
 
+import com.ecommerce.multistore.shared.utils.RawJsonDeserializer;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -19,6 +23,8 @@ public class OrderItemResponse {
     private Integer quantity;
     private BigDecimal unitPrice;
     private BigDecimal totalPrice;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String attributes;
     private LocalDateTime createdAt;
     
@@ -2,6 +2,9 @@ package com.ecommerce.multistore.order.application.dto;
 
 import com.ecommerce.multistore.order.domain.OrderStatus;
 import com.ecommerce.multistore.order.domain.PaymentStatus;
+import com.ecommerce.multistore.shared.utils.RawJsonDeserializer;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -10,6 +13,10 @@ import java.util.UUID;
 /**
  * استجابة الطلب
  * Order response DTO
+ *
+ * العناوين نص JSON كما خُزن في jsonb وتُكتب ككائنات مضمنة دون تحليل وإعادة تسلسل
+ * Addresses are the JSON text as stored in jsonb and are written as embedded objects
+ * without a parse and re-serialize round trip
  */
 public class OrderResponse {
     
@@ -22,7 +29,11 @@ public class OrderResponse {
     private String customerEmail;
     private String customerPhone;
     private String customerName;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String shippingAddress;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String billingAddress;
     private BigDecimal subtotal;
     private BigDecimal taxAmount;
@@ -0,0 +1,108 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import com.ecommerce.multistore.order.domain.OrderScope;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * معايير بحث الطلبات في لوحة الإدارة
+ * Admin order search criteria
+ *
+ * كل المعايير اختيارية وتُجمع بـ AND. الحقول النصية بحث جزئي لا يقل عن
+ * AppConstants.ORDER_SEARCH_MIN_TERM_LENGTH أحرف، والصفحة التالية تُطلب بالمؤشر العائد
+ * All criteria are optional and combined with AND. Text fields are partial matches of at least
+ * AppConstants.ORDER_SEARCH_MIN_TERM_LENGTH characters, and the next page is requested with the returned cursor
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderSearchRequest {
+
+    private String orderNumber;
+
+    /**
+     * اسم العميل أو هاتفه أو بريده
+     * Customer name, phone or email
+     */
+    private String customer;
+
+    private String sku;
+    private String trackingNumber;
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+
+    @DecimalMin(value = "0.0", message = "Minimum amount cannot be negative")
+    private BigDecimal minAmount;
+
+    @DecimalMin(value = "0.0", message = "Maximum amount cannot be negative")
+    private BigDecimal maxAmount;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdTo;
+
+    private OrderScope scope = OrderScope.HOT;
+
+    /**
+     * مؤشر الصفحة التالية من الاستجابة السابقة
+     * Next-page cursor from the previous response
+     */
+    private String cursor;
+
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = AppConstants.MAX_PAGE_SIZE, message = "Page size cannot exceed " + AppConstants.MAX_PAGE_SIZE)
+    private int size = AppConstants.DEFAULT_PAGE_SIZE;
+
+    // Constructors
+    public OrderSearchRequest() {}
+
+    // Getters and Setters
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public String getCustomer() { return customer; }
+    public void setCustomer(String customer) { this.customer = customer; }
+
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public BigDecimal getMinAmount() { return minAmount; }
+    public void setMinAmount(BigDecimal minAmount) { this.minAmount = minAmount; }
+
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public void setMaxAmount(BigDecimal maxAmount) { this.maxAmount = maxAmount; }
+
+    public LocalDate getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(LocalDate createdFrom) { this.createdFrom = createdFrom; }
+
+    public LocalDate getCreatedTo() { return createdTo; }
+    public void setCreatedTo(LocalDate createdTo) { this.createdTo = createdTo; }
+
+    public OrderScope getScope() { return scope; }
+    public void setScope(OrderScope scope) { this.scope = scope; }
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
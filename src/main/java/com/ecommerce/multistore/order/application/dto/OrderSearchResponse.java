@@ -0,0 +1,36 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import java.util.List;
+
+/**
+ * صفحة نتائج بحث الطلبات
+ * Order search results page
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderSearchResponse {
+
+    private List<OrderSearchResult> results;
+
+    /**
+     * مؤشر الصفحة التالية، أو null إذا كانت هذه الأخيرة
+     * Next-page cursor, or null when this is the last page
+     */
+    private String nextCursor;
+
+    // Constructors
+    public OrderSearchResponse() {}
+
+    public OrderSearchResponse(List<OrderSearchResult> results, String nextCursor) {
+        this.results = results;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<OrderSearchResult> getResults() { return results; }
+    public void setResults(List<OrderSearchResult> results) { this.results = results; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * صف في نتائج بحث الطلبات - أعمدة الطلب فقط دون العناصر
+ * One row of the order search results - order columns only, without items
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderSearchResult {
+
+    private UUID id;
+    private String displayId;
+    private String orderNumber;
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private BigDecimal totalAmount;
+    private String currency;
+    private String trackingNumber;
+    private boolean archived;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public OrderSearchResult() {}
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public String getDisplayId() { return displayId; }
+    public void setDisplayId(String displayId) { this.displayId = displayId; }
+
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getCustomerEmail() { return customerEmail; }
+    public void setCustomerEmail(String customerEmail) { this.customerEmail = customerEmail; }
+
+    public String getCustomerPhone() { return customerPhone; }
+    public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import com.ecommerce.multistore.order.domain.OrderSlaMetric;
+
+/**
+ * مئينات مؤشر زمن التنفيذ
+ * Percentiles of one SLA metric
+ *
+ * القيم بالثواني بخطأ نسبي لا يتجاوز 2.5%، وتكون null إذا لم توجد طلبات في النطاق
+ * Values are in seconds within 2.5% relative error, and null when no order falls in the range
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderSlaMetricResponse {
+
+    private OrderSlaMetric metric;
+    private long orderCount;
+    private Long p50Seconds;
+    private Long p90Seconds;
+    private Long p99Seconds;
+
+    // Constructors
+    public OrderSlaMetricResponse() {}
+
+    public OrderSlaMetricResponse(OrderSlaMetric metric, long orderCount, Long p50Seconds, Long p90Seconds, Long p99Seconds) {
+        this.metric = metric;
+        this.orderCount = orderCount;
+        this.p50Seconds = p50Seconds;
+        this.p90Seconds = p90Seconds;
+        this.p99Seconds = p99Seconds;
+    }
+
+    // Getters and Setters
+    public OrderSlaMetric getMetric() { return metric; }
+    public void setMetric(OrderSlaMetric metric) { this.metric = metric; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public Long getP50Seconds() { return p50Seconds; }
+    public void setP50Seconds(Long p50Seconds) { this.p50Seconds = p50Seconds; }
+
+    public Long getP90Seconds() { return p90Seconds; }
+    public void setP90Seconds(Long p90Seconds) { this.p90Seconds = p90Seconds; }
+
+    public Long getP99Seconds() { return p99Seconds; }
+    public void setP99Seconds(Long p99Seconds) { this.p99Seconds = p99Seconds; }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.multistore.order.application.dto;
+
+import com.ecommerce.multistore.order.domain.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * سطر في الخط الزمني للطلب
+ * One entry of an order's timeline
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderStatusHistoryEntry {
+
+    private OrderStatus fromStatus;
+    private OrderStatus toStatus;
+    private String trackingNumber;
+    private String source;
+    private LocalDateTime changedAt;
+
+    // Constructors
+    public OrderStatusHistoryEntry() {}
+
+    public OrderStatusHistoryEntry(OrderStatus fromStatus, OrderStatus toStatus, String trackingNumber,
+                                   String source, LocalDateTime changedAt) {
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.trackingNumber = trackingNumber;
+        this.source = source;
+        this.changedAt = changedAt;
+    }
+
+    // Getters and Setters
+    public OrderStatus getFromStatus() { return fromStatus; }
+    public void setFromStatus(OrderStatus fromStatus) { this.fromStatus = fromStatus; }
+
+    public OrderStatus getToStatus() { return toStatus; }
+    public void setToStatus(OrderStatus toStatus) { this.toStatus = toStatus; }
+
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public LocalDateTime getChangedAt() { return changedAt; }
+    public void setChangedAt(LocalDateTime changedAt) { this.changedAt = changedAt; }
+}
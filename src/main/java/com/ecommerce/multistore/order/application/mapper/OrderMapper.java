@@ -0,0 +1,38 @@
+package com.ecommerce.multistore.order.application.mapper;
+
+import com.ecommerce.multistore.order.application.dto.OrderItemResponse;
+import com.ecommerce.multistore.order.application.dto.OrderResponse;
+import com.ecommerce.multistore.order.domain.Order;
+import com.ecommerce.multistore.order.domain.OrderItem;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * محول الطلب إلى استجابة - يولده MapStruct وقت الترجمة
+ * Order to response mapper - generated by MapStruct at compile time
+ *
+ * نسخ مباشر للحقول بلا انعكاس، وأعمدة JSON تُنقل كنص كما هي. أي حقل جديد في الاستجابة
+ * بلا مصدر يوقف الترجمة بدلاً من أن يبقى فارغاً بصمت
+ * Plain field copies without reflection, and JSON columns pass through as text. A new response
+ * field without a source fails the build instead of staying silently empty
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface OrderMapper {
+
+    /**
+     * الطلب مع عناصره المحملة مسبقاً - لا يلمس order.getItems()
+     * The order with its preloaded items - does not touch order.getItems()
+     */
+    @Mapping(target = "items", source = "items")
+    OrderResponse toResponse(Order order, List<OrderItem> items);
+
+    OrderItemResponse toItemResponse(OrderItem item);
+
+    List<OrderItemResponse> toItemResponses(List<OrderItem> items);
+}
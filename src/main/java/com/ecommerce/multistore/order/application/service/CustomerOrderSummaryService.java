@@ -0,0 +1,187 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.application.dto.CustomerOrderSummary;
+import com.ecommerce.multistore.order.application.dto.CustomerOrderSummaryPage;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+import com.ecommerce.multistore.order.domain.event.OrderCreatedEvent;
+import com.ecommerce.multistore.order.domain.event.OrderPaymentStatusChangedEvent;
+import com.ecommerce.multistore.order.domain.event.OrderStatusChangedEvent;
+import com.ecommerce.multistore.order.domain.event.OrderStatusesChangedEvent;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * خدمة ملخصات طلبات العملاء
+ * Customer order summary service
+ *
+ * تحافظ على customer_order_summaries من أحداث الطلب داخل معاملتها: الإنشاء ينسخ الصف مع عدد العناصر
+ * وأول عنصر وصورته، وتغييرات الحالة تحدّث عمود الحالة فقط. قائمة "طلباتي" استعلام فهرسي واحد لكل صفحة،
+ * بالمستخدم أو بالبريد لطلبات الزوار، مع ترقيم بالمفتاح
+ * Maintains customer_order_summaries from order events inside their transaction: creation copies the
+ * row with the item count, first item and its thumbnail, and status changes update only the status
+ * column. The "My Orders" list is one indexed query per page, by user or, for guest orders, by email,
+ * with keyset paging
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class CustomerOrderSummaryService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO customer_order_summaries (order_id, user_id, customer_email, order_number, display_id, status, " +
+            "    payment_status, total_amount, currency, item_count, first_item_name, first_item_name_ar, " +
+            "    first_item_thumbnail, created_at) " +
+            "SELECT o.id, o.user_id, o.customer_email, o.order_number, o.display_id, o.status, o.payment_status, " +
+            "       o.total_amount, o.currency, " +
+            "       (SELECT COALESCE(SUM(i.quantity), 0) FROM order_items i WHERE i.order_id = o.id), " +
+            "       f.product_name, f.product_name_ar, " +
+            "       (SELECT COALESCE(pi.thumbnail_url, pi.image_url) FROM product_images pi WHERE pi.product_id = f.product_id " +
+            "        ORDER BY pi.is_primary DESC, pi.sort_order, pi.created_at LIMIT 1), " +
+            "       COALESCE(o.created_at, NOW()) " +
+            "FROM orders o " +
+            "LEFT JOIN LATERAL (SELECT product_id, product_name, product_name_ar FROM order_items " +
+            "                   WHERE order_id = o.id ORDER BY created_at LIMIT 1) f ON TRUE " +
+            "WHERE o.id = ? " +
+            "ON CONFLICT (order_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CustomerOrderSummaryService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        jdbcTemplate.update(INSERT_SQL, event.getOrderId());
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        jdbcTemplate.update("UPDATE customer_order_summaries SET status = ?, updated_at = NOW() WHERE order_id = ?",
+                event.getStatus().name(), event.getOrderId());
+    }
+
+    /**
+     * انتقال جماعي - تحديث واحد لكل حالة هدف
+     * Bulk transition - one update per target status
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderStatusesChanged(OrderStatusesChangedEvent event) {
+        Map<OrderStatus, List<UUID>> byStatus = event.getChanges().stream()
+                .collect(Collectors.groupingBy(OrderStatusChangedEvent::getStatus,
+                        Collectors.mapping(OrderStatusChangedEvent::getOrderId, Collectors.toList())));
+        byStatus.forEach((status, orderIds) -> jdbcTemplate.update(
+                "UPDATE customer_order_summaries SET status = ?, updated_at = NOW() WHERE order_id = ANY(?)",
+                ps -> {
+                    ps.setString(1, status.name());
+                    ps.setArray(2, ps.getConnection().createArrayOf("uuid", orderIds.toArray()));
+                }));
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderPaymentStatusChanged(OrderPaymentStatusChangedEvent event) {
+        jdbcTemplate.update("UPDATE customer_order_summaries SET payment_status = ?, updated_at = NOW() WHERE order_id = ?",
+                event.getPaymentStatus().name(), event.getOrderId());
+    }
+
+    /**
+     * طلبات المستخدم - الأحدث أولاً
+     * User's orders, newest first
+     *
+     * @param userId معرف المستخدم
+     * @param cursor مؤشر الصفحة التالية من الاستجابة السابقة، أو null للصفحة الأولى
+     * @param size عدد العناصر في الصفحة
+     * @return CustomerOrderSummaryPage ملخصات الطلبات ومؤشر الصفحة التالية
+     * @throws IllegalArgumentException إذا كان المؤشر غير صالح
+     */
+    @Transactional(readOnly = true)
+    public CustomerOrderSummaryPage getUserOrders(UUID userId, String cursor, int size) {
+        return findPage("user_id = ?", userId, cursor, size);
+    }
+
+    /**
+     * طلبات الزائر (بلا حساب) ببريده - الأحدث أولاً
+     * Guest (no account) orders by email, newest first
+     *
+     * @param email بريد العميل - دون تمييز حالة الأحرف
+     * @param cursor مؤشر الصفحة التالية من الاستجابة السابقة، أو null للصفحة الأولى
+     * @param size عدد العناصر في الصفحة
+     * @return CustomerOrderSummaryPage ملخصات الطلبات ومؤشر الصفحة التالية
+     * @throws IllegalArgumentException إذا كان البريد فارغاً أو المؤشر غير صالح
+     */
+    @Transactional(readOnly = true)
+    public CustomerOrderSummaryPage getGuestOrders(String email, String cursor, int size) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email is required");
+        }
+        return findPage("user_id IS NULL AND LOWER(customer_email) = LOWER(?)", email.trim(), cursor, size);
+    }
+
+    /**
+     * صفحة بعد المؤشر - يُقرأ صف إضافي لمعرفة وجود صفحة تالية
+     * Page after the cursor; one extra row tells whether a next page exists
+     */
+    private CustomerOrderSummaryPage findPage(String condition, Object value, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, AppConstants.MAX_PAGE_SIZE));
+        StringBuilder where = new StringBuilder(condition);
+        List<Object> args = new ArrayList<>();
+        args.add(value);
+        if (cursor != null && !cursor.isBlank()) {
+            Object[] key = OrderCursor.decode(cursor);
+            where.append(" AND (created_at, order_id) < (?, ?)");
+            args.add(key[0]);
+            args.add(key[1]);
+        }
+        args.add(limit + 1);
+
+        List<CustomerOrderSummary> summaries = jdbcTemplate.query(
+                "SELECT order_id, order_number, display_id, status, payment_status, total_amount, currency, item_count, " +
+                "       first_item_name, first_item_name_ar, first_item_thumbnail, created_at " +
+                "FROM customer_order_summaries WHERE " + where + " " +
+                "ORDER BY created_at DESC, order_id DESC LIMIT ?",
+                (rs, rowNum) -> {
+                    CustomerOrderSummary summary = new CustomerOrderSummary();
+                    summary.setOrderId(rs.getObject("order_id", UUID.class));
+                    summary.setOrderNumber(rs.getString("order_number"));
+                    summary.setDisplayId(rs.getString("display_id"));
+                    summary.setStatus(OrderStatus.valueOf(rs.getString("status")));
+                    summary.setPaymentStatus(PaymentStatus.valueOf(rs.getString("payment_status")));
+                    summary.setTotalAmount(rs.getBigDecimal("total_amount"));
+                    summary.setCurrency(rs.getString("currency"));
+                    summary.setItemCount(rs.getInt("item_count"));
+                    summary.setFirstItemName(rs.getString("first_item_name"));
+                    summary.setFirstItemNameAr(rs.getString("first_item_name_ar"));
+                    summary.setFirstItemThumbnail(rs.getString("first_item_thumbnail"));
+                    summary.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                    return summary;
+                },
+                args.toArray());
+
+        String nextCursor = null;
+        if (summaries.size() > limit) {
+            summaries = new ArrayList<>(summaries.subList(0, limit));
+            CustomerOrderSummary last = summaries.get(limit - 1);
+            nextCursor = OrderCursor.encode(last.getCreatedAt(), last.getOrderId());
+        }
+        return new CustomerOrderSummaryPage(summaries, nextCursor);
+    }
+}
@@ -0,0 +1,339 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.domain.event.OrderCreatedEvent;
+import com.ecommerce.multistore.order.infrastructure.onex.OnexClient;
+import com.ecommerce.multistore.order.infrastructure.onex.OnexOrderDocument;
+import com.ecommerce.multistore.order.infrastructure.onex.OnexSyncResult;
+import com.ecommerce.multistore.order.infrastructure.onex.OnexUnavailableException;
+import com.ecommerce.multistore.shared.resilience.AdaptiveConcurrencyLimit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * خدمة مزامنة الطلبات مع OneX
+ * OneX order sync service
+ *
+ * إنشاء الطلب يضيف صف pending إلى onex_integration فقط، والإرسال يتم في الخلفية: كل عقدة تسحب
+ * دفعات بـ FOR UPDATE SKIP LOCKED وتعلّمها syncing بمهلة، ثم ترسل كل دفعة في طلب واحد. عدد الدفعات
+ * المتزامنة يحدده حد متكيف يرتفع مع الاستجابات السريعة وينخفض للنصف عند 429 أو المهلة، فيخفف
+ * العامل عن OneX عندما يتباطأ. الفشل المؤقت يُعاد بتأخير أُسّي تحسب محاولاته sync_attempts،
+ * والرفض النهائي أو استنفاد المحاولات ينقل الصف إلى dead حتى يُعاد يدوياً
+ * Creating an order only adds a pending row to onex_integration and the push happens in the
+ * background: each node claims batches with FOR UPDATE SKIP LOCKED, marks them syncing under a lease
+ * and sends each batch as one request. The number of concurrent batches follows an adaptive limit that
+ * grows on fast responses and halves on 429 or timeouts, so the worker backs off when OneX slows down.
+ * Transient failures retry with exponential backoff counted in sync_attempts, and a final rejection
+ * or exhausted attempts move the row to dead until it is requeued by hand
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+public class OnexSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnexSyncService.class);
+
+    private static final String ENTITY_TYPE = "invoice";
+
+    // يزيد sync_attempts عند السحب، فصف يُسقط العامل في كل مرة يصل إلى dead أيضاً
+    private static final String CLAIM_SQL =
+            "WITH due AS ( " +
+            "    SELECT id FROM onex_integration " +
+            "    WHERE sync_status IN ('pending', 'syncing', 'failed') AND next_attempt_at <= NOW() " +
+            "      AND COALESCE(sync_attempts, 0) < ? " +
+            "    ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED " +
+            ") " +
+            "UPDATE onex_integration i " +
+            "SET sync_status = 'syncing', sync_attempts = COALESCE(i.sync_attempts, 0) + 1, last_sync_at = NOW(), " +
+            "    next_attempt_at = NOW() + make_interval(secs => ?) " +
+            "FROM due WHERE i.id = due.id " +
+            "RETURNING i.id, i.order_id";
+
+    // مهلة منتهية بعد آخر محاولة - العقدة توقفت أثناء الإرسال
+    private static final String EXPIRE_SQL =
+            "UPDATE onex_integration SET sync_status = 'dead', sync_error = COALESCE(sync_error, 'Sync lease expired') " +
+            "WHERE sync_status IN ('syncing', 'failed') AND next_attempt_at <= NOW() AND sync_attempts >= ?";
+
+    // تأخير أُسّي مع تذبذب ±20% حتى لا تعود كل الصفوف معاً بعد انقطاع
+    private static final String RETRY_SQL =
+            "UPDATE onex_integration SET sync_error = ?, " +
+            "    sync_status = CASE WHEN sync_attempts >= ? THEN 'dead' ELSE 'failed' END, " +
+            "    next_attempt_at = NOW() + make_interval(secs => LEAST(?, ? * power(2, sync_attempts - 1)) * (0.8 + random() * 0.4)) " +
+            "WHERE id = ? AND sync_status = 'syncing' " +
+            "RETURNING sync_status";
+
+    private static final String ORDERS_SQL =
+            "SELECT id, order_number, customer_name, customer_email, customer_phone, shipping_address::text AS shipping_address, " +
+            "       payment_status, currency, subtotal, tax_amount, shipping_amount, discount_amount, total_amount, created_at " +
+            "FROM orders WHERE id = ANY(?)";
+
+    private static final String ITEMS_SQL =
+            "SELECT order_id, product_id, product_sku, product_name, quantity, unit_price, total_price " +
+            "FROM order_items WHERE order_id = ANY(?) ORDER BY order_id, created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OnexClient onexClient;
+    private final ThreadPoolTaskExecutor executor;
+    private final AdaptiveConcurrencyLimit limit;
+
+    @Value("${app.onex.sync.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.onex.sync.lease-seconds:300}")
+    private int leaseSeconds;
+
+    @Value("${app.onex.sync.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.onex.sync.retry-base-seconds:30}")
+    private int retryBaseSeconds;
+
+    @Value("${app.onex.sync.retry-max-seconds:3600}")
+    private int retryMaxSeconds;
+
+    @Autowired
+    public OnexSyncService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, OnexClient onexClient,
+                           @Qualifier("onexSyncExecutor") ThreadPoolTaskExecutor executor,
+                           @Value("${app.onex.sync.initial-concurrency:2}") int initialConcurrency,
+                           @Value("${app.onex.sync.max-concurrency:8}") int maxConcurrency,
+                           @Value("${app.onex.sync.target-latency-ms:5000}") long targetLatencyMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.onexClient = onexClient;
+        this.executor = executor;
+        this.limit = new AdaptiveConcurrencyLimit(initialConcurrency, 1, maxConcurrency,
+                Duration.ofMillis(targetLatencyMs).toNanos());
+    }
+
+    /**
+     * إضافة الطلب الجديد لطابور المزامنة - لا اتصال بـ OneX هنا
+     * Queue the new order for sync - no call to OneX here
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        jdbcTemplate.update(
+                "INSERT INTO onex_integration (order_id, onex_entity_type, sync_status) VALUES (?, ?, 'pending') " +
+                "ON CONFLICT (order_id, onex_entity_type) DO NOTHING",
+                event.getOrderId(), ENTITY_TYPE);
+    }
+
+    /**
+     * سحب الدفعات المستحقة ما دام الحد المتكيف يسمح
+     * Claim due batches while the adaptive limit allows
+     */
+    @Scheduled(fixedDelayString = "${app.onex.sync.poll-interval-ms:2000}")
+    public void dispatch() {
+        int expired = jdbcTemplate.update(EXPIRE_SQL, maxAttempts);
+        if (expired > 0) {
+            logger.warn("{} OneX sync jobs moved to dead letter after their last attempt expired", expired);
+        }
+
+        while (limit.tryAcquire()) {
+            List<SyncJob> batch;
+            try {
+                batch = claim();
+            } catch (RuntimeException e) {
+                limit.release();
+                throw e;
+            }
+            if (batch.isEmpty()) {
+                limit.release();
+                return;
+            }
+            executor.execute(() -> push(batch));
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * إعادة مزامنة طلب متوقف
+     * Requeue a stopped order sync
+     *
+     * @param orderId معرف الطلب
+     * @throws IllegalArgumentException إذا لم يكن للطلب مزامنة فاشلة أو متوقفة
+     */
+    @Transactional
+    public void requeue(UUID orderId) {
+        int updated = jdbcTemplate.update(
+                "UPDATE onex_integration SET sync_status = 'pending', sync_attempts = 0, sync_error = NULL, " +
+                "next_attempt_at = NOW() WHERE order_id = ? AND onex_entity_type = ? AND sync_status IN ('failed', 'dead')",
+                orderId, ENTITY_TYPE);
+        if (updated == 0) {
+            throw new IllegalArgumentException("No failed OneX sync for order: " + orderId);
+        }
+    }
+
+    private List<SyncJob> claim() {
+        return transactionTemplate.execute(status -> jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new SyncJob(rs.getObject("id", UUID.class), rs.getObject("order_id", UUID.class)),
+                maxAttempts, batchSize, leaseSeconds));
+    }
+
+    private void push(List<SyncJob> batch) {
+        // المكان يُعاد مرة واحدة: بإشارة نتيجة الاستدعاء، أو بالتحرير في finally إن لم يصل إليه
+        boolean slotReturned = false;
+        try {
+            Map<UUID, OnexOrderDocument> documents = loadDocuments(batch);
+            List<OnexSyncResult> results;
+            long started = System.nanoTime();
+            try {
+                results = documents.isEmpty() ? List.of() : onexClient.pushOrders(new ArrayList<>(documents.values()));
+            } catch (OnexUnavailableException e) {
+                slotReturned = true;
+                if (e.isOverloaded()) {
+                    limit.onOverload();
+                } else {
+                    limit.release();
+                }
+                logger.warn("OneX batch of {} orders failed (limit now {}): {}", batch.size(), limit.getLimit(), e.getMessage());
+                retryLater(batch, e.getMessage());
+                return;
+            }
+            slotReturned = true;
+            limit.onSuccess(System.nanoTime() - started);
+            record(batch, documents, results);
+        } catch (RuntimeException e) {
+            // الصفوف تبقى syncing وتُسحب من جديد بعد انتهاء المهلة
+            logger.error("OneX sync batch of {} orders failed, retrying after the lease: {}", batch.size(), e.getMessage());
+        } finally {
+            if (!slotReturned) {
+                limit.release();
+            }
+        }
+    }
+
+    private Map<UUID, OnexOrderDocument> loadDocuments(List<SyncJob> batch) {
+        Object[] orderIds = batch.stream().map(SyncJob::orderId).toArray();
+        Map<UUID, OnexOrderDocument> documents = new LinkedHashMap<>();
+        jdbcTemplate.query(ORDERS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds)), rs -> {
+            OnexOrderDocument document = new OnexOrderDocument();
+            document.setOrderId(rs.getObject("id", UUID.class));
+            document.setOrderNumber(rs.getString("order_number"));
+            document.setCustomerName(rs.getString("customer_name"));
+            document.setCustomerEmail(rs.getString("customer_email"));
+            document.setCustomerPhone(rs.getString("customer_phone"));
+            document.setShippingAddress(rs.getString("shipping_address"));
+            document.setPaymentStatus(rs.getString("payment_status"));
+            document.setCurrency(rs.getString("currency"));
+            document.setSubtotal(rs.getBigDecimal("subtotal"));
+            document.setTaxAmount(rs.getBigDecimal("tax_amount"));
+            document.setShippingAmount(rs.getBigDecimal("shipping_amount"));
+            document.setDiscountAmount(rs.getBigDecimal("discount_amount"));
+            document.setTotalAmount(rs.getBigDecimal("total_amount"));
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            document.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+            documents.put(document.getOrderId(), document);
+        });
+        if (documents.isEmpty()) {
+            return documents;
+        }
+
+        jdbcTemplate.query(ITEMS_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds)), rs -> {
+            OnexOrderDocument.Line line = new OnexOrderDocument.Line();
+            line.setProductId(rs.getObject("product_id", UUID.class));
+            line.setSku(rs.getString("product_sku"));
+            line.setName(rs.getString("product_name"));
+            line.setQuantity(rs.getInt("quantity"));
+            line.setUnitPrice(rs.getBigDecimal("unit_price"));
+            line.setTotalPrice(rs.getBigDecimal("total_price"));
+            documents.get(rs.getObject("order_id", UUID.class)).getLines().add(line);
+        });
+        return documents;
+    }
+
+    /**
+     * حفظ نتائج الدفعة في معاملة واحدة
+     * Store the batch results in one transaction
+     */
+    private void record(List<SyncJob> batch, Map<UUID, OnexOrderDocument> documents, List<OnexSyncResult> results) {
+        Map<UUID, OnexSyncResult> byOrder = new LinkedHashMap<>();
+        results.forEach(result -> byOrder.put(result.getOrderId(), result));
+
+        List<Object[]> completed = new ArrayList<>();
+        List<Object[]> synced = new ArrayList<>();
+        List<Object[]> dead = new ArrayList<>();
+        List<Object[]> retry = new ArrayList<>();
+        for (SyncJob job : batch) {
+            OnexSyncResult result = byOrder.get(job.orderId());
+            if (!documents.containsKey(job.orderId())) {
+                dead.add(new Object[] { "Order not found", job.id() });
+            } else if (result == null) {
+                retry.add(retryArgs("No result returned by OneX", job.id()));
+            } else if (result.getState() == OnexSyncResult.State.ACCEPTED) {
+                String entityId = result.getInvoiceId() != null ? result.getInvoiceId() : result.getQuoteId();
+                completed.add(new Object[] { entityId, result.getRawResponse(), job.id() });
+                synced.add(new Object[] { result.getQuoteId(), result.getInvoiceId(), result.getOnexStatus(), job.orderId() });
+            } else if (result.getState() == OnexSyncResult.State.REJECTED) {
+                dead.add(new Object[] { result.getMessage(), job.id() });
+            } else {
+                retry.add(retryArgs(result.getMessage(), job.id()));
+            }
+        }
+
+        AtomicInteger exhausted = new AtomicInteger();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!completed.isEmpty()) {
+                jdbcTemplate.batchUpdate(
+                        "UPDATE onex_integration SET sync_status = 'completed', onex_entity_id = ?, onex_data = ?::jsonb, " +
+                        "sync_error = NULL WHERE id = ?", completed);
+                // أعمدة OneX في الطلب لا يكتبها JPA، فلا تتعارض مع تعديلات الطلب الجارية
+                jdbcTemplate.batchUpdate(
+                        "UPDATE orders SET onex_quote_id = ?, onex_invoice_id = ?, onex_status = ?, onex_synced_at = NOW() " +
+                        "WHERE id = ?", synced);
+            }
+            if (!dead.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE onex_integration SET sync_status = 'dead', sync_error = ? WHERE id = ?", dead);
+            }
+            for (Object[] args : retry) {
+                jdbcTemplate.query(RETRY_SQL, rs -> {
+                    if ("dead".equals(rs.getString("sync_status"))) {
+                        exhausted.incrementAndGet();
+                    }
+                }, args);
+            }
+        });
+
+        if (!dead.isEmpty() || exhausted.get() > 0) {
+            logger.warn("{} OneX sync jobs moved to dead letter", dead.size() + exhausted.get());
+        }
+        logger.debug("OneX batch: {} completed, {} retrying, {} dead", completed.size(), retry.size(), dead.size());
+    }
+
+    private void retryLater(List<SyncJob> batch, String message) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (SyncJob job : batch) {
+                jdbcTemplate.query(RETRY_SQL, rs -> { }, retryArgs(message, job.id()));
+            }
+        });
+    }
+
+    private Object[] retryArgs(String message, UUID jobId) {
+        return new Object[] { message, maxAttempts, retryMaxSeconds, retryBaseSeconds, jobId };
+    }
+
+    private record SyncJob(UUID id, UUID orderId) {}
+}
@@ -0,0 +1,124 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * خدمة أرشفة الطلبات
+ * Order archival service
+ *
+ * تنقل الطلبات المسلّمة والملغاة الأقدم من المدة المحددة مع عناصرها إلى orders_archive و
+ * order_items_archive على دفعات، كل دفعة في معاملة مستقلة تقفل صفوفها مع تخطي المقفول
+ * Moves delivered and cancelled orders older than the configured age, with their items, into
+ * orders_archive and order_items_archive in batches, each in its own transaction that locks its
+ * rows and skips locked ones
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    // "archive" كمفتاح للقفل الاستشاري
+    private static final long ARCHIVE_LOCK_KEY = 0x61726368697665L;
+
+    private static final String[] ARCHIVABLE_STATUSES = { OrderStatus.DELIVERED.name(), OrderStatus.CANCELLED.name() };
+
+    // أعمدة صريحة بدلاً من SELECT * حتى لا يعتمد النقل على ترتيب الأعمدة الفعلي في الجدولين
+    // Explicit columns instead of SELECT * so the move does not depend on the physical column order of either table
+    private static final String ORDER_COLUMNS =
+            "id, display_id, order_number, user_id, status, payment_status, customer_email, customer_phone, " +
+            "customer_name, shipping_address, billing_address, subtotal, tax_amount, shipping_amount, " +
+            "discount_amount, total_amount, shipping_method, tracking_number, shipped_at, delivered_at, notes, " +
+            "coupon_code, currency, onex_quote_id, onex_invoice_id, onex_status, onex_synced_at, created_at, " +
+            "updated_at, version";
+
+    private static final String ORDER_ITEM_COLUMNS =
+            "id, display_id, order_id, product_id, product_name, product_name_ar, product_sku, quantity, " +
+            "unit_price, total_price, attributes, created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.orders.archive.min-age-days:180}")
+    private int minAgeDays;
+
+    @Value("${app.orders.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public OrderArchiveService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * أرشفة الطلبات المنتهية حتى لا يبقى منها شيء - عقدة واحدة في كل مرة
+     * Archive finished orders until none are left - one node at a time
+     */
+    @Scheduled(cron = "${app.orders.archive.cron:0 15 4 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void archive() {
+        long archived = 0;
+        Integer moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch());
+            archived += moved != null ? moved : 0;
+        } while (moved != null && moved == batchSize);
+
+        if (archived > 0) {
+            logger.info("Archived {} orders older than {} days", archived, minAgeDays);
+        }
+    }
+
+    /**
+     * نقل دفعة واحدة
+     * Move one batch
+     *
+     * @return عدد الطلبات المنقولة، أو 0 إذا كانت عقدة أخرى تؤرشف
+     */
+    private int archiveBatch() {
+        Boolean leader = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ARCHIVE_LOCK_KEY);
+        if (!Boolean.TRUE.equals(leader)) {
+            return 0;
+        }
+
+        List<UUID> ids = jdbcTemplate.query(
+                "SELECT id FROM orders WHERE created_at < NOW() - make_interval(days => ?) AND status = ANY(?) " +
+                "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED",
+                ps -> {
+                    ps.setInt(1, minAgeDays);
+                    ps.setArray(2, ps.getConnection().createArrayOf("text", ARCHIVABLE_STATUSES));
+                    ps.setInt(3, batchSize);
+                },
+                (rs, rowNum) -> rs.getObject("id", UUID.class));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Object[] orderIds = ids.toArray();
+        jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM order_items WHERE order_id = ANY(?) RETURNING " + ORDER_ITEM_COLUMNS + ") " +
+                "INSERT INTO order_items_archive (" + ORDER_ITEM_COLUMNS + ") SELECT " + ORDER_ITEM_COLUMNS + " FROM moved",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds)));
+        return jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM orders WHERE id = ANY(?) RETURNING " + ORDER_COLUMNS + ") " +
+                "INSERT INTO orders_archive (" + ORDER_COLUMNS + ", archived_at) " +
+                "SELECT " + ORDER_COLUMNS + ", NOW() FROM moved",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds)));
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.application.dto.BulkOrderItem;
+import com.ecommerce.multistore.order.application.dto.BulkOrderRequest;
+import com.ecommerce.multistore.order.application.dto.BulkOrderResponse;
+import com.ecommerce.multistore.order.application.dto.BulkOrderResult;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.OrderTransition;
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+import com.ecommerce.multistore.order.domain.event.OrderStatusChangedEvent;
+import com.ecommerce.multistore.order.domain.event.OrderStatusesChangedEvent;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * خدمة الانتقالات الجماعية للطلبات
+ * Bulk order transition service
+ *
+ * لكل دفعة عبارة واحدة تقفل الطلبات وتحدّث المسموح منها وتكتب سجل الحالة وتعيد نتيجة كل طلب،
+ * في معاملة مستقلة. لا تُحمَّل العناصر ولا يُعاد بناء الطلب؛ فشل عنصر لا يوقف الباقي ويظهر في التقرير
+ * One statement per chunk locks the orders, updates the allowed ones, writes the status history and
+ * returns every order's outcome, in its own transaction. Items are not loaded and orders are not
+ * rebuilt; a failed item does not stop the rest and is reported
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class OrderBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBulkService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public OrderBulkService(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * تنفيذ انتقال على عدة طلبات
+     * Apply a transition to many orders
+     *
+     * @param transition الانتقال (SHIP أو DELIVER أو CANCEL)
+     * @param request الطلبات، مع رقم التتبع لكل طلب عند الشحن
+     * @return BulkOrderResponse نتيجة لكل عنصر
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOrderResponse apply(OrderTransition transition, BulkOrderRequest request) {
+        List<BulkOrderItem> items = request.getItems();
+        BulkOrderResult[] results = new BulkOrderResult[items.size()];
+
+        for (int from = 0; from < items.size(); from += AppConstants.ORDER_BULK_CHUNK_SIZE) {
+            int offset = from;
+            List<BulkOrderItem> chunk = items.subList(from, Math.min(from + AppConstants.ORDER_BULK_CHUNK_SIZE, items.size()));
+            transactionTemplate.executeWithoutResult(status -> applyChunk(transition, chunk, offset, results));
+        }
+
+        BulkOrderResponse response = new BulkOrderResponse(Arrays.asList(results));
+        logger.info("Bulk {}: {} orders, {} applied, {} failed",
+                transition, response.getTotal(), response.getApplied(), response.getFailed());
+        return response;
+    }
+
+    private void applyChunk(OrderTransition transition, List<BulkOrderItem> chunk, int offset, BulkOrderResult[] results) {
+        boolean ship = transition.getTo() == OrderStatus.SHIPPED;
+
+        // 1. التحقق من العناصر واستبعاد المكرر
+        Map<UUID, Integer> positions = new HashMap<>();
+        StringBuilder values = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkOrderItem item = chunk.get(i);
+            String trackingNumber = item.getTrackingNumber() != null ? item.getTrackingNumber().trim() : null;
+            if (ship && (trackingNumber == null || trackingNumber.isEmpty())) {
+                results[offset + i] = new BulkOrderResult(offset + i, item.getOrderId(), BulkOrderResult.Status.INVALID,
+                        null, "Tracking number is required to ship an order");
+                continue;
+            }
+            if (positions.putIfAbsent(item.getOrderId(), i) != null) {
+                results[offset + i] = new BulkOrderResult(offset + i, item.getOrderId(), BulkOrderResult.Status.DUPLICATE,
+                        null, "Order appears earlier in the batch");
+                continue;
+            }
+            values.append(values.length() == 0 ? "" : ", ").append("(?::uuid, ?)");
+            args.add(item.getOrderId());
+            args.add(ship ? trackingNumber : null);
+        }
+        if (positions.isEmpty()) {
+            return;
+        }
+
+        // 2. عبارة واحدة: قفل بترتيب ثابت، تحديث مشروط، سجل الحالة ومؤشراتها، ونتيجة كل طلب موجود
+        args.add(transition.getTo().name());
+        args.add(ship);
+        args.add(transition.getTo() == OrderStatus.DELIVERED);
+        args.add(transition.getFrom().stream().map(Enum::name).toArray(String[]::new));
+        args.add(transition.getRequiredPaymentStatuses() == null);
+        args.add(transition.getRequiredPaymentStatuses() == null
+                ? new String[0]
+                : transition.getRequiredPaymentStatuses().stream().map(Enum::name).toArray(String[]::new));
+
+        String sql =
+                "WITH v (order_id, tracking_number) AS (VALUES " + values + "), " +
+                "old AS ( " +
+                "    SELECT o.id, o.status, o.payment_status FROM orders o JOIN v ON v.order_id = o.id " +
+                "    ORDER BY o.id FOR UPDATE OF o " +
+                "), upd AS ( " +
+                "    UPDATE orders o " +
+                "    SET status = ?, " +
+                "        tracking_number = COALESCE(v.tracking_number, o.tracking_number), " +
+                "        shipped_at = CASE WHEN ? THEN NOW() ELSE o.shipped_at END, " +
+                "        delivered_at = CASE WHEN ? THEN NOW() ELSE o.delivered_at END, " +
+                "        updated_at = NOW(), " +
+                "        version = o.version + 1 " +
+                "    FROM old JOIN v ON v.order_id = old.id " +
+                "    WHERE o.id = old.id AND o.status = ANY(?::text[]) AND (? OR o.payment_status = ANY(?::text[])) " +
+                "    RETURNING o.id, o.order_number, o.status, o.tracking_number, o.created_at, old.status AS previous_status " +
+                "), " + OrderHistoryService.historyCtes("BULK") +
+                "SELECT old.id, old.status, old.payment_status, upd.order_number, upd.tracking_number, " +
+                "       upd.id IS NOT NULL AS applied " +
+                "FROM old LEFT JOIN upd ON upd.id = old.id";
+
+        List<OrderStatusChangedEvent> changes = new ArrayList<>();
+        jdbcTemplate.query(sql,
+                ps -> {
+                    for (int n = 0; n < args.size(); n++) {
+                        Object arg = args.get(n);
+                        if (arg instanceof String[] array) {
+                            ps.setArray(n + 1, ps.getConnection().createArrayOf("text", array));
+                        } else {
+                            ps.setObject(n + 1, arg);
+                        }
+                    }
+                },
+                rs -> {
+                    UUID orderId = rs.getObject("id", UUID.class);
+                    int i = positions.remove(orderId);
+                    OrderStatus status = OrderStatus.valueOf(rs.getString("status"));
+                    if (rs.getBoolean("applied")) {
+                        changes.add(new OrderStatusChangedEvent(orderId, rs.getString("order_number"),
+                                status, transition.getTo(), rs.getString("tracking_number")));
+                        results[offset + i] = new BulkOrderResult(offset + i, orderId, BulkOrderResult.Status.APPLIED,
+                                transition.getTo(), null);
+                    } else if (!transition.getFrom().contains(status)) {
+                        results[offset + i] = new BulkOrderResult(offset + i, orderId, BulkOrderResult.Status.INVALID_STATE,
+                                status, "Order cannot move from " + status + " to " + transition.getTo());
+                    } else {
+                        PaymentStatus paymentStatus = PaymentStatus.valueOf(rs.getString("payment_status"));
+                        results[offset + i] = new BulkOrderResult(offset + i, orderId, BulkOrderResult.Status.INVALID_STATE,
+                                status, "Order cannot move to " + transition.getTo() + " with payment status " + paymentStatus);
+                    }
+                });
+
+        // 3. ما لم تُعِده العبارة غير موجود
+        positions.forEach((orderId, i) ->
+                results[offset + i] = new BulkOrderResult(offset + i, orderId, BulkOrderResult.Status.NOT_FOUND, null, null));
+
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new OrderStatusesChangedEvent(changes));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.multistore.order.application.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * مؤشر صفحات الطلبات - آخر مفتاح (created_at, id) مرمّزاً بـ Base64url
+ * Order page cursor - the last (created_at, id) key, Base64url encoded
+ *
+ * الصفحة التالية تبدأ بعد هذا المفتاح بدلاً من OFFSET فتبقى كلفتها ثابتة مهما تعمق المستخدم
+ * The next page starts after this key instead of an OFFSET, so its cost stays flat however deep
+ * the user pages
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+final class OrderCursor {
+
+    private OrderCursor() {
+    }
+
+    /**
+     * @param createdAt وقت الإنشاء - قد يكون فارغاً لطلبات قديمة
+     */
+    static String encode(LocalDateTime createdAt, UUID id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(((createdAt != null ? createdAt.toString() : "") + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return معاملا الشرط (created_at, id) &lt; (?, ?) بترتيبهما؛ الأول null إذا كان created_at فارغاً
+     * @throws IllegalArgumentException إذا كان المؤشر غير صالح
+     */
+    static Object[] decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            Timestamp createdAt = parts[0].isEmpty() ? null : Timestamp.valueOf(LocalDateTime.parse(parts[0]));
+            return new Object[] { createdAt, UUID.fromString(parts[1]) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
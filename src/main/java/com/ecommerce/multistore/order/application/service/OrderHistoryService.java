@@ -0,0 +1,168 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.application.dto.OrderSlaMetricResponse;
+import com.ecommerce.multistore.order.application.dto.OrderStatusHistoryEntry;
+import com.ecommerce.multistore.order.domain.OrderSlaMetric;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * خدمة سجل حالة الطلبات ومؤشرات زمن التنفيذ
+ * Order status history and SLA metrics service
+ *
+ * السجل والمدرجات التكرارية تكتبها عبارات الانتقال نفسها (انظر historyCtes)؛ هذه الخدمة تقرؤها
+ * وتسجل صف الإنشاء. المئينات تُحسب من المدرجات اليومية دون المرور على السجل
+ * The history and the histograms are written by the transition statements themselves (see
+ * historyCtes); this service reads them and records the creation row. Percentiles come from the
+ * daily histograms without scanning the history
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class OrderHistoryService {
+
+    private static final double[] PERCENTILES = { 0.50, 0.90, 0.99 };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderHistoryService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * تعابير CTE تكتب سطر السجل وتضيف الطلب لمدرج مؤشره، لكل صف في upd
+     * CTEs that append the history row and add the order to its metric's histogram, for every row of upd
+     *
+     * upd يجب أن يعيد id و previous_status و status و tracking_number و created_at
+     * upd must return id, previous_status, status, tracking_number and created_at
+     *
+     * @param source مصدر الانتقال (SINGLE أو BULK)
+     */
+    static String historyCtes(String source) {
+        return "history AS ( " +
+               "    INSERT INTO order_status_history (order_id, from_status, to_status, tracking_number, source) " +
+               "    SELECT id, previous_status, status, tracking_number, '" + source + "' FROM upd " +
+               "), sla AS ( " +
+               "    INSERT INTO order_sla_histograms (metric, day, bucket, order_count) " +
+               "    SELECT m.metric, CURRENT_DATE, " +
+               "           FLOOR(LN(GREATEST(EXTRACT(EPOCH FROM NOW() - upd.created_at), 1)) / LN(" + OrderSlaMetric.GROWTH + "))::int, " +
+               "           COUNT(*) " +
+               "    FROM upd JOIN (VALUES ('CONFIRMED', 'TIME_TO_CONFIRM'), ('SHIPPED', 'TIME_TO_SHIP'), " +
+               "                          ('DELIVERED', 'TIME_TO_DELIVER')) AS m(status, metric) ON m.status = upd.status " +
+               "    WHERE upd.created_at IS NOT NULL " +
+               "    GROUP BY 1, 2, 3 " +
+               "    ON CONFLICT (metric, day, bucket) DO UPDATE " +
+               "    SET order_count = order_sla_histograms.order_count + EXCLUDED.order_count " +
+               ") ";
+    }
+
+    /**
+     * تسجيل إنشاء الطلب في نفس معاملة الإنشاء
+     * Record the order's creation in the creating transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(UUID orderId, OrderStatus status) {
+        jdbcTemplate.update(
+                "INSERT INTO order_status_history (order_id, from_status, to_status, source) VALUES (?, NULL, ?, 'CREATE')",
+                orderId, status.name());
+    }
+
+    /**
+     * الخط الزمني للطلب
+     * Order timeline
+     *
+     * @param orderId معرف الطلب
+     * @return List<OrderStatusHistoryEntry> الانتقالات بالترتيب
+     * @throws IllegalArgumentException إذا لم يوجد الطلب
+     */
+    @Transactional(readOnly = true)
+    public List<OrderStatusHistoryEntry> getTimeline(UUID orderId) {
+        List<OrderStatusHistoryEntry> timeline = jdbcTemplate.query(
+                "SELECT from_status, to_status, tracking_number, source, changed_at " +
+                "FROM order_status_history WHERE order_id = ? ORDER BY id",
+                (rs, rowNum) -> new OrderStatusHistoryEntry(
+                        rs.getString("from_status") != null ? OrderStatus.valueOf(rs.getString("from_status")) : null,
+                        OrderStatus.valueOf(rs.getString("to_status")),
+                        rs.getString("tracking_number"),
+                        rs.getString("source"),
+                        rs.getTimestamp("changed_at").toLocalDateTime()),
+                orderId);
+
+        if (timeline.isEmpty()) {
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM orders WHERE id = ?) OR EXISTS (SELECT 1 FROM orders_archive WHERE id = ?)",
+                    Boolean.class, orderId, orderId);
+            if (!Boolean.TRUE.equals(exists)) {
+                throw new IllegalArgumentException("Order not found with ID: " + orderId);
+            }
+        }
+        return timeline;
+    }
+
+    /**
+     * مئينات زمن التنفيذ للطلبات التي بلغت كل حالة خلال النطاق
+     * SLA percentiles for orders that reached each status within the range
+     *
+     * @param from أول يوم (مشمول)
+     * @param to آخر يوم (مشمول)
+     * @return List<OrderSlaMetricResponse> مؤشر لكل نوع
+     */
+    @Transactional(readOnly = true)
+    public List<OrderSlaMetricResponse> getSlaMetrics(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid range: from must not be after to");
+        }
+
+        Map<OrderSlaMetric, TreeMap<Integer, Long>> histograms = new EnumMap<>(OrderSlaMetric.class);
+        jdbcTemplate.query(
+                "SELECT metric, bucket, SUM(order_count) AS order_count FROM order_sla_histograms " +
+                "WHERE day BETWEEN ? AND ? GROUP BY metric, bucket",
+                rs -> {
+                    histograms.computeIfAbsent(OrderSlaMetric.valueOf(rs.getString("metric")), metric -> new TreeMap<>())
+                            .put(rs.getInt("bucket"), rs.getLong("order_count"));
+                },
+                from, to);
+
+        List<OrderSlaMetricResponse> metrics = new ArrayList<>();
+        for (OrderSlaMetric metric : OrderSlaMetric.values()) {
+            TreeMap<Integer, Long> histogram = histograms.getOrDefault(metric, new TreeMap<>());
+            long total = histogram.values().stream().mapToLong(Long::longValue).sum();
+            Long[] values = new Long[PERCENTILES.length];
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                values[p] = percentile(histogram, total, PERCENTILES[p]);
+            }
+            metrics.add(new OrderSlaMetricResponse(metric, total, values[0], values[1], values[2]));
+        }
+        return metrics;
+    }
+
+    private Long percentile(TreeMap<Integer, Long> histogram, long total, double percentile) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : histogram.entrySet()) {
+            seen += bucket.getValue();
+            if (seen >= rank) {
+                return Math.round(OrderSlaMetric.bucketSeconds(bucket.getKey()));
+            }
+        }
+        return Math.round(OrderSlaMetric.bucketSeconds(histogram.lastKey()));
+    }
+}
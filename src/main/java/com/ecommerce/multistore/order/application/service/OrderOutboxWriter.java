@@ -0,0 +1,63 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.domain.event.OrderStatusChangedEvent;
+import com.ecommerce.multistore.order.domain.event.OrderStatusesChangedEvent;
+import com.ecommerce.multistore.shared.outbox.OutboxEventTypes;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * كاتب أحداث حالة الطلب في صندوق الأحداث
+ * Order status outbox writer
+ *
+ * يستمع لانتقالات الطلب قبل التأكيد فيُكتب الحدث في نفس معاملة الانتقال
+ * Listens to order transitions before commit, so the outbox row is written in the transition's transaction
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class OrderOutboxWriter {
+
+    private final OutboxPublisher outboxPublisher;
+
+    @Autowired
+    public OrderOutboxWriter(OutboxPublisher outboxPublisher) {
+        this.outboxPublisher = outboxPublisher;
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() == event.getStatus()) {
+            return;
+        }
+        outboxPublisher.publish(OutboxEventTypes.ORDER, event.getOrderId(), OutboxEventTypes.ORDER_STATUS_CHANGED, payload(event));
+    }
+
+    @EventListener
+    public void onOrderStatusesChanged(OrderStatusesChangedEvent event) {
+        Map<UUID, Object> payloads = new LinkedHashMap<>();
+        for (OrderStatusChangedEvent change : event.getChanges()) {
+            if (change.getPreviousStatus() != change.getStatus()) {
+                payloads.put(change.getOrderId(), payload(change));
+            }
+        }
+        outboxPublisher.publishAll(OutboxEventTypes.ORDER, OutboxEventTypes.ORDER_STATUS_CHANGED, payloads);
+    }
+
+    private Map<String, Object> payload(OrderStatusChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", event.getOrderId());
+        payload.put("orderNumber", event.getOrderNumber());
+        payload.put("from", event.getPreviousStatus());
+        payload.put("to", event.getStatus());
+        payload.put("trackingNumber", event.getTrackingNumber());
+        return payload;
+    }
+}
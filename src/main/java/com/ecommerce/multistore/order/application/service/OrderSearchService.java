@@ -0,0 +1,197 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.application.dto.OrderSearchRequest;
+import com.ecommerce.multistore.order.application.dto.OrderSearchResponse;
+import com.ecommerce.multistore.order.application.dto.OrderSearchResult;
+import com.ecommerce.multistore.order.domain.OrderScope;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * خدمة بحث الطلبات للوحة الإدارة
+ * Admin order search service
+ *
+ * المعايير تُترجم لشروط تخدمها فهارس trigram ونطاقات btree (V17)، ورمز المنتج يُطابق عبر
+ * order_items. النتائج أعمدة الطلب فقط، مرتبة بـ (created_at, id) تنازلياً، والصفحة التالية
+ * تبدأ بعد آخر مفتاح بدلاً من OFFSET فتبقى كلفتها ثابتة مهما تعمق المستخدم
+ * Criteria become conditions served by trigram indexes and btree ranges (V17), and the SKU is
+ * matched through order_items. Results are order columns only, ordered by (created_at, id)
+ * descending, and the next page starts after the last key instead of an OFFSET, so its cost
+ * stays flat however deep the user pages
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderSearchService {
+
+    private static final String COLUMNS =
+            "o.id, o.display_id, o.order_number, o.customer_name, o.customer_email, o.customer_phone, o.status, " +
+            "o.payment_status, o.total_amount, o.currency, o.tracking_number, o.created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderSearchService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * بحث الطلبات
+     * Search orders
+     *
+     * @param request معايير البحث والمؤشر
+     * @return OrderSearchResponse صفحة النتائج ومؤشر التالية
+     * @throws IllegalArgumentException إذا كان المعيار أو المؤشر غير صالح
+     */
+    public OrderSearchResponse search(OrderSearchRequest request) {
+        if (request.getMinAmount() != null && request.getMaxAmount() != null
+                && request.getMinAmount().compareTo(request.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("Minimum amount cannot exceed maximum amount");
+        }
+        if (request.getCreatedFrom() != null && request.getCreatedTo() != null
+                && request.getCreatedFrom().isAfter(request.getCreatedTo())) {
+            throw new IllegalArgumentException("Invalid range: createdFrom must not be after createdTo");
+        }
+
+        int size = Math.max(1, Math.min(request.getSize(), AppConstants.MAX_PAGE_SIZE));
+        OrderScope scope = request.getScope() != null ? request.getScope() : OrderScope.HOT;
+
+        // كل فرع يحد نفسه بـ size + 1 ثم يُدمج الفرعان؛ الصف الزائد يدل على وجود صفحة تالية
+        List<Object> args = new ArrayList<>();
+        String sql;
+        if (scope == OrderScope.ALL) {
+            sql = "SELECT * FROM ((" + branch(request, "orders", "order_items", false, size, args) + ") UNION ALL (" +
+                  branch(request, "orders_archive", "order_items_archive", true, size, args) + ")) o " +
+                  "ORDER BY created_at DESC, id DESC LIMIT " + (size + 1);
+        } else {
+            boolean archived = scope == OrderScope.ARCHIVE;
+            sql = branch(request, archived ? "orders_archive" : "orders",
+                    archived ? "order_items_archive" : "order_items", archived, size, args);
+        }
+
+        List<OrderSearchResult> results = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            OrderSearchResult result = new OrderSearchResult();
+            result.setId(rs.getObject("id", UUID.class));
+            result.setDisplayId(rs.getString("display_id"));
+            result.setOrderNumber(rs.getString("order_number"));
+            result.setCustomerName(rs.getString("customer_name"));
+            result.setCustomerEmail(rs.getString("customer_email"));
+            result.setCustomerPhone(rs.getString("customer_phone"));
+            result.setStatus(OrderStatus.valueOf(rs.getString("status")));
+            result.setPaymentStatus(PaymentStatus.valueOf(rs.getString("payment_status")));
+            result.setTotalAmount(rs.getBigDecimal("total_amount"));
+            result.setCurrency(rs.getString("currency"));
+            result.setTrackingNumber(rs.getString("tracking_number"));
+            result.setArchived(rs.getBoolean("archived"));
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            result.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+            return result;
+        }, args.toArray());
+
+        String nextCursor = null;
+        if (results.size() > size) {
+            results = new ArrayList<>(results.subList(0, size));
+            OrderSearchResult last = results.get(size - 1);
+            nextCursor = OrderCursor.encode(last.getCreatedAt(), last.getId());
+        }
+        return new OrderSearchResponse(results, nextCursor);
+    }
+
+    /**
+     * استعلام جدول واحد بالشروط المطلوبة فقط
+     * One table's query with only the requested conditions
+     */
+    private String branch(OrderSearchRequest request, String ordersTable, String itemsTable, boolean archived,
+                          int size, List<Object> args) {
+        StringBuilder where = new StringBuilder("TRUE");
+
+        String orderNumber = fragment(request.getOrderNumber(), "orderNumber");
+        if (orderNumber != null) {
+            where.append(" AND o.order_number ILIKE ?");
+            args.add(orderNumber);
+        }
+        String customer = fragment(request.getCustomer(), "customer");
+        if (customer != null) {
+            where.append(" AND (o.customer_name ILIKE ? OR o.customer_phone ILIKE ? OR o.customer_email ILIKE ?)");
+            args.add(customer);
+            args.add(customer);
+            args.add(customer);
+        }
+        String trackingNumber = fragment(request.getTrackingNumber(), "trackingNumber");
+        if (trackingNumber != null) {
+            where.append(" AND o.tracking_number ILIKE ?");
+            args.add(trackingNumber);
+        }
+        String sku = fragment(request.getSku(), "sku");
+        if (sku != null) {
+            where.append(" AND o.id IN (SELECT i.order_id FROM ").append(itemsTable).append(" i WHERE i.product_sku ILIKE ?)");
+            args.add(sku);
+        }
+        if (request.getStatus() != null) {
+            where.append(" AND o.status = ?");
+            args.add(request.getStatus().name());
+        }
+        if (request.getPaymentStatus() != null) {
+            where.append(" AND o.payment_status = ?");
+            args.add(request.getPaymentStatus().name());
+        }
+        if (request.getMinAmount() != null) {
+            where.append(" AND o.total_amount >= ?");
+            args.add(request.getMinAmount());
+        }
+        if (request.getMaxAmount() != null) {
+            where.append(" AND o.total_amount <= ?");
+            args.add(request.getMaxAmount());
+        }
+        if (request.getCreatedFrom() != null) {
+            where.append(" AND o.created_at >= ?");
+            args.add(Timestamp.valueOf(request.getCreatedFrom().atStartOfDay()));
+        }
+        if (request.getCreatedTo() != null) {
+            where.append(" AND o.created_at < ?");
+            args.add(Timestamp.valueOf(request.getCreatedTo().plusDays(1).atStartOfDay()));
+        }
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            Object[] key = OrderCursor.decode(request.getCursor());
+            if (key[0] != null) {
+                // صفوف created_at الفارغة تسبق غيرها في الترتيب التنازلي فقد مرت كلها
+                where.append(" AND (o.created_at, o.id) < (?, ?)");
+                args.add(key[0]);
+            } else {
+                where.append(" AND (o.created_at IS NOT NULL OR o.id < ?)");
+            }
+            args.add(key[1]);
+        }
+
+        return "SELECT " + COLUMNS + ", " + archived + " AS archived FROM " + ordersTable + " o " +
+               "WHERE " + where + " ORDER BY o.created_at DESC, o.id DESC LIMIT " + (size + 1);
+    }
+
+    /**
+     * نمط ILIKE لجزء نصي، بعد تهريب محارف LIKE
+     * ILIKE pattern for a text fragment, with LIKE wildcards escaped
+     */
+    private String fragment(String value, String field) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String term = value.trim();
+        if (term.length() < AppConstants.ORDER_SEARCH_MIN_TERM_LENGTH) {
+            throw new IllegalArgumentException(field + " must be at least "
+                    + AppConstants.ORDER_SEARCH_MIN_TERM_LENGTH + " characters");
+        }
+        return "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
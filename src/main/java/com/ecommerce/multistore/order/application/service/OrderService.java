@@ -1,23 +1,37 @@
 package com.ecommerce.multistore.order.application.service;
 
 import com.ecommerce.multistore.order.application.dto.*;
+import com.ecommerce.multistore.order.application.mapper.OrderMapper;
 import com.ecommerce.multistore.order.domain.*;
+import com.ecommerce.multistore.order.domain.event.OrderCreatedEvent;
+import com.ecommerce.multistore.order.domain.event.OrderPaymentStatusChangedEvent;
+import com.ecommerce.multistore.order.infrastructure.OrderArchiveRepository;
 import com.ecommerce.multistore.order.infrastructure.OrderRepository;
 import com.ecommerce.multistore.order.infrastructure.OrderItemRepository;
+import com.ecommerce.multistore.shared.outbox.OutboxEventTypes;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -35,9 +49,17 @@ import java.util.stream.Collectors;
 @Transactional
 public class OrderService {
 
+    private static final BigDecimal DEFAULT_SHIPPING_AMOUNT = BigDecimal.valueOf(5000); // افتراضي 5000 ريال
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ObjectMapper objectMapper;
+    private final OutboxPublisher outboxPublisher;
+    private final OrderStateMachine orderStateMachine;
+    private final OrderHistoryService orderHistoryService;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderMapper orderMapper;
 
     /**
      * Constructor لحقن Dependencies
@@ -46,14 +68,32 @@ public class OrderService {
      * @param orderRepository مستودع الطلبات
      * @param orderItemRepository مستودع عناصر الطلبات
      * @param objectMapper محول JSON
+     * @param outboxPublisher كاتب صندوق الأحداث
+     * @param orderStateMachine آلة حالة الطلب
+     * @param orderHistoryService سجل حالة الطلبات
+     * @param orderArchiveRepository مستودع الطلبات المؤرشفة
+     * @param eventPublisher ناشر أحداث الطلب
+     * @param orderMapper محول الطلب إلى استجابة
      */
     @Autowired
     public OrderService(OrderRepository orderRepository, 
                        OrderItemRepository orderItemRepository,
-                       ObjectMapper objectMapper) {
+                       ObjectMapper objectMapper,
+                       OutboxPublisher outboxPublisher,
+                       OrderStateMachine orderStateMachine,
+                       OrderHistoryService orderHistoryService,
+                       OrderArchiveRepository orderArchiveRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       OrderMapper orderMapper) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.objectMapper = objectMapper;
+        this.outboxPublisher = outboxPublisher;
+        this.orderStateMachine = orderStateMachine;
+        this.orderHistoryService = orderHistoryService;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.eventPublisher = eventPublisher;
+        this.orderMapper = orderMapper;
     }
 
     /**
@@ -65,6 +105,21 @@ public class OrderService {
      * @throws IllegalArgumentException إذا كانت البيانات غير صحيحة
      */
     public OrderResponse createOrder(CreateOrderRequest request) {
+        return createOrder(request, DEFAULT_SHIPPING_AMOUNT, BigDecimal.ZERO);
+    }
+
+    /**
+     * إنشاء طلب بمبلغ شحن وخصم محسوبين مسبقاً في معاملة المستدعي
+     * Creates an order with precomputed shipping and discount amounts in the caller's transaction
+     * 
+     * @param request بيانات الطلب الجديد
+     * @param shippingAmount مبلغ الشحن
+     * @param discountAmount مبلغ الخصم
+     * @return OrderResponse الطلب المُنشأ
+     * @throws IllegalArgumentException إذا كانت البيانات غير صحيحة
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderResponse createOrder(CreateOrderRequest request, BigDecimal shippingAmount, BigDecimal discountAmount) {
         // التحقق من صحة البيانات
         validateOrderRequest(request);
 
@@ -72,14 +127,19 @@ public class OrderService {
         Order order = buildOrderFromRequest(request);
         
         // حساب المبالغ
-        calculateOrderAmounts(order, request.getItems());
+        calculateOrderAmounts(order, request.getItems(), shippingAmount, discountAmount);
         
         // حفظ الطلب
         Order savedOrder = orderRepository.save(order);
         
         // إنشاء عناصر الطلب
         List<OrderItem> orderItems = createOrderItems(savedOrder.getId(), request.getItems());
-        orderItemRepository.saveAll(orderItems);
+        orderItemRepository.saveAllAndFlush(orderItems);
+
+        // تسجيل الحدث وبداية الخط الزمني وملخص العميل في نفس المعاملة
+        publishOrderCreated(savedOrder, orderItems.size());
+        orderHistoryService.recordCreated(savedOrder.getId(), savedOrder.getStatus());
+        eventPublisher.publishEvent(new OrderCreatedEvent(savedOrder.getId()));
         
         // تحويل إلى Response وإرجاع النتيجة
         return convertToResponse(savedOrder, orderItems);
@@ -90,15 +150,12 @@ public class OrderService {
      * Finds an order by UUID
      * 
      * @param id المعرف الفريد للطلب
+     * @param scope نطاق البحث
      * @return Optional<OrderResponse> الطلب إذا وُجد
      */
     @Transactional(readOnly = true)
-    public Optional<OrderResponse> findById(UUID id) {
-        return orderRepository.findById(id)
-                .map(order -> {
-                    List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-                    return convertToResponse(order, items);
-                });
+    public Optional<OrderResponse> findById(UUID id, OrderScope scope) {
+        return find(scope, () -> orderRepository.findWithItemsById(id), () -> orderArchiveRepository.findById(id));
     }
 
     /**
@@ -106,15 +163,13 @@ public class OrderService {
      * Finds an order by display ID
      * 
      * @param displayId المعرف المعروض
+     * @param scope نطاق البحث
      * @return Optional<OrderResponse> الطلب إذا وُجد
      */
     @Transactional(readOnly = true)
-    public Optional<OrderResponse> findByDisplayId(String displayId) {
-        return orderRepository.findByDisplayId(displayId)
-                .map(order -> {
-                    List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-                    return convertToResponse(order, items);
-                });
+    public Optional<OrderResponse> findByDisplayId(String displayId, OrderScope scope) {
+        return find(scope, () -> orderRepository.findWithItemsByDisplayId(displayId),
+                () -> orderArchiveRepository.findByDisplayId(displayId));
     }
 
     /**
@@ -122,15 +177,13 @@ public class OrderService {
      * Finds an order by order number
      * 
      * @param orderNumber رقم الطلب
+     * @param scope نطاق البحث
      * @return Optional<OrderResponse> الطلب إذا وُجد
      */
     @Transactional(readOnly = true)
-    public Optional<OrderResponse> findByOrderNumber(String orderNumber) {
-        return orderRepository.findByOrderNumber(orderNumber)
-                .map(order -> {
-                    List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-                    return convertToResponse(order, items);
-                });
+    public Optional<OrderResponse> findByOrderNumber(String orderNumber, OrderScope scope) {
+        return find(scope, () -> orderRepository.findWithItemsByOrderNumber(orderNumber),
+                () -> orderArchiveRepository.findByOrderNumber(orderNumber));
     }
 
     /**
@@ -151,11 +204,7 @@ public class OrderService {
         
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return orderRepository.findAll(pageable)
-                .map(order -> {
-                    List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-                    return convertToResponse(order, items);
-                });
+        return withItems(orderRepository.findIds(pageable));
     }
 
     /**
@@ -165,16 +214,17 @@ public class OrderService {
      * @param userId معرف المستخدم
      * @param page رقم الصفحة
      * @param size عدد العناصر في الصفحة
+     * @param scope نطاق البحث
      * @return Page<OrderResponse> صفحة من طلبات المستخدم
      */
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getUserOrders(UUID userId, int page, int size) {
+    public Page<OrderResponse> getUserOrders(UUID userId, int page, int size, OrderScope scope) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return orderRepository.findByUserId(userId, pageable)
-                .map(order -> {
-                    List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-                    return convertToResponse(order, items);
-                });
+        if (scope != OrderScope.HOT) {
+            return withArchivedItems(orderArchiveRepository.findByUserId(userId, pageable, scope == OrderScope.ALL),
+                    scope == OrderScope.ALL);
+        }
+        return withItems(orderRepository.findIdsByUserId(userId, pageable));
     }
 
     /**
@@ -184,16 +234,63 @@ public class OrderService {
      * @param status حالة الطلب
      * @param page رقم الصفحة
      * @param size عدد العناصر في الصفحة
+     * @param scope نطاق البحث
+     * @return Page<OrderResponse> صفحة من الطلبات
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderResponse> getOrdersByStatus(OrderStatus status, int page, int size, OrderScope scope) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        if (scope != OrderScope.HOT) {
+            return withArchivedItems(orderArchiveRepository.findByStatus(status, pageable, scope == OrderScope.ALL),
+                    scope == OrderScope.ALL);
+        }
+        return withItems(orderRepository.findIdsByStatus(status, pageable));
+    }
+
+    /**
+     * البحث بواسطة بريد العميل - يشمل طلبات الزوار
+     * Find orders by customer email - guest orders included
+     * 
+     * @param email بريد العميل
+     * @param page رقم الصفحة
+     * @param size عدد العناصر في الصفحة
+     * @param scope نطاق البحث
+     * @return Page<OrderResponse> صفحة من الطلبات
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderResponse> getOrdersByCustomerEmail(String email, int page, int size, OrderScope scope) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        if (scope != OrderScope.HOT) {
+            return withArchivedItems(orderArchiveRepository.findByCustomerEmail(email, pageable, scope == OrderScope.ALL),
+                    scope == OrderScope.ALL);
+        }
+        return withItems(orderRepository.findIdsByCustomerEmail(email, pageable));
+    }
+
+    /**
+     * البحث بواسطة فترة الإنشاء
+     * Find orders created within a date range
+     * 
+     * @param startDate بداية الفترة
+     * @param endDate نهاية الفترة
+     * @param page رقم الصفحة
+     * @param size عدد العناصر في الصفحة
+     * @param scope نطاق البحث
      * @return Page<OrderResponse> صفحة من الطلبات
+     * @throws IllegalArgumentException إذا كانت البداية بعد النهاية
      */
     @Transactional(readOnly = true)
-    public Page<OrderResponse> getOrdersByStatus(OrderStatus status, int page, int size) {
+    public Page<OrderResponse> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                    int page, int size, OrderScope scope) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        return orderRepository.findByStatus(status, pageable)
-                .map(order -> {
-                    List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-                    return convertToResponse(order, items);
-                });
+        if (scope != OrderScope.HOT) {
+            return withArchivedItems(orderArchiveRepository.findByDateRange(startDate, endDate, pageable,
+                    scope == OrderScope.ALL), scope == OrderScope.ALL);
+        }
+        return withItems(orderRepository.findIdsByDateRange(startDate, endDate, pageable));
     }
 
     /**
@@ -204,18 +301,10 @@ public class OrderService {
      * @param newStatus الحالة الجديدة
      * @return OrderResponse الطلب المحدث
      * @throws IllegalArgumentException إذا لم يوجد الطلب
+     * @throws IllegalStateException إذا لم يكن الانتقال إلى الحالة الجديدة مسموحاً
      */
     public OrderResponse updateOrderStatus(UUID orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
-
-        order.setStatus(newStatus);
-        order.setUpdatedAt(LocalDateTime.now());
-
-        Order updatedOrder = orderRepository.save(order);
-        List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-        
-        return convertToResponse(updatedOrder, items);
+        return transition(orderId, OrderTransition.to(newStatus), null);
     }
 
     /**
@@ -227,21 +316,21 @@ public class OrderService {
      * @return OrderResponse الطلب المحدث
      */
     public OrderResponse updatePaymentStatus(UUID orderId, PaymentStatus paymentStatus) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
 
+        PaymentStatus previousPaymentStatus = order.getPaymentStatus();
         order.setPaymentStatus(paymentStatus);
         order.setUpdatedAt(LocalDateTime.now());
 
+        Order updatedOrder = orderRepository.saveAndFlush(order);
+        publishPaymentStatusChanged(updatedOrder, previousPaymentStatus);
+
         // إذا تم الدفع وكانت الحالة pending، قم بتحديثها إلى confirmed
-        if (paymentStatus == PaymentStatus.PAID && order.getStatus() == OrderStatus.PENDING) {
-            order.setStatus(OrderStatus.CONFIRMED);
+        if (paymentStatus == PaymentStatus.PAID && updatedOrder.getStatus() == OrderStatus.PENDING) {
+            return transition(orderId, OrderTransition.CONFIRM, null);
         }
-
-        Order updatedOrder = orderRepository.save(order);
-        List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-        
-        return convertToResponse(updatedOrder, items);
+        return convertToResponse(updatedOrder, updatedOrder.getItems());
     }
 
     /**
@@ -253,14 +342,7 @@ public class OrderService {
      * @return OrderResponse الطلب المحدث
      */
     public OrderResponse shipOrder(UUID orderId, String trackingNumber) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
-
-        order.ship(trackingNumber);
-        Order updatedOrder = orderRepository.save(order);
-        List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-        
-        return convertToResponse(updatedOrder, items);
+        return transition(orderId, OrderTransition.SHIP, trackingNumber);
     }
 
     /**
@@ -271,14 +353,7 @@ public class OrderService {
      * @return OrderResponse الطلب المحدث
      */
     public OrderResponse deliverOrder(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
-
-        order.deliver();
-        Order updatedOrder = orderRepository.save(order);
-        List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-        
-        return convertToResponse(updatedOrder, items);
+        return transition(orderId, OrderTransition.DELIVER, null);
     }
 
     /**
@@ -289,25 +364,102 @@ public class OrderService {
      * @return OrderResponse الطلب المحدث
      */
     public OrderResponse cancelOrder(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
+        return transition(orderId, OrderTransition.CANCEL, null);
+    }
+
+    // ===============================
+    // Private Helper Methods
+    // ===============================
 
-        if (!order.canBeCancelled()) {
-            throw new IllegalStateException("Order cannot be cancelled in current state: " + order.getStatus());
+    /**
+     * تسجيل حدث إنشاء الطلب
+     * Record the order-created event
+     */
+    private void publishOrderCreated(Order order, int itemCount) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("userId", order.getUserId());
+        payload.put("status", order.getStatus());
+        payload.put("paymentStatus", order.getPaymentStatus());
+        payload.put("totalAmount", order.getTotalAmount());
+        payload.put("currency", order.getCurrency());
+        payload.put("itemCount", itemCount);
+        outboxPublisher.publish(OutboxEventTypes.ORDER, order.getId(), OutboxEventTypes.ORDER_CREATED, payload);
+    }
+
+    /**
+     * تنفيذ انتقال حالة وبناء الاستجابة من الصف المعاد
+     * Apply a status transition and build the response from the returned row
+     */
+    private OrderResponse transition(UUID orderId, OrderTransition transition, String trackingNumber) {
+        OrderStateMachine.TransitionResult result = orderStateMachine.apply(orderId, transition, trackingNumber);
+        return convertToResponse(result.getOrder(), result.getItems());
+    }
+
+    /**
+     * البحث عن طلب واحد حسب النطاق - الجداول الحالية ثم الأرشيف عند ALL
+     * Find a single order by scope; the primary tables first, then the archive for ALL
+     */
+    private Optional<OrderResponse> find(OrderScope scope, Supplier<Optional<Order>> hot, Supplier<Optional<Order>> archived) {
+        Optional<OrderResponse> found = Optional.empty();
+        if (scope != OrderScope.ARCHIVE) {
+            found = hot.get().map(order -> convertToResponse(order, order.getItems()));
+        }
+        if (found.isEmpty() && scope != OrderScope.HOT) {
+            found = archived.get().map(order -> convertToResponse(order,
+                    orderArchiveRepository.findItemsByOrderIds(List.of(order.getId()), false)));
         }
+        return found;
+    }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        order.setUpdatedAt(LocalDateTime.now());
+    /**
+     * المرحلة الثانية من الصفحات: الطلبات وعناصرها لمعرفات الصفحة باستعلام واحد وبنفس الترتيب
+     * Second phase of paged listings: the page's orders and their items in one query, in page order
+     */
+    private Page<OrderResponse> withItems(Page<UUID> ids) {
+        if (ids.isEmpty()) {
+            return ids.map(id -> null);
+        }
+        Map<UUID, Order> orders = orderRepository.findWithItemsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        // طلب أُرشف بين المرحلتين يُستبعد من الصفحة
+        List<OrderResponse> content = ids.getContent().stream()
+                .map(orders::get)
+                .filter(Objects::nonNull)
+                .map(order -> convertToResponse(order, order.getItems()))
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
 
-        Order updatedOrder = orderRepository.save(order);
-        List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
-        
-        return convertToResponse(updatedOrder, items);
+    /**
+     * إضافة عناصر صفحة من الأرشيف باستعلام واحد
+     * Attach items to an archive page with one query
+     */
+    private Page<OrderResponse> withArchivedItems(Page<Order> orders, boolean includeHot) {
+        Map<UUID, List<OrderItem>> items = orderArchiveRepository
+                .findItemsByOrderIds(orders.map(Order::getId).getContent(), includeHot)
+                .stream()
+                .collect(Collectors.groupingBy(OrderItem::getOrderId));
+        return orders.map(order -> convertToResponse(order, items.getOrDefault(order.getId(), List.of())));
     }
 
-    // ===============================
-    // Private Helper Methods
-    // ===============================
+    /**
+     * تسجيل حدث تغيير حالة الدفع
+     * Record an order payment status change
+     */
+    private void publishPaymentStatusChanged(Order order, PaymentStatus previousPaymentStatus) {
+        if (previousPaymentStatus == order.getPaymentStatus()) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("orderNumber", order.getOrderNumber());
+        payload.put("from", previousPaymentStatus);
+        payload.put("to", order.getPaymentStatus());
+        outboxPublisher.publish(OutboxEventTypes.ORDER, order.getId(), OutboxEventTypes.ORDER_PAYMENT_STATUS_CHANGED, payload);
+        eventPublisher.publishEvent(new OrderPaymentStatusChangedEvent(order.getId(), previousPaymentStatus, order.getPaymentStatus()));
+    }
 
     /**
      * التحقق من صحة طلب الإنشاء
@@ -359,7 +511,8 @@ public class OrderService {
      * حساب مبالغ الطلب
      * Calculate order amounts
      */
-    private void calculateOrderAmounts(Order order, List<OrderItemDto> items) {
+    private void calculateOrderAmounts(Order order, List<OrderItemDto> items,
+                                       BigDecimal shippingAmount, BigDecimal discountAmount) {
         BigDecimal subtotal = items.stream()
                 .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -370,12 +523,7 @@ public class OrderService {
         BigDecimal taxAmount = BigDecimal.ZERO;
         order.setTaxAmount(taxAmount);
         
-        // حساب الشحن (يمكن تحسينه لاحقاً)
-        BigDecimal shippingAmount = BigDecimal.valueOf(5000); // افتراضي 5000 ريال
         order.setShippingAmount(shippingAmount);
-        
-        // حساب الخصم (يمكن تحسينه لاحقاً)
-        BigDecimal discountAmount = BigDecimal.ZERO;
         order.setDiscountAmount(discountAmount);
         
         // المجموع الكلي
@@ -403,7 +551,7 @@ public class OrderService {
                     item.setQuantity(dto.getQuantity());
                     item.setUnitPrice(dto.getUnitPrice());
                     item.setTotalPrice(dto.getUnitPrice().multiply(BigDecimal.valueOf(dto.getQuantity())));
-                    item.setAttributes(dto.getAttributes());
+                    item.setAttributes(jsonAttributes(dto.getAttributes()));
                     return item;
                 })
                 .collect(Collectors.toList());
@@ -414,63 +562,22 @@ public class OrderService {
      * Convert to response
      */
     private OrderResponse convertToResponse(Order order, List<OrderItem> items) {
-        OrderResponse response = new OrderResponse();
-        response.setId(order.getId());
-        response.setDisplayId(order.getDisplayId());
-        response.setOrderNumber(order.getOrderNumber());
-        response.setUserId(order.getUserId());
-        response.setStatus(order.getStatus());
-        response.setPaymentStatus(order.getPaymentStatus());
-        response.setCustomerEmail(order.getCustomerEmail());
-        response.setCustomerPhone(order.getCustomerPhone());
-        response.setCustomerName(order.getCustomerName());
-        response.setShippingAddress(order.getShippingAddress());
-        response.setBillingAddress(order.getBillingAddress());
-        response.setSubtotal(order.getSubtotal());
-        response.setTaxAmount(order.getTaxAmount());
-        response.setShippingAmount(order.getShippingAmount());
-        response.setDiscountAmount(order.getDiscountAmount());
-        response.setTotalAmount(order.getTotalAmount());
-        response.setShippingMethod(order.getShippingMethod());
-        response.setTrackingNumber(order.getTrackingNumber());
-        response.setShippedAt(order.getShippedAt());
-        response.setDeliveredAt(order.getDeliveredAt());
-        response.setNotes(order.getNotes());
-        response.setCouponCode(order.getCouponCode());
-        response.setCurrency(order.getCurrency());
-        response.setOnexQuoteId(order.getOnexQuoteId());
-        response.setOnexInvoiceId(order.getOnexInvoiceId());
-        response.setOnexStatus(order.getOnexStatus());
-        response.setOnexSyncedAt(order.getOnexSyncedAt());
-        response.setCreatedAt(order.getCreatedAt());
-        response.setUpdatedAt(order.getUpdatedAt());
-        
-        // تحويل عناصر الطلب
-        List<OrderItemResponse> itemResponses = items.stream()
-                .map(this::convertItemToResponse)
-                .collect(Collectors.toList());
-        response.setItems(itemResponses);
-        
-        return response;
+        return orderMapper.toResponse(order, items);
     }
 
     /**
-     * تحويل عنصر الطلب إلى Response
-     * Convert order item to response
+     * التحقق من أن خصائص العنصر JSON صالح - تُضمَّن في الاستجابة كما هي
+     * Check that item attributes are valid JSON - they are embedded in responses as they are
      */
-    private OrderItemResponse convertItemToResponse(OrderItem item) {
-        OrderItemResponse response = new OrderItemResponse();
-        response.setId(item.getId());
-        response.setDisplayId(item.getDisplayId());
-        response.setProductId(item.getProductId());
-        response.setProductName(item.getProductName());
-        response.setProductNameAr(item.getProductNameAr());
-        response.setProductSku(item.getProductSku());
-        response.setQuantity(item.getQuantity());
-        response.setUnitPrice(item.getUnitPrice());
-        response.setTotalPrice(item.getTotalPrice());
-        response.setAttributes(item.getAttributes());
-        response.setCreatedAt(item.getCreatedAt());
-        return response;
+    private String jsonAttributes(String attributes) {
+        if (attributes == null || attributes.isBlank()) {
+            return null;
+        }
+        try {
+            objectMapper.readTree(attributes);
+            return attributes;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid item attributes format", e);
+        }
     }
 }
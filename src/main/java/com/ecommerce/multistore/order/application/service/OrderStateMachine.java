@@ -0,0 +1,180 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.domain.Order;
+import com.ecommerce.multistore.order.domain.OrderItem;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.OrderTransition;
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+import com.ecommerce.multistore.order.domain.event.OrderStatusChangedEvent;
+import com.ecommerce.multistore.order.infrastructure.OrderRowMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * آلة حالة الطلب
+ * Order state machine
+ *
+ * كل انتقال عبارة UPDATE واحدة مشروطة بالحالات المسموحة (وحالة الدفع عند الحاجة) تعيد الصف الجديد
+ * وعناصره معاً: رحلة واحدة لقاعدة البيانات، والانتقالات المتزامنة يفوز أحدها ويُرفض الآخر دون تحديث ضائع.
+ * الآثار الجانبية تُنفذ عبر مستمعي OrderStatusChangedEvent داخل نفس المعاملة، وسطر order_status_history
+ * ومدرج مؤشر زمن التنفيذ يُكتبان في نفس العبارة
+ * Each transition is a single UPDATE conditioned on the allowed statuses (and payment status where
+ * guarded) that returns the new row together with its items: one database round-trip, and of two
+ * concurrent transitions one wins and the other is rejected without a lost update. Side effects run
+ * in OrderStatusChangedEvent listeners inside the same transaction, and the order_status_history row
+ * and the SLA histogram are written by the same statement
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class OrderStateMachine {
+
+    // قفل الصف في old هو نفس قفل UPDATE، ويتيح إعادة الحالة السابقة الفعلية؛ السجل والمؤشرات تُكتب في نفس العبارة
+    // created_at العناصر بلا منطقة زمنية في JSON لأن LocalDateTime لا يقبل الإزاحة
+    private static final String TRANSITION_SQL =
+            "WITH old AS (SELECT id, status FROM orders WHERE id = ? FOR UPDATE), " +
+            "upd AS ( " +
+            "    UPDATE orders o " +
+            "    SET status = ?, " +
+            "        tracking_number = COALESCE(?, o.tracking_number), " +
+            "        shipped_at = CASE WHEN ? THEN NOW() ELSE o.shipped_at END, " +
+            "        delivered_at = CASE WHEN ? THEN NOW() ELSE o.delivered_at END, " +
+            "        updated_at = NOW(), " +
+            "        version = o.version + 1 " +
+            "    FROM old " +
+            "    WHERE o.id = old.id AND o.status = ANY(?) AND (? OR o.payment_status = ANY(?)) " +
+            "    RETURNING o.id, o.display_id, o.order_number, o.user_id, o.status, o.payment_status, " +
+            "        o.customer_email, o.customer_phone, o.customer_name, o.shipping_address::text AS shipping_address, " +
+            "        o.billing_address::text AS billing_address, o.subtotal, o.tax_amount, o.shipping_amount, " +
+            "        o.discount_amount, o.total_amount, o.shipping_method, o.tracking_number, o.shipped_at, " +
+            "        o.delivered_at, o.notes, o.coupon_code, o.currency, o.onex_quote_id, o.onex_invoice_id, " +
+            "        o.onex_status, o.onex_synced_at, o.created_at, o.updated_at, o.version, " +
+            "        old.status AS previous_status " +
+            "), " + OrderHistoryService.historyCtes("SINGLE") +
+            "SELECT upd.*, " +
+            "    (SELECT json_agg(json_build_object( " +
+            "         'id', i.id, 'displayId', i.display_id, 'orderId', i.order_id, 'productId', i.product_id, " +
+            "         'productName', i.product_name, 'productNameAr', i.product_name_ar, 'productSku', i.product_sku, " +
+            "         'quantity', i.quantity, 'unitPrice', i.unit_price, 'totalPrice', i.total_price, " +
+            "         'attributes', i.attributes::text, 'createdAt', i.created_at::timestamp) ORDER BY i.created_at) " +
+            "     FROM order_items i WHERE i.order_id = upd.id)::text AS items " +
+            "FROM upd";
+
+    private static final TypeReference<List<OrderItem>> ITEMS_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public OrderStateMachine(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * تنفيذ انتقال
+     * Apply a transition
+     *
+     * @param orderId معرف الطلب
+     * @param transition الانتقال
+     * @param trackingNumber رقم التتبع عند الشحن (اختياري)
+     * @return TransitionResult الطلب الجديد وعناصره وحالته السابقة
+     * @throws IllegalArgumentException إذا لم يوجد الطلب
+     * @throws IllegalStateException إذا لم يكن الانتقال مسموحاً من الحالة الحالية
+     */
+    @Transactional
+    public TransitionResult apply(UUID orderId, OrderTransition transition, String trackingNumber) {
+        Object[] from = transition.getFrom().stream().map(Enum::name).toArray();
+        Object[] paymentStatuses = transition.getRequiredPaymentStatuses() == null
+                ? new Object[0]
+                : transition.getRequiredPaymentStatuses().stream().map(Enum::name).toArray();
+
+        List<TransitionResult> rows = jdbcTemplate.query(TRANSITION_SQL,
+                ps -> {
+                    ps.setObject(1, orderId);
+                    ps.setString(2, transition.getTo().name());
+                    ps.setString(3, trackingNumber);
+                    ps.setBoolean(4, transition.getTo() == OrderStatus.SHIPPED);
+                    ps.setBoolean(5, transition.getTo() == OrderStatus.DELIVERED);
+                    ps.setArray(6, ps.getConnection().createArrayOf("text", from));
+                    ps.setBoolean(7, transition.getRequiredPaymentStatuses() == null);
+                    ps.setArray(8, ps.getConnection().createArrayOf("text", paymentStatuses));
+                },
+                (rs, rowNum) -> new TransitionResult(OrderRowMapper.mapOrder(rs), mapItems(rs.getString("items")),
+                        OrderStatus.valueOf(rs.getString("previous_status"))));
+
+        if (rows.isEmpty()) {
+            throw rejection(orderId, transition);
+        }
+
+        TransitionResult result = rows.get(0);
+        Order order = result.getOrder();
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), order.getOrderNumber(),
+                result.getPreviousStatus(), order.getStatus(), order.getTrackingNumber()));
+        return result;
+    }
+
+    /**
+     * سبب الرفض - استعلام إضافي في مسار الفشل فقط
+     * Reason for a rejection - an extra query on the failure path only
+     */
+    private RuntimeException rejection(UUID orderId, OrderTransition transition) {
+        List<Map<String, Object>> current = jdbcTemplate.queryForList(
+                "SELECT status, payment_status FROM orders WHERE id = ?", orderId);
+        if (current.isEmpty()) {
+            return new IllegalArgumentException("Order not found with ID: " + orderId);
+        }
+        OrderStatus status = OrderStatus.valueOf((String) current.get(0).get("status"));
+        PaymentStatus paymentStatus = PaymentStatus.valueOf((String) current.get(0).get("payment_status"));
+        if (!transition.getFrom().contains(status)) {
+            return new IllegalStateException("Order cannot move from " + status + " to " + transition.getTo());
+        }
+        return new IllegalStateException("Order cannot move to " + transition.getTo() + " with payment status " + paymentStatus);
+    }
+
+    private List<OrderItem> mapItems(String json) {
+        if (json == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, ITEMS_TYPE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable order items", e);
+        }
+    }
+
+    /**
+     * نتيجة الانتقال
+     * Transition result
+     */
+    public static class TransitionResult {
+        private final Order order;
+        private final List<OrderItem> items;
+        private final OrderStatus previousStatus;
+
+        TransitionResult(Order order, List<OrderItem> items, OrderStatus previousStatus) {
+            this.order = order;
+            this.items = items;
+            this.previousStatus = previousStatus;
+        }
+
+        public Order getOrder() { return order; }
+
+        public List<OrderItem> getItems() { return items; }
+
+        public OrderStatus getPreviousStatus() { return previousStatus; }
+    }
+}
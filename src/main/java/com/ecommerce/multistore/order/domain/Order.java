@@ -2,8 +2,12 @@ package com.ecommerce.multistore.order.domain;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -16,7 +20,14 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(name = Order.WITH_ITEMS, attributeNodes = @NamedAttributeNode("items"))
 public class Order {
+
+    /**
+     * رسم الكيان لقراءة الطلب مع عناصره في استعلام واحد
+     * Entity graph that reads the order together with its items in one query
+     */
+    public static final String WITH_ITEMS = "Order.withItems";
     
     @Id
     @GeneratedValue(generator = "UUID")
@@ -48,9 +59,12 @@ public class Order {
     @Column(name = "customer_name", nullable = false)
     private String customerName;
     
+    // نص JSON يُربط كـ jsonb ويُقرأ كما هو دون تحليل، ويُضمَّن في الاستجابة مباشرة
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "shipping_address", columnDefinition = "jsonb", nullable = false)
     private String shippingAddress;
     
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "billing_address", columnDefinition = "jsonb")
     private String billingAddress;
     
@@ -90,16 +104,17 @@ public class Order {
     @Column(length = 3)
     private String currency = "YER";
     
-    @Column(name = "onex_quote_id")
+    // أعمدة OneX يكتبها OnexSyncService فقط، فلا يمحوها حفظ نسخة قديمة من الطلب
+    @Column(name = "onex_quote_id", insertable = false, updatable = false)
     private String onexQuoteId;
     
-    @Column(name = "onex_invoice_id")
+    @Column(name = "onex_invoice_id", insertable = false, updatable = false)
     private String onexInvoiceId;
     
-    @Column(name = "onex_status")
+    @Column(name = "onex_status", insertable = false, updatable = false)
     private String onexStatus;
     
-    @Column(name = "onex_synced_at")
+    @Column(name = "onex_synced_at", insertable = false, updatable = false)
     private LocalDateTime onexSyncedAt;
     
     @Column(name = "created_at")
@@ -107,6 +122,16 @@ public class Order {
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // للقراءة فقط: العناصر تُحفظ عبر OrderItemRepository و order_id فيها هو المالك
+    @OneToMany(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", insertable = false, updatable = false)
+    @OrderBy("createdAt ASC")
+    private List<OrderItem> items = new ArrayList<>();
     
     // Constructors
     public Order() {
@@ -116,11 +141,11 @@ public class Order {
     
     // Business Methods
     public boolean canBeCancelled() {
-        return status == OrderStatus.PENDING || status == OrderStatus.CONFIRMED;
+        return OrderTransition.CANCEL.isAllowed(status, paymentStatus);
     }
     
     public boolean isShippable() {
-        return status == OrderStatus.PROCESSING && paymentStatus == PaymentStatus.PAID;
+        return OrderTransition.SHIP.isAllowed(status, paymentStatus);
     }
     
     public void ship(String trackingNumber) {
@@ -134,7 +159,7 @@ public class Order {
     }
     
     public void deliver() {
-        if (status != OrderStatus.SHIPPED) {
+        if (!OrderTransition.DELIVER.isAllowed(status, paymentStatus)) {
             throw new IllegalStateException("Order must be shipped before delivery");
         }
         this.status = OrderStatus.DELIVERED;
@@ -229,4 +254,10 @@ public class Order {
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public List<OrderItem> getItems() { return items; }
+    public void setItems(List<OrderItem> items) { this.items = items; }
 }
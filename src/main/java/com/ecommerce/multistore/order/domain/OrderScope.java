@@ -0,0 +1,14 @@
+package com.ecommerce.multistore.order.domain;
+
+/**
+ * نطاق البحث عن الطلبات
+ * Order lookup scope
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public enum OrderScope {
+    HOT,      // الطلبات الحالية فقط (الافتراضي)
+    ARCHIVE,  // الطلبات المؤرشفة فقط
+    ALL       // الحالية ثم المؤرشفة
+}
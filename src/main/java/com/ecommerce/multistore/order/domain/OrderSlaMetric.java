@@ -0,0 +1,47 @@
+package com.ecommerce.multistore.order.domain;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * مؤشرات زمن تنفيذ الطلب - تُقاس من إنشاء الطلب حتى بلوغ الحالة
+ * Order fulfillment SLA metrics - measured from order creation until the status is reached
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public enum OrderSlaMetric {
+    TIME_TO_CONFIRM("time_to_confirm", OrderStatus.CONFIRMED),
+    TIME_TO_SHIP("time_to_ship", OrderStatus.SHIPPED),
+    TIME_TO_DELIVER("time_to_deliver", OrderStatus.DELIVERED);
+
+    /**
+     * نسبة نمو فترات المدرج التكراري - الفترة b تغطي [GROWTH^b، GROWTH^(b+1)) ثانية
+     * Histogram bucket growth - bucket b covers [GROWTH^b, GROWTH^(b+1)) seconds
+     */
+    public static final double GROWTH = 1.05;
+
+    private final String value;
+    private final OrderStatus status;
+
+    OrderSlaMetric(String value, OrderStatus status) {
+        this.value = value;
+        this.status = status;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * القيمة الممثلة للفترة (منتصفها الهندسي) بالثواني
+     * Representative value of a bucket (its geometric midpoint) in seconds
+     */
+    public static double bucketSeconds(int bucket) {
+        return Math.pow(GROWTH, bucket + 0.5);
+    }
+}
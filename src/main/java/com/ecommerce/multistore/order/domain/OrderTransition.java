@@ -0,0 +1,77 @@
+package com.ecommerce.multistore.order.domain;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * جدول انتقالات حالة الطلب
+ * Order status transition table
+ *
+ * كل انتقال يحدد الحالات المسموح الانتقال منها، الحالة الهدف، وشرط حالة الدفع إن وجد
+ * Each transition defines the statuses it may start from, its target status and, where
+ * relevant, the payment statuses it requires
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public enum OrderTransition {
+    CONFIRM(EnumSet.of(OrderStatus.PENDING), OrderStatus.CONFIRMED, null),
+    START_PROCESSING(EnumSet.of(OrderStatus.CONFIRMED), OrderStatus.PROCESSING, null),
+    SHIP(EnumSet.of(OrderStatus.PROCESSING), OrderStatus.SHIPPED, EnumSet.of(PaymentStatus.PAID)),
+    DELIVER(EnumSet.of(OrderStatus.SHIPPED), OrderStatus.DELIVERED, null),
+    CANCEL(EnumSet.of(OrderStatus.PENDING, OrderStatus.CONFIRMED), OrderStatus.CANCELLED, null),
+    REFUND(EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PROCESSING, OrderStatus.SHIPPED,
+                      OrderStatus.DELIVERED, OrderStatus.CANCELLED),
+           OrderStatus.REFUNDED,
+           EnumSet.of(PaymentStatus.PAID, PaymentStatus.PARTIALLY_REFUNDED, PaymentStatus.REFUNDED));
+
+    private final Set<OrderStatus> from;
+    private final OrderStatus to;
+    private final Set<PaymentStatus> requiredPaymentStatuses;
+
+    OrderTransition(Set<OrderStatus> from, OrderStatus to, Set<PaymentStatus> requiredPaymentStatuses) {
+        this.from = from;
+        this.to = to;
+        this.requiredPaymentStatuses = requiredPaymentStatuses;
+    }
+
+    public Set<OrderStatus> getFrom() {
+        return from;
+    }
+
+    public OrderStatus getTo() {
+        return to;
+    }
+
+    /**
+     * حالات الدفع المطلوبة - null إذا لم يكن هناك شرط
+     * Required payment statuses - null when there is no payment guard
+     */
+    public Set<PaymentStatus> getRequiredPaymentStatuses() {
+        return requiredPaymentStatuses;
+    }
+
+    /**
+     * هل الانتقال مسموح من الحالة والدفع المعطيين
+     * Whether the transition is allowed from the given status and payment status
+     */
+    public boolean isAllowed(OrderStatus status, PaymentStatus paymentStatus) {
+        return from.contains(status)
+                && (requiredPaymentStatuses == null || requiredPaymentStatuses.contains(paymentStatus));
+    }
+
+    /**
+     * الانتقال الذي ينتهي بالحالة المعطاة
+     * The transition that ends in the given status
+     *
+     * @throws IllegalStateException إذا لم يكن هناك انتقال إلى هذه الحالة
+     */
+    public static OrderTransition to(OrderStatus target) {
+        for (OrderTransition transition : values()) {
+            if (transition.to == target) {
+                return transition;
+            }
+        }
+        throw new IllegalStateException("No transition leads to order status: " + target);
+    }
+}
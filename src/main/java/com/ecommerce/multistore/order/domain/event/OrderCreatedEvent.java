@@ -0,0 +1,24 @@
+package com.ecommerce.multistore.order.domain.event;
+
+import java.util.UUID;
+
+/**
+ * حدث إنشاء طلب
+ * Order created event
+ *
+ * يُنشر داخل معاملة الإنشاء بعد حفظ الطلب وعناصره
+ * Published inside the creating transaction once the order and its items are flushed
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderCreatedEvent {
+
+    private final UUID orderId;
+
+    public OrderCreatedEvent(UUID orderId) {
+        this.orderId = orderId;
+    }
+
+    public UUID getOrderId() { return orderId; }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.multistore.order.domain.event;
+
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+
+import java.util.UUID;
+
+/**
+ * حدث تغيير حالة دفع الطلب
+ * Order payment status changed event
+ *
+ * يُنشر داخل المعاملة التي غيرت الحالة
+ * Published inside the transaction that changed the status
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderPaymentStatusChangedEvent {
+
+    private final UUID orderId;
+    private final PaymentStatus previousPaymentStatus;
+    private final PaymentStatus paymentStatus;
+
+    public OrderPaymentStatusChangedEvent(UUID orderId, PaymentStatus previousPaymentStatus, PaymentStatus paymentStatus) {
+        this.orderId = orderId;
+        this.previousPaymentStatus = previousPaymentStatus;
+        this.paymentStatus = paymentStatus;
+    }
+
+    public UUID getOrderId() { return orderId; }
+
+    public PaymentStatus getPreviousPaymentStatus() { return previousPaymentStatus; }
+
+    public PaymentStatus getPaymentStatus() { return paymentStatus; }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.multistore.order.domain.event;
+
+import com.ecommerce.multistore.order.domain.OrderStatus;
+
+import java.util.UUID;
+
+/**
+ * حدث تغيير حالة الطلب
+ * Order status changed event
+ *
+ * يُنشر داخل معاملة الانتقال؛ المستمعون هم نقاط الآثار الجانبية للانتقالات
+ * Published inside the transition's transaction; listeners are the transitions' side-effect hooks
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderStatusChangedEvent {
+
+    private final UUID orderId;
+    private final String orderNumber;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+    private final String trackingNumber;
+
+    public OrderStatusChangedEvent(UUID orderId, String orderNumber, OrderStatus previousStatus,
+                                   OrderStatus status, String trackingNumber) {
+        this.orderId = orderId;
+        this.orderNumber = orderNumber;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.trackingNumber = trackingNumber;
+    }
+
+    public UUID getOrderId() { return orderId; }
+
+    public String getOrderNumber() { return orderNumber; }
+
+    public OrderStatus getPreviousStatus() { return previousStatus; }
+
+    public OrderStatus getStatus() { return status; }
+
+    public String getTrackingNumber() { return trackingNumber; }
+}
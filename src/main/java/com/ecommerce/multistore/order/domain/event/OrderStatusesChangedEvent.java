@@ -0,0 +1,24 @@
+package com.ecommerce.multistore.order.domain.event;
+
+import java.util.List;
+
+/**
+ * حدث تغيير حالة عدة طلبات في عبارة واحدة
+ * Several orders changed status in one statement
+ *
+ * يُنشر من الانتقالات الجماعية بدلاً من حدث لكل طلب، ليكتب المستمعون آثارهم على دفعة واحدة
+ * Published by bulk transitions instead of one event per order, so listeners write their side effects in one batch
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OrderStatusesChangedEvent {
+
+    private final List<OrderStatusChangedEvent> changes;
+
+    public OrderStatusesChangedEvent(List<OrderStatusChangedEvent> changes) {
+        this.changes = changes;
+    }
+
+    public List<OrderStatusChangedEvent> getChanges() { return changes; }
+}
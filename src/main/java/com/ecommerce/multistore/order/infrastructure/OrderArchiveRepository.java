@@ -0,0 +1,131 @@
+package com.ecommerce.multistore.order.infrastructure;
+
+import com.ecommerce.multistore.order.domain.Order;
+import com.ecommerce.multistore.order.domain.OrderItem;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * مستودع الطلبات المؤرشفة
+ * Archived order repository
+ *
+ * يقرأ orders_archive و order_items_archive، ومع includeHot يضم الجداول الأساسية لصفحة واحدة مرتبة
+ * Reads orders_archive and order_items_archive; with includeHot the primary tables are merged into one ordered page
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Repository
+public class OrderArchiveRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Order> findById(UUID id) {
+        return findOne("id = ?", id);
+    }
+
+    public Optional<Order> findByDisplayId(String displayId) {
+        return findOne("display_id = ?", displayId);
+    }
+
+    public Optional<Order> findByOrderNumber(String orderNumber) {
+        return findOne("order_number = ?", orderNumber);
+    }
+
+    public Page<Order> findByUserId(UUID userId, Pageable pageable, boolean includeHot) {
+        return findPage("user_id = ?", pageable, includeHot, userId);
+    }
+
+    public Page<Order> findByStatus(OrderStatus status, Pageable pageable, boolean includeHot) {
+        return findPage("status = ?", pageable, includeHot, status.name());
+    }
+
+    public Page<Order> findByCustomerEmail(String email, Pageable pageable, boolean includeHot) {
+        return findPage("customer_email = ?", pageable, includeHot, email);
+    }
+
+    public Page<Order> findByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable,
+                                       boolean includeHot) {
+        return findPage("created_at BETWEEN ? AND ?", pageable, includeHot,
+                Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
+    }
+
+    /**
+     * عناصر عدة طلبات باستعلام واحد
+     * Items of several orders in one query
+     */
+    public List<OrderItem> findItemsByOrderIds(Collection<UUID> orderIds, boolean includeHot) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        String archived = "SELECT " + OrderRowMapper.ORDER_ITEM_COLUMNS + " FROM order_items_archive WHERE order_id = ANY(?)";
+        String sql = includeHot
+                ? "SELECT " + OrderRowMapper.ORDER_ITEM_COLUMNS + " FROM order_items WHERE order_id = ANY(?) UNION ALL " + archived
+                : archived;
+        return jdbcTemplate.query(sql + " ORDER BY created_at",
+                ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray()));
+                    if (includeHot) {
+                        ps.setArray(2, ps.getConnection().createArrayOf("uuid", orderIds.toArray()));
+                    }
+                },
+                OrderRowMapper.ORDER_ITEM);
+    }
+
+    private Optional<Order> findOne(String condition, Object value) {
+        return jdbcTemplate.query(
+                "SELECT " + OrderRowMapper.ORDER_COLUMNS + " FROM orders_archive WHERE " + condition,
+                OrderRowMapper.ORDER, value).stream().findFirst();
+    }
+
+    /**
+     * صفحة مرتبة بالأحدث - الشرط يُطبق على كل جدول قبل الدمج ليستخدم فهارسه
+     * Newest-first page; the condition is applied to each table before merging so each uses its indexes
+     *
+     * @param values قيم معاملات الشرط بترتيبها - تتكرر لكل جدول
+     */
+    private Page<Order> findPage(String condition, Pageable pageable, boolean includeHot, Object... values) {
+        String archived = "SELECT " + OrderRowMapper.ORDER_COLUMNS + " FROM orders_archive WHERE " + condition;
+        List<Object> args = new ArrayList<>();
+        String sql;
+        Long total;
+        if (includeHot) {
+            sql = "SELECT " + OrderRowMapper.ORDER_COLUMNS + " FROM orders WHERE " + condition + " UNION ALL " + archived;
+            args.addAll(List.of(values));
+            total = jdbcTemplate.queryForObject(
+                    "SELECT (SELECT COUNT(*) FROM orders WHERE " + condition + ") + " +
+                    "(SELECT COUNT(*) FROM orders_archive WHERE " + condition + ")",
+                    Long.class, Stream.concat(args.stream(), Stream.of(values)).toArray());
+        } else {
+            sql = archived;
+            total = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM orders_archive WHERE " + condition, Long.class, values);
+        }
+        args.addAll(List.of(values));
+        args.add(pageable.getPageSize());
+        args.add(pageable.getOffset());
+
+        List<Order> orders = jdbcTemplate.query(sql + " ORDER BY created_at DESC, id LIMIT ? OFFSET ?",
+                OrderRowMapper.ORDER, args.toArray());
+        return new PageImpl<>(orders, pageable, total != null ? total : 0);
+    }
+}
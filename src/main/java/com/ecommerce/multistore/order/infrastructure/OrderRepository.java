@@ -5,12 +5,14 @@ import com.ecommerce.multistore.order.domain.OrderStatus;
 import com.ecommerce.multistore.order.domain.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,13 +30,41 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
     Page<Order> findByPaymentStatus(PaymentStatus paymentStatus, Pageable pageable);
     Page<Order> findByUserIdAndStatus(UUID userId, OrderStatus status, Pageable pageable);
+
+    // قراءة الطلب مع عناصره في استعلام واحد - Order with its items in one query
+    @EntityGraph(Order.WITH_ITEMS)
+    Optional<Order> findWithItemsById(UUID id);
+
+    @EntityGraph(Order.WITH_ITEMS)
+    Optional<Order> findWithItemsByDisplayId(String displayId);
+
+    @EntityGraph(Order.WITH_ITEMS)
+    Optional<Order> findWithItemsByOrderNumber(String orderNumber);
+
+    @EntityGraph(Order.WITH_ITEMS)
+    List<Order> findWithItemsByIdIn(Collection<UUID> ids);
+
+    // المرحلة الأولى من الصفحات: المعرفات فقط، ثم findWithItemsByIdIn
+    // First phase of paged listings: ids only, then findWithItemsByIdIn
+    @Query(value = "SELECT o.id FROM Order o", countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<UUID> findIds(Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.userId = :userId",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.userId = :userId")
+    Page<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.status = :status",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.status = :status")
+    Page<UUID> findIdsByStatus(@Param("status") OrderStatus status, Pageable pageable);
     
-    @Query("SELECT o FROM Order o WHERE o.customerEmail = :email ORDER BY o.createdAt DESC")
-    Page<Order> findByCustomerEmail(@Param("email") String email, Pageable pageable);
+    @Query(value = "SELECT o.id FROM Order o WHERE o.customerEmail = :email",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.customerEmail = :email")
+    Page<UUID> findIdsByCustomerEmail(@Param("email") String email, Pageable pageable);
     
-    @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
-    Page<Order> findByDateRange(@Param("startDate") LocalDateTime startDate, 
-                               @Param("endDate") LocalDateTime endDate, Pageable pageable);
+    @Query(value = "SELECT o.id FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
+    Page<UUID> findIdsByDateRange(@Param("startDate") LocalDateTime startDate,
+                                  @Param("endDate") LocalDateTime endDate, Pageable pageable);
     
     List<Order> findByStatusAndShippedAtIsNull(OrderStatus status);
     
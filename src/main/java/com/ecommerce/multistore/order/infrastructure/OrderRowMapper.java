@@ -0,0 +1,108 @@
+package com.ecommerce.multistore.order.infrastructure;
+
+import com.ecommerce.multistore.order.domain.Order;
+import com.ecommerce.multistore.order.domain.OrderItem;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.PaymentStatus;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * تحويل صفوف الطلبات وعناصرها المقروءة عبر JDBC
+ * Maps order and order item rows read through JDBC
+ *
+ * أعمدة JSONB يجب أن تُقرأ كنص (::text)
+ * JSONB columns must be selected as text (::text)
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public final class OrderRowMapper {
+
+    /**
+     * أعمدة الطلب بالترتيب الذي يتوقعه ORDER
+     * Order columns as expected by ORDER
+     */
+    public static final String ORDER_COLUMNS =
+            "id, display_id, order_number, user_id, status, payment_status, customer_email, customer_phone, " +
+            "customer_name, shipping_address::text AS shipping_address, billing_address::text AS billing_address, " +
+            "subtotal, tax_amount, shipping_amount, discount_amount, total_amount, shipping_method, tracking_number, " +
+            "shipped_at, delivered_at, notes, coupon_code, currency, onex_quote_id, onex_invoice_id, onex_status, " +
+            "onex_synced_at, created_at, updated_at, version";
+
+    /**
+     * أعمدة عنصر الطلب بالترتيب الذي يتوقعه ORDER_ITEM
+     * Order item columns as expected by ORDER_ITEM
+     */
+    public static final String ORDER_ITEM_COLUMNS =
+            "id, display_id, order_id, product_id, product_name, product_name_ar, product_sku, quantity, " +
+            "unit_price, total_price, attributes::text AS attributes, created_at";
+
+    public static final RowMapper<Order> ORDER = (rs, rowNum) -> mapOrder(rs);
+
+    public static final RowMapper<OrderItem> ORDER_ITEM = (rs, rowNum) -> mapOrderItem(rs);
+
+    private OrderRowMapper() {
+    }
+
+    public static Order mapOrder(ResultSet rs) throws SQLException {
+        Order order = new Order();
+        order.setId(rs.getObject("id", UUID.class));
+        order.setDisplayId(rs.getString("display_id"));
+        order.setOrderNumber(rs.getString("order_number"));
+        order.setUserId(rs.getObject("user_id", UUID.class));
+        order.setStatus(OrderStatus.valueOf(rs.getString("status")));
+        order.setPaymentStatus(PaymentStatus.valueOf(rs.getString("payment_status")));
+        order.setCustomerEmail(rs.getString("customer_email"));
+        order.setCustomerPhone(rs.getString("customer_phone"));
+        order.setCustomerName(rs.getString("customer_name"));
+        order.setShippingAddress(rs.getString("shipping_address"));
+        order.setBillingAddress(rs.getString("billing_address"));
+        order.setSubtotal(rs.getBigDecimal("subtotal"));
+        order.setTaxAmount(rs.getBigDecimal("tax_amount"));
+        order.setShippingAmount(rs.getBigDecimal("shipping_amount"));
+        order.setDiscountAmount(rs.getBigDecimal("discount_amount"));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        order.setShippingMethod(rs.getString("shipping_method"));
+        order.setTrackingNumber(rs.getString("tracking_number"));
+        order.setShippedAt(toLocalDateTime(rs.getTimestamp("shipped_at")));
+        order.setDeliveredAt(toLocalDateTime(rs.getTimestamp("delivered_at")));
+        order.setNotes(rs.getString("notes"));
+        order.setCouponCode(rs.getString("coupon_code"));
+        order.setCurrency(rs.getString("currency"));
+        order.setOnexQuoteId(rs.getString("onex_quote_id"));
+        order.setOnexInvoiceId(rs.getString("onex_invoice_id"));
+        order.setOnexStatus(rs.getString("onex_status"));
+        order.setOnexSyncedAt(toLocalDateTime(rs.getTimestamp("onex_synced_at")));
+        order.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        order.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        order.setVersion(rs.getLong("version"));
+        return order;
+    }
+
+    public static OrderItem mapOrderItem(ResultSet rs) throws SQLException {
+        OrderItem item = new OrderItem();
+        item.setId(rs.getObject("id", UUID.class));
+        item.setDisplayId(rs.getString("display_id"));
+        item.setOrderId(rs.getObject("order_id", UUID.class));
+        item.setProductId(rs.getObject("product_id", UUID.class));
+        item.setProductName(rs.getString("product_name"));
+        item.setProductNameAr(rs.getString("product_name_ar"));
+        item.setProductSku(rs.getString("product_sku"));
+        item.setQuantity(rs.getInt("quantity"));
+        item.setUnitPrice(rs.getBigDecimal("unit_price"));
+        item.setTotalPrice(rs.getBigDecimal("total_price"));
+        item.setAttributes(rs.getString("attributes"));
+        item.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        return item;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
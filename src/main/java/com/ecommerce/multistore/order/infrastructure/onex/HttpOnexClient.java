@@ -0,0 +1,140 @@
+package com.ecommerce.multistore.order.infrastructure.onex;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * عميل HTTP لنظام OneX - محاولة واحدة لكل دفعة
+ * HTTP client for OneX - one attempt per batch
+ *
+ * الدفعة تُرسل في طلب واحد إلى /orders/batch ويعيد OneX نتيجة لكل مستند بمرجع معرف الطلب.
+ * إعادة المحاولة والتخفيف في OnexSyncService
+ * A batch goes out as one request to /orders/batch and OneX returns one result per document,
+ * referenced by order id. Retries and backoff live in OnexSyncService
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+class HttpOnexClient implements OnexClient {
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    HttpOnexClient(String baseUrl, String apiKey, Duration connectTimeout, Duration requestTimeout,
+                   ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.requestTimeout = requestTimeout;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @Override
+    public List<OnexSyncResult> pushOrders(List<OnexOrderDocument> documents) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set("orders", objectMapper.valueToTree(documents));
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize OneX batch", e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/orders/batch"))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (HttpConnectTimeoutException | ConnectException e) {
+            throw new OnexUnavailableException("connection failed: " + e.getMessage(), false);
+        } catch (HttpTimeoutException e) {
+            throw new OnexUnavailableException("request timed out", true);
+        } catch (IOException e) {
+            throw new OnexUnavailableException("I/O error: " + e.getMessage(), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OnexUnavailableException("interrupted", false);
+        }
+
+        int code = response.statusCode();
+        if (code == 429 || code == 503) {
+            throw new OnexUnavailableException("OneX returned HTTP " + code, true);
+        }
+        if (code >= 400) {
+            // خطأ على مستوى الدفعة - يُحسب محاولة لكل مستند حتى يصل إلى dead إن استمر
+            throw new OnexUnavailableException("OneX returned HTTP " + code, false);
+        }
+        return parse(response.body());
+    }
+
+    private List<OnexSyncResult> parse(String body) {
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new OnexUnavailableException("unreadable OneX response", false);
+        }
+
+        List<OnexSyncResult> results = new ArrayList<>();
+        for (JsonNode node : json.path("results")) {
+            UUID orderId;
+            try {
+                orderId = UUID.fromString(node.path("reference").asText());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            results.add(new OnexSyncResult(orderId, state(node.path("status").asText("")),
+                    text(node, "quote_id"), text(node, "invoice_id"), text(node, "onex_status"),
+                    text(node, "message"), node.toString()));
+        }
+        return results;
+    }
+
+    private OnexSyncResult.State state(String status) {
+        switch (status.toLowerCase(Locale.ROOT)) {
+            case "accepted":
+            case "created":
+            case "exists":
+                return OnexSyncResult.State.ACCEPTED;
+            case "rejected":
+            case "invalid":
+                return OnexSyncResult.State.REJECTED;
+            default:
+                return OnexSyncResult.State.RETRY;
+        }
+    }
+
+    private String text(JsonNode node, String field) {
+        return node.hasNonNull(field) ? node.get(field).asText() : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.multistore.order.infrastructure.onex;
+
+import java.util.List;
+
+/**
+ * عميل نظام OneX
+ * OneX ERP client
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public interface OnexClient {
+
+    /**
+     * إرسال دفعة طلبات إلى OneX
+     * Push a batch of orders to OneX
+     *
+     * @param documents مستندات الطلبات
+     * @return نتيجة لكل مستند؛ المستند الذي لا نتيجة له يُعاد لاحقاً
+     * @throws OnexUnavailableException إذا لم تُعالج الدفعة
+     */
+    List<OnexSyncResult> pushOrders(List<OnexOrderDocument> documents);
+}
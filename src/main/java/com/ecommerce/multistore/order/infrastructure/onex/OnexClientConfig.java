@@ -0,0 +1,52 @@
+package com.ecommerce.multistore.order.infrastructure.onex;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * اختيار عميل OneX
+ * OneX client selection
+ *
+ * العميل الحقيقي هو الافتراضي ويتطلب app.onex.base-url، فغيابه يوقف التشغيل بدلاً من كتابة معرفات
+ * مزيفة على الطلبات. العميل المحاكى يُفعَّل صراحة فقط بـ app.onex.client=simulated (ملف dev)
+ * The real client is the default and requires app.onex.base-url, so a missing URL stops startup
+ * instead of writing fake ids onto orders. The simulated client is only enabled explicitly with
+ * app.onex.client=simulated (the dev profile)
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Configuration
+public class OnexClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnexClientConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "app.onex.client", havingValue = "http", matchIfMissing = true)
+    public OnexClient onexClient(@Value("${app.onex.base-url:}") String baseUrl,
+                                 @Value("${app.onex.api-key:}") String apiKey,
+                                 @Value("${app.onex.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                 @Value("${app.onex.request-timeout-ms:15000}") long requestTimeoutMs,
+                                 ObjectMapper objectMapper) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            throw new IllegalStateException(
+                    "app.onex.base-url (ONEX_API_URL) is required; set app.onex.client=simulated to run without OneX");
+        }
+        return new HttpOnexClient(baseUrl, apiKey, Duration.ofMillis(connectTimeoutMs),
+                Duration.ofMillis(requestTimeoutMs), objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.onex.client", havingValue = "simulated")
+    public OnexClient simulatedOnexClient() {
+        logger.warn("Using the simulated OneX client - orders get fake OneX ids");
+        return new SimulatedOnexClient();
+    }
+}
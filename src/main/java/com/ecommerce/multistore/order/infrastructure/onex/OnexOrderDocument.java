@@ -0,0 +1,118 @@
+package com.ecommerce.multistore.order.infrastructure.onex;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * مستند الطلب المرسل إلى OneX
+ * Order document pushed to OneX
+ *
+ * معرف الطلب هو المرجع لدى OneX، فإعادة إرسال نفس المستند لا تنشئ فاتورة ثانية
+ * The order id is the OneX-side reference, so pushing the same document again creates no second invoice
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OnexOrderDocument {
+
+    private UUID orderId;
+    private String orderNumber;
+    private String customerName;
+    private String customerEmail;
+    private String customerPhone;
+    private String shippingAddress;
+    private String paymentStatus;
+    private String currency;
+    private BigDecimal subtotal;
+    private BigDecimal taxAmount;
+    private BigDecimal shippingAmount;
+    private BigDecimal discountAmount;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+    private List<Line> lines = new ArrayList<>();
+
+    // Getters and Setters
+    public UUID getOrderId() { return orderId; }
+    public void setOrderId(UUID orderId) { this.orderId = orderId; }
+
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getCustomerEmail() { return customerEmail; }
+    public void setCustomerEmail(String customerEmail) { this.customerEmail = customerEmail; }
+
+    public String getCustomerPhone() { return customerPhone; }
+    public void setCustomerPhone(String customerPhone) { this.customerPhone = customerPhone; }
+
+    @JsonRawValue
+    public String getShippingAddress() { return shippingAddress; }
+    public void setShippingAddress(String shippingAddress) { this.shippingAddress = shippingAddress; }
+
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+
+    public BigDecimal getSubtotal() { return subtotal; }
+    public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+
+    public BigDecimal getTaxAmount() { return taxAmount; }
+    public void setTaxAmount(BigDecimal taxAmount) { this.taxAmount = taxAmount; }
+
+    public BigDecimal getShippingAmount() { return shippingAmount; }
+    public void setShippingAmount(BigDecimal shippingAmount) { this.shippingAmount = shippingAmount; }
+
+    public BigDecimal getDiscountAmount() { return discountAmount; }
+    public void setDiscountAmount(BigDecimal discountAmount) { this.discountAmount = discountAmount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public List<Line> getLines() { return lines; }
+    public void setLines(List<Line> lines) { this.lines = lines; }
+
+    /**
+     * سطر في مستند الطلب
+     * A line of the order document
+     */
+    public static class Line {
+
+        private UUID productId;
+        private String sku;
+        private String name;
+        private int quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal totalPrice;
+
+        // Getters and Setters
+        public UUID getProductId() { return productId; }
+        public void setProductId(UUID productId) { this.productId = productId; }
+
+        public String getSku() { return sku; }
+        public void setSku(String sku) { this.sku = sku; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+
+        public BigDecimal getUnitPrice() { return unitPrice; }
+        public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+
+        public BigDecimal getTotalPrice() { return totalPrice; }
+        public void setTotalPrice(BigDecimal totalPrice) { this.totalPrice = totalPrice; }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.multistore.order.infrastructure.onex;
+
+import java.util.UUID;
+
+/**
+ * نتيجة مزامنة طلب واحد كما أعادها OneX
+ * Sync outcome of one order as reported by OneX
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OnexSyncResult {
+
+    private final UUID orderId;
+    private final State state;
+    private final String quoteId;
+    private final String invoiceId;
+    private final String onexStatus;
+    private final String message;
+    private final String rawResponse;
+
+    public OnexSyncResult(UUID orderId, State state, String quoteId, String invoiceId, String onexStatus,
+                          String message, String rawResponse) {
+        this.orderId = orderId;
+        this.state = state;
+        this.quoteId = quoteId;
+        this.invoiceId = invoiceId;
+        this.onexStatus = onexStatus;
+        this.message = message;
+        this.rawResponse = rawResponse;
+    }
+
+    public static OnexSyncResult retry(UUID orderId, String message) {
+        return new OnexSyncResult(orderId, State.RETRY, null, null, null, message, null);
+    }
+
+    public UUID getOrderId() { return orderId; }
+
+    public State getState() { return state; }
+
+    public String getQuoteId() { return quoteId; }
+
+    public String getInvoiceId() { return invoiceId; }
+
+    public String getOnexStatus() { return onexStatus; }
+
+    public String getMessage() { return message; }
+
+    public String getRawResponse() { return rawResponse; }
+
+    /**
+     * الحالات الممكنة
+     * Possible states
+     */
+    public enum State {
+        ACCEPTED,
+        REJECTED,   // رفض نهائي (بيانات غير صالحة) - لا فائدة من إعادة المحاولة
+        RETRY       // خطأ مؤقت في هذا المستند - يعاد لاحقاً
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.multistore.order.infrastructure.onex;
+
+/**
+ * OneX غير متاح - لم تُعالج الدفعة
+ * OneX unavailable - the batch was not processed
+ *
+ * كل طلبات الدفعة تُعاد لاحقاً. overloaded تعني أن OneX طلب التخفيف (429 أو 503 أو مهلة)
+ * فيخفض العامل تزامنه
+ * Every order of the batch is retried later. overloaded means OneX asked us to back off
+ * (429, 503 or a timeout), so the worker lowers its concurrency
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OnexUnavailableException extends RuntimeException {
+
+    private final boolean overloaded;
+
+    public OnexUnavailableException(String message, boolean overloaded) {
+        super(message, null, false, false);
+        this.overloaded = overloaded;
+    }
+
+    public boolean isOverloaded() { return overloaded; }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.multistore.order.infrastructure.onex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * عميل OneX محاكى للتطوير المحلي
+ * Simulated OneX client for local development
+ *
+ * يُفعَّل صراحة بـ app.onex.client=simulated فقط. يرفض 2% من الدفعات كحمل زائد ويؤجل 3% من
+ * المستندات، فتظهر مسارات التخفيف وإعادة المحاولة محلياً
+ * Only enabled explicitly with app.onex.client=simulated. It rejects 2% of batches as overloaded and defers 3%
+ * of documents, so the backoff and retry paths show up locally
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+class SimulatedOnexClient implements OnexClient {
+
+    @Override
+    public List<OnexSyncResult> pushOrders(List<OnexOrderDocument> documents) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < 0.02) {
+            throw new OnexUnavailableException("simulated overload", true);
+        }
+
+        List<OnexSyncResult> results = new ArrayList<>(documents.size());
+        for (OnexOrderDocument document : documents) {
+            if (random.nextDouble() < 0.03) {
+                results.add(OnexSyncResult.retry(document.getOrderId(), "simulated transient error"));
+                continue;
+            }
+            String suffix = document.getOrderNumber();
+            results.add(new OnexSyncResult(document.getOrderId(), OnexSyncResult.State.ACCEPTED,
+                    "QT-" + suffix, "INV-" + suffix, "posted", null,
+                    String.format("{\"status\":\"accepted\",\"invoice_id\":\"INV-%s\"}", suffix)));
+        }
+        return results;
+    }
+}
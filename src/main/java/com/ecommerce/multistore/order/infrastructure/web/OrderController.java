@@ -1,17 +1,37 @@
 package com.ecommerce.multistore.order.infrastructure.web;
 
+import com.ecommerce.multistore.order.application.dto.BulkOrderRequest;
+import com.ecommerce.multistore.order.application.dto.BulkOrderResponse;
 import com.ecommerce.multistore.order.application.dto.CreateOrderRequest;
+import com.ecommerce.multistore.order.application.dto.CustomerOrderSummaryPage;
 import com.ecommerce.multistore.order.application.dto.OrderResponse;
+import com.ecommerce.multistore.order.application.dto.OrderSearchRequest;
+import com.ecommerce.multistore.order.application.dto.OrderSearchResponse;
+import com.ecommerce.multistore.order.application.dto.OrderSlaMetricResponse;
+import com.ecommerce.multistore.order.application.dto.OrderStatusHistoryEntry;
+import com.ecommerce.multistore.order.application.service.CustomerOrderSummaryService;
+import com.ecommerce.multistore.order.application.service.OnexSyncService;
+import com.ecommerce.multistore.order.application.service.OrderBulkService;
+import com.ecommerce.multistore.order.application.service.OrderHistoryService;
+import com.ecommerce.multistore.order.application.service.OrderSearchService;
 import com.ecommerce.multistore.order.application.service.OrderService;
+import com.ecommerce.multistore.order.domain.OrderScope;
 import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.OrderTransition;
 import com.ecommerce.multistore.order.domain.PaymentStatus;
+import com.ecommerce.multistore.shared.idempotency.IdempotencyStore;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,27 +48,57 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class OrderController {
 
+    private static final String IDEMPOTENCY_SCOPE = "orders";
+
     private final OrderService orderService;
+    private final OrderBulkService orderBulkService;
+    private final OrderHistoryService orderHistoryService;
+    private final CustomerOrderSummaryService customerOrderSummaryService;
+    private final OrderSearchService orderSearchService;
+    private final OnexSyncService onexSyncService;
+    private final IdempotencyStore idempotencyStore;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderBulkService orderBulkService,
+                           OrderHistoryService orderHistoryService,
+                           CustomerOrderSummaryService customerOrderSummaryService,
+                           OrderSearchService orderSearchService,
+                           OnexSyncService onexSyncService,
+                           IdempotencyStore idempotencyStore) {
         this.orderService = orderService;
+        this.orderBulkService = orderBulkService;
+        this.orderHistoryService = orderHistoryService;
+        this.customerOrderSummaryService = customerOrderSummaryService;
+        this.orderSearchService = orderSearchService;
+        this.onexSyncService = onexSyncService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
      * إنشاء طلب جديد
      * Create a new order
      * 
+     * تكرار الطلب بنفس ترويسة Idempotency-Key يعيد الطلب الأصلي دون إنشاء طلب جديد
+     * Repeating the request with the same Idempotency-Key header returns the original order
+     * without creating another one
+     * 
      * @param request بيانات الطلب الجديد
+     * @param idempotencyKey مفتاح عدم التكرار (اختياري)
+     * @param httpRequest طلب HTTP - لتحديد مالك المفتاح
      * @return ResponseEntity<OrderResponse> الطلب المُنشأ أو رسالة خطأ
      * 
      * @apiNote POST /api/v1/orders
      * @since 1.0
      */
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    public ResponseEntity<OrderResponse> createOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) {
         try {
-            OrderResponse order = orderService.createOrder(request);
+            OrderResponse order = idempotencyStore.execute(IDEMPOTENCY_SCOPE, idempotencyKey,
+                    IdempotencyStore.callerOf(httpRequest), request, OrderResponse.class,
+                    () -> orderService.createOrder(request));
             return new ResponseEntity<>(order, HttpStatus.CREATED);
         } catch (IllegalArgumentException | IllegalStateException e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
@@ -84,14 +134,17 @@ public class OrderController {
      * Find order by UUID
      * 
      * @param id المعرف الفريد للطلب
+     * @param scope نطاق البحث (HOT افتراضياً، ARCHIVE أو ALL للطلبات المؤرشفة)
      * @return ResponseEntity<OrderResponse> الطلب أو 404
      * 
-     * @apiNote GET /api/v1/orders/{id}
+     * @apiNote GET /api/v1/orders/{id}?scope=ALL
      * @since 1.0
      */
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable UUID id) {
-        Optional<OrderResponse> order = orderService.findById(id);
+    public ResponseEntity<OrderResponse> getOrderById(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "HOT") OrderScope scope) {
+        Optional<OrderResponse> order = orderService.findById(id, scope);
         return order.map(orderResponse -> new ResponseEntity<>(orderResponse, HttpStatus.OK))
                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
@@ -101,14 +154,17 @@ public class OrderController {
      * Find order by display ID
      * 
      * @param displayId المعرف المعروض
+     * @param scope نطاق البحث
      * @return ResponseEntity<OrderResponse> الطلب أو 404
      * 
-     * @apiNote GET /api/v1/orders/display/{displayId}
+     * @apiNote GET /api/v1/orders/display/{displayId}?scope=ALL
      * @since 1.0
      */
     @GetMapping("/display/{displayId}")
-    public ResponseEntity<OrderResponse> getOrderByDisplayId(@PathVariable String displayId) {
-        Optional<OrderResponse> order = orderService.findByDisplayId(displayId);
+    public ResponseEntity<OrderResponse> getOrderByDisplayId(
+            @PathVariable String displayId,
+            @RequestParam(defaultValue = "HOT") OrderScope scope) {
+        Optional<OrderResponse> order = orderService.findByDisplayId(displayId, scope);
         return order.map(orderResponse -> new ResponseEntity<>(orderResponse, HttpStatus.OK))
                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
@@ -118,14 +174,17 @@ public class OrderController {
      * Find order by order number
      * 
      * @param orderNumber رقم الطلب
+     * @param scope نطاق البحث
      * @return ResponseEntity<OrderResponse> الطلب أو 404
      * 
-     * @apiNote GET /api/v1/orders/number/{orderNumber}
+     * @apiNote GET /api/v1/orders/number/{orderNumber}?scope=ALL
      * @since 1.0
      */
     @GetMapping("/number/{orderNumber}")
-    public ResponseEntity<OrderResponse> getOrderByNumber(@PathVariable String orderNumber) {
-        Optional<OrderResponse> order = orderService.findByOrderNumber(orderNumber);
+    public ResponseEntity<OrderResponse> getOrderByNumber(
+            @PathVariable String orderNumber,
+            @RequestParam(defaultValue = "HOT") OrderScope scope) {
+        Optional<OrderResponse> order = orderService.findByOrderNumber(orderNumber, scope);
         return order.map(orderResponse -> new ResponseEntity<>(orderResponse, HttpStatus.OK))
                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
@@ -137,21 +196,71 @@ public class OrderController {
      * @param userId معرف المستخدم
      * @param page رقم الصفحة
      * @param size عدد العناصر في الصفحة
+     * @param scope نطاق البحث
      * @return ResponseEntity<Page<OrderResponse>> صفحة من طلبات المستخدم
      * 
-     * @apiNote GET /api/v1/orders/user/{userId}?page=0&size=10
+     * @apiNote GET /api/v1/orders/user/{userId}?page=0&size=10&scope=ALL
      * @since 1.0
      */
     @GetMapping("/user/{userId}")
     public ResponseEntity<Page<OrderResponse>> getUserOrders(
             @PathVariable UUID userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "HOT") OrderScope scope) {
         
-        Page<OrderResponse> orders = orderService.getUserOrders(userId, page, size);
+        Page<OrderResponse> orders = orderService.getUserOrders(userId, page, size, scope);
         return new ResponseEntity<>(orders, HttpStatus.OK);
     }
 
+    /**
+     * قائمة "طلباتي" من جدول الملخصات
+     * "My Orders" list from the summary table
+     * 
+     * @param userId معرف المستخدم
+     * @param cursor مؤشر الصفحة التالية من الاستجابة السابقة (اختياري)
+     * @param size عدد العناصر في الصفحة
+     * @return ResponseEntity<CustomerOrderSummaryPage> ملخصات الطلبات، الأحدث أولاً، أو 400 لمؤشر غير صالح
+     * 
+     * @apiNote GET /api/v1/orders/user/{userId}/summaries?size=20&cursor=...
+     * @since 1.0
+     */
+    @GetMapping("/user/{userId}/summaries")
+    public ResponseEntity<CustomerOrderSummaryPage> getUserOrderSummaries(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return new ResponseEntity<>(customerOrderSummaryService.getUserOrders(userId, cursor, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * قائمة طلبات الزائر (بلا حساب) ببريده
+     * Guest (no account) order list by email
+     * 
+     * @param email بريد العميل
+     * @param cursor مؤشر الصفحة التالية من الاستجابة السابقة (اختياري)
+     * @param size عدد العناصر في الصفحة
+     * @return ResponseEntity<CustomerOrderSummaryPage> ملخصات الطلبات، الأحدث أولاً، أو 400 لمؤشر غير صالح
+     * 
+     * @apiNote GET /api/v1/orders/guest/summaries?email=buyer@example.com&size=20&cursor=...
+     * @since 1.0
+     */
+    @GetMapping("/guest/summaries")
+    public ResponseEntity<CustomerOrderSummaryPage> getGuestOrderSummaries(
+            @RequestParam String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return new ResponseEntity<>(customerOrderSummaryService.getGuestOrders(email, cursor, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * البحث بواسطة الحالة
      * Find orders by status
@@ -159,21 +268,76 @@ public class OrderController {
      * @param status حالة الطلب
      * @param page رقم الصفحة
      * @param size عدد العناصر في الصفحة
+     * @param scope نطاق البحث
      * @return ResponseEntity     * @return ResponseEntity<Page<OrderResponse>> صفحة من الطلبات
      * 
-     * @apiNote GET /api/v1/orders/status/{status}?page=0&size=10
+     * @apiNote GET /api/v1/orders/status/{status}?page=0&size=10&scope=ARCHIVE
      * @since 1.0
      */
     @GetMapping("/status/{status}")
     public ResponseEntity<Page<OrderResponse>> getOrdersByStatus(
             @PathVariable OrderStatus status,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "HOT") OrderScope scope) {
         
-        Page<OrderResponse> orders = orderService.getOrdersByStatus(status, page, size);
+        Page<OrderResponse> orders = orderService.getOrdersByStatus(status, page, size, scope);
         return new ResponseEntity<>(orders, HttpStatus.OK);
     }
 
+    /**
+     * البحث بواسطة بريد العميل
+     * Find orders by customer email
+     * 
+     * @param email بريد العميل
+     * @param page رقم الصفحة
+     * @param size عدد العناصر في الصفحة
+     * @param scope نطاق البحث
+     * @return ResponseEntity<Page<OrderResponse>> صفحة من الطلبات
+     * 
+     * @apiNote GET /api/v1/orders/customer?email=buyer@example.com&page=0&size=10&scope=ALL
+     * @since 1.0
+     */
+    @GetMapping("/customer")
+    public ResponseEntity<Page<OrderResponse>> getOrdersByCustomerEmail(
+            @RequestParam String email,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "HOT") OrderScope scope) {
+        
+        Page<OrderResponse> orders = orderService.getOrdersByCustomerEmail(email, page, size, scope);
+        return new ResponseEntity<>(orders, HttpStatus.OK);
+    }
+
+    /**
+     * البحث بواسطة فترة الإنشاء
+     * Find orders by creation date range
+     * 
+     * @param from بداية الفترة
+     * @param to نهاية الفترة
+     * @param page رقم الصفحة
+     * @param size عدد العناصر في الصفحة
+     * @param scope نطاق البحث
+     * @return ResponseEntity<Page<OrderResponse>> صفحة من الطلبات أو 400 لفترة غير صالحة
+     * 
+     * @apiNote GET /api/v1/orders/date-range?from=2024-01-01T00:00:00&to=2024-02-01T00:00:00&scope=ARCHIVE
+     * @since 1.0
+     */
+    @GetMapping("/date-range")
+    public ResponseEntity<Page<OrderResponse>> getOrdersByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "HOT") OrderScope scope) {
+        try {
+            Page<OrderResponse> orders = orderService.getOrdersByDateRange(from, to, page, size, scope);
+            return new ResponseEntity<>(orders, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
     /**
      * تحديث حالة الطلب
      * Update order status
@@ -291,6 +455,144 @@ public class OrderController {
         }
     }
 
+    /**
+     * الخط الزمني للطلب
+     * Order timeline
+     * 
+     * @param id معرف الطلب
+     * @return ResponseEntity<List<OrderStatusHistoryEntry>> انتقالات الحالة بالترتيب أو 404
+     * 
+     * @apiNote GET /api/v1/orders/{id}/timeline
+     * @since 1.0
+     */
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<List<OrderStatusHistoryEntry>> getOrderTimeline(@PathVariable UUID id) {
+        try {
+            return new ResponseEntity<>(orderHistoryService.getTimeline(id), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * إعادة مزامنة طلب فاشلة أو متوقفة مع OneX
+     * Requeue a failed or dead-lettered OneX sync for an order
+     * 
+     * @param id معرف الطلب
+     * @return ResponseEntity<Void> 202 عند الإضافة للطابور أو 404 إذا لم توجد مزامنة فاشلة
+     * 
+     * @apiNote POST /api/v1/orders/{id}/onex-sync
+     * @since 1.0
+     */
+    @PostMapping("/{id}/onex-sync")
+    public ResponseEntity<Void> requeueOnexSync(@PathVariable UUID id) {
+        try {
+            onexSyncService.requeue(id);
+            return new ResponseEntity<>(HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * بحث الطلبات للوحة الإدارة
+     * Admin order search
+     * 
+     * معايير اختيارية تُجمع بـ AND؛ للصفحة التالية يُرسل nextCursor من الاستجابة السابقة
+     * Optional criteria combined with AND; pass the previous response's nextCursor for the next page
+     * 
+     * @param request معايير البحث
+     * @return ResponseEntity<OrderSearchResponse> صفحة النتائج ومؤشر التالية
+     * 
+     * @apiNote GET /api/v1/orders/search?customer=0791&status=SHIPPED&minAmount=50&size=20
+     * @since 1.0
+     */
+    @GetMapping("/search")
+    public ResponseEntity<OrderSearchResponse> searchOrders(@Valid OrderSearchRequest request) {
+        try {
+            return new ResponseEntity<>(orderSearchService.search(request), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * مئينات زمن تنفيذ الطلبات
+     * Order fulfillment SLA percentiles
+     * 
+     * زمن التأكيد والشحن والتسليم من إنشاء الطلب، للطلبات التي بلغت الحالة خلال النطاق
+     * Time to confirm, ship and deliver from order creation, for orders that reached the status within the range
+     * 
+     * @param from أول يوم
+     * @param to آخر يوم
+     * @return ResponseEntity<List<OrderSlaMetricResponse>> المئينات لكل مؤشر
+     * 
+     * @apiNote GET /api/v1/orders/sla?from=2024-01-01&to=2024-01-31
+     * @since 1.0
+     */
+    @GetMapping("/sla")
+    public ResponseEntity<List<OrderSlaMetricResponse>> getSlaMetrics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return new ResponseEntity<>(orderHistoryService.getSlaMetrics(from, to), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * شحن جماعي للطلبات
+     * Bulk ship orders
+     * 
+     * كل عنصر يحمل معرف الطلب ورقم التتبع. العناصر الفاشلة لا توقف الباقي وتظهر في النتيجة مع السبب
+     * Each item carries the order id and its tracking number. Failed items do not stop the rest and
+     * are reported with a reason
+     * 
+     * @param request الطلبات وأرقام التتبع
+     * @return ResponseEntity<BulkOrderResponse> نتيجة كل عنصر
+     * 
+     * @apiNote POST /api/v1/orders/bulk/ship
+     * @since 1.0
+     */
+    @PostMapping("/bulk/ship")
+    public ResponseEntity<BulkOrderResponse> bulkShipOrders(@Valid @RequestBody BulkOrderRequest request) {
+        return new ResponseEntity<>(orderBulkService.apply(OrderTransition.SHIP, request), HttpStatus.OK);
+    }
+
+    /**
+     * تسليم جماعي للطلبات
+     * Bulk deliver orders
+     * 
+     * @param request الطلبات
+     * @return ResponseEntity<BulkOrderResponse> نتيجة كل عنصر
+     * 
+     * @apiNote POST /api/v1/orders/bulk/deliver
+     * @since 1.0
+     */
+    @PostMapping("/bulk/deliver")
+    public ResponseEntity<BulkOrderResponse> bulkDeliverOrders(@Valid @RequestBody BulkOrderRequest request) {
+        return new ResponseEntity<>(orderBulkService.apply(OrderTransition.DELIVER, request), HttpStatus.OK);
+    }
+
+    /**
+     * إلغاء جماعي للطلبات
+     * Bulk cancel orders
+     * 
+     * آمن لإعادة الإرسال: الطلبات الملغاة تظهر INVALID_STATE
+     * Safe to resubmit: already cancelled orders report INVALID_STATE
+     * 
+     * @param request الطلبات
+     * @return ResponseEntity<BulkOrderResponse> نتيجة كل عنصر
+     * 
+     * @apiNote POST /api/v1/orders/bulk/cancel
+     * @since 1.0
+     */
+    @PostMapping("/bulk/cancel")
+    public ResponseEntity<BulkOrderResponse> bulkCancelOrders(@Valid @RequestBody BulkOrderRequest request) {
+        return new ResponseEntity<>(orderBulkService.apply(OrderTransition.CANCEL, request), HttpStatus.OK);
+    }
+
     /**
      * فحص صحة نظام الطلبات
      * Order system health check
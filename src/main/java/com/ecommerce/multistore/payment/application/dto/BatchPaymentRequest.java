@@ -0,0 +1,29 @@
+package com.ecommerce.multistore.payment.application.dto;
+
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * طلب تسوية أو استرداد جماعي
+ * Batch settlement or refund request
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class BatchPaymentRequest {
+
+    @NotEmpty(message = "Items list is required")
+    @Size(max = AppConstants.MAX_BATCH_PAYMENTS, message = "Too many payments in one request")
+    private List<@Valid PaymentBatchItem> items;
+
+    // Constructors
+    public BatchPaymentRequest() {}
+
+    // Getters and Setters
+    public List<PaymentBatchItem> getItems() { return items; }
+    public void setItems(List<PaymentBatchItem> items) { this.items = items; }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.multistore.payment.application.dto;
+
+import com.ecommerce.multistore.payment.domain.LedgerAccountType;
+import com.ecommerce.multistore.payment.domain.WalletType;
+
+import java.math.BigDecimal;
+
+/**
+ * رصيد حساب في دفتر المحافظ
+ * Wallet ledger account balance
+ *
+ * الرصيد موجب للمدين وسالب للدائن
+ * The balance is positive for debit and negative for credit
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class LedgerAccountBalance {
+
+    private String code;
+    private LedgerAccountType accountType;
+    private WalletType walletType;
+    private String ownerRef;
+    private BigDecimal balance;
+
+    // Constructors
+    public LedgerAccountBalance() {}
+
+    public LedgerAccountBalance(String code, LedgerAccountType accountType, WalletType walletType,
+                                String ownerRef, BigDecimal balance) {
+        this.code = code;
+        this.accountType = accountType;
+        this.walletType = walletType;
+        this.ownerRef = ownerRef;
+        this.balance = balance;
+    }
+
+    // Getters and Setters
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+
+    public LedgerAccountType getAccountType() { return accountType; }
+    public void setAccountType(LedgerAccountType accountType) { this.accountType = accountType; }
+
+    public WalletType getWalletType() { return walletType; }
+    public void setWalletType(WalletType walletType) { this.walletType = walletType; }
+
+    public String getOwnerRef() { return ownerRef; }
+    public void setOwnerRef(String ownerRef) { this.ownerRef = ownerRef; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.multistore.payment.application.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ميزان المراجعة لدفتر المحافظ
+ * Wallet ledger trial balance
+ *
+ * حسابات العملاء مجمعة في سطر واحد؛ مجموع المدين يساوي مجموع الدائن في دفتر سليم
+ * Customer accounts are aggregated into one line; debits equal credits in a sound ledger
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class LedgerTrialBalanceResponse {
+
+    private LocalDateTime asOf;
+    private List<LedgerAccountBalance> accounts;
+    private BigDecimal totalDebits;
+    private BigDecimal totalCredits;
+    private boolean balanced;
+
+    // Constructors
+    public LedgerTrialBalanceResponse() {}
+
+    public LedgerTrialBalanceResponse(LocalDateTime asOf, List<LedgerAccountBalance> accounts) {
+        this.asOf = asOf;
+        this.accounts = accounts;
+        this.totalDebits = BigDecimal.ZERO;
+        this.totalCredits = BigDecimal.ZERO;
+        for (LedgerAccountBalance account : accounts) {
+            if (account.getBalance().signum() > 0) {
+                totalDebits = totalDebits.add(account.getBalance());
+            } else {
+                totalCredits = totalCredits.add(account.getBalance().negate());
+            }
+        }
+        this.balanced = totalDebits.compareTo(totalCredits) == 0;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getAsOf() { return asOf; }
+    public void setAsOf(LocalDateTime asOf) { this.asOf = asOf; }
+
+    public List<LedgerAccountBalance> getAccounts() { return accounts; }
+    public void setAccounts(List<LedgerAccountBalance> accounts) { this.accounts = accounts; }
+
+    public BigDecimal getTotalDebits() { return totalDebits; }
+    public void setTotalDebits(BigDecimal totalDebits) { this.totalDebits = totalDebits; }
+
+    public BigDecimal getTotalCredits() { return totalCredits; }
+    public void setTotalCredits(BigDecimal totalCredits) { this.totalCredits = totalCredits; }
+
+    public boolean isBalanced() { return balanced; }
+    public void setBalanced(boolean balanced) { this.balanced = balanced; }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.multistore.payment.application.dto;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.UUID;
+
+/**
+ * عنصر في طلب تسوية أو استرداد جماعي
+ * One item of a batch settlement or refund request
+ *
+ * يُحدد الدفع بـ paymentId أو reference (أحدهما فقط)؛ المرجع يطابق رقم المعاملة أو رقم معاملة البوابة
+ * The payment is identified by paymentId or reference (exactly one); the reference matches
+ * either the transaction id or the gateway transaction id
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class PaymentBatchItem {
+
+    private UUID paymentId;
+
+    @Size(max = 255, message = "Reference cannot exceed 255 characters")
+    private String reference;
+
+    /**
+     * الإجراء عند التسوية - CONFIRM افتراضياً
+     * Settlement action - CONFIRM by default
+     */
+    private SettlementAction action = SettlementAction.CONFIRM;
+
+    @Size(max = 255, message = "Gateway transaction ID cannot exceed 255 characters")
+    private String gatewayTransactionId;
+
+    private String reason;
+
+    // Constructors
+    public PaymentBatchItem() {}
+
+    // Business Methods
+    public boolean hasValidTarget() {
+        return (paymentId != null) ^ (reference != null && !reference.isBlank());
+    }
+
+    // Getters and Setters
+    public UUID getPaymentId() { return paymentId; }
+    public void setPaymentId(UUID paymentId) { this.paymentId = paymentId; }
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    public SettlementAction getAction() { return action; }
+    public void setAction(SettlementAction action) { this.action = action; }
+
+    public String getGatewayTransactionId() { return gatewayTransactionId; }
+    public void setGatewayTransactionId(String gatewayTransactionId) { this.gatewayTransactionId = gatewayTransactionId; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    /**
+     * إجراء التسوية
+     * Settlement action
+     */
+    public enum SettlementAction {
+        CONFIRM,
+        REJECT
+    }
+}
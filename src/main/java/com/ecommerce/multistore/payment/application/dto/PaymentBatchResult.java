@@ -0,0 +1,61 @@
+package com.ecommerce.multistore.payment.application.dto;
+
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+
+import java.util.UUID;
+
+/**
+ * نتيجة عنصر في عملية جماعية
+ * Per-item result of a batch operation
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class PaymentBatchResult {
+
+    private int index;
+    private UUID paymentId;
+    private Status status;
+    private PaymentStatus paymentStatus;
+    private String message;
+
+    // Constructors
+    public PaymentBatchResult() {}
+
+    public PaymentBatchResult(int index, UUID paymentId, Status status, PaymentStatus paymentStatus, String message) {
+        this.index = index;
+        this.paymentId = paymentId;
+        this.status = status;
+        this.paymentStatus = paymentStatus;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public UUID getPaymentId() { return paymentId; }
+    public void setPaymentId(UUID paymentId) { this.paymentId = paymentId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    /**
+     * حالة العنصر
+     * Item status
+     */
+    public enum Status {
+        APPLIED,
+        NOT_FOUND,
+        INVALID_STATE,  // حالة الدفع لا تسمح بالعملية
+        DUPLICATE,      // نفس الدفع مكرر في الطلب - يُطبق أول ظهور فقط
+        PROVIDER_FAILED,
+        INVALID
+    }
+}
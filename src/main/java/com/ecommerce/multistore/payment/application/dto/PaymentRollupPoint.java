@@ -0,0 +1,54 @@
+package com.ecommerce.multistore.payment.application.dto;
+
+import com.ecommerce.multistore.payment.domain.PaymentMethod;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * نقطة في سلسلة المدفوعات الزمنية
+ * A point of the payment time series
+ *
+ * عدد ومبلغ المدفوعات المُنشأة في الفترة حسب طريقة الدفع وحالتها الحالية
+ * Count and amount of payments created in the bucket, by method and current status
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class PaymentRollupPoint {
+
+    private LocalDateTime bucketStart;
+    private PaymentMethod paymentMethod;
+    private PaymentStatus status;
+    private long paymentCount;
+    private BigDecimal totalAmount;
+
+    // Constructors
+    public PaymentRollupPoint() {}
+
+    public PaymentRollupPoint(LocalDateTime bucketStart, PaymentMethod paymentMethod, PaymentStatus status,
+                              long paymentCount, BigDecimal totalAmount) {
+        this.bucketStart = bucketStart;
+        this.paymentMethod = paymentMethod;
+        this.status = status;
+        this.paymentCount = paymentCount;
+        this.totalAmount = totalAmount;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public PaymentStatus getStatus() { return status; }
+    public void setStatus(PaymentStatus status) { this.status = status; }
+
+    public long getPaymentCount() { return paymentCount; }
+    public void setPaymentCount(long paymentCount) { this.paymentCount = paymentCount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+}
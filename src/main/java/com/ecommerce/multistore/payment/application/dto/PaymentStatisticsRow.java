@@ -0,0 +1,23 @@
+package com.ecommerce.multistore.payment.application.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * صف إحصائيات لكل (حالة، طريقة دفع)
+ * Statistics row per (status, payment method)
+ *
+ * ناتج استعلام تجميعي واحد؛ كل أرقام لوحة المدفوعات تُشتق من هذه الصفوف
+ * Output of a single grouped query; every payment dashboard figure is derived from these rows
+ */
+public interface PaymentStatisticsRow {
+
+    String getStatus();
+
+    String getPaymentMethod();
+
+    long getPaymentCount();
+
+    BigDecimal getCompletedAmount();
+
+    BigDecimal getTodayAmount();
+}
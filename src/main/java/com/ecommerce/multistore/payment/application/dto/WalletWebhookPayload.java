@@ -0,0 +1,60 @@
+package com.ecommerce.multistore.payment.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * جسم webhook من مزود المحفظة
+ * Wallet provider webhook payload
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WalletWebhookPayload {
+
+    @JsonProperty("event_id")
+    private String eventId;
+
+    @JsonProperty("transaction_reference")
+    private String transactionReference;
+
+    @JsonProperty("wallet_transaction_id")
+    private String walletTransactionId;
+
+    // completed | failed | pending
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("message")
+    private String message;
+
+    // Constructors
+    public WalletWebhookPayload() {}
+
+    /**
+     * التحقق من الحقول الإلزامية
+     * Whether the required fields are present
+     */
+    public boolean isValid() {
+        return eventId != null && !eventId.isBlank()
+                && transactionReference != null && !transactionReference.isBlank()
+                && status != null && !status.isBlank();
+    }
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public String getTransactionReference() { return transactionReference; }
+    public void setTransactionReference(String transactionReference) { this.transactionReference = transactionReference; }
+
+    public String getWalletTransactionId() { return walletTransactionId; }
+    public void setWalletTransactionId(String walletTransactionId) { this.walletTransactionId = walletTransactionId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,468 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.application.dto.BatchPaymentRequest;
+import com.ecommerce.multistore.payment.application.dto.BatchPaymentResponse;
+import com.ecommerce.multistore.payment.application.dto.PaymentBatchItem;
+import com.ecommerce.multistore.payment.application.dto.PaymentBatchResult;
+import com.ecommerce.multistore.payment.domain.PaymentMethod;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.payment.domain.event.PaymentStatusChangedEvent;
+import com.ecommerce.multistore.payment.infrastructure.WalletTransactionRepository;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderClient;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderStatus;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import com.ecommerce.multistore.shared.resilience.Deadline;
+import com.ecommerce.multistore.shared.resilience.Throttle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * خدمة التسوية والاسترداد الجماعي
+ * Batch settlement and refund service
+ *
+ * تعمل على دفعات: استعلام واحد لتحديد المدفوعات بالمعرف أو المرجع، ثم تحديث واحد قائم على
+ * المجموعات لكل دفعة في معاملة مستقلة. فشل عنصر لا يوقف الباقي ويظهر في التقرير.
+ * استدعاءات الاسترداد لدى المزودين تتم خارج المعاملة وبمعدل محدود
+ * Works in chunks: one query resolves payments by id or reference, then one set-based update per
+ * chunk in its own transaction. A failed item does not stop the rest and is reported.
+ * Provider refund calls happen outside the transaction at a throttled rate
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class PaymentBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentBatchService.class);
+
+    private static final String RESOLVE_SQL =
+            "SELECT id, order_id, transaction_id, gateway_transaction_id, status, payment_method, amount, created_at " +
+            "FROM payments WHERE id = ANY(?) OR transaction_id = ANY(?) OR gateway_transaction_id = ANY(?) ORDER BY id";
+
+    private static final String DEFAULT_REJECT_REASON = "Rejected in batch settlement";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletTransactionRepository walletTransactionRepository;
+    private final WalletProviderClient walletProviderClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WalletLedgerService walletLedgerService;
+    private final Executor walletRefundExecutor;
+    private final Throttle refundThrottle;
+    private final long refundDeadlineMs;
+
+    @Autowired
+    public PaymentBatchService(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               WalletTransactionRepository walletTransactionRepository,
+                               WalletProviderClient walletProviderClient,
+                               ApplicationEventPublisher eventPublisher,
+                               WalletLedgerService walletLedgerService,
+                               @Qualifier("walletRefundExecutor") Executor walletRefundExecutor,
+                               @Value("${app.payments.batch.refund-rate-per-second:10}") double refundRatePerSecond,
+                               @Value("${app.payments.batch.refund-deadline-ms:15000}") long refundDeadlineMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.walletTransactionRepository = walletTransactionRepository;
+        this.walletProviderClient = walletProviderClient;
+        this.eventPublisher = eventPublisher;
+        this.walletLedgerService = walletLedgerService;
+        this.walletRefundExecutor = walletRefundExecutor;
+        this.refundThrottle = new Throttle(refundRatePerSecond);
+        this.refundDeadlineMs = refundDeadlineMs;
+    }
+
+    /**
+     * تسوية جماعية - تأكيد أو رفض المدفوعات المعلقة (مثل كشف التحويلات البنكية اليومي)
+     * Batch settlement - confirm or reject pending payments (e.g. the daily bank transfer statement)
+     *
+     * @param request قائمة المدفوعات مع الإجراء لكل منها
+     * @return BatchPaymentResponse نتيجة لكل عنصر
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchPaymentResponse settle(BatchPaymentRequest request) {
+        List<PaymentBatchItem> items = request.getItems();
+        PaymentBatchResult[] results = new PaymentBatchResult[items.size()];
+
+        for (int from = 0; from < items.size(); from += AppConstants.PAYMENT_BATCH_CHUNK_SIZE) {
+            int offset = from;
+            List<PaymentBatchItem> chunk = items.subList(from, Math.min(from + AppConstants.PAYMENT_BATCH_CHUNK_SIZE, items.size()));
+            transactionTemplate.executeWithoutResult(status -> settleChunk(chunk, offset, results));
+        }
+
+        BatchPaymentResponse response = new BatchPaymentResponse(Arrays.asList(results));
+        logger.info("Batch settlement: {} items, {} applied, {} failed",
+                response.getTotal(), response.getApplied(), response.getFailed());
+        return response;
+    }
+
+    /**
+     * استرداد جماعي للمدفوعات المكتملة
+     * Batch refund of completed payments
+     *
+     * مدفوعات المحافظ تُسترد لدى المزود أولاً؛ لا تُعلَّم مستردة إلا بعد قبول المزود
+     * Wallet payments are refunded at the provider first and only marked refunded once it accepts
+     *
+     * @param request قائمة المدفوعات
+     * @return BatchPaymentResponse نتيجة لكل عنصر
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchPaymentResponse refund(BatchPaymentRequest request) {
+        List<PaymentBatchItem> items = request.getItems();
+        PaymentBatchResult[] results = new PaymentBatchResult[items.size()];
+
+        for (int from = 0; from < items.size(); from += AppConstants.PAYMENT_BATCH_CHUNK_SIZE) {
+            int offset = from;
+            List<PaymentBatchItem> chunk = items.subList(from, Math.min(from + AppConstants.PAYMENT_BATCH_CHUNK_SIZE, items.size()));
+            refundChunk(chunk, offset, results);
+        }
+
+        BatchPaymentResponse response = new BatchPaymentResponse(Arrays.asList(results));
+        logger.info("Batch refund: {} items, {} applied, {} failed",
+                response.getTotal(), response.getApplied(), response.getFailed());
+        return response;
+    }
+
+    // ===============================
+    // Settlement
+    // ===============================
+
+    private void settleChunk(List<PaymentBatchItem> chunk, int offset, PaymentBatchResult[] results) {
+        // 1. تحديد المدفوعات وقفلها بترتيب ثابت
+        PaymentRow[] targets = resolve(chunk, offset, results, true);
+
+        // 2. التحقق من الحالة
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            PaymentRow row = targets[i];
+            if (row == null) {
+                continue;
+            }
+            PaymentBatchItem item = chunk.get(i);
+            boolean allowed = item.getAction() == PaymentBatchItem.SettlementAction.REJECT
+                    ? !row.status.isFinal()
+                    : row.status == PaymentStatus.PENDING;
+            if (allowed) {
+                valid.add(i);
+            } else {
+                results[offset + i] = new PaymentBatchResult(offset + i, row.id, PaymentBatchResult.Status.INVALID_STATE,
+                        row.status, "Payment cannot be settled in current state: " + row.status);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // 3. تحديث واحد قائم على المجموعات
+        StringBuilder values = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (int i : valid) {
+            PaymentBatchItem item = chunk.get(i);
+            boolean confirm = item.getAction() != PaymentBatchItem.SettlementAction.REJECT;
+            values.append(values.length() == 0 ? "" : ", ").append("(?::uuid, ?, ?, ?)");
+            args.add(targets[i].id);
+            args.add((confirm ? PaymentStatus.COMPLETED : PaymentStatus.FAILED).name());
+            args.add(confirm ? item.getGatewayTransactionId() : null);
+            args.add(confirm ? null : (item.getReason() != null ? item.getReason() : DEFAULT_REJECT_REASON));
+        }
+        jdbcTemplate.update(
+                "WITH v (payment_id, new_status, gateway_transaction_id, failure_reason) AS (VALUES " + values + ") " +
+                "UPDATE payments p " +
+                "SET status = v.new_status, " +
+                "    gateway_transaction_id = COALESCE(v.gateway_transaction_id, p.gateway_transaction_id), " +
+                "    failure_reason = COALESCE(v.failure_reason, p.failure_reason), " +
+                "    processed_at = NOW(), " +
+                "    updated_at = NOW(), " +
+                "    version = p.version + 1 " +
+                "FROM v WHERE p.id = v.payment_id",
+                args.toArray());
+
+        // 4. الأحداث والنتائج
+        for (int i : valid) {
+            PaymentRow row = targets[i];
+            PaymentStatus newStatus = chunk.get(i).getAction() != PaymentBatchItem.SettlementAction.REJECT
+                    ? PaymentStatus.COMPLETED : PaymentStatus.FAILED;
+            publishStatusChanged(row, newStatus);
+            results[offset + i] = new PaymentBatchResult(offset + i, row.id, PaymentBatchResult.Status.APPLIED, newStatus, null);
+        }
+    }
+
+    // ===============================
+    // Refunds
+    // ===============================
+
+    private void refundChunk(List<PaymentBatchItem> chunk, int offset, PaymentBatchResult[] results) {
+        // 1. تحديد المدفوعات - بدون قفل لأن استدعاءات المزود تأتي بعدها
+        PaymentRow[] targets = resolve(chunk, offset, results, false);
+
+        Map<Integer, PaymentRow> refundable = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            PaymentRow row = targets[i];
+            if (row == null) {
+                continue;
+            }
+            if (row.status != PaymentStatus.COMPLETED) {
+                results[offset + i] = new PaymentBatchResult(offset + i, row.id, PaymentBatchResult.Status.INVALID_STATE,
+                        row.status, "Only successful payments can be refunded");
+            } else {
+                refundable.put(i, row);
+            }
+        }
+
+        // 2. الاسترداد لدى مزودي المحافظ خارج المعاملة
+        Map<UUID, WalletTransaction> providerRefunds = refundAtProviders(refundable, offset, results);
+        if (refundable.isEmpty()) {
+            return;
+        }
+
+        // 3. تحديث واحد مشروط - ما تغيرت حالته منذ التحديد لا يُعاد
+        Map<UUID, Integer> positions = new HashMap<>();
+        refundable.forEach((i, row) -> positions.put(row.id, i));
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<UUID> refunded = new HashSet<>(jdbcTemplate.query(
+                    "UPDATE payments SET status = ?, updated_at = NOW(), version = version + 1 " +
+                    "WHERE id = ANY(?) AND status = ? RETURNING id",
+                    ps -> {
+                        ps.setString(1, PaymentStatus.REFUNDED.name());
+                        ps.setArray(2, ps.getConnection().createArrayOf("uuid", positions.keySet().toArray()));
+                        ps.setString(3, PaymentStatus.COMPLETED.name());
+                    },
+                    (rs, rowNum) -> rs.getObject("id", UUID.class)));
+
+            // المال أُعيد لدى المزود فيُقيد حتى لو تغيرت حالة الدفع
+            List<WalletLedgerService.Posting> postings = new ArrayList<>();
+            refundable.values().stream()
+                    .filter(row -> providerRefunds.containsKey(row.id))
+                    .forEach(row -> postings.add(WalletLedgerService.Posting.refund(providerRefunds.get(row.id), row.orderId, row.amount)));
+            walletLedgerService.recordRefunds(postings);
+
+            refundable.forEach((i, row) -> {
+                if (refunded.contains(row.id)) {
+                    publishStatusChanged(row, PaymentStatus.REFUNDED);
+                    results[offset + i] = new PaymentBatchResult(offset + i, row.id, PaymentBatchResult.Status.APPLIED,
+                            PaymentStatus.REFUNDED, null);
+                } else {
+                    if (row.paymentMethod.isEWallet()) {
+                        logger.error("Payment {} was refunded at the wallet provider but changed state before it could be marked refunded", row.id);
+                    }
+                    results[offset + i] = new PaymentBatchResult(offset + i, row.id, PaymentBatchResult.Status.INVALID_STATE,
+                            null, "Payment changed state during the refund");
+                }
+            });
+        });
+    }
+
+    /**
+     * استرداد مدفوعات المحافظ بالتوازي وبمعدل محدود - يزيل من refundable ما فشل
+     * Refund wallet payments in parallel at a throttled rate; removes failures from refundable
+     *
+     * @return معاملات المحافظ المستردة لدى المزود حسب معرف الدفع
+     */
+    private Map<UUID, WalletTransaction> refundAtProviders(Map<Integer, PaymentRow> refundable, int offset, PaymentBatchResult[] results) {
+        Map<Integer, PaymentRow> walletPayments = refundable.entrySet().stream()
+                .filter(entry -> entry.getValue().paymentMethod.isEWallet())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (walletPayments.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, WalletTransaction> transactions = walletTransactionRepository
+                .findByPaymentIdInAndStatus(walletPayments.values().stream().map(row -> row.id).toList(), PaymentStatus.COMPLETED)
+                .stream()
+                .collect(Collectors.toMap(WalletTransaction::getPaymentId, Function.identity(), (a, b) -> a));
+
+        Map<Integer, CompletableFuture<String>> calls = new HashMap<>();
+        walletPayments.forEach((i, row) -> {
+            WalletTransaction transaction = transactions.get(row.id);
+            if (transaction == null) {
+                calls.put(i, CompletableFuture.completedFuture("No completed wallet transaction for this payment"));
+                return;
+            }
+            calls.put(i, CompletableFuture
+                    .supplyAsync(() -> {
+                        refundThrottle.acquire();
+                        return refundFailure(walletProviderClient.refund(transaction, row.amount,
+                                Deadline.afterMillis(refundDeadlineMs)));
+                    }, walletRefundExecutor)
+                    .exceptionally(e -> {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        return cause.getMessage();
+                    }));
+        });
+
+        CompletableFuture.allOf(calls.values().toArray(CompletableFuture[]::new)).join();
+
+        Map<UUID, WalletTransaction> refunded = new HashMap<>();
+        calls.forEach((i, call) -> {
+            String failure = call.join();
+            PaymentRow row = refundable.get(i);
+            if (failure != null) {
+                refundable.remove(i);
+                results[offset + i] = new PaymentBatchResult(offset + i, row.id, PaymentBatchResult.Status.PROVIDER_FAILED,
+                        row.status, failure);
+            } else {
+                refunded.put(row.id, transactions.get(row.id));
+            }
+        });
+        return refunded;
+    }
+
+    private String refundFailure(WalletProviderStatus status) {
+        switch (status.getState()) {
+            case COMPLETED:
+                return null;
+            case PENDING:
+                return "Refund outcome unknown; safe to retry, the provider deduplicates by transaction reference";
+            default:
+                return status.getMessage() != null ? status.getMessage() : "Refund declined by wallet provider";
+        }
+    }
+
+    // ===============================
+    // Shared Helpers
+    // ===============================
+
+    /**
+     * تحديد المدفوعات باستعلام واحد وتسجيل العناصر غير الصالحة أو غير الموجودة أو المكررة
+     * Resolve payments in one query, recording invalid, missing and duplicate items
+     *
+     * @param lock قفل الصفوف حتى نهاية المعاملة
+     * @return الدفع لكل عنصر، أو null إذا سُجلت له نتيجة
+     */
+    private PaymentRow[] resolve(List<PaymentBatchItem> chunk, int offset, PaymentBatchResult[] results, boolean lock) {
+        List<UUID> ids = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        for (PaymentBatchItem item : chunk) {
+            if (item.getPaymentId() != null) {
+                ids.add(item.getPaymentId());
+            } else if (item.getReference() != null) {
+                references.add(item.getReference().trim());
+            }
+        }
+
+        Map<UUID, PaymentRow> byId = new HashMap<>();
+        Map<String, List<PaymentRow>> byReference = new HashMap<>();
+        if (!ids.isEmpty() || !references.isEmpty()) {
+            jdbcTemplate.query(lock ? RESOLVE_SQL + " FOR UPDATE" : RESOLVE_SQL,
+                    ps -> {
+                        ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray()));
+                        ps.setArray(2, ps.getConnection().createArrayOf("text", references.toArray()));
+                        ps.setArray(3, ps.getConnection().createArrayOf("text", references.toArray()));
+                    },
+                    rs -> {
+                        Timestamp createdAt = rs.getTimestamp("created_at");
+                        PaymentRow row = new PaymentRow(
+                                rs.getObject("id", UUID.class),
+                                rs.getObject("order_id", UUID.class),
+                                PaymentStatus.valueOf(rs.getString("status")),
+                                PaymentMethod.valueOf(rs.getString("payment_method")),
+                                rs.getBigDecimal("amount"),
+                                createdAt != null ? createdAt.toLocalDateTime() : null);
+                        byId.put(row.id, row);
+                        addReference(byReference, rs.getString("transaction_id"), row);
+                        addReference(byReference, rs.getString("gateway_transaction_id"), row);
+                    });
+        }
+
+        PaymentRow[] targets = new PaymentRow[chunk.size()];
+        Set<UUID> seen = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            PaymentBatchItem item = chunk.get(i);
+            if (!item.hasValidTarget()) {
+                results[offset + i] = new PaymentBatchResult(offset + i, item.getPaymentId(), PaymentBatchResult.Status.INVALID,
+                        null, "Exactly one of paymentId or reference is required");
+                continue;
+            }
+            PaymentRow row;
+            if (item.getPaymentId() != null) {
+                row = byId.get(item.getPaymentId());
+            } else {
+                List<PaymentRow> matches = byReference.getOrDefault(item.getReference().trim(), List.of());
+                if (matches.size() > 1) {
+                    results[offset + i] = new PaymentBatchResult(offset + i, null, PaymentBatchResult.Status.INVALID,
+                            null, "Reference matches more than one payment");
+                    continue;
+                }
+                row = matches.isEmpty() ? null : matches.get(0);
+            }
+            if (row == null) {
+                results[offset + i] = new PaymentBatchResult(offset + i, item.getPaymentId(), PaymentBatchResult.Status.NOT_FOUND,
+                        null, null);
+            } else if (!seen.add(row.id)) {
+                results[offset + i] = new PaymentBatchResult(offset + i, row.id, PaymentBatchResult.Status.DUPLICATE,
+                        row.status, "Payment appears earlier in the batch");
+            } else {
+                targets[i] = row;
+            }
+        }
+        return targets;
+    }
+
+    private void addReference(Map<String, List<PaymentRow>> byReference, String reference, PaymentRow row) {
+        if (reference != null) {
+            List<PaymentRow> rows = byReference.computeIfAbsent(reference, key -> new ArrayList<>(1));
+            if (!rows.contains(row)) {
+                rows.add(row);
+            }
+        }
+    }
+
+    /**
+     * نشر حدث تغيير الحالة - التحديث تم بـ SQL فلا ينشره الكيان
+     * Publish the status change; the update ran as SQL so the entity did not publish it
+     */
+    private void publishStatusChanged(PaymentRow row, PaymentStatus newStatus) {
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(row.id, row.orderId, row.paymentMethod,
+                row.amount, row.createdAt, row.status, newStatus));
+    }
+
+    /**
+     * بيانات الدفع اللازمة للعملية الجماعية
+     * Payment columns needed by batch operations
+     */
+    private static class PaymentRow {
+        private final UUID id;
+        private final UUID orderId;
+        private final PaymentStatus status;
+        private final PaymentMethod paymentMethod;
+        private final BigDecimal amount;
+        private final LocalDateTime createdAt;
+
+        PaymentRow(UUID id, UUID orderId, PaymentStatus status, PaymentMethod paymentMethod,
+                   BigDecimal amount, LocalDateTime createdAt) {
+            this.id = id;
+            this.orderId = orderId;
+            this.status = status;
+            this.paymentMethod = paymentMethod;
+            this.amount = amount;
+            this.createdAt = createdAt;
+        }
+    }
+}
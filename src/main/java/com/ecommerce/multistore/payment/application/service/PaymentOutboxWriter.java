@@ -0,0 +1,52 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.domain.event.PaymentStatusChangedEvent;
+import com.ecommerce.multistore.shared.outbox.OutboxEventTypes;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * كاتب أحداث المدفوعات في صندوق الأحداث
+ * Payment outbox writer
+ *
+ * يستمع لأحداث الكيان أثناء الحفظ (قبل التأكيد) فيُكتب الحدث في نفس معاملة تغيير الحالة
+ * Listens to the entity's domain events during save (before commit), so the outbox row is
+ * written in the same transaction as the status change
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class PaymentOutboxWriter {
+
+    private final OutboxPublisher outboxPublisher;
+
+    @Autowired
+    public PaymentOutboxWriter(OutboxPublisher outboxPublisher) {
+        this.outboxPublisher = outboxPublisher;
+    }
+
+    @EventListener
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("paymentId", event.getPaymentId());
+        payload.put("orderId", event.getOrderId());
+        payload.put("paymentMethod", event.getPaymentMethod());
+        payload.put("amount", event.getAmount());
+        payload.put("from", event.getPreviousStatus());
+        payload.put("to", event.getStatus());
+
+        outboxPublisher.publish(OutboxEventTypes.PAYMENT, event.getPaymentId(),
+                OutboxEventTypes.PAYMENT_STATUS_CHANGED, payload);
+        if (event.getStatus() == PaymentStatus.COMPLETED) {
+            outboxPublisher.publish(OutboxEventTypes.PAYMENT, event.getPaymentId(),
+                    OutboxEventTypes.PAYMENT_COMPLETED, payload);
+        }
+    }
+}
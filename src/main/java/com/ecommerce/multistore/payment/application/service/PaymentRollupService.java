@@ -0,0 +1,192 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.application.dto.PaymentRollupPoint;
+import com.ecommerce.multistore.payment.domain.PaymentMethod;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.domain.RollupGranularity;
+import com.ecommerce.multistore.payment.domain.event.PaymentStatusChangedEvent;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * خدمة التجميعات الزمنية للمدفوعات
+ * Payment time-series rollup service
+ *
+ * كل انتقال حالة يضيف صف فروقات (-1 للحالة السابقة، +1 للجديدة) في نفس معاملته، ثم تدمج مهمة
+ * دورية الفروقات في فترات الدقيقة والساعة واليوم بعبارة واحدة. الاستعلامات تضيف الفروقات غير
+ * المدموجة بعد، فالنتائج دقيقة وحديثة دون المرور على جدول المدفوعات
+ * Each status transition appends delta rows (-1 for the previous status, +1 for the new one) in its
+ * own transaction, and a periodic job folds the deltas into minute, hour and day buckets with a single
+ * statement. Queries add the deltas not folded yet, so results are exact and current without scanning
+ * the payments table
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class PaymentRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRollupService.class);
+
+    // "rollup" كمفتاح للقفل الاستشاري
+    private static final long FOLD_LOCK_KEY = 0x726f6c6c7570L;
+
+    private static final String FOLD_SQL =
+            "WITH batch AS ( " +
+            "    DELETE FROM payment_rollup_deltas " +
+            "    WHERE id IN (SELECT id FROM payment_rollup_deltas ORDER BY id LIMIT ?) " +
+            "    RETURNING bucket_start, payment_method, status, payment_count, total_amount " +
+            "), grouped AS ( " +
+            "    SELECT g.granularity, date_trunc(g.unit, b.bucket_start) AS bucket_start, b.payment_method, b.status, " +
+            "           SUM(b.payment_count) AS payment_count, SUM(b.total_amount) AS total_amount " +
+            "    FROM batch b " +
+            "    CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS g(granularity, unit) " +
+            "    GROUP BY g.granularity, date_trunc(g.unit, b.bucket_start), b.payment_method, b.status " +
+            ") " +
+            "INSERT INTO payment_rollups (granularity, bucket_start, payment_method, status, payment_count, total_amount, updated_at) " +
+            "SELECT granularity, bucket_start, payment_method, status, payment_count, total_amount, NOW() FROM grouped " +
+            "ON CONFLICT (granularity, bucket_start, payment_method, status) DO UPDATE " +
+            "SET payment_count = payment_rollups.payment_count + EXCLUDED.payment_count, " +
+            "    total_amount = payment_rollups.total_amount + EXCLUDED.total_amount, " +
+            "    updated_at = NOW()";
+
+    private static final String SERIES_SQL =
+            "SELECT bucket_start, payment_method, status, SUM(payment_count) AS payment_count, SUM(total_amount) AS total_amount " +
+            "FROM ( " +
+            "    SELECT bucket_start, payment_method, status, payment_count, total_amount FROM payment_rollups " +
+            "    WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ? " +
+            "    UNION ALL " +
+            "    SELECT date_trunc(?, bucket_start), payment_method, status, payment_count, total_amount FROM payment_rollup_deltas " +
+            "    WHERE bucket_start >= ? AND bucket_start < ? " +
+            ") r " +
+            "WHERE (?::text IS NULL OR payment_method = ?) AND (?::text IS NULL OR status = ?) " +
+            "GROUP BY bucket_start, payment_method, status " +
+            "HAVING SUM(payment_count) <> 0 OR SUM(total_amount) <> 0 " +
+            "ORDER BY bucket_start, payment_method, status";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.payments.rollups.fold-batch-size:10000}")
+    private int foldBatchSize;
+
+    @Value("${app.payments.rollups.minute-retention-days:14}")
+    private int minuteRetentionDays;
+
+    @Value("${app.payments.rollups.hour-retention-days:400}")
+    private int hourRetentionDays;
+
+    @Autowired
+    public PaymentRollupService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * تسجيل فروقات انتقال الحالة في نفس معاملة الدفع
+     * Record the transition's deltas in the payment's own transaction
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now();
+        BigDecimal amount = event.getAmount() != null ? event.getAmount() : BigDecimal.ZERO;
+        String method = event.getPaymentMethod().name();
+
+        if (event.getPreviousStatus() == null) {
+            jdbcTemplate.update(
+                    "INSERT INTO payment_rollup_deltas (bucket_start, payment_method, status, payment_count, total_amount) " +
+                    "VALUES (date_trunc('minute', ?::timestamp), ?, ?, 1, ?)",
+                    createdAt, method, event.getStatus().name(), amount);
+        } else {
+            jdbcTemplate.update(
+                    "INSERT INTO payment_rollup_deltas (bucket_start, payment_method, status, payment_count, total_amount) " +
+                    "VALUES (date_trunc('minute', ?::timestamp), ?, ?, -1, ?), (date_trunc('minute', ?::timestamp), ?, ?, 1, ?)",
+                    createdAt, method, event.getPreviousStatus().name(), amount.negate(),
+                    createdAt, method, event.getStatus().name(), amount);
+        }
+    }
+
+    /**
+     * السلسلة الزمنية للمدفوعات
+     * Payment time series
+     *
+     * @param granularity دقة الفترات
+     * @param from بداية النطاق (تُقرّب لبداية فترتها)
+     * @param to نهاية النطاق (غير مشمولة)
+     * @param paymentMethod تصفية بطريقة الدفع (اختياري)
+     * @param status تصفية بالحالة (اختياري)
+     * @return List<PaymentRollupPoint> نقاط غير صفرية مرتبة بالوقت
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentRollupPoint> getSeries(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                              PaymentMethod paymentMethod, PaymentStatus status) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid range: from must be before to");
+        }
+        if (granularity.bucketsBetween(from, to) > AppConstants.MAX_ROLLUP_POINTS) {
+            throw new IllegalArgumentException("Range too large for " + granularity.getValue() +
+                    " granularity; at most " + AppConstants.MAX_ROLLUP_POINTS + " buckets allowed");
+        }
+        if (granularity == RollupGranularity.MINUTE && from.isBefore(LocalDateTime.now().minusDays(minuteRetentionDays))) {
+            throw new IllegalArgumentException("Minute granularity is only kept for the last " + minuteRetentionDays + " days");
+        }
+
+        LocalDateTime start = granularity.truncate(from);
+        String method = paymentMethod != null ? paymentMethod.name() : null;
+        String statusName = status != null ? status.name() : null;
+        return jdbcTemplate.query(SERIES_SQL,
+                (rs, rowNum) -> new PaymentRollupPoint(
+                        rs.getTimestamp("bucket_start").toLocalDateTime(),
+                        PaymentMethod.valueOf(rs.getString("payment_method")),
+                        PaymentStatus.valueOf(rs.getString("status")),
+                        rs.getLong("payment_count"),
+                        rs.getBigDecimal("total_amount")),
+                granularity.name(), start, to,
+                granularity.getValue(), start, to,
+                method, method, statusName, statusName);
+    }
+
+    /**
+     * دمج الفروقات في التجميعات - عقدة واحدة في كل مرة
+     * Fold deltas into the rollups - one node at a time
+     */
+    @Scheduled(fixedDelayString = "${app.payments.rollups.fold-interval-ms:5000}")
+    public void fold() {
+        Boolean leader = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, FOLD_LOCK_KEY);
+        if (!Boolean.TRUE.equals(leader)) {
+            return;
+        }
+        int upserted = jdbcTemplate.update(FOLD_SQL, foldBatchSize);
+        if (upserted > 0) {
+            logger.debug("Folded payment rollup deltas into {} buckets", upserted);
+        }
+    }
+
+    /**
+     * حذف فترات الدقائق والساعات القديمة - فترات الأيام تبقى
+     * Purge old minute and hour buckets; day buckets are kept
+     */
+    @Scheduled(cron = "${app.payments.rollups.purge-cron:0 45 3 * * *}")
+    public void purge() {
+        int purged = jdbcTemplate.update(
+                "DELETE FROM payment_rollups WHERE (granularity = 'MINUTE' AND bucket_start < NOW() - make_interval(days => ?)) " +
+                "OR (granularity = 'HOUR' AND bucket_start < NOW() - make_interval(days => ?))",
+                minuteRetentionDays, hourRetentionDays);
+        if (purged > 0) {
+            logger.info("Purged {} payment rollup buckets", purged);
+        }
+    }
+}
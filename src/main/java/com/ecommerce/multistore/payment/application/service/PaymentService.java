@@ -3,14 +3,21 @@ package com.ecommerce.multistore.payment.application.service;
 import com.ecommerce.multistore.payment.application.dto.*;
 import com.ecommerce.multistore.payment.domain.*;
 import com.ecommerce.multistore.payment.infrastructure.PaymentRepository;
+import com.ecommerce.multistore.payment.infrastructure.TransactionIdGenerator;
 import com.ecommerce.multistore.payment.infrastructure.WalletTransactionRepository;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderGateway;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderHealth;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderRegistry;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -37,6 +44,12 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final WalletTransactionRepository walletTransactionRepository;
     private final WalletPaymentService walletPaymentService;
+    private final PaymentStatisticsTracker paymentStatisticsTracker;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final WalletProviderRegistry walletProviderRegistry;
+    private final WalletProviderGateway walletProviderGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentBatchService paymentBatchService;
 
     /**
      * Constructor لحقن Dependencies
@@ -45,24 +58,46 @@ public class PaymentService {
      * @param paymentRepository مستودع المدفوعات
      * @param walletTransactionRepository مستودع معاملات المحافظ
      * @param walletPaymentService خدمة المحافظ الإلكترونية
+     * @param paymentStatisticsTracker متتبع إحصائيات المدفوعات
+     * @param transactionIdGenerator مولد أرقام المعاملات
+     * @param walletProviderRegistry سجل إعدادات مزودي المحافظ
+     * @param walletProviderGateway بوابة مزودي المحافظ
+     * @param transactionTemplate قالب المعاملات القصيرة حول اتصال المزود
+     * @param paymentBatchService خدمة العمليات الجماعية - مسار الاسترداد المشترك
      */
     @Autowired
     public PaymentService(PaymentRepository paymentRepository,
                          WalletTransactionRepository walletTransactionRepository,
-                         WalletPaymentService walletPaymentService) {
+                         WalletPaymentService walletPaymentService,
+                         PaymentStatisticsTracker paymentStatisticsTracker,
+                         TransactionIdGenerator transactionIdGenerator,
+                         WalletProviderRegistry walletProviderRegistry,
+                         WalletProviderGateway walletProviderGateway,
+                         TransactionTemplate transactionTemplate,
+                         PaymentBatchService paymentBatchService) {
         this.paymentRepository = paymentRepository;
         this.walletTransactionRepository = walletTransactionRepository;
         this.walletPaymentService = walletPaymentService;
+        this.paymentStatisticsTracker = paymentStatisticsTracker;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.walletProviderRegistry = walletProviderRegistry;
+        this.walletProviderGateway = walletProviderGateway;
+        this.transactionTemplate = transactionTemplate;
+        this.paymentBatchService = paymentBatchService;
     }
 
     /**
      * إنشاء دفع جديد
      * Creates a new payment
      * 
+     * يُحفظ الدفع ويُلتزم قبل أي اتصال بمزود المحفظة
+     * The payment is saved and committed before any wallet provider call
+     * 
      * @param request بيانات الدفع الجديد
      * @return PaymentResponse الدفع المُنشأ
      * @throws IllegalArgumentException إذا كانت البيانات غير صحيحة
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse createPayment(CreatePaymentRequest request) {
         // التحقق من صحة البيانات
         validatePaymentRequest(request);
@@ -80,6 +115,43 @@ public class PaymentService {
         return response;
     }
 
+    /**
+     * إنشاء نية دفع معلقة في معاملة المستدعي
+     * Create a pending payment intent in the caller's transaction
+     * 
+     * لا يتصل بالمزود؛ الدفع بالمحفظة يبدأ بعد الالتزام عبر processIntent
+     * Does not call the provider; a wallet charge starts after commit through processIntent
+     * 
+     * @param request بيانات الدفع
+     * @return PaymentResponse الدفع بحالة PENDING
+     * @throws IllegalArgumentException إذا كانت البيانات غير صحيحة
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PaymentResponse createIntent(CreatePaymentRequest request) {
+        validatePaymentRequest(request);
+
+        Payment payment = buildPaymentFromRequest(request);
+        payment.setTransactionId(generateTransactionId());
+        
+        return convertToResponse(paymentRepository.save(payment));
+    }
+
+    /**
+     * معالجة نية دفع محفوظة حسب طريقتها
+     * Process a stored payment intent by its method
+     * 
+     * @param paymentId معرف الدفع
+     * @param request بيانات الدفع (هاتف المحفظة ونحوه)
+     * @return PaymentResponse الدفع المحدث
+     * @throws IllegalArgumentException إذا لم يوجد الدفع
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaymentResponse processIntent(UUID paymentId, CreatePaymentRequest request) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalArgumentException("Payment not found with ID: " + paymentId));
+        return processPaymentByMethod(payment, request);
+    }
+
     /**
      * البحث عن دفع بواسطة UUID
      * Finds a payment by UUID
@@ -232,21 +304,34 @@ public class PaymentService {
      * استرداد الدفع
      * Refund payment
      * 
+     * يمر بمسار الاسترداد الجماعي نفسه: الاسترداد لدى مزود المحفظة خارج المعاملة ثم تعليم الدفع
+     * مسترداً مع قيد عكس الدفتر في معاملة واحدة
+     * Goes through the same path as batch refunds: the wallet provider refund outside any
+     * transaction, then the payment is marked refunded together with the reversing ledger entry
+     * in one transaction
+     * 
      * @param paymentId معرف الدفع
      * @return PaymentResponse الدفع المحدث
+     * @throws IllegalArgumentException إذا لم يوجد الدفع
+     * @throws IllegalStateException إذا لم يكن الدفع ناجحاً أو رفض المزود الاسترداد
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse refundPayment(UUID paymentId) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new IllegalArgumentException("Payment not found with ID: " + paymentId));
-
-        if (!payment.isSuccessful()) {
-            throw new IllegalStateException("Only successful payments can be refunded");
+        PaymentBatchItem item = new PaymentBatchItem();
+        item.setPaymentId(paymentId);
+        BatchPaymentRequest request = new BatchPaymentRequest();
+        request.setItems(List.of(item));
+
+        PaymentBatchResult result = paymentBatchService.refund(request).getResults().get(0);
+        switch (result.getStatus()) {
+            case APPLIED:
+                return findById(paymentId)
+                        .orElseThrow(() -> new IllegalArgumentException("Payment not found with ID: " + paymentId));
+            case NOT_FOUND:
+                throw new IllegalArgumentException("Payment not found with ID: " + paymentId);
+            default:
+                throw new IllegalStateException(result.getMessage());
         }
-
-        payment.markAsRefunded();
-        Payment updatedPayment = paymentRepository.save(payment);
-        
-        return convertToResponse(updatedPayment);
     }
 
     /**
@@ -255,31 +340,20 @@ public class PaymentService {
      * 
      * @return PaymentStatisticsResponse إحصائيات المدفوعات
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public PaymentStatisticsResponse getPaymentStatistics() {
-        PaymentStatisticsResponse stats = new PaymentStatisticsResponse();
-        
-        // إحصائيات عامة
-        stats.setTotalPayments(paymentRepository.count());
-        stats.setSuccessfulPayments(paymentRepository.countByStatus(PaymentStatus.COMPLETED));
-        stats.setFailedPayments(paymentRepository.countByStatus(PaymentStatus.FAILED));
-        stats.setPendingPayments(paymentRepository.countByStatus(PaymentStatus.PENDING));
-        
-        // المبالغ
-        stats.setTotalAmount(paymentRepository.sumSuccessfulPayments());
-        
-        // اليوم
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endOfDay = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
-        stats.setTodayAmount(paymentRepository.sumPaymentsByDateRange(startOfDay, endOfDay));
-        
-        // إحصائيات طرق الدفع
-        for (PaymentMethod method : PaymentMethod.values()) {
-            long count = paymentRepository.countByPaymentMethod(method);
-            stats.addMethodStatistic(method.getValue(), count);
-        }
-        
-        return stats;
+        return paymentStatisticsTracker.getStatistics();
+    }
+
+    /**
+     * حالة مزودي المحافظ
+     * Wallet provider health
+     *
+     * @return List<WalletProviderHealth> حالة كل محفظة
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<WalletProviderHealth> getWalletProviderHealth() {
+        return walletProviderGateway.healthOfAll();
     }
 
     // ===============================
@@ -321,9 +395,10 @@ public class PaymentService {
         payment.setAmount(request.getAmount());
         payment.setCurrency(request.getCurrency());
         
-        // تحديد البوابة حسب طريقة الدفع
+        // تحديد البوابة من إعدادات المحفظة المحملة في الذاكرة
         if (request.getPaymentMethod().isEWallet()) {
-            payment.setPaymentGateway(request.getPaymentMethod().getValue() + "_gateway");
+            WalletType walletType = WalletType.valueOf(request.getPaymentMethod().name());
+            payment.setPaymentGateway(walletProviderRegistry.get(walletType).getGatewayName());
         }
         
         return payment;
@@ -338,6 +413,8 @@ public class PaymentService {
             case JEEB:
             case FLOUSI:
             case MOBILE_MONEY:
+                // رفض فوري لمحفظة معطلة أو متعثرة بدلاً من انتظار انتهاء المهلة
+                walletProviderGateway.checkAvailable(WalletType.valueOf(request.getPaymentMethod().name()));
                 return processWalletPayment(payment, request);
             case CASH_ON_DELIVERY:
                 return processCashOnDeliveryPayment(payment);
@@ -366,22 +443,44 @@ public class PaymentService {
             walletTransaction.setTransactionReference(generateWalletTransactionReference());
             WalletTransaction savedWalletTransaction = walletTransactionRepository.save(walletTransaction);
             
-            // معالجة الدفع مع الخدمة الخارجية
+            // معالجة الدفع مع الخدمة الخارجية خارج أي معاملة - تحسم الدفع إذا كانت النتيجة نهائية
             walletPaymentService.processWalletPayment(savedWalletTransaction);
             
-            // تحديث حالة الدفع
-            payment.setStatus(PaymentStatus.PROCESSING);
-            paymentRepository.save(payment);
-            
-            return convertToResponse(payment);
+            // الحسم التزم في معاملته - يُعاد تحميل الدفع بدلاً من النسخة السابقة للاتصال
+            return transactionTemplate.execute(status -> {
+                Payment current = paymentRepository.findById(payment.getId())
+                        .orElseThrow(() -> new IllegalArgumentException("Payment not found with ID: " + payment.getId()));
+                // تحديث حالة الدفع إذا لم تُحسم بعد
+                if (current.getStatus() == PaymentStatus.PENDING) {
+                    current.setStatus(PaymentStatus.PROCESSING);
+                    current = paymentRepository.save(current);
+                }
+                return convertToResponse(current);
+            });
             
+        } catch (WalletProviderUnavailableException e) {
+            // المزود غير متاح - رفض سريع برمز 503 بدلاً من خطأ عام
+            failWalletPayment(payment.getId(), e.getMessage());
+            throw e;
         } catch (Exception e) {
-            payment.markAsFailed("Wallet payment processing failed: " + e.getMessage());
-            paymentRepository.save(payment);
+            failWalletPayment(payment.getId(), "Wallet payment processing failed: " + e.getMessage());
             throw new RuntimeException("Failed to process wallet payment", e);
         }
     }
 
+    /**
+     * تعليم دفع المحفظة فاشلاً في معاملة قصيرة ما لم يُحسم
+     * Mark a wallet payment failed in a short transaction unless already final
+     */
+    private void failWalletPayment(UUID paymentId, String reason) {
+        transactionTemplate.executeWithoutResult(status -> paymentRepository.findById(paymentId)
+                .filter(current -> !current.getStatus().isFinal())
+                .ifPresent(current -> {
+                    current.markAsFailed(reason);
+                    paymentRepository.save(current);
+                }));
+    }
+
     /**
      * معالجة الدفع النقدي عند التسليم
      * Process cash on delivery payment
@@ -415,8 +514,7 @@ public class PaymentService {
      * Generate unique transaction ID
      */
     private String generateTransactionId() {
-        return "TXN-" + System.currentTimeMillis() + "-" + 
-               (int)(Math.random() * 10000);
+        return transactionIdGenerator.nextTransactionId();
     }
 
     /**
@@ -424,8 +522,7 @@ public class PaymentService {
      * Generate wallet transaction reference
      */
     private String generateWalletTransactionReference() {
-        return "WLT-" + System.currentTimeMillis() + "-" + 
-               (int)(Math.random() * 10000);
+        return transactionIdGenerator.nextWalletReference();
     }
 
     /**
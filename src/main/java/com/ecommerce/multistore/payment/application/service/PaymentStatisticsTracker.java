@@ -0,0 +1,183 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.application.dto.PaymentStatisticsResponse;
+import com.ecommerce.multistore.payment.application.dto.PaymentStatisticsRow;
+import com.ecommerce.multistore.payment.domain.PaymentMethod;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.domain.event.PaymentStatusChangedEvent;
+import com.ecommerce.multistore.payment.infrastructure.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * متتبع إحصائيات المدفوعات
+ * Payment statistics tracker
+ *
+ * يحمل الإحصائيات مرة واحدة باستعلام تجميعي، ثم يحدثها تدريجياً مع كل انتقال حالة
+ * بعد تأكيد المعاملة، فتُخدم لوحات المتابعة من الذاكرة دون أي استعلام.
+ * إعادة التحميل الدورية تصحح الانحراف الناتج عن تعديلات من نسخ أخرى من التطبيق
+ * Loads the figures once with a single grouped query, then applies each committed status
+ * transition as a delta so dashboards are served from memory without touching the database.
+ * A periodic reload corrects drift from changes made by other application instances
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class PaymentStatisticsTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentStatisticsTracker.class);
+
+    private final PaymentRepository paymentRepository;
+
+    private final Map<PaymentStatus, Map<PaymentMethod, Cell>> cells = new EnumMap<>(PaymentStatus.class);
+    private volatile LocalDate day;
+    private boolean loaded;
+
+    // لقطة جاهزة للقراءة - تُلغى عند أي تغيير
+    private volatile PaymentStatisticsResponse snapshot;
+
+    @Autowired
+    public PaymentStatisticsTracker(PaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    /**
+     * الإحصائيات الحالية
+     * Current statistics
+     */
+    public PaymentStatisticsResponse getStatistics() {
+        PaymentStatisticsResponse current = snapshot;
+        if (current != null && LocalDate.now().equals(day)) {
+            return current;
+        }
+        synchronized (this) {
+            if (!loaded || !LocalDate.now().equals(day)) {
+                reload();
+            }
+            if (snapshot == null) {
+                snapshot = buildResponse();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * تطبيق انتقال حالة بعد تأكيد المعاملة
+     * Apply a status transition once its transaction has committed
+     */
+    @TransactionalEventListener
+    public synchronized void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        if (!loaded) {
+            // القراءة الأولى ستحمل الأرقام من قاعدة البيانات
+            return;
+        }
+        if (event.getPreviousStatus() != null) {
+            apply(event, event.getPreviousStatus(), -1);
+        }
+        apply(event, event.getStatus(), 1);
+        snapshot = null;
+    }
+
+    /**
+     * إعادة التحميل الدورية لتصحيح الانحراف
+     * Periodic reload to correct drift
+     */
+    @Scheduled(fixedDelayString = "${app.payments.statistics-refresh-ms:60000}")
+    public synchronized void refresh() {
+        if (loaded) {
+            reload();
+        }
+    }
+
+    private void reload() {
+        LocalDate today = LocalDate.now();
+        cells.clear();
+        for (PaymentStatisticsRow row : paymentRepository.aggregateStatistics(today.atStartOfDay(), today.plusDays(1).atStartOfDay())) {
+            Cell cell = cell(PaymentStatus.valueOf(row.getStatus()), PaymentMethod.valueOf(row.getPaymentMethod()));
+            cell.count = row.getPaymentCount();
+            cell.completedAmount = row.getCompletedAmount();
+            cell.todayAmount = row.getTodayAmount();
+        }
+        day = today;
+        loaded = true;
+        snapshot = null;
+        logger.debug("Payment statistics reloaded for {}", today);
+    }
+
+    private void apply(PaymentStatusChangedEvent event, PaymentStatus status, int sign) {
+        Cell cell = cell(status, event.getPaymentMethod());
+        cell.count += sign;
+        if (status == PaymentStatus.COMPLETED && event.getAmount() != null) {
+            BigDecimal amount = sign > 0 ? event.getAmount() : event.getAmount().negate();
+            cell.completedAmount = cell.completedAmount.add(amount);
+            if (isToday(event.getCreatedAt())) {
+                cell.todayAmount = cell.todayAmount.add(amount);
+            }
+        }
+    }
+
+    private boolean isToday(LocalDateTime createdAt) {
+        return createdAt != null && createdAt.toLocalDate().equals(day);
+    }
+
+    private Cell cell(PaymentStatus status, PaymentMethod method) {
+        return cells.computeIfAbsent(status, s -> new EnumMap<>(PaymentMethod.class))
+                .computeIfAbsent(method, m -> new Cell());
+    }
+
+    private PaymentStatisticsResponse buildResponse() {
+        PaymentStatisticsResponse stats = new PaymentStatisticsResponse();
+        Map<PaymentMethod, Long> methodCounts = new EnumMap<>(PaymentMethod.class);
+        for (PaymentMethod method : PaymentMethod.values()) {
+            methodCounts.put(method, 0L);
+        }
+
+        long total = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        BigDecimal todayAmount = BigDecimal.ZERO;
+        for (Map.Entry<PaymentStatus, Map<PaymentMethod, Cell>> byStatus : cells.entrySet()) {
+            long statusCount = 0;
+            for (Map.Entry<PaymentMethod, Cell> byMethod : byStatus.getValue().entrySet()) {
+                Cell cell = byMethod.getValue();
+                statusCount += cell.count;
+                methodCounts.merge(byMethod.getKey(), cell.count, Long::sum);
+                totalAmount = totalAmount.add(cell.completedAmount);
+                todayAmount = todayAmount.add(cell.todayAmount);
+            }
+            total += statusCount;
+            switch (byStatus.getKey()) {
+                case COMPLETED -> stats.setSuccessfulPayments(statusCount);
+                case FAILED -> stats.setFailedPayments(statusCount);
+                case PENDING -> stats.setPendingPayments(statusCount);
+                default -> { }
+            }
+        }
+
+        stats.setTotalPayments(total);
+        stats.setTotalAmount(totalAmount);
+        stats.setTodayAmount(todayAmount);
+        methodCounts.forEach((method, count) -> stats.addMethodStatistic(method.getValue(), count));
+        return stats;
+    }
+
+    /**
+     * مجاميع خلية (حالة، طريقة دفع)
+     * Aggregates of one (status, method) cell
+     */
+    private static class Cell {
+        private long count;
+        private BigDecimal completedAmount = BigDecimal.ZERO;
+        private BigDecimal todayAmount = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,392 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.application.dto.LedgerAccountBalance;
+import com.ecommerce.multistore.payment.application.dto.LedgerTrialBalanceResponse;
+import com.ecommerce.multistore.payment.domain.LedgerAccountType;
+import com.ecommerce.multistore.payment.domain.LedgerEntryType;
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.payment.domain.WalletType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * خدمة دفتر المحافظ بالقيد المزدوج
+ * Double-entry wallet ledger service
+ *
+ * كل معاملة محفظة مكتملة تُقيد في نفس معاملة حسمها: البيع (مدين العميل، دائن التاجر) ثم السداد
+ * (مدين مقاصة المزود ورسومه، دائن العميل). الاسترداد يعكس ذلك. أسطر الدفعة كلها تُكتب بعبارة واحدة
+ * ولا يُحدَّث أي رصيد معها؛ لقطات دورية تجعل الرصيد = آخر لقطة + الأسطر بعدها
+ * Each completed wallet transaction is posted in the transaction that settles it: the sale (debit
+ * customer, credit merchant) and the settlement (debit provider clearing and fees, credit customer).
+ * Refunds reverse it. A batch's postings are written in one statement and no balance row is updated
+ * with them; periodic snapshots make a balance the latest snapshot plus the postings after it
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class WalletLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletLedgerService.class);
+
+    // "ledger" كمفتاح للقفل الاستشاري
+    private static final long SNAPSHOT_LOCK_KEY = 0x6c6564676572L;
+
+    private static final String MERCHANT_ACCOUNT = "MERCHANT";
+
+    private static final String SNAPSHOT_SQL =
+            "INSERT INTO ledger_balance_snapshots (account_id, as_of_posting_id, balance) " +
+            "SELECT t.account_id, ?, COALESCE(s.balance, 0) + t.delta " +
+            "FROM (SELECT account_id, SUM(amount) AS delta FROM ledger_postings " +
+            "      WHERE id > ? AND id <= ? GROUP BY account_id) t " +
+            "LEFT JOIN LATERAL (SELECT balance FROM ledger_balance_snapshots s " +
+            "                   WHERE s.account_id = t.account_id ORDER BY as_of_posting_id DESC LIMIT 1) s ON true";
+
+    private static final String ACCOUNT_BALANCE_SQL =
+            "SELECT a.code, a.account_type, a.wallet_type, a.owner_ref, " +
+            "       COALESCE(s.balance, 0) + COALESCE((SELECT SUM(p.amount) FROM ledger_postings p " +
+            "           WHERE p.account_id = a.id AND p.id > COALESCE(s.as_of_posting_id, 0)), 0) AS balance " +
+            "FROM ledger_accounts a " +
+            "LEFT JOIN LATERAL (SELECT balance, as_of_posting_id FROM ledger_balance_snapshots s " +
+            "                   WHERE s.account_id = a.id ORDER BY as_of_posting_id DESC LIMIT 1) s ON true " +
+            "WHERE a.code = ?";
+
+    // حسابات العملاء مجمعة في سطر واحد
+    private static final String TRIAL_BALANCE_SQL =
+            "SELECT CASE WHEN a.account_type = 'CUSTOMER' THEN 'CUSTOMER' ELSE a.code END AS code, " +
+            "       a.account_type, a.wallet_type, NULL AS owner_ref, " +
+            "       SUM(COALESCE(s.balance, 0) + COALESCE(t.amount, 0)) AS balance " +
+            "FROM ledger_accounts a " +
+            "LEFT JOIN LATERAL (SELECT balance, as_of_posting_id FROM ledger_balance_snapshots s " +
+            "                   WHERE s.account_id = a.id AND s.taken_at <= ? " +
+            "                   ORDER BY as_of_posting_id DESC LIMIT 1) s ON true " +
+            "LEFT JOIN LATERAL (SELECT SUM(p.amount) AS amount FROM ledger_postings p " +
+            "                   WHERE p.account_id = a.id AND p.id > COALESCE(s.as_of_posting_id, 0) " +
+            "                     AND p.posted_at <= ?) t ON true " +
+            "GROUP BY 1, 2, 3 " +
+            "ORDER BY 2, 1";
+
+    private static final RowMapper<LedgerAccountBalance> BALANCE_MAPPER = (rs, rowNum) -> new LedgerAccountBalance(
+            rs.getString("code"),
+            LedgerAccountType.valueOf(rs.getString("account_type")),
+            rs.getString("wallet_type") != null ? WalletType.valueOf(rs.getString("wallet_type")) : null,
+            rs.getString("owner_ref"),
+            rs.getBigDecimal("balance"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // معرفات حسابات المزودين والتاجر - لا تتغير بعد إنشائها
+    private final Map<String, Long> systemAccounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public WalletLedgerService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * قيد معاملة محفظة مكتملة - ضمن معاملة الحسم
+     * Post a completed wallet transaction, inside the settling transaction
+     *
+     * @param transaction معاملة المحفظة
+     * @param orderId الطلب لتحديد حساب العميل (اختياري)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCharge(WalletTransaction transaction, UUID orderId) {
+        post(List.of(new Posting(LedgerEntryType.WALLET_CHARGE, transaction, orderId, transaction.getAmount())));
+    }
+
+    /**
+     * قيد استرداد معاملات محافظ دفعة واحدة - ضمن معاملة تحديث المدفوعات
+     * Post wallet refunds as one batch, inside the transaction updating the payments
+     *
+     * @param refunds معاملة المحفظة والطلب والمبلغ المسترد لكل استرداد
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRefunds(List<Posting> refunds) {
+        if (!refunds.isEmpty()) {
+            post(refunds);
+        }
+    }
+
+    /**
+     * رصيد حساب: آخر لقطة + الأسطر بعدها
+     * Account balance: latest snapshot plus the postings after it
+     *
+     * @param code رمز الحساب، مثل MERCHANT أو PROVIDER_CLEARING:JEEB
+     * @return LedgerAccountBalance الرصيد الحالي
+     */
+    @Transactional(readOnly = true)
+    public LedgerAccountBalance getAccountBalance(String code) {
+        List<LedgerAccountBalance> result = jdbcTemplate.query(ACCOUNT_BALANCE_SQL, BALANCE_MAPPER, code);
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("Ledger account not found with code: " + code);
+        }
+        return result.get(0);
+    }
+
+    /**
+     * ميزان المراجعة في وقت معين - لتسوية نهاية الشهر مع كشوف المزودين
+     * Trial balance as of a point in time, for month-end reconciliation against provider statements
+     *
+     * @param asOf الوقت (الحالي إذا كان null)
+     * @return LedgerTrialBalanceResponse أرصدة الحسابات والمجاميع
+     */
+    @Transactional(readOnly = true)
+    public LedgerTrialBalanceResponse getTrialBalance(LocalDateTime asOf) {
+        LocalDateTime at = asOf != null ? asOf : LocalDateTime.now();
+        return new LedgerTrialBalanceResponse(at, jdbcTemplate.query(TRIAL_BALANCE_SQL, BALANCE_MAPPER, at, at));
+    }
+
+    /**
+     * لقطة أرصدة للحسابات التي تغيرت منذ اللقطة السابقة
+     * Snapshot the balances of accounts changed since the previous snapshot
+     *
+     * القفل SHARE ينتظر معاملات القيد الجارية فلا يفوت اللقطة سطر بمعرف أصغر يُؤكد لاحقاً
+     * The SHARE lock waits for in-flight posting transactions, so no lower posting id can commit after the snapshot
+     */
+    @Scheduled(fixedDelayString = "${app.ledger.snapshot-interval-ms:600000}")
+    public void takeSnapshots() {
+        Boolean leader = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, SNAPSHOT_LOCK_KEY);
+        if (!Boolean.TRUE.equals(leader)) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '2s'");
+            jdbcTemplate.execute("LOCK TABLE ledger_postings IN SHARE MODE");
+        } catch (DataAccessException e) {
+            // القيود مشغولة - المحاولة في الدورة التالية
+            logger.debug("Skipping ledger snapshot, postings are busy: {}", e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return;
+        }
+
+        Long from = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(as_of_posting_id), 0) FROM ledger_balance_snapshots", Long.class);
+        Long to = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM ledger_postings", Long.class);
+        if (to <= from) {
+            return;
+        }
+        int accounts = jdbcTemplate.update(SNAPSHOT_SQL, to, from, to);
+        logger.info("Ledger snapshot up to posting {}: {} accounts", to, accounts);
+    }
+
+    // ===============================
+    // Posting
+    // ===============================
+
+    private void post(List<Posting> postings) {
+        Map<UUID, String> owners = customerOwners(postings);
+
+        // 1. أسطر كل قيد - مجموعها صفر
+        Map<String, List<Line>> entries = new LinkedHashMap<>();
+        Map<String, Posting> byKey = new HashMap<>();
+        for (Posting posting : postings) {
+            String key = posting.type.name() + ":" + posting.transaction.getId();
+            String customer = owners.getOrDefault(posting.orderId, "phone:" + posting.transaction.getWalletPhone());
+            entries.put(key, lines(posting, customer));
+            byKey.put(key, posting);
+        }
+
+        // 2. الحسابات
+        Map<String, Long> accounts = resolveAccounts(entries.values());
+
+        // 3. القيود وأسطرها بعبارة واحدة - القيد المكرر يُتجاهل
+        StringBuilder entryValues = new StringBuilder();
+        StringBuilder lineValues = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        List<Object> lineArgs = new ArrayList<>();
+        for (Map.Entry<String, List<Line>> entry : entries.entrySet()) {
+            Posting posting = byKey.get(entry.getKey());
+            entryValues.append(entryValues.length() == 0 ? "" : ", ").append("(?, ?, ?::uuid, ?::uuid)");
+            args.add(entry.getKey());
+            args.add(posting.type.name());
+            args.add(posting.transaction.getId());
+            args.add(posting.transaction.getPaymentId());
+            for (Line line : entry.getValue()) {
+                lineValues.append(lineValues.length() == 0 ? "" : ", ").append("(?, ?::bigint, ?::numeric)");
+                lineArgs.add(entry.getKey());
+                lineArgs.add(accounts.get(line.code));
+                lineArgs.add(line.amount);
+            }
+        }
+        args.addAll(lineArgs);
+
+        int written = jdbcTemplate.update(
+                "WITH v (entry_key, entry_type, wallet_transaction_id, payment_id) AS (VALUES " + entryValues + "), " +
+                "e AS (INSERT INTO ledger_entries (entry_key, entry_type, wallet_transaction_id, payment_id) " +
+                "      SELECT entry_key, entry_type, wallet_transaction_id, payment_id FROM v " +
+                "      ON CONFLICT (entry_key) DO NOTHING RETURNING id, entry_key), " +
+                "l (entry_key, account_id, amount) AS (VALUES " + lineValues + ") " +
+                "INSERT INTO ledger_postings (entry_id, account_id, amount) " +
+                "SELECT e.id, l.account_id, l.amount FROM l JOIN e ON e.entry_key = l.entry_key",
+                args.toArray());
+        logger.debug("Posted {} ledger entries ({} postings)", entries.size(), written);
+    }
+
+    private List<Line> lines(Posting posting, String customer) {
+        WalletTransaction transaction = posting.transaction;
+        String walletType = transaction.getWalletType().name();
+        String clearing = LedgerAccountType.PROVIDER_CLEARING.name() + ":" + walletType;
+        String customerCode = LedgerAccountType.CUSTOMER.name() + ":" + customer;
+        BigDecimal amount = posting.amount;
+        List<Line> lines = new ArrayList<>();
+
+        if (posting.type == LedgerEntryType.WALLET_CHARGE) {
+            BigDecimal fees = transaction.getFees() != null ? transaction.getFees() : BigDecimal.ZERO;
+            lines.add(new Line(customerCode, LedgerAccountType.CUSTOMER, null, customer, amount));
+            lines.add(new Line(MERCHANT_ACCOUNT, LedgerAccountType.MERCHANT, null, null, amount.negate()));
+            lines.add(new Line(clearing, LedgerAccountType.PROVIDER_CLEARING, walletType, null, amount.subtract(fees)));
+            lines.add(new Line(LedgerAccountType.PROVIDER_FEES.name() + ":" + walletType,
+                    LedgerAccountType.PROVIDER_FEES, walletType, null, fees));
+            lines.add(new Line(customerCode, LedgerAccountType.CUSTOMER, null, customer, amount.negate()));
+        } else {
+            // رسوم المزود لا تُسترد
+            lines.add(new Line(MERCHANT_ACCOUNT, LedgerAccountType.MERCHANT, null, null, amount));
+            lines.add(new Line(customerCode, LedgerAccountType.CUSTOMER, null, customer, amount.negate()));
+            lines.add(new Line(customerCode, LedgerAccountType.CUSTOMER, null, customer, amount));
+            lines.add(new Line(clearing, LedgerAccountType.PROVIDER_CLEARING, walletType, null, amount.negate()));
+        }
+
+        lines.removeIf(line -> line.amount.signum() == 0);
+        BigDecimal sum = lines.stream().map(line -> line.amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (sum.signum() != 0) {
+            throw new IllegalStateException("Unbalanced ledger entry for wallet transaction " + transaction.getId());
+        }
+        return lines;
+    }
+
+    /**
+     * معرفات الحسابات، مع إنشاء غير الموجود منها
+     * Account ids, creating missing accounts
+     */
+    private Map<String, Long> resolveAccounts(Iterable<List<Line>> entries) {
+        Map<String, Line> missing = new LinkedHashMap<>();
+        Map<String, Long> ids = new HashMap<>();
+        for (List<Line> lines : entries) {
+            for (Line line : lines) {
+                Long cached = systemAccounts.get(line.code);
+                if (cached != null) {
+                    ids.put(line.code, cached);
+                } else {
+                    missing.putIfAbsent(line.code, line);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        StringBuilder values = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (Line line : missing.values()) {
+            values.append(values.length() == 0 ? "" : ", ").append("(?, ?, ?, ?)");
+            args.add(line.code);
+            args.add(line.accountType.name());
+            args.add(line.walletType);
+            args.add(line.ownerRef);
+        }
+        jdbcTemplate.update("INSERT INTO ledger_accounts (code, account_type, wallet_type, owner_ref) VALUES " + values +
+                " ON CONFLICT (code) DO NOTHING", args.toArray());
+
+        jdbcTemplate.query("SELECT id, code, account_type FROM ledger_accounts WHERE code = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", missing.keySet().toArray())),
+                rs -> {
+                    String code = rs.getString("code");
+                    ids.put(code, rs.getLong("id"));
+                    if (!LedgerAccountType.CUSTOMER.name().equals(rs.getString("account_type"))) {
+                        systemAccounts.put(code, rs.getLong("id"));
+                    }
+                });
+        return ids;
+    }
+
+    /**
+     * مرجع العميل لكل طلب: معرف المستخدم، أو رقم المحفظة للضيف
+     * Customer reference per order: the user id, or the wallet phone for guests
+     */
+    private Map<UUID, String> customerOwners(List<Posting> postings) {
+        Set<UUID> orderIds = new HashSet<>();
+        for (Posting posting : postings) {
+            if (posting.orderId != null) {
+                orderIds.add(posting.orderId);
+            }
+        }
+        Map<UUID, String> owners = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return owners;
+        }
+        jdbcTemplate.query("SELECT id, user_id FROM orders WHERE id = ANY(?) AND user_id IS NOT NULL",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", orderIds.toArray())),
+                rs -> {
+                    owners.put(rs.getObject("id", UUID.class), rs.getObject("user_id", UUID.class).toString());
+                });
+        return owners;
+    }
+
+    /**
+     * عملية تُقيد: معاملة المحفظة والطلب والمبلغ
+     * An operation to post: wallet transaction, order and amount
+     */
+    public static class Posting {
+        private final LedgerEntryType type;
+        private final WalletTransaction transaction;
+        private final UUID orderId;
+        private final BigDecimal amount;
+
+        public Posting(LedgerEntryType type, WalletTransaction transaction, UUID orderId, BigDecimal amount) {
+            this.type = type;
+            this.transaction = transaction;
+            this.orderId = orderId;
+            this.amount = amount;
+        }
+
+        /**
+         * استرداد كامل لمعاملة محفظة
+         * Full refund of a wallet transaction
+         */
+        public static Posting refund(WalletTransaction transaction, UUID orderId, BigDecimal amount) {
+            return new Posting(LedgerEntryType.WALLET_REFUND, transaction, orderId, amount);
+        }
+    }
+
+    /**
+     * سطر قيد
+     * Entry line
+     */
+    private static class Line {
+        private final String code;
+        private final LedgerAccountType accountType;
+        private final String walletType;
+        private final String ownerRef;
+        private final BigDecimal amount;
+
+        Line(String code, LedgerAccountType accountType, String walletType, String ownerRef, BigDecimal amount) {
+            this.code = code;
+            this.accountType = accountType;
+            this.walletType = walletType;
+            this.ownerRef = ownerRef;
+            this.amount = amount;
+        }
+    }
+}
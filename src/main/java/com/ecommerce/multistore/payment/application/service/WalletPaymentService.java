@@ -3,26 +3,55 @@ package com.ecommerce.multistore.payment.application.service;
 import com.ecommerce.multistore.payment.domain.WalletTransaction;
 import com.ecommerce.multistore.payment.domain.PaymentStatus;
 import com.ecommerce.multistore.payment.infrastructure.WalletTransactionRepository;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderClient;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderStatus;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderUnavailableException;
+import com.ecommerce.multistore.shared.resilience.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * خدمة المحافظ الإلكترونية
  * Wallet Payment Service
+ *
+ * ترسل الدفع إلى المزود عبر WalletProviderGateway ضمن موعد نهائي محدد للدفع؛ النتيجة
+ * النهائية تُحسم فوراً، والنتيجة غير المعروفة تبقى PROCESSING حتى التسوية أو الـ webhook
+ * Submits the charge through WalletProviderGateway within a checkout deadline; a final outcome
+ * is settled immediately, an unknown one stays PROCESSING for reconciliation or the webhook
+ *
+ * لا تُفتح معاملة قاعدة بيانات أثناء الاتصال بالمزود: حالة PROCESSING تُلتزم قبل الطلب، والحسم
+ * يجري في معاملة جديدة بعده، فلا يحجز مزود بطيء اتصالاً من المجمع
+ * No database transaction is held across the provider call: PROCESSING is committed before the
+ * request and the settlement runs in a new transaction after it, so a slow provider does not pin
+ * a pooled connection
  * 
  * @author Multi-Store Team
  * @version 1.0
  */
 @Service
-@Transactional
 public class WalletPaymentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(WalletPaymentService.class);
+
     private final WalletTransactionRepository walletTransactionRepository;
+    private final WalletProviderClient walletProviderClient;
+    private final WalletSettlementService walletSettlementService;
+    private final long checkoutDeadlineMs;
 
     @Autowired
-    public WalletPaymentService(WalletTransactionRepository walletTransactionRepository) {
+    public WalletPaymentService(WalletTransactionRepository walletTransactionRepository,
+                                WalletProviderClient walletProviderClient,
+                                WalletSettlementService walletSettlementService,
+                                @Value("${app.wallets.checkout-deadline-ms:8000}") long checkoutDeadlineMs) {
         this.walletTransactionRepository = walletTransactionRepository;
+        this.walletProviderClient = walletProviderClient;
+        this.walletSettlementService = walletSettlementService;
+        this.checkoutDeadlineMs = checkoutDeadlineMs;
     }
 
     /**
@@ -30,64 +59,35 @@ public class WalletPaymentService {
      * Process wallet payment
      * 
      * @param walletTransaction معاملة المحفظة
+     * @throws WalletProviderUnavailableException إذا لم يصل الطلب إلى المزود - تُعلَّم المعاملة فاشلة
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processWalletPayment(WalletTransaction walletTransaction) {
-        try {
-            // تحديث الحالة إلى "جاري المعالجة"
-            walletTransaction.setStatus(PaymentStatus.PROCESSING);
-            walletTransactionRepository.save(walletTransaction);
-
-            // محاكاة استدعاء API الخارجي
-            boolean success = callExternalWalletAPI(walletTransaction);
-
-            if (success) {
-                // نجح الدفع
-                String walletTxnId = "WLT-" + System.currentTimeMillis();
-                String responsePayload = createSuccessResponse(walletTxnId);                walletTransaction.markAsCompleted(walletTxnId, responsePayload);
-            } else {
-                // فشل الدفع
-                walletTransaction.markAsFailed("Insufficient balance or transaction declined");
-            }
+        // تحديث الحالة إلى "جاري المعالجة" - يُلتزم قبل الاتصال بالمزود
+        walletTransaction.setStatus(PaymentStatus.PROCESSING);
+        walletTransaction = walletTransactionRepository.save(walletTransaction);
 
+        WalletProviderStatus status;
+        try {
+            status = walletProviderClient.charge(walletTransaction, Deadline.afterMillis(checkoutDeadlineMs));
+        } catch (WalletProviderUnavailableException e) {
+            // لم يصل الطلب إلى المزود فلا webhook ينافس هذا التحديث
+            walletTransaction.markAsFailed(e.getMessage());
             walletTransactionRepository.save(walletTransaction);
-
-        } catch (Exception e) {
-            walletTransaction.markAsFailed("Payment processing error: " + e.getMessage());
-            walletTransactionRepository.save(walletTransaction);
-            throw new RuntimeException("Failed to process wallet payment", e);
+            throw e;
         }
-    }
 
-    /**
-     * محاكاة استدعاء API خارجي للمحفظة
-     * Simulate external wallet API call
-     * 
-     * @param walletTransaction معاملة المحفظة
-     * @return boolean نجح أم فشل
-     */
-    private boolean callExternalWalletAPI(WalletTransaction walletTransaction) {
-        // محاكاة - في التطبيق الحقيقي، سيتم استدعاء API الفعلي
-        try {
-            Thread.sleep(2000); // محاكاة وقت المعالجة
-            
-            // محاكاة نسبة نجاح 85%
-            return Math.random() > 0.15;
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return false;
+        switch (status.getState()) {
+            case COMPLETED:
+                walletSettlementService.settle(walletTransaction.getId(), status, null);
+                break;
+            case FAILED:
+                walletSettlementService.settle(walletTransaction.getId(), status,
+                        status.getMessage() != null ? status.getMessage() : "Insufficient balance or transaction declined");
+                break;
+            default:
+                // النتيجة غير معروفة - تحسمها التسوية أو الـ webhook
+                logger.info("Wallet transaction {} outcome unknown, left for reconciliation", walletTransaction.getId());
         }
     }
-
-    /**
-     * إنشاء استجابة النجاح
-     * Create success response
-     */
-    private String createSuccessResponse(String walletTxnId) {
-        return String.format(
-            "{\"status\":\"success\",\"transaction_id\":\"%s\",\"timestamp\":\"%s\"}",
-            walletTxnId,
-            java.time.LocalDateTime.now()
-        );
-    }
 }
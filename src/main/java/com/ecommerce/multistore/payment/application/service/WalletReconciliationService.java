@@ -0,0 +1,180 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.payment.infrastructure.WalletTransactionRepository;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderClient;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderStatus;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * خدمة تسوية معاملات المحافظ المعلقة
+ * Stale wallet transaction reconciliation service
+ *
+ * تعمل على دفعات محدودة: حجز الدفعة بـ SKIP LOCKED مع مهلة حجز، ثم الاستعلام من المزود
+ * بالتوازي بحد أقصى للتزامن، ثم تحديث المعاملة والدفع وحالة دفع الطلب في معاملة واحدة لكل صف.
+ * يمكن تشغيلها على عدة عقد دون معالجة نفس المعاملة مرتين
+ * Works in bounded batches: claim a batch with SKIP LOCKED and a lease, query the provider
+ * in parallel under a concurrency cap, then update the wallet transaction, payment and order
+ * payment status together in one transaction per row. Safe to run on several nodes at once
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+public class WalletReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletReconciliationService.class);
+
+    // الحجز يسجل مهلة بدلاً من إبقاء القفل مفتوحاً أثناء استدعاء المزود
+    private static final String CLAIM_SQL =
+            "UPDATE wallet_transactions " +
+            "SET reconcile_claimed_until = NOW() + make_interval(secs => ?), " +
+            "    reconcile_attempts = reconcile_attempts + 1 " +
+            "WHERE id IN (" +
+            "    SELECT id FROM wallet_transactions " +
+            "    WHERE status IN ('PENDING', 'PROCESSING') AND created_at < ? " +
+            "      AND (reconcile_claimed_until IS NULL OR reconcile_claimed_until < NOW()) " +
+            "    ORDER BY created_at " +
+            "    LIMIT ? " +
+            "    FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, reconcile_attempts";
+
+    private final WalletTransactionRepository walletTransactionRepository;
+    private final WalletSettlementService walletSettlementService;
+    private final WalletProviderClient walletProviderClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor reconciliationExecutor;
+
+    @Value("${app.payments.reconciliation.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.payments.reconciliation.max-batches:20}")
+    private int maxBatches;
+
+    @Value("${app.payments.reconciliation.lease-seconds:300}")
+    private int leaseSeconds;
+
+    @Value("${app.payments.reconciliation.max-attempts:10}")
+    private int maxAttempts;
+
+    @Autowired
+    public WalletReconciliationService(WalletTransactionRepository walletTransactionRepository,
+                                       WalletSettlementService walletSettlementService,
+                                       WalletProviderClient walletProviderClient,
+                                       JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       @Qualifier("walletReconciliationExecutor") Executor reconciliationExecutor) {
+        this.walletTransactionRepository = walletTransactionRepository;
+        this.walletSettlementService = walletSettlementService;
+        this.walletProviderClient = walletProviderClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.reconciliationExecutor = reconciliationExecutor;
+    }
+
+    /**
+     * تسوية المعاملات المعلقة أقدم من مهلة الدفع
+     * Reconcile transactions left unsettled past the payment timeout
+     */
+    @Scheduled(fixedDelayString = "${app.payments.reconciliation.interval-ms:60000}",
+               initialDelayString = "${app.payments.reconciliation.interval-ms:60000}")
+    public void reconcileStaleTransactions() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(AppConstants.PAYMENT_TIMEOUT_MINUTES);
+        int processed = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Map<UUID, Integer> claimed = claimBatch(cutoff);
+            if (claimed.isEmpty()) {
+                break;
+            }
+            reconcileBatch(claimed);
+            processed += claimed.size();
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (processed > 0) {
+            logger.info("Wallet reconciliation checked {} stale transactions", processed);
+        }
+    }
+
+    /**
+     * @return معرف المعاملة -> عدد المحاولات بعد هذا الحجز
+     */
+    private Map<UUID, Integer> claimBatch(LocalDateTime cutoff) {
+        return transactionTemplate.execute(status -> {
+            Map<UUID, Integer> claimed = new LinkedHashMap<>();
+            jdbcTemplate.query(CLAIM_SQL,
+                    ps -> {
+                        ps.setInt(1, leaseSeconds);
+                        ps.setTimestamp(2, Timestamp.valueOf(cutoff));
+                        ps.setInt(3, batchSize);
+                    },
+                    rs -> {
+                        claimed.put(rs.getObject("id", UUID.class), rs.getInt("reconcile_attempts"));
+                    });
+            return claimed;
+        });
+    }
+
+    private void reconcileBatch(Map<UUID, Integer> claimed) {
+        List<WalletTransaction> transactions = walletTransactionRepository.findAllById(claimed.keySet());
+
+        CompletableFuture<?>[] futures = transactions.stream()
+                .map(transaction -> CompletableFuture
+                        .supplyAsync(() -> walletProviderClient.queryStatus(transaction), reconciliationExecutor)
+                        .exceptionally(e -> {
+                            logger.warn("Wallet provider query failed for {}: {}", transaction.getId(), e.getMessage());
+                            return null;
+                        })
+                        .thenAccept(status -> settle(transaction.getId(), status, claimed.get(transaction.getId()))))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private void settle(UUID transactionId, WalletProviderStatus providerStatus, int attempts) {
+        WalletProviderStatus status = providerStatus != null ? providerStatus : WalletProviderStatus.pending();
+        if (status.getState() == WalletProviderStatus.State.PENDING && attempts < maxAttempts) {
+            // انتهاء مهلة الحجز يعيد المعاملة للدفعة التالية
+            return;
+        }
+        try {
+            walletSettlementService.settle(transactionId, status, failureReason(status, attempts));
+        } catch (RuntimeException e) {
+            // تبقى محجوزة حتى انتهاء المهلة ثم يعاد المحاولة
+            logger.warn("Failed to settle wallet transaction {}: {}", transactionId, e.getMessage());
+        }
+    }
+
+    private String failureReason(WalletProviderStatus status, int attempts) {
+        switch (status.getState()) {
+            case NOT_FOUND:
+                return "Transaction not found at wallet provider";
+            case PENDING:
+                return "Wallet transaction not settled after " + attempts + " reconciliation attempts";
+            default:
+                return status.getMessage() != null ? status.getMessage() : "Wallet transaction declined by provider";
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.order.application.service.OrderStateMachine;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.OrderTransition;
+import com.ecommerce.multistore.order.domain.event.OrderPaymentStatusChangedEvent;
+import com.ecommerce.multistore.order.infrastructure.OrderRepository;
+import com.ecommerce.multistore.payment.domain.Payment;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.payment.infrastructure.PaymentRepository;
+import com.ecommerce.multistore.payment.infrastructure.WalletTransactionRepository;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderStatus;
+import com.ecommerce.multistore.shared.outbox.OutboxEventTypes;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * خدمة حسم معاملات المحافظ
+ * Wallet settlement service
+ *
+ * تطبق النتيجة النهائية من المزود على معاملة المحفظة والدفع وحالة دفع الطلب معاً، وتقيد المكتملة في الدفتر.
+ * يستخدمها عامل التسوية ومعالج الـ webhooks، والتطبيق المتكرر لنفس النتيجة لا يغير شيئاً
+ * Applies a final provider outcome to the wallet transaction, payment and order payment
+ * status together, posting completed charges to the wallet ledger. Shared by the reconciliation
+ * worker and the webhook processor; applying the same outcome twice is a no-op
+ *
+ * صف المعاملة يُقفل قبل فحص حالتها، فالحسم المتزامن من الـ webhook والتسوية ينتظر أحدهما الآخر
+ * ثم يجد المعاملة محسومة. الطلب المدفوع ينتقل إلى CONFIRMED عبر OrderStateMachine
+ * The transaction row is locked before its status is checked, so concurrent settlements from the
+ * webhook and reconciliation queue behind each other and the later one finds it settled. A paid
+ * order moves to CONFIRMED through OrderStateMachine
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
+public class WalletSettlementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletSettlementService.class);
+
+    private final WalletTransactionRepository walletTransactionRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final WalletLedgerService walletLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderStateMachine orderStateMachine;
+
+    @Autowired
+    public WalletSettlementService(WalletTransactionRepository walletTransactionRepository,
+                                   PaymentRepository paymentRepository,
+                                   OrderRepository orderRepository,
+                                   OutboxPublisher outboxPublisher,
+                                   WalletLedgerService walletLedgerService,
+                                   ApplicationEventPublisher eventPublisher,
+                                   OrderStateMachine orderStateMachine) {
+        this.walletTransactionRepository = walletTransactionRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.walletLedgerService = walletLedgerService;
+        this.eventPublisher = eventPublisher;
+        this.orderStateMachine = orderStateMachine;
+    }
+
+    /**
+     * حسم معاملة محفظة
+     * Settle a wallet transaction
+     *
+     * @param transactionId معرف معاملة المحفظة
+     * @param status النتيجة من المزود - COMPLETED أو أي حالة فشل
+     * @param failureReason سبب الفشل عند عدم النجاح
+     * @return true إذا تغيرت الحالة، false إذا كانت محسومة مسبقاً
+     */
+    public boolean settle(UUID transactionId, WalletProviderStatus status, String failureReason) {
+        WalletTransaction transaction = walletTransactionRepository.findByIdForUpdate(transactionId)
+                .orElseThrow(() -> new IllegalArgumentException("Wallet transaction not found with ID: " + transactionId));
+        if (transaction.getStatus() != PaymentStatus.PENDING && transaction.getStatus() != PaymentStatus.PROCESSING) {
+            // حُسمت في مكان آخر
+            return false;
+        }
+        Payment payment = paymentRepository.findById(transaction.getPaymentId()).orElse(null);
+
+        if (status.getState() == WalletProviderStatus.State.COMPLETED) {
+            transaction.markAsCompleted(status.getProviderTransactionId(), status.getRawResponse());
+            walletLedgerService.recordCharge(transaction, payment != null ? payment.getOrderId() : null);
+            if (payment != null && !payment.getStatus().isFinal()) {
+                payment.markAsCompleted(status.getProviderTransactionId());
+                updateOrderPaymentStatus(payment, com.ecommerce.multistore.order.domain.PaymentStatus.PAID);
+            }
+        } else {
+            transaction.markAsFailed(failureReason);
+            if (payment != null && !payment.getStatus().isFinal()) {
+                payment.markAsFailed(failureReason);
+                updateOrderPaymentStatus(payment, com.ecommerce.multistore.order.domain.PaymentStatus.FAILED);
+            }
+        }
+
+        walletTransactionRepository.save(transaction);
+        if (payment != null) {
+            paymentRepository.save(payment);
+        }
+        logger.info("Settled wallet transaction {} as {}", transactionId, transaction.getStatus());
+        return true;
+    }
+
+    private void updateOrderPaymentStatus(Payment payment, com.ecommerce.multistore.order.domain.PaymentStatus paymentStatus) {
+        orderRepository.findById(payment.getOrderId())
+                .filter(order -> order.getPaymentStatus() == com.ecommerce.multistore.order.domain.PaymentStatus.PENDING)
+                .ifPresent(order -> {
+                    order.setPaymentStatus(paymentStatus);
+                    order.setUpdatedAt(LocalDateTime.now());
+                    // يُكتب قبل الانتقال الذي يحدّث الصف نفسه عبر JDBC
+                    orderRepository.saveAndFlush(order);
+
+                    Map<String, Object> payload = new LinkedHashMap<>();
+                    payload.put("orderId", order.getId());
+                    payload.put("orderNumber", order.getOrderNumber());
+                    payload.put("from", com.ecommerce.multistore.order.domain.PaymentStatus.PENDING);
+                    payload.put("to", paymentStatus);
+                    outboxPublisher.publish(OutboxEventTypes.ORDER, order.getId(),
+                            OutboxEventTypes.ORDER_PAYMENT_STATUS_CHANGED, payload);
+                    eventPublisher.publishEvent(new OrderPaymentStatusChangedEvent(order.getId(),
+                            com.ecommerce.multistore.order.domain.PaymentStatus.PENDING, paymentStatus));
+
+                    if (paymentStatus == com.ecommerce.multistore.order.domain.PaymentStatus.PAID
+                            && order.getStatus() == OrderStatus.PENDING) {
+                        orderStateMachine.apply(order.getId(), OrderTransition.CONFIRM, null);
+                    }
+                });
+    }
+}
@@ -0,0 +1,207 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.application.dto.WalletWebhookPayload;
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.ecommerce.multistore.payment.infrastructure.WalletTransactionRepository;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * خدمة webhooks المحافظ
+ * Wallet webhook service
+ *
+ * الاستلام يكتب الحدث في wallet_webhook_events بإدراج واحد ويعود فوراً؛ العامل المجدول
+ * يحجز الأحداث المستحقة بـ SKIP LOCKED ويطبقها بالتوازي عبر WalletSettlementService.
+ * الفشل يعاد جدولته بتراجع أُسّي بدلاً من ترك المزود يعيد الإرسال
+ * Ingestion stores the event in wallet_webhook_events with a single insert and returns;
+ * the scheduled worker claims due events with SKIP LOCKED and applies them in parallel through
+ * WalletSettlementService. Failures are rescheduled with exponential backoff on our side
+ * instead of relying on provider redelivery
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+public class WalletWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletWebhookService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO wallet_webhook_events (wallet_type, event_id, payload) VALUES (?, ?, ?) " +
+            "ON CONFLICT (wallet_type, event_id) DO NOTHING";
+
+    private static final String CLAIM_SQL =
+            "UPDATE wallet_webhook_events " +
+            "SET claimed_until = NOW() + make_interval(secs => ?), attempts = attempts + 1 " +
+            "WHERE id IN (" +
+            "    SELECT id FROM wallet_webhook_events " +
+            "    WHERE status = 'PENDING' AND next_attempt_at <= NOW() " +
+            "      AND (claimed_until IS NULL OR claimed_until < NOW()) " +
+            "    ORDER BY next_attempt_at " +
+            "    LIMIT ? " +
+            "    FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, wallet_type, payload, attempts";
+
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final WalletTransactionRepository walletTransactionRepository;
+    private final WalletSettlementService walletSettlementService;
+    private final Executor webhookExecutor;
+
+    @Value("${app.webhooks.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.webhooks.lease-seconds:120}")
+    private int leaseSeconds;
+
+    @Value("${app.webhooks.max-attempts:12}")
+    private int maxAttempts;
+
+    @Autowired
+    public WalletWebhookService(JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                WalletTransactionRepository walletTransactionRepository,
+                                WalletSettlementService walletSettlementService,
+                                @Qualifier("webhookProcessingExecutor") Executor webhookExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.walletTransactionRepository = walletTransactionRepository;
+        this.walletSettlementService = walletSettlementService;
+        this.webhookExecutor = webhookExecutor;
+    }
+
+    /**
+     * قراءة جسم webhook
+     * Parse a webhook body
+     *
+     * @return WalletWebhookPayload أو null إذا كان الجسم غير صالح
+     */
+    public WalletWebhookPayload parse(byte[] body) {
+        try {
+            WalletWebhookPayload payload = objectMapper.readValue(body, WalletWebhookPayload.class);
+            return payload.isValid() ? payload : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * حفظ الحدث في الطابور
+     * Enqueue an event
+     *
+     * @return true إذا كان الحدث جديداً، false إذا كان مكرراً
+     */
+    public boolean enqueue(WalletType walletType, WalletWebhookPayload payload, byte[] body) {
+        return jdbcTemplate.update(INSERT_SQL, walletType.name(), payload.getEventId(),
+                new String(body, StandardCharsets.UTF_8)) == 1;
+    }
+
+    /**
+     * معالجة الأحداث المستحقة
+     * Process due events
+     */
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-interval-ms:1000}")
+    public void processPendingEvents() {
+        List<ClaimedEvent> claimed = new ArrayList<>();
+        jdbcTemplate.query(CLAIM_SQL,
+                ps -> {
+                    ps.setInt(1, leaseSeconds);
+                    ps.setInt(2, batchSize);
+                },
+                rs -> {
+                    claimed.add(new ClaimedEvent(rs.getObject("id", UUID.class), rs.getString("wallet_type"),
+                            rs.getString("payload"), rs.getInt("attempts")));
+                });
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture.allOf(claimed.stream()
+                .map(event -> CompletableFuture.runAsync(() -> process(event), webhookExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void process(ClaimedEvent event) {
+        try {
+            WalletWebhookPayload payload = objectMapper.readValue(event.payload(), WalletWebhookPayload.class);
+            WalletProviderStatus.State state = toState(payload.getStatus());
+            if (state == WalletProviderStatus.State.PENDING) {
+                // حالة وسيطة - لا شيء للتطبيق
+                markProcessed(event.id());
+                return;
+            }
+
+            WalletTransaction transaction = walletTransactionRepository
+                    .findByTransactionReference(payload.getTransactionReference())
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Wallet transaction not found for reference: " + payload.getTransactionReference()));
+            if (!transaction.getWalletType().name().equals(event.walletType())) {
+                throw new IllegalStateException("Webhook wallet type does not match transaction " + transaction.getId());
+            }
+
+            WalletProviderStatus status = new WalletProviderStatus(state, payload.getWalletTransactionId(),
+                    payload.getMessage(), event.payload());
+            String reason = payload.getMessage() != null ? payload.getMessage() : "Wallet transaction declined by provider";
+            walletSettlementService.settle(transaction.getId(), status, reason);
+            markProcessed(event.id());
+        } catch (Exception e) {
+            // المعاملة قد لا تكون مؤكدة بعد عند وصول الحدث مبكراً - نعيد المحاولة لاحقاً
+            reschedule(event, e.getMessage());
+        }
+    }
+
+    private WalletProviderStatus.State toState(String status) {
+        switch (status.toLowerCase(Locale.ROOT)) {
+            case "completed":
+            case "success":
+                return WalletProviderStatus.State.COMPLETED;
+            case "failed":
+            case "declined":
+            case "cancelled":
+                return WalletProviderStatus.State.FAILED;
+            default:
+                return WalletProviderStatus.State.PENDING;
+        }
+    }
+
+    private void markProcessed(UUID eventId) {
+        jdbcTemplate.update("UPDATE wallet_webhook_events SET status = 'PROCESSED', processed_at = NOW(), " +
+                "claimed_until = NULL, last_error = NULL WHERE id = ?", eventId);
+    }
+
+    private void reschedule(ClaimedEvent event, String error) {
+        if (event.attempts() >= maxAttempts) {
+            logger.error("Wallet webhook event {} failed after {} attempts: {}", event.id(), event.attempts(), error);
+            jdbcTemplate.update("UPDATE wallet_webhook_events SET status = 'FAILED', claimed_until = NULL, " +
+                    "last_error = ? WHERE id = ?", error, event.id());
+            return;
+        }
+        long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(event.attempts(), 20));
+        logger.warn("Wallet webhook event {} failed (attempt {}), retrying in {}s: {}",
+                event.id(), event.attempts(), backoff, error);
+        jdbcTemplate.update("UPDATE wallet_webhook_events SET claimed_until = NULL, last_error = ?, " +
+                "next_attempt_at = NOW() + make_interval(secs => ?) WHERE id = ?", error, backoff, event.id());
+    }
+
+    private record ClaimedEvent(UUID id, String walletType, String payload, int attempts) {}
+}
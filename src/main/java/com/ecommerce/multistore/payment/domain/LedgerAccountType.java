@@ -0,0 +1,31 @@
+package com.ecommerce.multistore.payment.domain;
+
+/**
+ * أنواع حسابات دفتر المحافظ
+ * Wallet ledger account types
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public enum LedgerAccountType {
+    // أموال لدى مزود المحفظة بانتظار التحويل للتاجر - أصل
+    // Funds held by the wallet provider pending payout - asset
+    PROVIDER_CLEARING,
+    // رسوم المزود - مصروف
+    // Provider fees - expense
+    PROVIDER_FEES,
+    // مبيعات التاجر - إيراد
+    // Merchant sales - revenue
+    MERCHANT,
+    // ذمة العميل: موجبة إذا كان مديناً وسالبة إذا كان له استرداد
+    // Customer receivable: positive when owing, negative when owed a refund
+    CUSTOMER;
+
+    /**
+     * حساب خاص بمحفظة
+     * Whether accounts of this type are per wallet
+     */
+    public boolean isPerWallet() {
+        return this == PROVIDER_CLEARING || this == PROVIDER_FEES;
+    }
+}
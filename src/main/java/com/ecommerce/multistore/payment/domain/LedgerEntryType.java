@@ -0,0 +1,13 @@
+package com.ecommerce.multistore.payment.domain;
+
+/**
+ * أنواع قيود دفتر المحافظ
+ * Wallet ledger entry types
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public enum LedgerEntryType {
+    WALLET_CHARGE,
+    WALLET_REFUND
+}
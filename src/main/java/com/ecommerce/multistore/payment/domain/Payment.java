@@ -1,9 +1,14 @@
 package com.ecommerce.multistore.payment.domain;
 
+import com.ecommerce.multistore.payment.domain.event.PaymentStatusChangedEvent;
 import jakarta.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
+import org.springframework.data.domain.AfterDomainEventPublication;
+import org.springframework.data.domain.DomainEvents;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -65,6 +70,14 @@ public class Payment {
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // آخر حالة نُشر حدثها - لاكتشاف الانتقالات عند الحفظ
+    @Transient
+    private PaymentStatus publishedStatus;
     
     // Constructors
     public Payment() {
@@ -107,6 +120,29 @@ public class Payment {
         this.updatedAt = LocalDateTime.now();
     }
     
+    // Domain Events
+    @PostLoad
+    void rememberLoadedStatus() {
+        this.publishedStatus = this.status;
+    }
+
+    /**
+     * حدث انتقال الحالة - يُنشر تلقائياً عند paymentRepository.save
+     * Status transition event - published automatically by paymentRepository.save
+     */
+    @DomainEvents
+    Collection<Object> statusEvents() {
+        if (status == publishedStatus) {
+            return List.of();
+        }
+        return List.of(new PaymentStatusChangedEvent(id, orderId, paymentMethod, amount, createdAt, publishedStatus, status));
+    }
+
+    @AfterDomainEventPublication
+    void markStatusPublished() {
+        this.publishedStatus = this.status;
+    }
+    
     // Getters and Setters
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
@@ -152,4 +188,7 @@ public class Payment {
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,52 @@
+package com.ecommerce.multistore.payment.domain;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * دقة التجميعات الزمنية للمدفوعات
+ * Payment rollup granularity
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public enum RollupGranularity {
+    MINUTE("minute", ChronoUnit.MINUTES),
+    HOUR("hour", ChronoUnit.HOURS),
+    DAY("day", ChronoUnit.DAYS);
+
+    private final String value;
+    private final ChronoUnit unit;
+
+    RollupGranularity(String value, ChronoUnit unit) {
+        this.value = value;
+        this.unit = unit;
+    }
+
+    /**
+     * القيمة كما تستخدمها date_trunc
+     * The value as used by date_trunc
+     */
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * بداية الفترة التي تحتوي الوقت
+     * Start of the bucket containing the given time
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * عدد الفترات بين وقتين
+     * Number of buckets between two times
+     */
+    public long bucketsBetween(LocalDateTime from, LocalDateTime to) {
+        return unit.between(truncate(from), to);
+    }
+}
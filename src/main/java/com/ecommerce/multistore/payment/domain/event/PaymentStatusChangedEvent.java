@@ -0,0 +1,54 @@
+package com.ecommerce.multistore.payment.domain.event;
+
+import com.ecommerce.multistore.payment.domain.PaymentMethod;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * حدث تغيير حالة الدفع
+ * Payment status changed event
+ *
+ * يُنشر عند حفظ الدفع عبر المستودع؛ الحالة السابقة null تعني دفعاً جديداً
+ * Published when a payment is saved through the repository; a null previous status means a new payment
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class PaymentStatusChangedEvent {
+
+    private final UUID paymentId;
+    private final UUID orderId;
+    private final PaymentMethod paymentMethod;
+    private final BigDecimal amount;
+    private final LocalDateTime createdAt;
+    private final PaymentStatus previousStatus;
+    private final PaymentStatus status;
+
+    public PaymentStatusChangedEvent(UUID paymentId, UUID orderId, PaymentMethod paymentMethod, BigDecimal amount,
+                                     LocalDateTime createdAt, PaymentStatus previousStatus, PaymentStatus status) {
+        this.paymentId = paymentId;
+        this.orderId = orderId;
+        this.paymentMethod = paymentMethod;
+        this.amount = amount;
+        this.createdAt = createdAt;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+
+    public UUID getPaymentId() { return paymentId; }
+
+    public UUID getOrderId() { return orderId; }
+
+    public PaymentMethod getPaymentMethod() { return paymentMethod; }
+
+    public BigDecimal getAmount() { return amount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public PaymentStatus getPreviousStatus() { return previousStatus; }
+
+    public PaymentStatus getStatus() { return status; }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.multistore.payment.infrastructure;
 
+import com.ecommerce.multistore.payment.application.dto.PaymentStatisticsRow;
 import com.ecommerce.multistore.payment.domain.Payment;
 import com.ecommerce.multistore.payment.domain.PaymentMethod;
 import com.ecommerce.multistore.payment.domain.PaymentStatus;
@@ -112,4 +113,23 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = 'COMPLETED' AND p.createdAt BETWEEN :startDate AND :endDate")
     BigDecimal sumPaymentsByDateRange(@Param("startDate") LocalDateTime startDate, 
                                      @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * كل إحصائيات المدفوعات من التجميعات اليومية والفروقات غير المدموجة - دون المرور على جدول المدفوعات
+     * All payment statistics from the daily rollups plus unfolded deltas, without scanning the payments table
+     */
+    @Query(value = "SELECT status AS \"status\", payment_method AS \"paymentMethod\", " +
+                   "CAST(SUM(payment_count) AS BIGINT) AS \"paymentCount\", " +
+                   "COALESCE(SUM(total_amount) FILTER (WHERE status = 'COMPLETED'), 0) AS \"completedAmount\", " +
+                   "COALESCE(SUM(total_amount) FILTER (WHERE status = 'COMPLETED' " +
+                   "    AND bucket_start >= :startOfDay AND bucket_start < :endOfDay), 0) AS \"todayAmount\" " +
+                   "FROM (SELECT bucket_start, payment_method, status, payment_count, total_amount " +
+                   "      FROM payment_rollups WHERE granularity = 'DAY' " +
+                   "      UNION ALL " +
+                   "      SELECT bucket_start, payment_method, status, payment_count, total_amount " +
+                   "      FROM payment_rollup_deltas) r " +
+                   "GROUP BY status, payment_method",
+           nativeQuery = true)
+    List<PaymentStatisticsRow> aggregateStatistics(@Param("startOfDay") LocalDateTime startOfDay,
+                                                   @Param("endOfDay") LocalDateTime endOfDay);
 }
@@ -0,0 +1,51 @@
+package com.ecommerce.multistore.payment.infrastructure;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * مولد أرقام المعاملات
+ * Transaction ID generator
+ *
+ * يعتمد على تسلسل قاعدة البيانات payment_transaction_seq فالأرقام فريدة ومتزايدة
+ * عبر كل نسخ التطبيق، مع تاريخ اليوم من ساعة قاعدة البيانات لتسهيل المتابعة
+ * Backed by the payment_transaction_seq database sequence, so IDs are unique and increasing
+ * across all application instances; the date comes from the database clock for readability
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class TransactionIdGenerator {
+
+    private static final String NEXT_ID_SQL =
+            "SELECT TO_CHAR(NOW(), 'YYYYMMDD') || '-' || LPAD(NEXTVAL('payment_transaction_seq')::TEXT, 10, '0')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TransactionIdGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * رقم معاملة دفع، مثل TXN-20240101-0000000042
+     * Payment transaction ID, e.g. TXN-20240101-0000000042
+     */
+    public String nextTransactionId() {
+        return next("TXN");
+    }
+
+    /**
+     * مرجع معاملة محفظة، مثل WLT-20240101-0000000043
+     * Wallet transaction reference, e.g. WLT-20240101-0000000043
+     */
+    public String nextWalletReference() {
+        return next("WLT");
+    }
+
+    private String next(String prefix) {
+        return prefix + "-" + jdbcTemplate.queryForObject(NEXT_ID_SQL, String.class);
+    }
+}
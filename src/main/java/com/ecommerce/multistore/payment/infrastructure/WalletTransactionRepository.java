@@ -3,14 +3,17 @@ package com.ecommerce.multistore.payment.infrastructure;
 import com.ecommerce.multistore.payment.domain.WalletTransaction;
 import com.ecommerce.multistore.payment.domain.WalletType;
 import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,12 +34,26 @@ public interface WalletTransactionRepository extends JpaRepository<WalletTransac
      */
     Optional<WalletTransaction> findByDisplayId(String displayId);
     
+    /**
+     * البحث بالمعرف مع قفل الصف حتى نهاية المعاملة - للحسم
+     * Find by id, locking the row until the end of the transaction - for settlement
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM WalletTransaction t WHERE t.id = :id")
+    Optional<WalletTransaction> findByIdForUpdate(@Param("id") UUID id);
+    
     /**
      * البحث بواسطة معرف الدفع
      * Find by payment ID
      */
     Optional<WalletTransaction> findByPaymentId(UUID paymentId);
     
+    /**
+     * معاملات المحافظ لعدة مدفوعات في استعلام واحد
+     * Wallet transactions of many payments in one query
+     */
+    List<WalletTransaction> findByPaymentIdInAndStatus(Collection<UUID> paymentIds, PaymentStatus status);
+    
     /**
      * البحث بواسطة مرجع المعاملة
      * Find by transaction reference
@@ -0,0 +1,187 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.shared.idempotency.IdempotencyStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * عميل HTTP لمزود محفظة واحد - محاولة واحدة لكل استدعاء
+ * HTTP client for one wallet provider - one attempt per call
+ *
+ * لكل مزود HttpClient خاص به بمجمع اتصالات keep-alive مستقل، فلا يستهلك مزود بطيء
+ * اتصالات الآخرين. إعادة المحاولة والحاجز وقاطع الدائرة في WalletProviderGateway
+ * Each provider has its own HttpClient with a separate keep-alive connection pool, so a slow
+ * provider cannot hold the others' connections. Retries, bulkhead and breaker live in WalletProviderGateway
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+class HttpWalletProviderClient {
+
+    static final String DEADLINE_HEADER = "X-Request-Timeout-Ms";
+
+    private final WalletProviderSettings settings;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    HttpWalletProviderClient(WalletProviderSettings settings, ObjectMapper objectMapper) {
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * إرسال طلب دفع - مرجع المعاملة هو مفتاح عدم التكرار لدى المزود
+     * Submit a charge; the transaction reference is the provider-side idempotency key
+     */
+    WalletProviderStatus charge(WalletTransaction transaction, Duration timeout) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("merchant_id", settings.getMerchantId());
+        body.put("reference", transaction.getTransactionReference());
+        body.put("phone", transaction.getWalletPhone());
+        body.put("amount", transaction.getAmount());
+
+        HttpRequest request = baseRequest("/payments", timeout)
+                .header("Content-Type", "application/json")
+                .header(IdempotencyStore.HEADER, transaction.getTransactionReference())
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return send(request, false);
+    }
+
+    /**
+     * استرداد معاملة - مفتاح عدم التكرار مشتق من مرجع المعاملة فيبقى الاسترداد واحداً مع إعادة المحاولة
+     * Refund a transaction; the idempotency key derives from the transaction reference so retries refund once
+     */
+    WalletProviderStatus refund(WalletTransaction transaction, BigDecimal amount, Duration timeout) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("merchant_id", settings.getMerchantId());
+        body.put("amount", amount);
+
+        String reference = URLEncoder.encode(transaction.getTransactionReference(), StandardCharsets.UTF_8);
+        HttpRequest request = baseRequest("/payments/" + reference + "/refunds", timeout)
+                .header("Content-Type", "application/json")
+                .header(IdempotencyStore.HEADER, "refund-" + transaction.getTransactionReference())
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return send(request, false);
+    }
+
+    /**
+     * الاستعلام عن حالة معاملة
+     * Query the state of a transaction
+     */
+    WalletProviderStatus queryStatus(WalletTransaction transaction, Duration timeout) {
+        String reference = URLEncoder.encode(transaction.getTransactionReference(), StandardCharsets.UTF_8);
+        HttpRequest request = baseRequest("/payments/" + reference, timeout).GET().build();
+        return send(request, true);
+    }
+
+    private HttpRequest.Builder baseRequest(String path, Duration timeout) {
+        return HttpRequest.newBuilder(URI.create(settings.getBaseUrl() + path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("Authorization", "Bearer " + settings.getApiKey())
+                .header("X-Merchant-Id", settings.getMerchantId())
+                .header(DEADLINE_HEADER, String.valueOf(timeout.toMillis()));
+    }
+
+    private WalletProviderStatus send(HttpRequest request, boolean notFoundIsStatus) {
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (HttpConnectTimeoutException | ConnectException e) {
+            throw new CallFailure("connection failed: " + e.getMessage(), false);
+        } catch (HttpTimeoutException e) {
+            throw new CallFailure("request timed out", true);
+        } catch (IOException e) {
+            throw new CallFailure("I/O error: " + e.getMessage(), true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CallFailure("interrupted", true);
+        }
+
+        int code = response.statusCode();
+        if (code == 404 && notFoundIsStatus) {
+            return new WalletProviderStatus(WalletProviderStatus.State.NOT_FOUND, null, null, response.body());
+        }
+        if (code == 408 || code == 429 || code >= 500) {
+            throw new CallFailure("provider returned HTTP " + code, code != 429);
+        }
+        if (code >= 400) {
+            // رفض نهائي من المزود - ليس عطلاً في الخدمة
+            return new WalletProviderStatus(WalletProviderStatus.State.FAILED, null,
+                    message(response.body(), "Declined by provider (HTTP " + code + ")"), response.body());
+        }
+        return parse(response.body());
+    }
+
+    private WalletProviderStatus parse(String body) {
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new CallFailure("unreadable provider response", true);
+        }
+        String status = json.path("status").asText("").toLowerCase(Locale.ROOT);
+        String transactionId = json.hasNonNull("transaction_id") ? json.get("transaction_id").asText() : null;
+        switch (status) {
+            case "success":
+            case "completed":
+                return new WalletProviderStatus(WalletProviderStatus.State.COMPLETED, transactionId, null, body);
+            case "failed":
+            case "declined":
+            case "cancelled":
+                return new WalletProviderStatus(WalletProviderStatus.State.FAILED, transactionId,
+                        message(body, "Declined by provider"), body);
+            default:
+                return new WalletProviderStatus(WalletProviderStatus.State.PENDING, transactionId, null, body);
+        }
+    }
+
+    private String message(String body, String fallback) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            return json.hasNonNull("message") ? json.get("message").asText() : fallback;
+        } catch (IOException | RuntimeException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * فشل محاولة قابل لإعادة المحاولة
+     * A retryable attempt failure
+     */
+    static class CallFailure extends RuntimeException {
+
+        // قد يكون الطلب وصل إلى المزود - النتيجة غير معروفة
+        private final boolean possiblyDelivered;
+
+        CallFailure(String message, boolean possiblyDelivered) {
+            super(message, null, false, false);
+            this.possiblyDelivered = possiblyDelivered;
+        }
+
+        boolean isPossiblyDelivered() { return possiblyDelivered; }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.shared.resilience.Deadline;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * عميل مزود محاكى للتطوير المحلي
+ * Simulated provider client for local development
+ *
+ * يُستخدم لكل محفظة ليس لها app.wallets.providers.{wallet}.base-url، بنسبة نجاح 85%
+ * Used for every wallet without app.wallets.providers.{wallet}.base-url, with an 85% success ratio
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class SimulatedWalletProviderClient implements WalletProviderClient {
+
+    @Override
+    public WalletProviderStatus charge(WalletTransaction transaction, Deadline deadline) {
+        return queryStatus(transaction);
+    }
+
+    @Override
+    public WalletProviderStatus refund(WalletTransaction transaction, BigDecimal amount, Deadline deadline) {
+        return new WalletProviderStatus(WalletProviderStatus.State.COMPLETED, "RFD-" + System.currentTimeMillis(), null,
+                String.format("{\"status\":\"success\",\"refunded_amount\":\"%s\"}", amount));
+    }
+
+    @Override
+    public WalletProviderStatus queryStatus(WalletTransaction transaction) {
+        if (ThreadLocalRandom.current().nextDouble() > 0.15) {
+            String providerTransactionId = transaction.getWalletTransactionId() != null
+                    ? transaction.getWalletTransactionId()
+                    : "WLT-" + System.currentTimeMillis();
+            String response = String.format(
+                    "{\"status\":\"success\",\"transaction_id\":\"%s\",\"timestamp\":\"%s\"}",
+                    providerTransactionId, LocalDateTime.now());
+            return new WalletProviderStatus(WalletProviderStatus.State.COMPLETED, providerTransactionId, null, response);
+        }
+        return new WalletProviderStatus(WalletProviderStatus.State.FAILED, null,
+                "Insufficient balance or transaction declined", null);
+    }
+}
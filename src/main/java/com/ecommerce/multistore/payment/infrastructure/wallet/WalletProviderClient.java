@@ -0,0 +1,48 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.shared.resilience.Deadline;
+
+import java.math.BigDecimal;
+
+/**
+ * عميل مزود المحفظة الإلكترونية
+ * E-wallet provider client
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public interface WalletProviderClient {
+
+    /**
+     * إرسال طلب دفع إلى المزود
+     * Submit a charge to the provider
+     *
+     * @param transaction معاملة المحفظة - مرجعها هو مفتاح عدم التكرار لدى المزود
+     * @param deadline الوقت المتاح لكل المحاولات
+     * @return WalletProviderStatus النتيجة، أو PENDING إذا لم تُعرف النتيجة قبل الموعد
+     * @throws WalletProviderUnavailableException إذا لم يصل الطلب إلى المزود
+     */
+    WalletProviderStatus charge(WalletTransaction transaction, Deadline deadline);
+
+    /**
+     * استرداد معاملة مكتملة
+     * Refund a completed transaction
+     *
+     * @param transaction معاملة المحفظة الأصلية
+     * @param amount المبلغ المسترد
+     * @param deadline الوقت المتاح لكل المحاولات
+     * @return WalletProviderStatus COMPLETED عند قبول الاسترداد، أو PENDING إذا لم تُعرف النتيجة
+     * @throws WalletProviderUnavailableException إذا لم يصل الطلب إلى المزود
+     */
+    WalletProviderStatus refund(WalletTransaction transaction, BigDecimal amount, Deadline deadline);
+
+    /**
+     * الاستعلام عن حالة معاملة لدى المزود
+     * Query the provider for the current state of a transaction
+     *
+     * @param transaction معاملة المحفظة
+     * @return WalletProviderStatus حالة المعاملة لدى المزود
+     */
+    WalletProviderStatus queryStatus(WalletTransaction transaction);
+}
@@ -0,0 +1,278 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.ecommerce.multistore.shared.resilience.CircuitBreaker;
+import com.ecommerce.multistore.shared.resilience.Deadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * بوابة مزودي المحافظ
+ * Wallet provider gateway
+ *
+ * لكل محفظة قناة معزولة: مجمع اتصالات، حاجز (عدد محدود من الطلبات المتزامنة)، وقاطع دائرة.
+ * إعادة المحاولة بتأخير أسي عشوائي ضمن الموعد النهائي للمستدعي، فتعطل مزود واحد
+ * يرفض طلباته بسرعة دون أن يحجز خيوط الدفع بالمحافظ الأخرى
+ * Each wallet gets an isolated channel: connection pool, bulkhead (bounded concurrent calls)
+ * and circuit breaker. Retries use jittered exponential backoff inside the caller's deadline, so
+ * a degraded provider fails its own requests fast without holding threads other wallets need
+ *
+ * الإعدادات تأتي من WalletProviderRegistry؛ تُبنى القناة من جديد فقط عند تغير إعدادات مزودها
+ * Settings come from WalletProviderRegistry; a channel is rebuilt only when its provider's settings change
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+@Primary
+public class WalletProviderGateway implements WalletProviderClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletProviderGateway.class);
+
+    private static final long MAX_BACKOFF_MS = 2000;
+
+    private final Map<WalletType, Channel> channels = new ConcurrentHashMap<>();
+    private final WalletProviderRegistry registry;
+    private final ObjectMapper objectMapper;
+    private final SimulatedWalletProviderClient simulatedClient;
+    private final long queryDeadlineMs;
+
+    @Autowired
+    public WalletProviderGateway(WalletProviderRegistry registry,
+                                 ObjectMapper objectMapper,
+                                 SimulatedWalletProviderClient simulatedClient,
+                                 @Value("${app.wallets.query-deadline-ms:10000}") long queryDeadlineMs) {
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+        this.simulatedClient = simulatedClient;
+        this.queryDeadlineMs = queryDeadlineMs;
+    }
+
+    @Override
+    public WalletProviderStatus charge(WalletTransaction transaction, Deadline deadline) {
+        checkAvailable(transaction.getWalletType());
+        Channel channel = channelFor(transaction.getWalletType());
+        if (channel == null) {
+            return simulatedClient.charge(transaction, deadline);
+        }
+        // نتيجة غير معروفة بعد وصول الطلب تبقى PENDING حتى تحسمها التسوية أو الـ webhook
+        return channel.execute(timeout -> channel.client.charge(transaction, timeout), deadline, true);
+    }
+
+    @Override
+    public WalletProviderStatus refund(WalletTransaction transaction, BigDecimal amount, Deadline deadline) {
+        checkAvailable(transaction.getWalletType());
+        Channel channel = channelFor(transaction.getWalletType());
+        if (channel == null) {
+            return simulatedClient.refund(transaction, amount, deadline);
+        }
+        return channel.execute(timeout -> channel.client.refund(transaction, amount, timeout), deadline, true);
+    }
+
+    @Override
+    public WalletProviderStatus queryStatus(WalletTransaction transaction) {
+        Channel channel = channelFor(transaction.getWalletType());
+        if (channel == null) {
+            return simulatedClient.queryStatus(transaction);
+        }
+        return channel.execute(timeout -> channel.client.queryStatus(transaction, timeout),
+                Deadline.afterMillis(queryDeadlineMs), false);
+    }
+
+    /**
+     * رفض سريع إذا كانت المحفظة معطلة أو قاطعها مفتوحاً - من الذاكرة دون أي استعلام
+     * Fail fast when the wallet is disabled or its breaker is open - from memory, no query
+     *
+     * @throws WalletProviderUnavailableException إذا لم تكن المحفظة متاحة
+     */
+    public void checkAvailable(WalletType walletType) {
+        WalletProviderHealth health = health(walletType);
+        if (!health.isActive()) {
+            throw new WalletProviderUnavailableException(walletType, "disabled in wallet settings");
+        }
+        if (!health.isAvailable()) {
+            throw new WalletProviderUnavailableException(walletType, "circuit open");
+        }
+    }
+
+    /**
+     * حالة مزود: التفعيل، قاطع الدائرة، نسبة الأخطاء ومتوسط زمن الاستجابة
+     * Provider health: enabled flag, breaker state, error rate and average latency
+     */
+    public WalletProviderHealth health(WalletType walletType) {
+        WalletProviderSettings settings = registry.get(walletType);
+        Channel channel = channelFor(walletType);
+        if (channel == null) {
+            return new WalletProviderHealth(walletType, settings.isActive(), true, CircuitBreaker.State.CLOSED, 0, 0, 0);
+        }
+        return new WalletProviderHealth(walletType, settings.isActive(), false, channel.breaker.getState(),
+                channel.breaker.getFailureRate(), channel.averageLatencyMs(),
+                settings.getMaxConcurrent() - channel.bulkhead.availablePermits());
+    }
+
+    /**
+     * حالة كل المزودين
+     * Health of every provider
+     */
+    public List<WalletProviderHealth> healthOfAll() {
+        List<WalletProviderHealth> result = new ArrayList<>();
+        for (WalletType walletType : WalletType.values()) {
+            result.add(health(walletType));
+        }
+        return result;
+    }
+
+    /**
+     * القناة الحالية لمزود - null إذا لم يكن له عنوان API (العميل المحاكى)
+     * Current channel of a provider; null when it has no API endpoint (simulated client)
+     */
+    private Channel channelFor(WalletType walletType) {
+        WalletProviderSettings settings = registry.get(walletType);
+        if (!settings.isConfigured()) {
+            channels.remove(walletType);
+            return null;
+        }
+        Channel channel = channels.get(walletType);
+        if (channel != null && channel.settings == settings) {
+            return channel;
+        }
+        return channels.compute(walletType, (type, existing) -> {
+            if (existing != null && existing.settings == settings) {
+                return existing;
+            }
+            logger.info("Wallet provider {} channel (re)built for {}", type, settings.getBaseUrl());
+            return new Channel(settings, objectMapper);
+        });
+    }
+
+    /**
+     * قناة معزولة لمزود واحد
+     * Isolated channel for one provider
+     */
+    private static class Channel {
+
+        private final WalletProviderSettings settings;
+        private final HttpWalletProviderClient client;
+        private final Semaphore bulkhead;
+        private final CircuitBreaker breaker;
+
+        // متوسط متحرك أسي لزمن المحاولات بالنانو ثانية
+        private volatile double latencyEwmaNanos;
+
+        Channel(WalletProviderSettings settings, ObjectMapper objectMapper) {
+            this.settings = settings;
+            this.client = new HttpWalletProviderClient(settings, objectMapper);
+            this.bulkhead = new Semaphore(settings.getMaxConcurrent());
+            this.breaker = new CircuitBreaker("wallet-" + settings.getWalletType().getValue(),
+                    settings.getBreakerWindowSize(), settings.getBreakerMinimumCalls(),
+                    settings.getBreakerFailureRate(), settings.getBreakerOpenDuration());
+        }
+
+        WalletProviderStatus execute(Function<Duration, WalletProviderStatus> call, Deadline deadline,
+                                     boolean pendingWhenUnknown) {
+            WalletType walletType = settings.getWalletType();
+            if (!acquire(deadline)) {
+                throw new WalletProviderUnavailableException(walletType, "too many concurrent requests");
+            }
+            try {
+                HttpWalletProviderClient.CallFailure lastFailure = null;
+                boolean possiblyDelivered = false;
+
+                for (int attempt = 1; attempt <= settings.getMaxAttempts() && !deadline.isExpired(); attempt++) {
+                    if (!breaker.tryAcquirePermission()) {
+                        if (lastFailure == null) {
+                            throw new WalletProviderUnavailableException(walletType, "circuit open");
+                        }
+                        break;
+                    }
+                    long started = System.nanoTime();
+                    // كل خروج يعيد الإذن: بنتيجة مسجلة، أو بتحريره في finally لخطأ غير متوقع
+                    boolean outcomeRecorded = false;
+                    try {
+                        WalletProviderStatus status = call.apply(deadline.cap(settings.getRequestTimeout()));
+                        recordLatency(System.nanoTime() - started);
+                        outcomeRecorded = true;
+                        breaker.onSuccess();
+                        return status;
+                    } catch (HttpWalletProviderClient.CallFailure failure) {
+                        recordLatency(System.nanoTime() - started);
+                        outcomeRecorded = true;
+                        breaker.onFailure();
+                        lastFailure = failure;
+                        possiblyDelivered |= failure.isPossiblyDelivered();
+                        logger.warn("Wallet provider {} attempt {} failed: {}", walletType, attempt, failure.getMessage());
+                    } finally {
+                        if (!outcomeRecorded) {
+                            breaker.releasePermission();
+                        }
+                    }
+                    if (attempt < settings.getMaxAttempts() && !backoff(attempt, deadline)) {
+                        break;
+                    }
+                }
+
+                if (possiblyDelivered && pendingWhenUnknown) {
+                    return WalletProviderStatus.pending();
+                }
+                throw new WalletProviderUnavailableException(walletType,
+                        lastFailure != null ? lastFailure.getMessage() : "deadline exceeded");
+            } finally {
+                bulkhead.release();
+            }
+        }
+
+        long averageLatencyMs() {
+            return (long) (latencyEwmaNanos / 1_000_000);
+        }
+
+        private synchronized void recordLatency(long nanos) {
+            latencyEwmaNanos = latencyEwmaNanos == 0 ? nanos : latencyEwmaNanos * 0.8 + nanos * 0.2;
+        }
+
+        private boolean acquire(Deadline deadline) {
+            try {
+                long waitMs = deadline.cap(settings.getBulkheadWait()).toMillis();
+                return bulkhead.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * انتظار عشوائي قبل المحاولة التالية - false إذا لم يتبق وقت كافٍ
+         * Jittered wait before the next attempt; false when the deadline leaves no room for it
+         */
+        private boolean backoff(int attempt, Deadline deadline) {
+            long ceiling = Math.min(MAX_BACKOFF_MS, settings.getRetryBackoffMs() << (attempt - 1));
+            long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+            if (delay >= deadline.remainingMillis()) {
+                return false;
+            }
+            try {
+                Thread.sleep(delay);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
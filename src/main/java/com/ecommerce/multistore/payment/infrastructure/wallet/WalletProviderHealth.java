@@ -0,0 +1,55 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.ecommerce.multistore.shared.resilience.CircuitBreaker;
+
+/**
+ * حالة مزود محفظة
+ * Wallet provider health
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class WalletProviderHealth {
+
+    private final WalletType walletType;
+    private final boolean active;
+    private final boolean simulated;
+    private final CircuitBreaker.State circuitState;
+    private final int errorRate;
+    private final long averageLatencyMs;
+    private final int inFlight;
+
+    public WalletProviderHealth(WalletType walletType, boolean active, boolean simulated,
+                                CircuitBreaker.State circuitState, int errorRate, long averageLatencyMs, int inFlight) {
+        this.walletType = walletType;
+        this.active = active;
+        this.simulated = simulated;
+        this.circuitState = circuitState;
+        this.errorRate = errorRate;
+        this.averageLatencyMs = averageLatencyMs;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * هل يُقبل الدفع بهذه المحفظة الآن
+     * Whether payments with this wallet are accepted right now
+     */
+    public boolean isAvailable() {
+        return active && circuitState != CircuitBreaker.State.OPEN;
+    }
+
+    public WalletType getWalletType() { return walletType; }
+
+    public boolean isActive() { return active; }
+
+    public boolean isSimulated() { return simulated; }
+
+    public CircuitBreaker.State getCircuitState() { return circuitState; }
+
+    public int getErrorRate() { return errorRate; }
+
+    public long getAverageLatencyMs() { return averageLatencyMs; }
+
+    public int getInFlight() { return inFlight; }
+}
@@ -0,0 +1,147 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * سجل إعدادات مزودي المحافظ
+ * Wallet provider registry
+ *
+ * يحمّل جدول wallet_settings في لقطة غير قابلة للتعديل تُقرأ بلا أقفال ولا استعلامات أثناء الدفع.
+ * يفحص بصمة الجدول (العدد وآخر updated_at) دورياً ويعيد التحميل عند التغيير فقط، ويحتفظ بنفس
+ * كائن الإعدادات للمزود الذي لم يتغير حتى لا تُفقد حالة قناته (الاتصالات وقاطع الدائرة)
+ * Loads wallet_settings into an immutable snapshot read without locks or queries during checkout.
+ * A periodic check of the table fingerprint (row count and latest updated_at) reloads only on change,
+ * and unchanged providers keep the same settings instance so their channel state (connections,
+ * breaker) survives the reload
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class WalletProviderRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletProviderRegistry.class);
+
+    // صف واحد لكل محفظة: النشط أولاً ثم الأحدث
+    private static final String LOAD_SQL =
+            "SELECT DISTINCT ON (wallet_type) wallet_type, is_active, api_endpoint, api_key, merchant_id, settings::text AS settings " +
+            "FROM wallet_settings ORDER BY wallet_type, is_active DESC, updated_at DESC";
+
+    private static final String FINGERPRINT_SQL =
+            "SELECT COUNT(*) || ':' || COALESCE(MAX(updated_at)::text, '') FROM wallet_settings";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    private final ObjectMapper objectMapper;
+
+    private volatile Map<WalletType, WalletProviderSettings> snapshot;
+    private volatile String fingerprint;
+
+    @Autowired
+    public WalletProviderRegistry(JdbcTemplate jdbcTemplate, Environment environment, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+
+        // إعدادات البيئة حتى أول تحميل من قاعدة البيانات
+        Map<WalletType, WalletProviderSettings> initial = new EnumMap<>(WalletType.class);
+        for (WalletType walletType : WalletType.values()) {
+            initial.put(walletType, WalletProviderSettings.from(environment, walletType));
+        }
+        this.snapshot = Collections.unmodifiableMap(initial);
+    }
+
+    /**
+     * إعدادات مزود من اللقطة الحالية
+     * A provider's settings from the current snapshot
+     */
+    public WalletProviderSettings get(WalletType walletType) {
+        return snapshot.get(walletType);
+    }
+
+    /**
+     * اللقطة الحالية كاملة
+     * The whole current snapshot
+     */
+    public Map<WalletType, WalletProviderSettings> getAll() {
+        return snapshot;
+    }
+
+    /**
+     * إعادة التحميل إذا تغير الجدول
+     * Reload when the table changed
+     */
+    @Scheduled(fixedDelayString = "${app.wallets.settings-refresh-ms:15000}")
+    public void refresh() {
+        try {
+            String current = jdbcTemplate.queryForObject(FINGERPRINT_SQL, String.class);
+            if (!Objects.equals(current, fingerprint)) {
+                reload();
+                fingerprint = current;
+            }
+        } catch (DataAccessException e) {
+            // تبقى اللقطة السابقة سارية
+            logger.warn("Failed to refresh wallet settings, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private void reload() {
+        Map<WalletType, WalletProviderSettings.Row> rows = new EnumMap<>(WalletType.class);
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            WalletType walletType;
+            try {
+                walletType = WalletType.fromValue(rs.getString("wallet_type"));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring wallet settings for unknown wallet type {}", rs.getString("wallet_type"));
+                return;
+            }
+            rows.put(walletType, new WalletProviderSettings.Row(
+                    rs.getBoolean("is_active"),
+                    rs.getString("api_endpoint"),
+                    rs.getString("api_key"),
+                    rs.getString("merchant_id"),
+                    parse(rs.getString("settings"))));
+        });
+
+        Map<WalletType, WalletProviderSettings> previous = snapshot;
+        Map<WalletType, WalletProviderSettings> next = new EnumMap<>(WalletType.class);
+        for (WalletType walletType : WalletType.values()) {
+            WalletProviderSettings loaded = WalletProviderSettings.from(environment, walletType, rows.get(walletType));
+            WalletProviderSettings old = previous.get(walletType);
+            next.put(walletType, loaded.equals(old) ? old : loaded);
+            if (!loaded.equals(old)) {
+                logger.info("Wallet provider {} settings loaded: active={}, endpoint configured={}",
+                        walletType, loaded.isActive(), loaded.isConfigured());
+            }
+        }
+        snapshot = Collections.unmodifiableMap(next);
+    }
+
+    private JsonNode parse(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable wallet settings JSON: {}", e.getMessage());
+            return null;
+        }
+    }
+}
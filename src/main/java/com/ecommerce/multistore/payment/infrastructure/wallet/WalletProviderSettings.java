@@ -0,0 +1,190 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * إعدادات الاتصال بمزود محفظة
+ * Connection settings for one wallet provider
+ *
+ * صف wallet_settings إن وجد له الأولوية (api_endpoint, api_key, merchant_id ومفاتيح settings JSONB)،
+ * ثم app.wallets.providers.{wallet} ثم app.wallets.defaults ثم القيمة الافتراضية. الكائن غير قابل للتعديل
+ * A wallet_settings row wins when present (api_endpoint, api_key, merchant_id and the settings JSONB keys),
+ * then app.wallets.providers.{wallet}, then app.wallets.defaults, then the built-in default. Instances are immutable
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class WalletProviderSettings {
+
+    private static final String PROVIDERS_PREFIX = "app.wallets.providers.";
+    private static final String DEFAULTS_PREFIX = "app.wallets.defaults.";
+
+    private final WalletType walletType;
+    private final boolean active;
+    private final String gatewayName;
+    private final String baseUrl;
+    private final String apiKey;
+    private final String merchantId;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final int maxConcurrent;
+    private final Duration bulkheadWait;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final int breakerWindowSize;
+    private final int breakerMinimumCalls;
+    private final int breakerFailureRate;
+    private final Duration breakerOpenDuration;
+
+    private WalletProviderSettings(WalletType walletType, Environment environment, Row row) {
+        String prefix = PROVIDERS_PREFIX + walletType.getValue() + ".";
+        JsonNode settings = row != null && row.settings != null ? row.settings : MissingNode.getInstance();
+        this.walletType = walletType;
+        this.active = row == null || row.active;
+        this.gatewayName = settings.hasNonNull("gateway")
+                ? settings.get("gateway").asText()
+                : walletType.getValue() + "_gateway";
+        this.baseUrl = trimTrailingSlash(text(row != null ? row.apiEndpoint : null, environment.getProperty(prefix + "base-url", "")));
+        this.apiKey = text(row != null ? row.apiKey : null, environment.getProperty(prefix + "api-key", ""));
+        this.merchantId = text(row != null ? row.merchantId : null, environment.getProperty(prefix + "merchant-id", ""));
+        this.connectTimeout = Duration.ofMillis(number(environment, settings, prefix, "connect-timeout-ms", 2000));
+        // "timeout" بالثواني هو المفتاح الموجود في بيانات wallet_settings الأولية
+        long legacyTimeoutMs = settings.path("timeout").canConvertToLong() ? settings.get("timeout").asLong() * 1000 : 5000;
+        this.requestTimeout = Duration.ofMillis(number(environment, settings, prefix, "request-timeout-ms", legacyTimeoutMs));
+        this.maxConcurrent = (int) number(environment, settings, prefix, "max-concurrent", 16);
+        this.bulkheadWait = Duration.ofMillis(number(environment, settings, prefix, "bulkhead-wait-ms", 50));
+        this.maxAttempts = (int) number(environment, settings, prefix, "max-attempts", 3);
+        this.retryBackoffMs = number(environment, settings, prefix, "retry-backoff-ms", 200);
+        this.breakerWindowSize = (int) number(environment, settings, prefix, "breaker.window-size", 20);
+        this.breakerMinimumCalls = (int) number(environment, settings, prefix, "breaker.minimum-calls", 10);
+        this.breakerFailureRate = (int) number(environment, settings, prefix, "breaker.failure-rate", 50);
+        this.breakerOpenDuration = Duration.ofSeconds(number(environment, settings, prefix, "breaker.open-seconds", 30));
+    }
+
+    /**
+     * قراءة إعدادات مزود من البيئة
+     * Read a provider's settings from the environment
+     */
+    public static WalletProviderSettings from(Environment environment, WalletType walletType) {
+        return new WalletProviderSettings(walletType, environment, null);
+    }
+
+    /**
+     * إعدادات مزود من صف wallet_settings فوق إعدادات البيئة
+     * A provider's settings from a wallet_settings row layered over the environment
+     */
+    public static WalletProviderSettings from(Environment environment, WalletType walletType, Row row) {
+        return new WalletProviderSettings(walletType, environment, row);
+    }
+
+    /**
+     * هل يوجد عنوان API ومفتاح - وإلا يُستخدم العميل المحاكى
+     * Whether an API endpoint and key are configured; otherwise the simulated client is used
+     */
+    public boolean isConfigured() {
+        return !baseUrl.isEmpty() && !apiKey.isEmpty();
+    }
+
+    public WalletType getWalletType() { return walletType; }
+
+    public boolean isActive() { return active; }
+
+    public String getGatewayName() { return gatewayName; }
+
+    public String getBaseUrl() { return baseUrl; }
+
+    public String getApiKey() { return apiKey; }
+
+    public String getMerchantId() { return merchantId; }
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+
+    public Duration getRequestTimeout() { return requestTimeout; }
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+
+    public Duration getBulkheadWait() { return bulkheadWait; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+
+    public long getRetryBackoffMs() { return retryBackoffMs; }
+
+    public int getBreakerWindowSize() { return breakerWindowSize; }
+
+    public int getBreakerMinimumCalls() { return breakerMinimumCalls; }
+
+    public int getBreakerFailureRate() { return breakerFailureRate; }
+
+    public Duration getBreakerOpenDuration() { return breakerOpenDuration; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WalletProviderSettings)) {
+            return false;
+        }
+        WalletProviderSettings that = (WalletProviderSettings) o;
+        return walletType == that.walletType && active == that.active
+                && maxConcurrent == that.maxConcurrent && maxAttempts == that.maxAttempts
+                && retryBackoffMs == that.retryBackoffMs && breakerWindowSize == that.breakerWindowSize
+                && breakerMinimumCalls == that.breakerMinimumCalls && breakerFailureRate == that.breakerFailureRate
+                && gatewayName.equals(that.gatewayName) && baseUrl.equals(that.baseUrl)
+                && apiKey.equals(that.apiKey) && merchantId.equals(that.merchantId)
+                && connectTimeout.equals(that.connectTimeout) && requestTimeout.equals(that.requestTimeout)
+                && bulkheadWait.equals(that.bulkheadWait) && breakerOpenDuration.equals(that.breakerOpenDuration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(walletType, active, baseUrl, merchantId);
+    }
+
+    private static long number(Environment environment, JsonNode settings, String prefix, String key, long defaultValue) {
+        if (settings.hasNonNull(key) && settings.get(key).canConvertToLong()) {
+            return settings.get(key).asLong();
+        }
+        Long value = environment.getProperty(prefix + key, Long.class);
+        if (value == null) {
+            value = environment.getProperty(DEFAULTS_PREFIX + key, Long.class, defaultValue);
+        }
+        return value;
+    }
+
+    private static String text(String preferred, String fallback) {
+        return preferred != null && !preferred.isBlank() ? preferred.trim() : fallback;
+    }
+
+    private static String trimTrailingSlash(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    /**
+     * صف من جدول wallet_settings
+     * A wallet_settings row
+     */
+    public static class Row {
+
+        private final boolean active;
+        private final String apiEndpoint;
+        private final String apiKey;
+        private final String merchantId;
+        private final JsonNode settings;
+
+        public Row(boolean active, String apiEndpoint, String apiKey, String merchantId, JsonNode settings) {
+            this.active = active;
+            this.apiEndpoint = apiEndpoint;
+            this.apiKey = apiKey;
+            this.merchantId = merchantId;
+            this.settings = settings;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+/**
+ * حالة معاملة لدى مزود المحفظة
+ * Transaction state as reported by the wallet provider
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class WalletProviderStatus {
+
+    private final State state;
+    private final String providerTransactionId;
+    private final String message;
+    private final String rawResponse;
+
+    public WalletProviderStatus(State state, String providerTransactionId, String message, String rawResponse) {
+        this.state = state;
+        this.providerTransactionId = providerTransactionId;
+        this.message = message;
+        this.rawResponse = rawResponse;
+    }
+
+    public static WalletProviderStatus pending() {
+        return new WalletProviderStatus(State.PENDING, null, null, null);
+    }
+
+    public State getState() { return state; }
+
+    public String getProviderTransactionId() { return providerTransactionId; }
+
+    public String getMessage() { return message; }
+
+    public String getRawResponse() { return rawResponse; }
+
+    /**
+     * الحالات الممكنة
+     * Possible states
+     */
+    public enum State {
+        COMPLETED,
+        FAILED,
+        PENDING,    // لم تحسم بعد - يعاد الاستعلام لاحقاً
+        NOT_FOUND   // لم تصل المعاملة إلى المزود
+    }
+}
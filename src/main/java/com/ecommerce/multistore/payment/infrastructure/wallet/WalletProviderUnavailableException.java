@@ -0,0 +1,29 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.ecommerce.multistore.shared.exception.BusinessException;
+
+/**
+ * مزود المحفظة غير متاح - الطلب لم يصل إلى المزود
+ * Wallet provider unavailable - the request never reached the provider
+ *
+ * يُرمى عند فتح قاطع الدائرة أو امتلاء الحاجز أو فشل الاتصال، لذا يمكن رفض الدفع بأمان
+ * Thrown when the breaker is open, the bulkhead is full or the connection failed, so the
+ * payment can safely be rejected
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class WalletProviderUnavailableException extends BusinessException {
+
+    private final WalletType walletType;
+
+    public WalletProviderUnavailableException(WalletType walletType, String reason) {
+        super(walletType.getValue() + " wallet is temporarily unavailable: " + reason,
+              "محفظة " + walletType.getArabicName() + " غير متاحة مؤقتاً، يرجى المحاولة لاحقاً أو اختيار طريقة دفع أخرى",
+              503);
+        this.walletType = walletType;
+    }
+
+    public WalletType getWalletType() { return walletType; }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletType;
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * التحقق من توقيع webhooks المحافظ
+ * Wallet webhook signature verifier
+ *
+ * التوقيع HMAC-SHA256 بصيغة hex على "{timestamp}.{body}" بالسر الخاص بكل محفظة،
+ * مع رفض الطوابع الزمنية خارج نافذة السماح لمنع إعادة الإرسال
+ * The signature is a hex HMAC-SHA256 over "{timestamp}.{body}" with each wallet's secret;
+ * timestamps outside the tolerance window are rejected to stop replays
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class WebhookSignatureVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookSignatureVerifier.class);
+
+    private final Environment environment;
+    private final long toleranceSeconds;
+
+    @Autowired
+    public WebhookSignatureVerifier(Environment environment,
+                                    @Value("${app.webhooks.tolerance-seconds:300}") long toleranceSeconds) {
+        this.environment = environment;
+        this.toleranceSeconds = toleranceSeconds;
+    }
+
+    /**
+     * التحقق من التوقيع
+     * Verify a webhook signature
+     *
+     * @param walletType نوع المحفظة
+     * @param timestamp قيمة ترويسة الطابع الزمني (ثوانٍ منذ epoch)
+     * @param signature قيمة ترويسة التوقيع
+     * @param body الجسم الخام كما استُلم
+     * @return boolean صحة التوقيع
+     */
+    public boolean verify(WalletType walletType, String timestamp, String signature, byte[] body) {
+        String secret = secretFor(walletType);
+        if (secret == null || secret.isBlank()) {
+            logger.warn("No webhook secret configured for {}, rejecting webhook", walletType);
+            return false;
+        }
+        if (timestamp == null || signature == null || !isFresh(timestamp)) {
+            return false;
+        }
+
+        HmacUtils hmac = new HmacUtils(HmacAlgorithms.HMAC_SHA_256, secret.getBytes(StandardCharsets.UTF_8));
+        byte[] prefix = (timestamp + ".").getBytes(StandardCharsets.UTF_8);
+        byte[] signed = new byte[prefix.length + body.length];
+        System.arraycopy(prefix, 0, signed, 0, prefix.length);
+        System.arraycopy(body, 0, signed, prefix.length, body.length);
+
+        byte[] expected = hmac.hmacHex(signed).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * سر التوقيع لمحفظة
+     * Signing secret for a wallet
+     */
+    protected String secretFor(WalletType walletType) {
+        return environment.getProperty("app.webhooks.secrets." + walletType.getValue());
+    }
+
+    private boolean isFresh(String timestamp) {
+        try {
+            long sentAt = Long.parseLong(timestamp.trim());
+            return Math.abs(Instant.now().getEpochSecond() - sentAt) <= toleranceSeconds;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.ecommerce.multistore.payment.infrastructure.web;
 
 import com.ecommerce.multistore.payment.application.dto.*;
+import com.ecommerce.multistore.payment.application.service.PaymentBatchService;
+import com.ecommerce.multistore.payment.application.service.PaymentRollupService;
 import com.ecommerce.multistore.payment.application.service.PaymentService;
+import com.ecommerce.multistore.payment.application.service.WalletLedgerService;
 import com.ecommerce.multistore.payment.domain.PaymentMethod;
 import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.domain.RollupGranularity;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderHealth;
+import com.ecommerce.multistore.shared.exception.BusinessException;
+import com.ecommerce.multistore.shared.idempotency.IdempotencyStore;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,34 +41,64 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class PaymentController {
 
+    private static final String IDEMPOTENCY_SCOPE = "payments";
+
     private final PaymentService paymentService;
+    private final PaymentBatchService paymentBatchService;
+    private final PaymentRollupService paymentRollupService;
+    private final WalletLedgerService walletLedgerService;
+    private final IdempotencyStore idempotencyStore;
 
     /**
      * Constructor لحقن PaymentService
      * Constructor for PaymentService dependency injection
      * 
      * @param paymentService خدمة المدفوعات
+     * @param paymentBatchService خدمة العمليات الجماعية
+     * @param paymentRollupService خدمة التجميعات الزمنية
+     * @param walletLedgerService خدمة دفتر المحافظ
+     * @param idempotencyStore مخزن مفاتيح عدم التكرار
      */
     @Autowired
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, PaymentBatchService paymentBatchService,
+                             PaymentRollupService paymentRollupService, WalletLedgerService walletLedgerService,
+                             IdempotencyStore idempotencyStore) {
         this.paymentService = paymentService;
+        this.paymentBatchService = paymentBatchService;
+        this.paymentRollupService = paymentRollupService;
+        this.walletLedgerService = walletLedgerService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
      * إنشاء دفع جديد
      * Create a new payment
      * 
+     * تكرار الطلب بنفس ترويسة Idempotency-Key يعيد الاستجابة الأصلية دون إنشاء دفع جديد
+     * Repeating the request with the same Idempotency-Key header returns the original response
+     * without creating another payment
+     * 
      * @param request بيانات الدفع الجديد
+     * @param idempotencyKey مفتاح عدم التكرار (اختياري)
+     * @param httpRequest طلب HTTP - لتحديد مالك المفتاح
      * @return ResponseEntity<PaymentResponse> الدفع المُنشأ أو رسالة خطأ
      * 
      * @apiNote POST /api/v1/payments
      * @since 1.0
      */
     @PostMapping
-    public ResponseEntity<PaymentResponse> createPayment(@Valid @RequestBody CreatePaymentRequest request) {
+    public ResponseEntity<PaymentResponse> createPayment(
+            @Valid @RequestBody CreatePaymentRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) {
         try {
-            PaymentResponse payment = paymentService.createPayment(request);
+            PaymentResponse payment = idempotencyStore.execute(IDEMPOTENCY_SCOPE, idempotencyKey,
+                    IdempotencyStore.callerOf(httpRequest), request, PaymentResponse.class,
+                    () -> paymentService.createPayment(request));
             return new ResponseEntity<>(payment, HttpStatus.CREATED);
+        } catch (BusinessException e) {
+            // 409/422 لمفاتيح عدم التكرار و503 لمحفظة غير متاحة - يعالجها GlobalExceptionHandler
+            throw e;
         } catch (IllegalArgumentException | IllegalStateException e) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
@@ -253,17 +293,30 @@ public class PaymentController {
      * استرداد الدفع
      * Refund payment
      * 
+     * تكرار الطلب بنفس ترويسة Idempotency-Key يعيد الاستجابة الأصلية دون استرداد ثانٍ
+     * Repeating the request with the same Idempotency-Key header returns the original response
+     * without a second refund
+     * 
      * @param id معرف الدفع
+     * @param idempotencyKey مفتاح عدم التكرار (اختياري)
+     * @param httpRequest طلب HTTP - لتحديد مالك المفتاح
      * @return ResponseEntity<PaymentResponse> الدفع المحدث أو رسالة خطأ
      * 
      * @apiNote PUT /api/v1/payments/{id}/refund
      * @since 1.0
      */
     @PutMapping("/{id}/refund")
-    public ResponseEntity<PaymentResponse> refundPayment(@PathVariable UUID id) {
+    public ResponseEntity<PaymentResponse> refundPayment(
+            @PathVariable UUID id,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) {
         try {
-            PaymentResponse payment = paymentService.refundPayment(id);
+            PaymentResponse payment = idempotencyStore.execute(IDEMPOTENCY_SCOPE + ":refund", idempotencyKey,
+                    IdempotencyStore.callerOf(httpRequest), id, PaymentResponse.class,
+                    () -> paymentService.refundPayment(id));
             return new ResponseEntity<>(payment, HttpStatus.OK);
+        } catch (BusinessException e) {
+            throw e;
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
         } catch (IllegalStateException e) {
@@ -271,6 +324,62 @@ public class PaymentController {
         }
     }
 
+    /**
+     * تسوية جماعية للمدفوعات المعلقة
+     * Batch settlement of pending payments
+     * 
+     * كل عنصر يحدد الدفع بالمعرف أو بالمرجع (transaction_id أو gateway_transaction_id) مع CONFIRM أو REJECT.
+     * العناصر الفاشلة لا توقف الباقي وتظهر في النتيجة مع السبب
+     * Each item targets a payment by id or reference (transaction_id or gateway_transaction_id) with
+     * CONFIRM or REJECT. Failed items do not stop the rest and are reported with a reason
+     * 
+     * @param request عناصر التسوية
+     * @param idempotencyKey مفتاح عدم التكرار (اختياري)
+     * @param httpRequest طلب HTTP - لتحديد مالك المفتاح
+     * @return ResponseEntity<BatchPaymentResponse> نتيجة كل عنصر
+     * 
+     * @apiNote POST /api/v1/payments/batch/settlements
+     * @since 1.0
+     */
+    @PostMapping("/batch/settlements")
+    public ResponseEntity<BatchPaymentResponse> settlePayments(
+            @Valid @RequestBody BatchPaymentRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) {
+        BatchPaymentResponse response = idempotencyStore.execute(IDEMPOTENCY_SCOPE + ":settlements", idempotencyKey,
+                IdempotencyStore.callerOf(httpRequest), request, BatchPaymentResponse.class,
+                () -> paymentBatchService.settle(request));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * استرداد جماعي للمدفوعات المكتملة
+     * Batch refund of completed payments
+     * 
+     * آمن لإعادة الإرسال: المدفوعات المستردة تظهر INVALID_STATE والمزودون يمنعون تكرار الاسترداد.
+     * مع ترويسة Idempotency-Key يعيد التكرار النتيجة الأصلية بدلاً من INVALID_STATE
+     * Safe to resubmit: refunded payments report INVALID_STATE and providers deduplicate refunds.
+     * With an Idempotency-Key header a repeat returns the original results instead of INVALID_STATE
+     * 
+     * @param request المدفوعات المراد استردادها
+     * @param idempotencyKey مفتاح عدم التكرار (اختياري)
+     * @param httpRequest طلب HTTP - لتحديد مالك المفتاح
+     * @return ResponseEntity<BatchPaymentResponse> نتيجة كل عنصر
+     * 
+     * @apiNote POST /api/v1/payments/batch/refunds
+     * @since 1.0
+     */
+    @PostMapping("/batch/refunds")
+    public ResponseEntity<BatchPaymentResponse> refundPayments(
+            @Valid @RequestBody BatchPaymentRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            HttpServletRequest httpRequest) {
+        BatchPaymentResponse response = idempotencyStore.execute(IDEMPOTENCY_SCOPE + ":refunds", idempotencyKey,
+                IdempotencyStore.callerOf(httpRequest), request, BatchPaymentResponse.class,
+                () -> paymentBatchService.refund(request));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * الحصول على إحصائيات المدفوعات
      * Get payment statistics
@@ -286,6 +395,91 @@ public class PaymentController {
         return new ResponseEntity<>(statistics, HttpStatus.OK);
     }
 
+    /**
+     * السلسلة الزمنية للمدفوعات للرسوم البيانية
+     * Payment time series for charts
+     * 
+     * تُقرأ من التجميعات الزمنية (دقيقة/ساعة/يوم) دون المرور على جدول المدفوعات
+     * Served from the minute/hour/day rollups without scanning the payments table
+     * 
+     * @param granularity دقة الفترات
+     * @param from بداية النطاق
+     * @param to نهاية النطاق (غير مشمولة)
+     * @param paymentMethod طريقة الدفع (اختياري)
+     * @param status حالة الدفع (اختياري)
+     * @return ResponseEntity<List<PaymentRollupPoint>> نقاط السلسلة أو 400 لنطاق غير صالح
+     * 
+     * @apiNote GET /api/v1/payments/statistics/series?granularity=DAY&from=2024-01-01T00:00:00&to=2024-04-01T00:00:00
+     * @since 1.0
+     */
+    @GetMapping("/statistics/series")
+    public ResponseEntity<List<PaymentRollupPoint>> getPaymentSeries(
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) PaymentMethod paymentMethod,
+            @RequestParam(required = false) PaymentStatus status) {
+        try {
+            List<PaymentRollupPoint> series = paymentRollupService.getSeries(granularity, from, to, paymentMethod, status);
+            return new ResponseEntity<>(series, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * ميزان مراجعة دفتر المحافظ
+     * Wallet ledger trial balance
+     * 
+     * أرصدة مقاصة ورسوم كل مزود والتاجر ومجموع ذمم العملاء في وقت معين، لمطابقتها مع كشوف المزودين
+     * Provider clearing and fee, merchant and total customer balances as of a point in time,
+     * to match against provider statements
+     * 
+     * @param asOf الوقت (الحالي إذا لم يُحدد)
+     * @return ResponseEntity<LedgerTrialBalanceResponse> الأرصدة والمجاميع
+     * 
+     * @apiNote GET /api/v1/payments/ledger/trial-balance?asOf=2024-01-31T23:59:59
+     * @since 1.0
+     */
+    @GetMapping("/ledger/trial-balance")
+    public ResponseEntity<LedgerTrialBalanceResponse> getLedgerTrialBalance(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return new ResponseEntity<>(walletLedgerService.getTrialBalance(asOf), HttpStatus.OK);
+    }
+
+    /**
+     * رصيد حساب في دفتر المحافظ
+     * Wallet ledger account balance
+     * 
+     * @param code رمز الحساب، مثل MERCHANT أو PROVIDER_CLEARING:JEEB
+     * @return ResponseEntity<LedgerAccountBalance> الرصيد الحالي أو 404
+     * 
+     * @apiNote GET /api/v1/payments/ledger/accounts/{code}/balance
+     * @since 1.0
+     */
+    @GetMapping("/ledger/accounts/{code}/balance")
+    public ResponseEntity<LedgerAccountBalance> getLedgerAccountBalance(@PathVariable String code) {
+        try {
+            return new ResponseEntity<>(walletLedgerService.getAccountBalance(code), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * حالة مزودي المحافظ
+     * Wallet provider health
+     * 
+     * @return ResponseEntity<List<WalletProviderHealth>> التفعيل وقاطع الدائرة ونسبة الأخطاء وزمن الاستجابة لكل محفظة
+     * 
+     * @apiNote GET /api/v1/payments/wallets/health
+     * @since 1.0
+     */
+    @GetMapping("/wallets/health")
+    public ResponseEntity<List<WalletProviderHealth>> getWalletProviderHealth() {
+        return new ResponseEntity<>(paymentService.getWalletProviderHealth(), HttpStatus.OK);
+    }
+
     /**
      * فحص صحة نظام المدفوعات
      * Payment system health check
@@ -0,0 +1,99 @@
+package com.ecommerce.multistore.payment.infrastructure.web;
+
+import com.ecommerce.multistore.payment.application.dto.WalletWebhookPayload;
+import com.ecommerce.multistore.payment.application.service.WalletWebhookService;
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WebhookSignatureVerifier;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * استقبال webhooks مزودي المحافظ
+ * Wallet provider webhook receiver
+ *
+ * يتحقق من التوقيع ويحفظ الحدث ويرد بـ 202 دون أي معالجة متزامنة؛
+ * الأحداث المكررة تُقبل أيضاً بـ 202 حتى يتوقف المزود عن إعادة الإرسال
+ * Verifies the signature, stores the event and answers 202 with no synchronous processing;
+ * duplicates are acknowledged with 202 as well so the provider stops redelivering
+ *
+ * الجسم يُقرأ بحد أقصى قبل التحقق من التوقيع، فالطلب الأكبر يُرفض بـ 413 دون تحميله كاملاً
+ * The body is read up to a cap before the signature check, so a larger request is rejected
+ * with 413 without being buffered in full
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping(AppConstants.WEBHOOKS_PATH + "/wallets")
+public class WalletWebhookController {
+
+    private final WalletWebhookService walletWebhookService;
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final int maxBodyBytes;
+
+    @Autowired
+    public WalletWebhookController(WalletWebhookService walletWebhookService,
+                                   WebhookSignatureVerifier signatureVerifier,
+                                   @Value("${app.webhooks.max-body-bytes:65536}") int maxBodyBytes) {
+        this.walletWebhookService = walletWebhookService;
+        this.signatureVerifier = signatureVerifier;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /**
+     * استقبال حدث من مزود
+     * Receive a provider event
+     *
+     * @apiNote POST /api/v1/webhooks/wallets/{walletType}
+     */
+    @PostMapping("/{walletType}")
+    public ResponseEntity<Void> receive(
+            @PathVariable String walletType,
+            @RequestHeader(value = AppConstants.WEBHOOK_SIGNATURE_HEADER, required = false) String signature,
+            @RequestHeader(value = AppConstants.WEBHOOK_TIMESTAMP_HEADER, required = false) String timestamp,
+            HttpServletRequest request) throws IOException {
+
+        WalletType type;
+        try {
+            type = WalletType.fromValue(walletType);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        byte[] body = readBody(request);
+        if (body == null) {
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        if (!signatureVerifier.verify(type, timestamp, signature, body)) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+
+        WalletWebhookPayload payload = walletWebhookService.parse(body);
+        if (payload == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        walletWebhookService.enqueue(type, payload, body);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * قراءة الجسم حتى الحد الأقصى - null إذا تجاوزه
+     * Read the body up to the cap - null when it is larger
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            return null;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        return body.length > maxBodyBytes ? null : body;
+    }
+}
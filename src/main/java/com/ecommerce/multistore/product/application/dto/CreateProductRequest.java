@@ -174,6 +174,12 @@ public class CreateProductRequest {
      */
     private List<String> tags;
     
+    /**
+     * النسخة المتوقعة عند التحديث (اختياري)
+     * Expected version on update (optional) - rejects edits made on a stale copy
+     */
+    private Long version;
+    
     // ===============================
     // Constructors
     // ===============================
@@ -255,4 +261,7 @@ public class CreateProductRequest {
     
     public List<String> getTags() { return tags; }
     public void setTags(List<String> tags) { this.tags = tags; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
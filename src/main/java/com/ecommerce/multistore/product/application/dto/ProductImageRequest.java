@@ -1,5 +1,41 @@
 package com.ecommerce.multistore.product.application.dto;
 
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+/**
+ * بيانات صورة المنتج المرفوعة
+ * Product image upload metadata
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
 public class ProductImageRequest {
-    
+
+    @Size(max = 255, message = "Alt text cannot exceed 255 characters")
+    private String altText;
+
+    @Size(max = 255, message = "Arabic alt text cannot exceed 255 characters")
+    private String altTextAr;
+
+    @Min(value = 0, message = "Sort order cannot be negative")
+    private Integer sortOrder = 0;
+
+    private Boolean isPrimary = false;
+
+    // Constructors
+    public ProductImageRequest() {}
+
+    // Getters and Setters
+    public String getAltText() { return altText; }
+    public void setAltText(String altText) { this.altText = altText; }
+
+    public String getAltTextAr() { return altTextAr; }
+    public void setAltTextAr(String altTextAr) { this.altTextAr = altTextAr; }
+
+    public Integer getSortOrder() { return sortOrder; }
+    public void setSortOrder(Integer sortOrder) { this.sortOrder = sortOrder; }
+
+    public Boolean getIsPrimary() { return isPrimary; }
+    public void setIsPrimary(Boolean isPrimary) { this.isPrimary = isPrimary; }
 }
@@ -1,5 +1,72 @@
 package com.ecommerce.multistore.product.application.dto;
 
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * استجابة صورة المنتج
+ * Product image response DTO
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
 public class ProductImageResponse {
-    
+
+    private UUID id;
+    private String displayId;
+    private UUID productId;
+    private String imageUrl;
+    private String thumbnailUrl;
+    private String displayUrl;
+    private String altText;
+    private String altTextAr;
+    private Integer sortOrder;
+    private Boolean isPrimary;
+    private String contentType;
+    private Long fileSize;
+    private String thumbnailStatus;
+    private LocalDateTime createdAt;
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public String getDisplayId() { return displayId; }
+    public void setDisplayId(String displayId) { this.displayId = displayId; }
+
+    public UUID getProductId() { return productId; }
+    public void setProductId(UUID productId) { this.productId = productId; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+
+    public String getDisplayUrl() { return displayUrl; }
+    public void setDisplayUrl(String displayUrl) { this.displayUrl = displayUrl; }
+
+    public String getAltText() { return altText; }
+    public void setAltText(String altText) { this.altText = altText; }
+
+    public String getAltTextAr() { return altTextAr; }
+    public void setAltTextAr(String altTextAr) { this.altTextAr = altTextAr; }
+
+    public Integer getSortOrder() { return sortOrder; }
+    public void setSortOrder(Integer sortOrder) { this.sortOrder = sortOrder; }
+
+    public Boolean getIsPrimary() { return isPrimary; }
+    public void setIsPrimary(Boolean isPrimary) { this.isPrimary = isPrimary; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getThumbnailStatus() { return thumbnailStatus; }
+    public void setThumbnailStatus(String thumbnailStatus) { this.thumbnailStatus = thumbnailStatus; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
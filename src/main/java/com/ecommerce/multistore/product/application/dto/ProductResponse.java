@@ -43,6 +43,7 @@ public class ProductResponse {
     private List<String> tags;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     // Business Logic Fields
     private Boolean isAvailable;
@@ -143,6 +144,9 @@ public class ProductResponse {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     public Boolean getIsAvailable() { return isAvailable; }
     public void setIsAvailable(Boolean isAvailable) { this.isAvailable = isAvailable; }
     
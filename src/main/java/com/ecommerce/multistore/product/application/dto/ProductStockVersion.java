@@ -0,0 +1,15 @@
+package com.ecommerce.multistore.product.application.dto;
+
+/**
+ * مخزون المنتج مع نسخته
+ * Product stock with its version
+ *
+ * يُقرأ بدون قفل ويُمرر إلى تحديث مشروط بالنسخة؛ تغير النسخة يعني أن طلباً آخر سبقنا
+ * Read without a lock and handed to a version-guarded update; a changed version means another request got there first
+ */
+public interface ProductStockVersion {
+
+    Integer getStockQuantity();
+
+    Long getVersion();
+}
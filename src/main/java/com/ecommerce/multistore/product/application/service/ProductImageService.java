@@ -1,5 +1,207 @@
 package com.ecommerce.multistore.product.application.service;
 
+import com.ecommerce.multistore.product.application.dto.ProductImageRequest;
+import com.ecommerce.multistore.product.application.dto.ProductImageResponse;
+import com.ecommerce.multistore.product.domain.ProductImage;
+import com.ecommerce.multistore.product.domain.event.ProductImageUploadedEvent;
+import com.ecommerce.multistore.product.infrastructure.ProductImageRepository;
+import com.ecommerce.multistore.product.infrastructure.ProductRepository;
+import com.ecommerce.multistore.product.infrastructure.storage.ImageStorage;
+import com.ecommerce.multistore.product.infrastructure.storage.ThumbnailGenerator;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * خدمة صور المنتجات
+ * Product Image Service
+ *
+ * الرفع يُكتب إلى القرص مباشرة من تدفق الطلب، والصور المصغرة تُولد
+ * بشكل غير متزامن بعد تأكيد المعاملة
+ * Uploads are streamed straight from the request to disk; thumbnails are
+ * generated asynchronously after the transaction commits
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Service
+@Transactional
 public class ProductImageService {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImageService.class);
+
+    private static final int PENDING_RETRY_AFTER_MINUTES = 10;
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductRepository productRepository;
+    private final ImageStorage imageStorage;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ProductImageService(ProductImageRepository productImageRepository,
+                               ProductRepository productRepository,
+                               ImageStorage imageStorage,
+                               ThumbnailGenerator thumbnailGenerator,
+                               ApplicationEventPublisher eventPublisher) {
+        this.productImageRepository = productImageRepository;
+        this.productRepository = productRepository;
+        this.imageStorage = imageStorage;
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * رفع صورة منتج
+     * Upload a product image
+     *
+     * @param productId معرف المنتج
+     * @param file الملف المرفوع
+     * @param request بيانات الصورة
+     * @return ProductImageResponse الصورة المحفوظة
+     * @throws IllegalArgumentException إذا لم يوجد المنتج أو كان الملف غير صالح
+     */
+    public ProductImageResponse uploadImage(UUID productId, MultipartFile file, ProductImageRequest request) {
+        if (!productRepository.existsById(productId)) {
+            throw new IllegalArgumentException("Product not found with ID: " + productId);
+        }
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Image file is required");
+        }
+        if (file.getSize() > AppConstants.MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("File exceeds maximum size of " + AppConstants.MAX_FILE_SIZE + " bytes");
+        }
+
+        String extension = StringUtils.substringAfterLast(file.getOriginalFilename(), ".");
+        if (!ImageStorage.isAllowedExtension(extension)) {
+            throw new IllegalArgumentException("Unsupported image type: " + extension);
+        }
+
+        ImageStorage.StoredImage stored = store(file, extension);
+
+        // حذف متزامن لآخر صورة بنفس المحتوى قد يزيل الملف قبل القفل - يُكتب من جديد
+        productImageRepository.lockChecksum(stored.checksum());
+        if (!imageStorage.isStored(stored.fileName())) {
+            stored = store(file, extension);
+        }
+
+        if (Boolean.TRUE.equals(request.getIsPrimary())) {
+            productImageRepository.clearPrimary(productId);
+        }
+
+        ProductImage image = new ProductImage(productId,
+                AppConstants.MEDIA_IMAGES_PATH + "/" + stored.fileName(), stored.checksum());
+        image.setAltText(request.getAltText());
+        image.setAltTextAr(request.getAltTextAr());
+        image.setSortOrder(request.getSortOrder());
+        image.setIsPrimary(request.getIsPrimary());
+        image.setContentType(file.getContentType());
+        image.setFileSize(stored.size());
+
+        ProductImage saved = productImageRepository.save(image);
+        eventPublisher.publishEvent(new ProductImageUploadedEvent(saved.getId(), stored.checksum(), stored.extension()));
+
+        return convertToResponse(saved);
+    }
+
+    /**
+     * صور المنتج
+     * Get product images in display order
+     */
+    @Transactional(readOnly = true)
+    public List<ProductImageResponse> getProductImages(UUID productId) {
+        return productImageRepository.findByProductIdOrderBySortOrderAscCreatedAtAsc(productId)
+                .stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * حذف صورة منتج - الملف يُحذف فقط إذا لم تستخدمه صورة أخرى
+     * Delete a product image - the file is removed only when no other image shares it
+     */
+    public void deleteImage(UUID productId, UUID imageId) {
+        ProductImage image = productImageRepository.findById(imageId)
+                .filter(found -> found.getProductId().equals(productId))
+                .orElseThrow(() -> new IllegalArgumentException("Product image not found with ID: " + imageId));
+
+        productImageRepository.delete(image);
+        productImageRepository.flush();
+
+        if (image.getChecksum() == null) {
+            return;
+        }
+        // الرفع يأخذ نفس القفل قبل إضافة صفه، فلا يُحذف ملف صار له مستخدم جديد
+        productImageRepository.lockChecksum(image.getChecksum());
+        if (productImageRepository.countByChecksum(image.getChecksum()) == 0) {
+            imageStorage.delete(image.getChecksum(), extensionOf(image));
+        }
+    }
+
+    /**
+     * إعادة جدولة الصور التي بقيت معلقة (طابور ممتلئ أو إعادة تشغيل)
+     * Requeue images left pending (queue overflow or restart)
+     */
+    @Scheduled(fixedDelayString = "${app.images.retry-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void requeuePendingThumbnails() {
+        List<ProductImage> pending = productImageRepository.findTop50ByThumbnailStatusAndCreatedAtBeforeOrderByCreatedAtAsc(
+                ProductImage.ThumbnailStatus.PENDING, LocalDateTime.now().minusMinutes(PENDING_RETRY_AFTER_MINUTES));
+
+        for (ProductImage image : pending) {
+            thumbnailGenerator.regenerate(image.getId(), image.getChecksum(), extensionOf(image));
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Requeued {} pending thumbnail jobs", pending.size());
+        }
+    }
+
+    private ImageStorage.StoredImage store(MultipartFile file, String extension) {
+        try (InputStream input = file.getInputStream()) {
+            return imageStorage.store(input, extension);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to store image: " + e.getMessage(), e);
+        }
+    }
+
+    private String extensionOf(ProductImage image) {
+        return StringUtils.substringAfterLast(image.getImageUrl(), ".");
+    }
+
+    /**
+     * تحويل الكيان إلى DTO
+     * Convert entity to response DTO
+     */
+    private ProductImageResponse convertToResponse(ProductImage image) {
+        ProductImageResponse response = new ProductImageResponse();
+        response.setId(image.getId());
+        response.setDisplayId(image.getDisplayId());
+        response.setProductId(image.getProductId());
+        response.setImageUrl(image.getImageUrl());
+        response.setThumbnailUrl(image.getThumbnailUrl());
+        response.setDisplayUrl(image.getDisplayUrl());
+        response.setAltText(image.getAltText());
+        response.setAltTextAr(image.getAltTextAr());
+        response.setSortOrder(image.getSortOrder());
+        response.setIsPrimary(image.getIsPrimary());
+        response.setContentType(image.getContentType());
+        response.setFileSize(image.getFileSize());
+        response.setThumbnailStatus(image.getThumbnailStatus() != null ? image.getThumbnailStatus().name() : null);
+        response.setCreatedAt(image.getCreatedAt());
+        return response;
+    }
 }
@@ -1,20 +1,34 @@
 package com.ecommerce.multistore.product.application.service;
 
+import com.ecommerce.multistore.inventory.domain.StockAlert;
 import com.ecommerce.multistore.product.application.dto.CreateProductRequest;
 import com.ecommerce.multistore.product.application.dto.ProductResponse;
+import com.ecommerce.multistore.product.application.dto.ProductStockVersion;
 import com.ecommerce.multistore.product.domain.Product;
 import com.ecommerce.multistore.product.infrastructure.ProductRepository;
+import com.ecommerce.multistore.shared.dto.CatalogVersion;
+import com.ecommerce.multistore.shared.exception.BusinessException;
+import com.ecommerce.multistore.shared.outbox.OutboxEventTypes;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import com.ecommerce.multistore.shared.utils.RetryUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -35,16 +49,23 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxPublisher outboxPublisher;
 
     /**
      * Constructor لحقن Dependencies
      * Constructor for dependency injection
      * 
      * @param productRepository مستودع المنتجات للتعامل مع قاعدة البيانات
+     * @param transactionTemplate لتشغيل كل محاولة تحديث في معاملة مستقلة
+     * @param outboxPublisher كاتب صندوق الأحداث
      */
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, TransactionTemplate transactionTemplate,
+                          OutboxPublisher outboxPublisher) {
         this.productRepository = productRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxPublisher = outboxPublisher;
     }
 
     /**
@@ -72,6 +93,7 @@ public class ProductService {
         
         // حفظ المنتج
         Product savedProduct = productRepository.save(product);
+        publishStockChanged(savedProduct.getId(), savedProduct.getSku(), 0, savedProduct.getStockQuantity());
         
         // تحويل إلى Response وإرجاع النتيجة
         return convertToResponse(savedProduct);
@@ -250,27 +272,46 @@ public class ProductService {
      * تحديث بيانات المنتج
      * Update product information
      * 
+     * كل محاولة تعمل في معاملة مستقلة؛ عند تعارض النسخة يُعاد التحميل والتطبيق مع تأخير
+     * Each attempt runs in its own transaction; on a version conflict the product is
+     * reloaded and the change reapplied after a backoff
+     * 
      * @param productId معرف المنتج
      * @param request البيانات الجديدة
      * @return ProductResponse المنتج المحدث
      * @throws IllegalArgumentException إذا لم يوجد المنتج
+     * @throws BusinessException (409) إذا أُرسلت نسخة قديمة
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductResponse updateProduct(UUID productId, CreateProductRequest request) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
-
-        // التحقق من تكرار SKU إذا تم تغييره
-        if (!product.getSku().equals(request.getSku()) && 
-            productRepository.existsBySku(request.getSku())) {
-            throw new IllegalArgumentException("SKU already exists: " + request.getSku());
-        }
-
-        // تحديث البيانات
-        updateProductFromRequest(product, request);
-        product.setUpdatedAt(LocalDateTime.now());
-
-        Product updatedProduct = productRepository.save(product);
-        return convertToResponse(updatedProduct);
+        return RetryUtils.retryOnConflict(() -> transactionTemplate.execute(status -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+
+            // العميل عدّل نسخة قديمة - لا فائدة من إعادة المحاولة
+            if (request.getVersion() != null && !request.getVersion().equals(product.getVersion())) {
+                throw new BusinessException("Product was modified by another request, reload and retry",
+                                            "تم تعديل المنتج من طلب آخر، يرجى إعادة التحميل", 409);
+            }
+
+            // التحقق من تكرار SKU إذا تم تغييره
+            if (!product.getSku().equals(request.getSku()) && 
+                productRepository.existsBySku(request.getSku())) {
+                throw new IllegalArgumentException("SKU already exists: " + request.getSku());
+            }
+
+            // تحديث البيانات
+            Integer previousStock = product.getStockQuantity();
+            updateProductFromRequest(product, request);
+            product.setUpdatedAt(LocalDateTime.now());
+
+            Product updatedProduct = productRepository.saveAndFlush(product);
+            if (!Objects.equals(previousStock, updatedProduct.getStockQuantity())) {
+                publishStockChanged(updatedProduct.getId(), updatedProduct.getSku(), previousStock,
+                        updatedProduct.getStockQuantity());
+            }
+            return convertToResponse(updatedProduct);
+        }));
     }
 
     /**
@@ -282,37 +323,86 @@ public class ProductService {
      * @return ProductResponse المنتج المحدث
      * @throws IllegalArgumentException إذا لم يوجد المنتج
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductResponse updateProductStatus(UUID productId, Boolean isActive) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+        return RetryUtils.retryOnConflict(() -> transactionTemplate.execute(status -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
 
-        product.setIsActive(isActive);
-        product.setUpdatedAt(LocalDateTime.now());
+            product.setIsActive(isActive);
+            product.setUpdatedAt(LocalDateTime.now());
 
-        Product updatedProduct = productRepository.save(product);
-        return convertToResponse(updatedProduct);
+            Product updatedProduct = productRepository.saveAndFlush(product);
+            return convertToResponse(updatedProduct);
+        }));
     }
 
     /**
-     * تحديث مخزون المنتج
-     * Update product stock
+     * تحديث مخزون المنتج - تعيين مشروط بالنسخة مع إعادة المحاولة عند التعارض
+     * Update product stock - version-guarded set, retried with backoff on conflict
      * 
      * @param productId معرف المنتج
      * @param newQuantity الكمية الجديدة
      * @return ProductResponse المنتج المحدث
      * @throws IllegalArgumentException إذا لم يوجد المنتج أو كانت الكمية سالبة
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductResponse updateProductStock(UUID productId, Integer newQuantity) {
         if (newQuantity < 0) {
             throw new IllegalArgumentException("Stock quantity cannot be negative");
         }
 
-        Product product = productRepository.findById(productId)
+        return RetryUtils.retryOnConflict(() -> transactionTemplate.execute(status -> {
+            ProductStockVersion current = productRepository.findStockVersionById(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+
+            // النسخة تغيرت منذ القراءة - الكمية السابقة لم تعد صحيحة
+            if (productRepository.setStock(productId, newQuantity, current.getVersion()) == 0) {
+                throw new OptimisticLockingFailureException("Product stock changed concurrently: " + productId);
+            }
+            ProductResponse product = findById(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+            publishStockChanged(product.getId(), product.getSku(), current.getStockQuantity(),
+                    product.getStockQuantity());
+            return product;
+        }));
+    }
+
+    /**
+     * تعديل مخزون المنتج بمقدار - تحديث ذري لا يفقد التعديلات المتزامنة
+     * Adjust product stock by a delta - atomic update that never loses concurrent changes
+     * 
+     * @param productId معرف المنتج
+     * @param delta مقدار التغيير (موجب للإضافة، سالب للخصم)
+     * @return ProductResponse المنتج المحدث
+     * @throws IllegalArgumentException إذا لم يوجد المنتج
+     * @throws IllegalStateException إذا كان المخزون غير كافٍ
+     */
+    public ProductResponse adjustProductStock(UUID productId, int delta) {
+        if (productRepository.adjustStock(productId, delta) == 0) {
+            if (!productRepository.existsById(productId)) {
+                throw new IllegalArgumentException("Product not found with ID: " + productId);
+            }
+            throw new IllegalStateException("Insufficient stock for product: " + productId);
+        }
+        ProductResponse product = findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+        publishStockChanged(product.getId(), product.getSku(), product.getStockQuantity() - delta,
+                product.getStockQuantity());
+        return product;
+    }
 
-        product.updateStock(newQuantity);
-        Product updatedProduct = productRepository.save(product);
-        return convertToResponse(updatedProduct);
+    /**
+     * تسجيل حدث تغيير المخزون في نفس المعاملة
+     * Record a stock change event in the same transaction
+     */
+    private void publishStockChanged(UUID productId, String sku, Integer from, Integer to) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", productId);
+        payload.put("sku", sku);
+        payload.put("from", from);
+        payload.put("to", to);
+        outboxPublisher.publish(OutboxEventTypes.PRODUCT, productId, OutboxEventTypes.PRODUCT_STOCK_CHANGED, payload);
     }
 
     /**
@@ -330,31 +420,35 @@ public class ProductService {
     }
 
     /**
-     * الحصول على المنتجات ذات المخزون المنخفض
-     * Get products with low stock
+     * الحصول على المنتجات ذات المخزون المنخفض (يشمل النافدة)
+     * Get products with low stock, out-of-stock included
+     * 
+     * تُقرأ من مجموعة stock_alerts المحدثة تدريجياً بدلاً من فحص كل المنتجات
+     * Reads the incrementally maintained stock_alerts set instead of scanning products
      * 
-     * @return List<ProductResponse> قائمة بالمنتجات ذات المخزون المنخفض
+     * @param page رقم الصفحة
+     * @param size حجم الصفحة
+     * @return Page<ProductResponse> صفحة من المنتجات ذات المخزون المنخفض
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getLowStockProducts() {
-        return productRepository.findLowStockProducts()
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public Page<ProductResponse> getLowStockProducts(int page, int size) {
+        return productRepository.findByStockAlertLevels(
+                        EnumSet.of(StockAlert.Level.LOW, StockAlert.Level.OUT), PageRequest.of(page, size))
+                .map(this::convertToResponse);
     }
 
     /**
      * الحصول على المنتجات غير المتوفرة
      * Get out of stock products
      * 
-     * @return List<ProductResponse> قائمة بالمنتجات غير المتوفرة
+     * @param page رقم الصفحة
+     * @param size حجم الصفحة
+     * @return Page<ProductResponse> صفحة من المنتجات غير المتوفرة
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getOutOfStockProducts() {
-        return productRepository.findOutOfStockProducts()
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public Page<ProductResponse> getOutOfStockProducts(int page, int size) {
+        return productRepository.findByStockAlertLevels(EnumSet.of(StockAlert.Level.OUT), PageRequest.of(page, size))
+                .map(this::convertToResponse);
     }
 
     // ===============================
@@ -454,6 +548,39 @@ public class ProductService {
         return slug;
     }
 
+    /**
+     * تاريخ آخر تعديل - للطلبات الشرطية دون تحميل الكيان
+     * Last modification time - for conditional requests without loading the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedById(UUID id) {
+        return productRepository.findUpdatedAtById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedByDisplayId(String displayId) {
+        return productRepository.findUpdatedAtByDisplayId(displayId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedBySku(String sku) {
+        return productRepository.findUpdatedAtBySku(sku);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastModifiedBySlug(String slug) {
+        return productRepository.findUpdatedAtBySlug(slug);
+    }
+
+    /**
+     * نسخة المنتجات - لـ ETag القوائم
+     * Products version - for list ETags
+     */
+    @Transactional(readOnly = true)
+    public CatalogVersion getCatalogVersion() {
+        return productRepository.findCatalogVersion();
+    }
+
     /**
      * تحويل كائن Product إلى ProductResponse
      * Converts Product entity to ProductResponse DTO
@@ -491,6 +618,7 @@ public class ProductService {
         response.setTags(product.getTags());
         response.setCreatedAt(product.getCreatedAt());
         response.setUpdatedAt(product.getUpdatedAt());
+        response.setVersion(product.getVersion());
         
         // Business Logic Fields
         response.setIsAvailable(product.isAvailable());
@@ -108,6 +108,11 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // قفل تفاؤلي - يمنع فقدان التحديثات المتزامنة
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         if (this.createdAt == null) {
@@ -234,6 +239,9 @@ public class Product {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     @Override
     public String toString() {
         return "Product{" +
@@ -1,5 +1,151 @@
 package com.ecommerce.multistore.product.domain;
 
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * كيان صورة المنتج
+ * Product Image Entity
+ *
+ * الملف الأصلي يُخزن على القرص باسم مشتق من SHA-256 للمحتوى،
+ * لذلك يُستخدم checksum كـ ETag قوي ويمكن تخزين الرابط مؤقتاً بلا حدود
+ * The original file is stored on disk under a name derived from its SHA-256,
+ * so the checksum doubles as a strong ETag and the URL is immutable
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Entity
+@Table(name = "product_images")
 public class ProductImage {
-    
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    private UUID id;
+
+    @Column(name = "display_id", unique = true)
+    private String displayId;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    @Column(name = "image_url", nullable = false, columnDefinition = "TEXT")
+    private String imageUrl;
+
+    @Column(name = "thumbnail_url", columnDefinition = "TEXT")
+    private String thumbnailUrl;
+
+    @Column(name = "alt_text")
+    private String altText;
+
+    @Column(name = "alt_text_ar")
+    private String altTextAr;
+
+    @Column(name = "sort_order")
+    private Integer sortOrder = 0;
+
+    @Column(name = "is_primary")
+    private Boolean isPrimary = false;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "thumbnail_status")
+    private ThumbnailStatus thumbnailStatus = ThumbnailStatus.PENDING;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ProductImage() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public ProductImage(UUID productId, String imageUrl, String checksum) {
+        this();
+        this.productId = productId;
+        this.imageUrl = imageUrl;
+        this.checksum = checksum;
+    }
+
+    // Business Methods
+    public void markThumbnailsReady(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+        this.thumbnailStatus = ThumbnailStatus.READY;
+    }
+
+    public void markThumbnailsFailed() {
+        this.thumbnailStatus = ThumbnailStatus.FAILED;
+    }
+
+    /**
+     * رابط العرض في الشبكات - المصغرة إن وجدت وإلا الأصل
+     * Grid display URL - thumbnail when ready, original otherwise
+     */
+    public String getDisplayUrl() {
+        return thumbnailStatus == ThumbnailStatus.READY && thumbnailUrl != null ? thumbnailUrl : imageUrl;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public String getDisplayId() { return displayId; }
+    public void setDisplayId(String displayId) { this.displayId = displayId; }
+
+    public UUID getProductId() { return productId; }
+    public void setProductId(UUID productId) { this.productId = productId; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+
+    public String getAltText() { return altText; }
+    public void setAltText(String altText) { this.altText = altText; }
+
+    public String getAltTextAr() { return altTextAr; }
+    public void setAltTextAr(String altTextAr) { this.altTextAr = altTextAr; }
+
+    public Integer getSortOrder() { return sortOrder; }
+    public void setSortOrder(Integer sortOrder) { this.sortOrder = sortOrder; }
+
+    public Boolean getIsPrimary() { return isPrimary; }
+    public void setIsPrimary(Boolean isPrimary) { this.isPrimary = isPrimary; }
+
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+
+    public ThumbnailStatus getThumbnailStatus() { return thumbnailStatus; }
+    public void setThumbnailStatus(ThumbnailStatus thumbnailStatus) { this.thumbnailStatus = thumbnailStatus; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    /**
+     * حالة توليد الصور المصغرة
+     * Thumbnail generation status
+     */
+    public enum ThumbnailStatus {
+        PENDING,
+        READY,
+        FAILED
+    }
 }
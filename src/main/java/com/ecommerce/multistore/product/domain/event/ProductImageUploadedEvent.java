@@ -0,0 +1,32 @@
+package com.ecommerce.multistore.product.domain.event;
+
+import java.util.UUID;
+
+/**
+ * حدث رفع صورة منتج
+ * Product image uploaded event
+ *
+ * يُنشر داخل معاملة الرفع ويُعالج بعد التأكيد لتوليد الصور المصغرة
+ * Published inside the upload transaction and handled after commit to build thumbnails
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class ProductImageUploadedEvent {
+
+    private final UUID imageId;
+    private final String checksum;
+    private final String extension;
+
+    public ProductImageUploadedEvent(UUID imageId, String checksum, String extension) {
+        this.imageId = imageId;
+        this.checksum = checksum;
+        this.extension = extension;
+    }
+
+    public UUID getImageId() { return imageId; }
+
+    public String getChecksum() { return checksum; }
+
+    public String getExtension() { return extension; }
+}
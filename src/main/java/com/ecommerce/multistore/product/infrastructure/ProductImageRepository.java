@@ -1,5 +1,66 @@
 package com.ecommerce.multistore.product.infrastructure;
 
-public class ProductImageRepository {
-    
+import com.ecommerce.multistore.product.domain.ProductImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * مستودع صور المنتجات
+ * Product Image Repository
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Repository
+public interface ProductImageRepository extends JpaRepository<ProductImage, UUID> {
+
+    /**
+     * صور المنتج مرتبة
+     * Product images ordered for display
+     */
+    List<ProductImage> findByProductIdOrderBySortOrderAscCreatedAtAsc(UUID productId);
+
+    /**
+     * هل توجد صورة بنفس المحتوى لنفس المنتج
+     * Whether the product already has an image with the same content
+     */
+    boolean existsByProductIdAndChecksum(UUID productId, String checksum);
+
+    /**
+     * عدد الصور التي تستخدم نفس الملف
+     * Number of images sharing the same stored file
+     */
+    long countByChecksum(String checksum);
+
+    /**
+     * قفل على محتوى الملف حتى نهاية المعاملة
+     * Lock a stored file's content until the end of the transaction
+     *
+     * يجعل فحص عدد المستخدمين وحذف الملف ذرياً مقابل رفع نفس المحتوى
+     * Makes counting a file's users and deleting it atomic against an upload of the same content
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtextextended(:checksum, 0))", nativeQuery = true)
+    int lockChecksum(@Param("checksum") String checksum);
+
+    /**
+     * صور لم تُولد مصغراتها بعد - لإعادة المحاولة
+     * Images still waiting for thumbnails - used by the retry sweep
+     */
+    List<ProductImage> findTop50ByThumbnailStatusAndCreatedAtBeforeOrderByCreatedAtAsc(
+            ProductImage.ThumbnailStatus status, LocalDateTime createdBefore);
+
+    /**
+     * إلغاء الصورة الرئيسية الحالية للمنتج
+     * Clear the current primary image of a product
+     */
+    @Modifying
+    @Query("UPDATE ProductImage pi SET pi.isPrimary = false WHERE pi.productId = :productId AND pi.isPrimary = true")
+    int clearPrimary(@Param("productId") UUID productId);
 }
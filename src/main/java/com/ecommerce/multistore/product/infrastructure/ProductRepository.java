@@ -1,14 +1,20 @@
 package com.ecommerce.multistore.product.infrastructure;
 
+import com.ecommerce.multistore.inventory.domain.StockAlert;
+import com.ecommerce.multistore.product.application.dto.ProductStockVersion;
 import com.ecommerce.multistore.product.domain.Product;
+import com.ecommerce.multistore.shared.dto.CatalogVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -139,28 +145,18 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
     Page<Product> searchProducts(@Param("searchTerm") String searchTerm, Pageable pageable);
     
     /**
-     * المنتجات ذات المخزون المنخفض
-     * Products with low stock
+     * المنتجات في مجموعة تنبيهات المخزون - الأقدم في التنبيه أولاً
+     * Products in the maintained stock alert set - longest-alerting first
      * 
-     * @return List<Product>
-     */
-    @Query("SELECT p FROM Product p WHERE " +
-           "p.trackInventory = true AND " +
-           "p.stockQuantity <= p.minStockLevel AND " +
-           "p.isActive = true")
-    List<Product> findLowStockProducts();
-    
-    /**
-     * المنتجات غير المتوفرة
-     * Out of stock products
-     * 
-     * @return List<Product>
+     * @param levels مستويات التنبيه المطلوبة
+     * @param pageable معلومات الصفحة
+     * @return Page<Product>
      */
-    @Query("SELECT p FROM Product p WHERE " +
-           "p.trackInventory = true AND " +
-           "p.stockQuantity = 0 AND " +
-           "p.isActive = true")
-    List<Product> findOutOfStockProducts();
+    @Query(value = "SELECT p FROM Product p, StockAlert a WHERE " +
+                   "a.productId = p.id AND a.level IN :levels " +
+                   "ORDER BY a.since ASC, a.productId ASC",
+           countQuery = "SELECT COUNT(a) FROM StockAlert a WHERE a.level IN :levels")
+    Page<Product> findByStockAlertLevels(@Param("levels") Collection<StockAlert.Level> levels, Pageable pageable);
     
     /**
      * عدد المنتجات حسب الفئة
@@ -179,4 +175,58 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
      * @return Long
      */
     long countByBrandIdAndIsActiveTrue(UUID brandId);
+
+    /**
+     * تاريخ آخر تعديل للمنتج - للطلبات الشرطية دون تحميل الكيان
+     * Product last modification time - for conditional requests without loading the entity
+     */
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
+
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.displayId = :displayId")
+    Optional<LocalDateTime> findUpdatedAtByDisplayId(@Param("displayId") String displayId);
+
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.sku = :sku")
+    Optional<LocalDateTime> findUpdatedAtBySku(@Param("sku") String sku);
+
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.slug = :slug")
+    Optional<LocalDateTime> findUpdatedAtBySlug(@Param("slug") String slug);
+
+    /**
+     * نسخة جدول المنتجات
+     * Products table version
+     */
+    @Query("SELECT MAX(p.updatedAt) AS lastModified, COUNT(p) AS total FROM Product p")
+    CatalogVersion findCatalogVersion();
+
+    /**
+     * تعديل المخزون بشكل ذري - بدون قراءة ثم كتابة وبدون قفل صريح
+     * Atomic stock delta - no read-modify-write and no explicit lock
+     *
+     * @return عدد الصفوف المحدثة: 0 إذا لم يوجد المنتج أو كان المخزون غير كافٍ
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :delta, " +
+           "p.version = p.version + 1, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id AND p.stockQuantity + :delta >= 0")
+    int adjustStock(@Param("id") UUID id, @Param("delta") int delta);
+
+    /**
+     * قراءة المخزون الحالي ونسخته بدون قفل
+     * Read the current stock and version without a lock
+     */
+    @Query("SELECT p.stockQuantity AS stockQuantity, p.version AS version FROM Product p WHERE p.id = :id")
+    Optional<ProductStockVersion> findStockVersionById(@Param("id") UUID id);
+
+    /**
+     * تعيين المخزون بشرط عدم تغير النسخة منذ القراءة
+     * Set the stock only if the version is unchanged since it was read
+     *
+     * @return عدد الصفوف المحدثة: 0 إذا عدّل طلب آخر المنتج أو حذفه
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = :quantity, " +
+           "p.version = p.version + 1, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id AND p.version = :version")
+    int setStock(@Param("id") UUID id, @Param("quantity") int quantity, @Param("version") long version);
 }
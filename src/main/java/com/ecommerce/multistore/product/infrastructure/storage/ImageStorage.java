@@ -0,0 +1,218 @@
+package com.ecommerce.multistore.product.infrastructure.storage;
+
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import org.apache.commons.codec.binary.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * تخزين الصور على القرص المحلي
+ * Local disk image storage
+ *
+ * يكتب الملفات المرفوعة على دفعات صغيرة دون تحميلها كاملة في الذاكرة،
+ * ويسميها بقيمة SHA-256 للمحتوى (تخزين حسب المحتوى)
+ * Streams uploads to disk in small chunks without holding the whole file in heap
+ * and names them by the SHA-256 of their content (content-addressed storage)
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class ImageStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorage.class);
+
+    private static final int COPY_BUFFER_SIZE = 16 * 1024;
+
+    // sha256 + optional size suffix + extension, e.g. 9f86d0...08.jpg or 9f86d0...08_300.jpg
+    private static final Pattern STORED_NAME = Pattern.compile("^[a-f0-9]{64}(_[0-9]{2,4})?\\.[a-z]{3,4}$");
+
+    private final Path imagesRoot;
+    private final Path thumbnailsRoot;
+    private final Path tempRoot;
+
+    public ImageStorage(@Value("${app.images.root:" + AppConstants.UPLOAD_DIR + AppConstants.IMAGES_DIR + "}") String root) {
+        this.imagesRoot = Paths.get(root).toAbsolutePath().normalize();
+        this.thumbnailsRoot = imagesRoot.resolve(AppConstants.THUMBNAILS_DIR);
+        this.tempRoot = imagesRoot.resolve(".tmp");
+        try {
+            Files.createDirectories(thumbnailsRoot);
+            Files.createDirectories(tempRoot);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create image storage directories under " + imagesRoot, e);
+        }
+    }
+
+    /**
+     * حفظ صورة من تدفق - الكتابة إلى ملف مؤقت ثم نقل ذري
+     * Store an image from a stream - write to a temp file, then atomic move
+     *
+     * @param input تدفق المحتوى
+     * @param extension امتداد الملف (jpg, png ...)
+     * @return StoredImage بيانات الملف المخزن
+     * @throws IllegalArgumentException إذا تجاوز الحجم المسموح
+     */
+    public StoredImage store(InputStream input, String extension) throws IOException {
+        String ext = normalizeExtension(extension);
+        Path temp = Files.createTempFile(tempRoot, "upload-", "." + ext);
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+
+            try (InputStream in = new DigestInputStream(input, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > AppConstants.MAX_FILE_SIZE) {
+                        throw new IllegalArgumentException("File exceeds maximum size of " + AppConstants.MAX_FILE_SIZE + " bytes");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            String checksum = Hex.encodeHexString(digest.digest());
+            String fileName = checksum + "." + ext;
+            Path target = imagesRoot.resolve(fileName);
+
+            if (Files.exists(target)) {
+                // نفس المحتوى مخزن مسبقاً
+                Files.deleteIfExists(temp);
+            } else {
+                // رفع متزامن لنفس المحتوى قد يسبقنا - استبدال محتوى مطابق لا يضر
+                moveIntoPlace(temp, target);
+            }
+            return new StoredImage(fileName, checksum, ext, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * هل الملف الأصلي موجود على القرص
+     * Whether an original file is present on disk
+     */
+    public boolean isStored(String fileName) {
+        Path original = resolveOriginal(fileName);
+        return original != null && Files.exists(original);
+    }
+
+    /**
+     * مسار الصورة الأصلية
+     * Path of an original image, or null if the name is not a stored image name
+     */
+    public Path resolveOriginal(String fileName) {
+        return resolve(imagesRoot, fileName);
+    }
+
+    /**
+     * مسار الصورة المصغرة
+     * Path of a thumbnail, or null if the name is not a stored image name
+     */
+    public Path resolveThumbnail(String fileName) {
+        return resolve(thumbnailsRoot, fileName);
+    }
+
+    /**
+     * اسم الصورة المصغرة لحجم معين
+     * Thumbnail file name for a given size
+     */
+    public String thumbnailName(String checksum, int size, String extension) {
+        return checksum + "_" + size + "." + normalizeExtension(extension);
+    }
+
+    /**
+     * ملف مؤقت داخل نفس نظام الملفات لضمان النقل الذري
+     * Temp file on the same filesystem so the final move is atomic
+     */
+    public Path createTempFile(String extension) throws IOException {
+        return Files.createTempFile(tempRoot, "derive-", "." + normalizeExtension(extension));
+    }
+
+    /**
+     * نقل ملف مؤقت مكتمل إلى مكانه النهائي
+     * Atomically publish a completed temp file under its final path
+     */
+    public void moveIntoPlace(Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * حذف الملف الأصلي وصوره المصغرة
+     * Delete an original file and its thumbnails
+     */
+    public void delete(String checksum, String extension) {
+        try {
+            Files.deleteIfExists(imagesRoot.resolve(checksum + "." + extension));
+            for (int size : AppConstants.THUMBNAIL_SIZES) {
+                Files.deleteIfExists(thumbnailsRoot.resolve(thumbnailName(checksum, size, thumbnailExtension(extension))));
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete stored image {}: {}", checksum, e.getMessage());
+        }
+    }
+
+    /**
+     * امتداد الصور المصغرة - ImageIO يكتب jpg و png فقط
+     * Thumbnail extension - ImageIO only writes jpg and png out of the box
+     */
+    public String thumbnailExtension(String extension) {
+        String ext = normalizeExtension(extension);
+        return ext.equals("jpg") ? "jpg" : "png";
+    }
+
+    /**
+     * التحقق من امتداد مسموح
+     * Check that an extension is in the allowed image types
+     */
+    public static boolean isAllowedExtension(String extension) {
+        if (extension == null) {
+            return false;
+        }
+        String ext = extension.toLowerCase(Locale.ROOT);
+        return Arrays.asList(AppConstants.ALLOWED_IMAGE_TYPES).contains(ext);
+    }
+
+    private Path resolve(Path root, String fileName) {
+        if (fileName == null || !STORED_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        return root.resolve(fileName);
+    }
+
+    private String normalizeExtension(String extension) {
+        String ext = extension.toLowerCase(Locale.ROOT);
+        return ext.equals("jpeg") ? "jpg" : ext;
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * بيانات الملف المخزن
+     * Stored file descriptor
+     */
+    public record StoredImage(String fileName, String checksum, String extension, long size) {}
+}
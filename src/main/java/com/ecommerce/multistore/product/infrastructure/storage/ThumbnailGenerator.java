@@ -0,0 +1,174 @@
+package com.ecommerce.multistore.product.infrastructure.storage;
+
+import com.ecommerce.multistore.product.domain.ProductImage;
+import com.ecommerce.multistore.product.domain.event.ProductImageUploadedEvent;
+import com.ecommerce.multistore.product.infrastructure.ProductImageRepository;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * مولد الصور المصغرة
+ * Thumbnail generator
+ *
+ * يعمل على مجمع imageProcessingExecutor المحدود بعد تأكيد معاملة الرفع.
+ * يفك ترميز الصورة بأخذ عينات من المصدر (subsampling) بحيث لا تُحمّل
+ * الصورة الأصلية بدقتها الكاملة في الذاكرة
+ * Runs on the bounded imageProcessingExecutor after the upload transaction commits.
+ * Decodes with source subsampling so the full-resolution original is never
+ * materialised in heap
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class ThumbnailGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailGenerator.class);
+
+    private final ImageStorage imageStorage;
+    private final ProductImageRepository productImageRepository;
+
+    @Autowired
+    public ThumbnailGenerator(ImageStorage imageStorage, ProductImageRepository productImageRepository) {
+        this.imageStorage = imageStorage;
+        this.productImageRepository = productImageRepository;
+    }
+
+    /**
+     * معالجة حدث الرفع بعد التأكيد
+     * Handle an upload once its transaction has committed
+     */
+    @Async("imageProcessingExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onImageUploaded(ProductImageUploadedEvent event) {
+        generate(event.getImageId(), event.getChecksum(), event.getExtension());
+    }
+
+    /**
+     * إعادة توليد المصغرات لصورة معلقة
+     * Regenerate thumbnails for an image left pending
+     */
+    @Async("imageProcessingExecutor")
+    public void regenerate(UUID imageId, String checksum, String extension) {
+        generate(imageId, checksum, extension);
+    }
+
+    private void generate(UUID imageId, String checksum, String extension) {
+        Path original = imageStorage.resolveOriginal(checksum + "." + extension);
+        String thumbExt = imageStorage.thumbnailExtension(extension);
+
+        try {
+            int[] sizes = AppConstants.THUMBNAIL_SIZES.clone();
+            Arrays.sort(sizes);
+            int largest = sizes[sizes.length - 1];
+
+            BufferedImage decoded = decodeSubsampled(original, largest);
+            if (decoded == null) {
+                // لا يوجد قارئ لهذا النوع (مثل webp) - تُعرض الصورة الأصلية
+                logger.info("No image reader for {} - serving original only", original.getFileName());
+                updateStatus(imageId, null);
+                return;
+            }
+
+            for (int size : sizes) {
+                Path target = imageStorage.resolveThumbnail(imageStorage.thumbnailName(checksum, size, thumbExt));
+                if (Files.exists(target)) {
+                    continue; // نفس المحتوى عولج سابقاً
+                }
+                BufferedImage resized = resize(decoded, size, thumbExt.equals("png"));
+                Path temp = imageStorage.createTempFile(thumbExt);
+                try {
+                    ImageIO.write(resized, thumbExt, temp.toFile());
+                    imageStorage.moveIntoPlace(temp, target);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+
+            String gridName = imageStorage.thumbnailName(checksum, AppConstants.GRID_THUMBNAIL_SIZE, thumbExt);
+            updateStatus(imageId, AppConstants.MEDIA_IMAGES_PATH + "/" + AppConstants.THUMBNAILS_DIR + gridName);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Thumbnail generation failed for image {}: {}", imageId, e.getMessage());
+            updateStatus(imageId, null);
+        }
+    }
+
+    /**
+     * فك الترميز بعينات من المصدر - أصغر صورة لا تقل عن ضعف الحجم المطلوب
+     * Decode with source subsampling - the smallest image still at least twice the target size
+     */
+    private BufferedImage decodeSubsampled(Path original, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / (targetSize * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int size, boolean keepAlpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) size / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+                keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void updateStatus(UUID imageId, String thumbnailUrl) {
+        productImageRepository.findById(imageId).ifPresent(image -> {
+            if (thumbnailUrl != null) {
+                image.markThumbnailsReady(thumbnailUrl);
+            } else {
+                image.markThumbnailsFailed();
+            }
+            productImageRepository.save(image);
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.multistore.product.infrastructure.web;
+
+import com.ecommerce.multistore.product.infrastructure.storage.ImageStorage;
+import com.ecommerce.multistore.shared.utils.HttpCacheUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * تقديم ملفات الوسائط المخزنة
+ * Stored media serving
+ *
+ * أسماء الملفات مشتقة من SHA-256 للمحتوى لذا فهي ثابتة: ETag قوي وتخزين مؤقت لمدة سنة.
+ * عند دعم Tomcat لـ sendfile يُنقل الملف من القرص إلى المقبس مباشرة (FileChannel.transferTo)
+ * دون المرور بذاكرة JVM، وإلا يُعاد Resource ويتولى Spring طلبات Range
+ * File names are derived from the content SHA-256, so they never change: strong ETag and a
+ * one-year immutable cache. When Tomcat supports sendfile the file goes disk-to-socket
+ * (FileChannel.transferTo) without touching the JVM heap; otherwise a Resource is returned
+ * and Spring handles Range requests
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/media/images")
+@Tag(name = "Media", description = "ملفات الوسائط / Media files")
+public class MediaController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final ImageStorage imageStorage;
+
+    @Autowired
+    public MediaController(ImageStorage imageStorage) {
+        this.imageStorage = imageStorage;
+    }
+
+    /**
+     * الصورة الأصلية
+     * Original image
+     *
+     * @apiNote GET /api/v1/media/images/{fileName}
+     */
+    @GetMapping("/{fileName:.+}")
+    @Operation(summary = "الصورة الأصلية / Original image")
+    public ResponseEntity<Resource> getImage(@PathVariable String fileName, HttpServletRequest request) throws IOException {
+        return serve(imageStorage.resolveOriginal(fileName), fileName, request);
+    }
+
+    /**
+     * الصورة المصغرة
+     * Thumbnail image
+     *
+     * @apiNote GET /api/v1/media/images/thumbs/{fileName}
+     */
+    @GetMapping("/thumbs/{fileName:.+}")
+    @Operation(summary = "الصورة المصغرة / Thumbnail image")
+    public ResponseEntity<Resource> getThumbnail(@PathVariable String fileName, HttpServletRequest request) throws IOException {
+        return serve(imageStorage.resolveThumbnail(fileName), fileName, request);
+    }
+
+    private ResponseEntity<Resource> serve(Path path, String fileName, HttpServletRequest request) throws IOException {
+        if (path == null || !Files.isRegularFile(path)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // الاسم = sha256[_size].ext - المحتوى لا يتغير أبداً لنفس الاسم
+        String etag = "\"" + fileName.substring(0, fileName.lastIndexOf('.')) + "\"";
+        if (HttpCacheUtils.etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(IMMUTABLE).build();
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        long length = Files.size(path);
+
+        if (request.getHeader(HttpHeaders.RANGE) == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat يرسل الملف بعد الاستجابة عبر sendfile
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(IMMUTABLE)
+                    .contentType(mediaType)
+                    .contentLength(length)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(IMMUTABLE)
+                .contentType(mediaType)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(new FileSystemResource(path));
+    }
+}
@@ -8,6 +8,7 @@ import com.ecommerce.multistore.shared.dto.PaginatedResponse;
 import com.ecommerce.multistore.shared.exception.ResourceNotFoundException;
 import com.ecommerce.multistore.shared.exception.DuplicateResourceException;
 import com.ecommerce.multistore.shared.exception.BusinessException;
+import com.ecommerce.multistore.shared.utils.HttpCacheUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -23,6 +24,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -152,6 +154,11 @@ public class ProductController {
             @Parameter(description = "اتجاه الترتيب / Sort direction") @RequestParam(defaultValue = "desc") String sortDir,
             HttpServletRequest httpRequest) {
         
+        String etag = HttpCacheUtils.weakETag(productService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
+        
         Page<ProductResponse> productsPage = productService.getAllProducts(page, size, sortBy, sortDir);
         PaginatedResponse<ProductResponse> paginatedResponse = PaginatedResponse.from(productsPage);
         
@@ -165,7 +172,7 @@ public class ProductController {
                 .metadata(createPaginationMetadata(page, size, productsPage.getTotalElements()))
                 .build();
         
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     /**
@@ -190,6 +197,11 @@ public class ProductController {
             @Parameter(description = "حجم الصفحة / Page size") @RequestParam(defaultValue = "10") int size,
             HttpServletRequest httpRequest) {
         
+        String etag = HttpCacheUtils.weakETag(productService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
+        
         Page<ProductResponse> productsPage = productService.getActiveProducts(page, size);
         PaginatedResponse<ProductResponse> paginatedResponse = PaginatedResponse.from(productsPage);
         
@@ -203,7 +215,7 @@ public class ProductController {
                 .metadata(createPaginationMetadata(page, size, productsPage.getTotalElements()))
                 .build();
         
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     /**
@@ -224,6 +236,11 @@ public class ProductController {
     public ResponseEntity<ApiResponse<List<ProductResponse>>> getFeaturedProducts(
             HttpServletRequest httpRequest) {
         
+        String etag = HttpCacheUtils.weakETag(productService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
+        
         List<ProductResponse> products = productService.getFeaturedProducts();
         
         ApiResponse<List<ProductResponse>> response = ApiResponse.<List<ProductResponse>>builder()
@@ -236,7 +253,7 @@ public class ProductController {
                 .metadata(createSuccessMetadata("featured_products_count", products.size()))
                 .build();
         
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     /**
@@ -271,6 +288,15 @@ public class ProductController {
             @Parameter(description = "معرف المنتج / Product ID") @PathVariable UUID id,
             HttpServletRequest httpRequest) {
         
+        // التحقق من النسخة باستعلام خفيف قبل تحميل المنتج
+        // لا نسخة = لا منتج: التحميل يرد 404 قبل تقييم If-None-Match
+        // No version means no product: the load answers 404 before If-None-Match is evaluated
+        LocalDateTime lastModified = productService.findLastModifiedById(id).orElse(null);
+        String etag = HttpCacheUtils.weakETag(id, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
+        
         Optional<ProductResponse> product = productService.findById(id);
         
         if (product.isPresent()) {
@@ -284,7 +310,7 @@ public class ProductController {
                     .metadata(createSuccessMetadata("product_found", product.get().getDisplayId()))
                     .build();
             
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
         } else {
             throw ResourceNotFoundException.product(id);
         }
@@ -310,6 +336,12 @@ public class ProductController {
             @Parameter(description = "المعرف المعروض / Display ID") @PathVariable String displayId,
             HttpServletRequest httpRequest) {
         
+        LocalDateTime lastModified = productService.findLastModifiedByDisplayId(displayId).orElse(null);
+        String etag = HttpCacheUtils.weakETag(displayId, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
+        
         Optional<ProductResponse> product = productService.findByDisplayId(displayId);
         
         if (product.isPresent()) {
@@ -323,7 +355,7 @@ public class ProductController {
                     .metadata(createSuccessMetadata("product_found_by_display_id", displayId))
                     .build();
             
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
         } else {
             throw new ResourceNotFoundException("Product not found with display ID: " + displayId,
                                               "المنتج غير موجود بالمعرف المعروض: " + displayId);
@@ -350,6 +382,12 @@ public class ProductController {
             @Parameter(description = "رمز المنتج / Product SKU") @PathVariable String sku,
             HttpServletRequest httpRequest) {
         
+        LocalDateTime lastModified = productService.findLastModifiedBySku(sku).orElse(null);
+        String etag = HttpCacheUtils.weakETag(sku, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
+        
         Optional<ProductResponse> product = productService.findBySku(sku);
         
         if (product.isPresent()) {
@@ -363,7 +401,7 @@ public class ProductController {
                     .metadata(createSuccessMetadata("product_found_by_sku", sku))
                     .build();
             
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
         } else {
             throw new ResourceNotFoundException("Product not found with SKU: " + sku,
                                               "المنتج غير موجود بالرمز: " + sku);
@@ -390,6 +428,12 @@ public class ProductController {
             @Parameter(description = "الرابط الودود / URL slug") @PathVariable String slug,
             HttpServletRequest httpRequest) {
         
+        LocalDateTime lastModified = productService.findLastModifiedBySlug(slug).orElse(null);
+        String etag = HttpCacheUtils.weakETag(slug, lastModified);
+        if (lastModified != null && HttpCacheUtils.isNotModified(httpRequest, etag, lastModified)) {
+            return HttpCacheUtils.notModified(etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
+        }
+        
         Optional<ProductResponse> product = productService.findBySlug(slug);
         
         if (product.isPresent()) {
@@ -403,7 +447,7 @@ public class ProductController {
                     .metadata(createSuccessMetadata("product_found_by_slug", slug))
                     .build();
             
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            return HttpCacheUtils.ok(response, etag, lastModified, HttpCacheUtils.CATALOG_ITEM);
         } else {
             throw new ResourceNotFoundException("Product not found with slug: " + slug,
                                               "المنتج غير موجود بالرابط الودود: " + slug);
@@ -438,6 +482,11 @@ public class ProductController {
             throw new BusinessException("Search term cannot be empty", "مصطلح البحث لا يمكن أن يكون فارغاً");
         }
         
+        String etag = HttpCacheUtils.weakETag(productService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_SEARCH);
+        }
+        
         Page<ProductResponse> productsPage = productService.searchProducts(searchTerm, page, size);
         PaginatedResponse<ProductResponse> paginatedResponse = PaginatedResponse.from(productsPage);
         
@@ -451,7 +500,7 @@ public class ProductController {
                 .metadata(createSearchMetadata(searchTerm, productsPage.getTotalElements()))
                 .build();
         
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_SEARCH);
     }
 
     /**
@@ -478,6 +527,11 @@ public class ProductController {
             @Parameter(description = "حجم الصفحة / Page size") @RequestParam(defaultValue = "10") int size,
             HttpServletRequest httpRequest) {
         
+        String etag = HttpCacheUtils.weakETag(productService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
+        
         Page<ProductResponse> productsPage = productService.getProductsByCategory(categoryId, page, size);
         PaginatedResponse<ProductResponse> paginatedResponse = PaginatedResponse.from(productsPage);
         
@@ -491,7 +545,7 @@ public class ProductController {
                 .metadata(createCategoryMetadata(categoryId, productsPage.getTotalElements()))
                 .build();
         
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     /**
@@ -518,6 +572,11 @@ public class ProductController {
             @Parameter(description = "حجم الصفحة / Page size") @RequestParam(defaultValue = "10") int size,
             HttpServletRequest httpRequest) {
         
+        String etag = HttpCacheUtils.weakETag(productService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
+        
         Page<ProductResponse> productsPage = productService.getProductsByBrand(brandId, page, size);
         PaginatedResponse<ProductResponse> paginatedResponse = PaginatedResponse.from(productsPage);
         
@@ -531,7 +590,7 @@ public class ProductController {
                 .metadata(createBrandMetadata(brandId, productsPage.getTotalElements()))
                 .build();
         
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     /**
@@ -565,6 +624,11 @@ public class ProductController {
                                       "أقل سعر لا يمكن أن يكون أكبر من أعلى سعر");
         }
         
+        String etag = HttpCacheUtils.weakETag(productService.getCatalogVersion(), httpRequest);
+        if (HttpCacheUtils.isNotModified(httpRequest, etag, null)) {
+            return HttpCacheUtils.notModified(etag, null, HttpCacheUtils.CATALOG_LIST);
+        }
+        
         Page<ProductResponse> productsPage = productService.getProductsByPriceRange(minPrice, maxPrice, page, size);
         PaginatedResponse<ProductResponse> paginatedResponse = PaginatedResponse.from(productsPage);
         
@@ -578,7 +642,7 @@ public class ProductController {
                 .metadata(createPriceRangeMetadata(minPrice, maxPrice, productsPage.getTotalElements()))
                 .build();
         
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return HttpCacheUtils.ok(response, etag, null, HttpCacheUtils.CATALOG_LIST);
     }
 
     /**
@@ -741,6 +805,53 @@ public class ProductController {
         }
     }
 
+    /**
+     * تعديل مخزون المنتج بمقدار
+     * Adjust product stock by a delta
+     * 
+     * @param id معرف المنتج
+     * @param delta مقدار التغيير (موجب أو سالب)
+     * @param httpRequest معلومات الطلب
+     * @return ResponseEntity<ApiResponse<ProductResponse>>
+     * 
+     * @apiNote PATCH /api/v1/products/{id}/stock?delta=-2
+     * @since 2.1
+     */
+    @PatchMapping("/{id}/stock")
+    @Operation(
+        summary = "تعديل مخزون المنتج بمقدار / Adjust product stock",
+        description = "إضافة أو خصم كمية من المخزون بتحديث ذري / Add or subtract stock with an atomic update"
+    )
+    public ResponseEntity<ApiResponse<ProductResponse>> adjustProductStock(
+            @Parameter(description = "معرف المنتج / Product ID") @PathVariable UUID id,
+            @Parameter(description = "مقدار التغيير / Stock delta") @RequestParam Integer delta,
+            HttpServletRequest httpRequest) {
+        
+        try {
+            ProductResponse product = productService.adjustProductStock(id, delta);
+            
+            ApiResponse<ProductResponse> response = ApiResponse.<ProductResponse>builder()
+                    .success(true)
+                    .message("Product stock adjusted successfully")
+                    .messageAr("تم تعديل مخزون المنتج بنجاح")
+                    .data(product)
+                    .statusCode(HttpStatus.OK.value())
+                    .requestId(generateRequestId(httpRequest))
+                    .metadata(createSuccessMetadata("product_stock_adjusted", 
+                                                  Map.of("productId", product.getDisplayId(), 
+                                                        "delta", delta,
+                                                        "newQuantity", product.getStockQuantity())))
+                    .build();
+            
+            return new ResponseEntity<>(response, HttpStatus.OK);
+            
+        } catch (IllegalArgumentException e) {
+            throw ResourceNotFoundException.product(id);
+        } catch (IllegalStateException e) {
+            throw new BusinessException(e.getMessage(), "المخزون غير كافٍ", HttpStatus.CONFLICT.value());
+        }
+    }
+
     /**
      * حذف المنتج
      * Delete product
@@ -796,10 +907,12 @@ public class ProductController {
      * الحصول على المنتجات ذات المخزون المنخفض
      * Get products with low stock
      * 
+     * @param page رقم الصفحة
+     * @param size عدد العناصر في الصفحة
      * @param httpRequest معلومات الطلب
-     * @return ResponseEntity<ApiResponse<List<ProductResponse>>>
+     * @return ResponseEntity<ApiResponse<PaginatedResponse<ProductResponse>>>
      * 
-     * @apiNote GET /api/v1/products/inventory/low-stock
+     * @apiNote GET /api/v1/products/inventory/low-stock?page=0&size=20
      * @since 2.0
      */
     @GetMapping("/inventory/low-stock")
@@ -807,19 +920,22 @@ public class ProductController {
         summary = "المنتجات ذات المخزون المنخفض / Products with low stock",
         description = "الحصول على المنتجات التي تحتاج إلى إعادة تجهيز المخزون / Get products that need stock replenishment"
     )
-    public ResponseEntity<ApiResponse<List<ProductResponse>>> getLowStockProducts(
+    public ResponseEntity<ApiResponse<PaginatedResponse<ProductResponse>>> getLowStockProducts(
+            @Parameter(description = "رقم الصفحة / Page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "حجم الصفحة / Page size") @RequestParam(defaultValue = "20") int size,
             HttpServletRequest httpRequest) {
         
-        List<ProductResponse> products = productService.getLowStockProducts();
+        Page<ProductResponse> productsPage = productService.getLowStockProducts(page, size);
+        PaginatedResponse<ProductResponse> paginatedResponse = PaginatedResponse.from(productsPage);
         
-        ApiResponse<List<ProductResponse>> response = ApiResponse.<List<ProductResponse>>builder()
+        ApiResponse<PaginatedResponse<ProductResponse>> response = ApiResponse.<PaginatedResponse<ProductResponse>>builder()
                 .success(true)
                 .message("Low stock products retrieved successfully")
                 .messageAr("تم الحصول على المنتجات ذات المخزون المنخفض بنجاح")
-                .data(products)
+                .data(paginatedResponse)
                 .statusCode(HttpStatus.OK.value())
                 .requestId(generateRequestId(httpRequest))
-                .metadata(createSuccessMetadata("low_stock_products_count", products.size()))
+                .metadata(createPaginationMetadata(page, size, productsPage.getTotalElements()))
                 .build();
         
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -829,10 +945,12 @@ public class ProductController {
      * الحصول على المنتجات غير المتوفرة
      * Get out of stock products
      * 
+     * @param page رقم الصفحة
+     * @param size عدد العناصر في الصفحة
      * @param httpRequest معلومات الطلب
-     * @return ResponseEntity<ApiResponse<List<ProductResponse>>>
+     * @return ResponseEntity<ApiResponse<PaginatedResponse<ProductResponse>>>
      * 
-     * @apiNote GET /api/v1/products/inventory/out-of-stock
+     * @apiNote GET /api/v1/products/inventory/out-of-stock?page=0&size=20
      * @since 2.0
      */
     @GetMapping("/inventory/out-of-stock")
@@ -840,19 +958,22 @@ public class ProductController {
         summary = "المنتجات غير المتوفرة / Out of stock products",
         description = "الحصول على المنتجات غير المتوفرة في المخزون / Get products that are out of stock"
     )
-    public ResponseEntity<ApiResponse<List<ProductResponse>>> getOutOfStockProducts(
+    public ResponseEntity<ApiResponse<PaginatedResponse<ProductResponse>>> getOutOfStockProducts(
+            @Parameter(description = "رقم الصفحة / Page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "حجم الصفحة / Page size") @RequestParam(defaultValue = "20") int size,
             HttpServletRequest httpRequest) {
         
-        List<ProductResponse> products = productService.getOutOfStockProducts();
+        Page<ProductResponse> productsPage = productService.getOutOfStockProducts(page, size);
+        PaginatedResponse<ProductResponse> paginatedResponse = PaginatedResponse.from(productsPage);
         
-        ApiResponse<List<ProductResponse>> response = ApiResponse.<List<ProductResponse>>builder()
+        ApiResponse<PaginatedResponse<ProductResponse>> response = ApiResponse.<PaginatedResponse<ProductResponse>>builder()
                 .success(true)
                 .message("Out of stock products retrieved successfully")
                 .messageAr("تم الحصول على المنتجات غير المتوفرة بنجاح")
-                .data(products)
+                .data(paginatedResponse)
                 .statusCode(HttpStatus.OK.value())
                 .requestId(generateRequestId(httpRequest))
-                .metadata(createSuccessMetadata("out_of_stock_products_count", products.size()))
+                .metadata(createPaginationMetadata(page, size, productsPage.getTotalElements()))
                 .build();
         
         return new ResponseEntity<>(response, HttpStatus.OK);
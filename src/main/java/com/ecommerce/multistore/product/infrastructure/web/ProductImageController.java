@@ -0,0 +1,102 @@
+package com.ecommerce.multistore.product.infrastructure.web;
+
+import com.ecommerce.multistore.product.application.dto.ProductImageRequest;
+import com.ecommerce.multistore.product.application.dto.ProductImageResponse;
+import com.ecommerce.multistore.product.application.service.ProductImageService;
+import com.ecommerce.multistore.shared.dto.ApiResponse;
+import com.ecommerce.multistore.shared.exception.BusinessException;
+import com.ecommerce.multistore.shared.exception.ResourceNotFoundException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * وحدة التحكم في صور المنتجات
+ * Product Image Controller
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/products/{productId}/images")
+@CrossOrigin(origins = "*")
+@Tag(name = "Product Images", description = "صور المنتجات / Product Images")
+public class ProductImageController {
+
+    private final ProductImageService productImageService;
+
+    @Autowired
+    public ProductImageController(ProductImageService productImageService) {
+        this.productImageService = productImageService;
+    }
+
+    /**
+     * رفع صورة منتج
+     * Upload a product image (multipart, streamed to disk)
+     *
+     * @apiNote POST /api/v1/products/{productId}/images
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "رفع صورة منتج / Upload product image")
+    public ResponseEntity<ApiResponse<ProductImageResponse>> uploadImage(
+            @PathVariable UUID productId,
+            @RequestPart("file") MultipartFile file,
+            @Valid @ModelAttribute ProductImageRequest request) {
+
+        try {
+            ProductImageResponse image = productImageService.uploadImage(productId, file, request);
+            ApiResponse<ProductImageResponse> response =
+                    ApiResponse.success(image, "Image uploaded successfully", HttpStatus.CREATED.value());
+            response.setMessageAr("تم رفع الصورة بنجاح");
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            if (e.getMessage().contains("not found")) {
+                throw ResourceNotFoundException.product(productId);
+            }
+            throw new BusinessException(e.getMessage(), "خطأ في رفع الصورة");
+        }
+    }
+
+    /**
+     * صور المنتج
+     * Get product images
+     *
+     * @apiNote GET /api/v1/products/{productId}/images
+     */
+    @GetMapping
+    @Operation(summary = "صور المنتج / Get product images")
+    public ResponseEntity<ApiResponse<List<ProductImageResponse>>> getProductImages(@PathVariable UUID productId) {
+        List<ProductImageResponse> images = productImageService.getProductImages(productId);
+        ApiResponse<List<ProductImageResponse>> response = ApiResponse.success(images, "Images retrieved successfully");
+        response.setMessageAr("تم جلب الصور بنجاح");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * حذف صورة منتج
+     * Delete a product image
+     *
+     * @apiNote DELETE /api/v1/products/{productId}/images/{imageId}
+     */
+    @DeleteMapping("/{imageId}")
+    @Operation(summary = "حذف صورة منتج / Delete product image")
+    public ResponseEntity<ApiResponse<Void>> deleteImage(@PathVariable UUID productId, @PathVariable UUID imageId) {
+        try {
+            productImageService.deleteImage(productId, imageId);
+            ApiResponse<Void> response = ApiResponse.success(null, "Image deleted successfully");
+            response.setMessageAr("تم حذف الصورة بنجاح");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException(e.getMessage(), "الصورة غير موجودة");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ecommerce.multistore.shared.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * إعدادات المعالجة غير المتزامنة
+ * Async processing configuration
+ *
+ * كل نوع من الأعمال الخلفية له مجمع خيوط محدود خاص به حتى لا يستهلك أحدها موارد الآخر
+ * Each kind of background work gets its own bounded pool so one cannot starve another
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Configuration
+public class AsyncConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    /**
+     * مجمع معالجة الصور - توليد الصور المصغرة
+     * Image processing pool - thumbnail generation
+     *
+     * عند امتلاء الطابور تُترك الصورة بحالة PENDING ويعيد المُجدول المحاولة لاحقاً
+     * When the queue is full the image stays PENDING and the scheduled sweep retries it later
+     */
+    @Bean(name = "imageProcessingExecutor")
+    public ThreadPoolTaskExecutor imageProcessingExecutor(
+            @Value("${app.images.workers:2}") int workers,
+            @Value("${app.images.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = newBoundedExecutor("image-worker-", workers, workers, queueCapacity);
+        executor.setRejectedExecutionHandler((task, pool) ->
+                logger.warn("Image processing queue is full ({} pending), task deferred to retry sweep", pool.getQueue().size()));
+        return executor;
+    }
+
+    /**
+     * مجمع تسوية المحافظ - يحدد عدد الاستعلامات المتزامنة لدى المزودين
+     * Wallet reconciliation pool - caps concurrent provider status queries
+     *
+     * عند الامتلاء ينفذ الخيط المستدعي المهمة بنفسه فيتباطأ العامل بدلاً من إسقاط معاملات
+     * When saturated the calling thread runs the task, slowing the sweep instead of dropping work
+     */
+    @Bean(name = "walletReconciliationExecutor")
+    public ThreadPoolTaskExecutor walletReconciliationExecutor(
+            @Value("${app.payments.reconciliation.concurrency:8}") int concurrency) {
+        return newBoundedExecutor("wallet-reconcile-", concurrency, concurrency, concurrency * 4);
+    }
+
+    /**
+     * مجمع معالجة webhooks المحافظ
+     * Wallet webhook processing pool
+     *
+     * الأحداث تبقى في الجدول حتى تُعالج، لذا يكفي تنفيذها في الخيط المستدعي عند الامتلاء
+     * Events stay in their table until processed, so running on the caller when saturated is enough
+     */
+    @Bean(name = "webhookProcessingExecutor")
+    public ThreadPoolTaskExecutor webhookProcessingExecutor(
+            @Value("${app.webhooks.workers:4}") int workers) {
+        return newBoundedExecutor("webhook-worker-", workers, workers, workers * 25);
+    }
+
+    /**
+     * مجمع استرداد المحافظ الجماعي
+     * Batch wallet refund pool
+     *
+     * المعدل يحدده Throttle في الخدمة؛ هذا المجمع يحدد فقط عدد الطلبات المتزامنة لدى المزودين
+     * The rate is set by the service's Throttle; this pool only caps concurrent provider requests
+     */
+    @Bean(name = "walletRefundExecutor")
+    public ThreadPoolTaskExecutor walletRefundExecutor(
+            @Value("${app.payments.batch.refund-concurrency:4}") int concurrency) {
+        return newBoundedExecutor("wallet-refund-", concurrency, concurrency, concurrency * 4);
+    }
+
+    /**
+     * مجمع مراحل إتمام الشراء
+     * Checkout stage pool
+     *
+     * كل عملية دفع تشغل مرحلتين قصيرتين بكل منهما اتصال قاعدة بيانات، فالعدد يبقى أقل بكثير من مجمع الاتصالات؛
+     * عند الامتلاء تعمل المراحل في الخيط المستدعي فيزيد الزمن ولا يُرفض الطلب
+     * Each checkout runs two short stages holding one database connection each, so the size stays well below the
+     * connection pool; when saturated they run on the caller, adding latency instead of rejecting
+     */
+    @Bean(name = "checkoutExecutor")
+    public ThreadPoolTaskExecutor checkoutExecutor(
+            @Value("${app.checkout.workers:4}") int workers) {
+        return newBoundedExecutor("checkout-", workers, workers, workers * 4);
+    }
+
+    /**
+     * مجمع مزامنة OneX
+     * OneX sync pool
+     *
+     * عدد الدفعات الجارية يحدده الحد المتكيف في OnexSyncService، وهذا المجمع يحدد سقفه فقط
+     * The adaptive limit in OnexSyncService sets how many batches run; this pool only caps it
+     */
+    @Bean(name = "onexSyncExecutor")
+    public ThreadPoolTaskExecutor onexSyncExecutor(
+            @Value("${app.onex.sync.max-concurrency:8}") int maxConcurrency) {
+        return newBoundedExecutor("onex-sync-", maxConcurrency, maxConcurrency, maxConcurrency);
+    }
+
+    /**
+     * مجمع بحجم وطابور محدودين، ينفذ في الخيط المستدعي عند الامتلاء ويكمل مهامه عند الإيقاف.
+     * يهيئه Spring بعد ضبط الخصائص، فيمكن للمستدعي تغيير معالج الرفض
+     * A pool with a bounded size and queue that runs on the caller when saturated and finishes its
+     * tasks on shutdown. Spring initializes it after the properties are set, so the caller may swap
+     * the rejection handler
+     */
+    private ThreadPoolTaskExecutor newBoundedExecutor(String threadNamePrefix, int corePoolSize, int maxPoolSize,
+                                                      int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
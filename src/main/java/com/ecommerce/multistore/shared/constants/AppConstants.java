@@ -53,6 +53,10 @@ public class AppConstants {
     public static final String API_KEY_HEADER = "X-API-Key";
     public static final String AUTHORIZATION_HEADER = "Authorization";
     public static final String BEARER_PREFIX = "Bearer ";
+    public static final String WEBHOOK_SIGNATURE_HEADER = "X-Webhook-Signature";
+    public static final String WEBHOOK_TIMESTAMP_HEADER = "X-Webhook-Timestamp";
+    public static final String WEBHOOKS_PATH = "/api/v1/webhooks";
+    public static final String CLIENT_ID_HEADER = "X-Client-Id"; // يحدد مالك مفاتيح عدم التكرار
     // ثوابت التصفح - Pagination Constants
     public static final int DEFAULT_PAGE_SIZE = 20;
     public static final int MAX_PAGE_SIZE = 100;
@@ -64,6 +68,10 @@ public class AppConstants {
     public static final String[] ALLOWED_IMAGE_TYPES = {"jpg", "jpeg", "png", "gif", "webp"};
     public static final String UPLOAD_DIR = "uploads/";
     public static final String IMAGES_DIR = "images/";
+    public static final String THUMBNAILS_DIR = "thumbs/";
+    public static final int[] THUMBNAIL_SIZES = {150, 400}; // px, longest edge
+    public static final int GRID_THUMBNAIL_SIZE = 400;
+    public static final String MEDIA_IMAGES_PATH = "/api/v1/media/images";
     
     // ثوابت الأمان - Security Constants
     public static final int MIN_PASSWORD_LENGTH = 6;
@@ -85,6 +93,9 @@ public class AppConstants {
     public static final int MAX_ORDER_ITEMS = 50;
     public static final double MIN_ORDER_AMOUNT = 0.01;
     public static final double MAX_ORDER_AMOUNT = 999999.99;
+    public static final int MAX_BULK_ORDERS = 5000;
+    public static final int ORDER_BULK_CHUNK_SIZE = 500; // orders per set-based statement
+    public static final int ORDER_SEARCH_MIN_TERM_LENGTH = 3; // shortest fragment a trigram index can serve
     
     // ثوابت الشحن - Shipping Constants
     public static final double DEFAULT_SHIPPING_COST = 5000.0;
@@ -96,11 +107,16 @@ public class AppConstants {
     public static final double PAYMENT_PROCESSING_FEE = 0.025; // 2.5%
     public static final double MAX_PAYMENT_AMOUNT = 1000000.0;
     public static final int PAYMENT_TIMEOUT_MINUTES = 15;
+    public static final int MAX_BATCH_PAYMENTS = 10000;
+    public static final int PAYMENT_BATCH_CHUNK_SIZE = 500; // payments per set-based statement
+    public static final int MAX_ROLLUP_POINTS = 5000; // buckets per time-series request
     
     // ثوابت المخزون - Inventory Constants
     public static final int LOW_STOCK_THRESHOLD = 10;
     public static final int DEFAULT_STOCK_QUANTITY = 0;
     public static final int MAX_STOCK_QUANTITY = 999999;
+    public static final int MAX_BULK_STOCK_UPDATES = 50000;
+    public static final int BULK_STOCK_CHUNK_SIZE = 1000; // rows per set-based statement
     
     // ثوابت التحليلات - Analytics Constants
     public static final int ANALYTICS_RETENTION_DAYS = 365;
@@ -136,6 +152,10 @@ public class AppConstants {
     public static final String CACHE_BRANDS = "brands";
     public static final String CACHE_SETTINGS = "settings";
     
+    // ثوابت التخزين المؤقت HTTP - HTTP Cache Constants
+    public static final int CATALOG_ITEM_MAX_AGE_SECONDS = 300; // 5 minutes
+    public static final int CATALOG_LIST_MAX_AGE_SECONDS = 60; // 1 minute
+    
     // Private constructor to prevent instantiation
     private AppConstants() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
@@ -0,0 +1,19 @@
+package com.ecommerce.multistore.shared.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * نسخة مجموعة من الكيانات - أحدث تعديل وعدد السجلات
+ * Collection version - latest modification and row count
+ *
+ * يُحسب باستعلام تجميعي واحد دون تحميل الكيانات، ويُستخدم لبناء ETag للقوائم.
+ * العدد يلتقط الحذف الذي لا يغير أحدث تاريخ تعديل
+ * Computed by a single aggregate query without loading entities and used to build
+ * list ETags. The count catches deletions, which do not move the latest updatedAt
+ */
+public interface CatalogVersion {
+
+    LocalDateTime getLastModified();
+
+    long getTotal();
+}
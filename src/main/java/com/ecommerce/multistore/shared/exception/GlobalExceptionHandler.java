@@ -9,6 +9,7 @@ import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -345,6 +346,33 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
     
+    /**
+     * معالجة تعارض القفل التفاؤلي بعد استنفاد المحاولات
+     * Handle optimistic locking conflicts that survived all retries
+     * 
+     * @param ex الاستثناء
+     * @param request الطلب
+     * @return ResponseEntity<ApiResponse<Object>>
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse<Object>> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, HttpServletRequest request) {
+        
+        logger.warn("Optimistic locking conflict: {} | Request: {} {}", 
+                   ex.getMessage(), request.getMethod(), request.getRequestURI());
+        
+        ApiResponse<Object> response = ApiResponse.<Object>builder()
+                .success(false)
+                .message("The record was modified by another request, please retry")
+                .messageAr("تم تعديل السجل من طلب آخر، يرجى إعادة المحاولة")
+                .statusCode(HttpStatus.CONFLICT.value())
+                .requestId(generateRequestId(request))
+                .metadata(createErrorMetadata(ex, request))
+                .build();
+        
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+    
     // ===============================
     // HTTP Exceptions
     // ===============================
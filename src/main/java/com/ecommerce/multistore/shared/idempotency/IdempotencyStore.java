@@ -0,0 +1,282 @@
+package com.ecommerce.multistore.shared.idempotency;
+
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import com.ecommerce.multistore.shared.exception.BusinessException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.Principal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * مخزن مفاتيح عدم التكرار (Idempotency-Key)
+ * Idempotency-Key store
+ *
+ * المستوى الأول ذاكرة محلية قصيرة العمر تخدم التكرارات السريعة دون قاعدة البيانات،
+ * والمستوى الدائم جدول idempotency_keys بقيد فريد يمنع تنفيذ طلبين متزامنين بنفس المفتاح.
+ * المفتاح خاص بالمستدعي (المستخدم أو ترويسة X-Client-Id)، فلا يعيد عميل استجابة عميل آخر.
+ * الحجز والتسجيل معاملتان قصيرتان منفصلتان والعملية تعمل بينهما دون اتصال محجوز؛ الحجز
+ * IN_PROGRESS له مهلة قصيرة، فإذا توقفت العقدة قبل التسجيل يُستعاد المفتاح بعد انتهائها
+ * The first level is a short-lived in-memory map serving quick retries without a database
+ * round trip; the durable level is the idempotency_keys table whose unique constraint stops
+ * concurrent duplicates. Keys belong to the caller (the user or the X-Client-Id header), so one
+ * client cannot replay another's response. The claim and the recorded response are separate
+ * short transactions and the operation runs between them without a held connection; an
+ * IN_PROGRESS claim has a short lease, so a key left behind by a node that died before recording
+ * can be claimed again once the lease runs out
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    /**
+     * المستدعي بلا هوية - مفاتيحه مشتركة بين كل المستدعين المجهولين
+     * Caller without an identity - its keys are shared by every anonymous caller
+     */
+    public static final String ANONYMOUS_CALLER = "anonymous";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_CALLER_LENGTH = 255;
+
+    // صف جديد، أو استعادة صف منتهٍ أو حجز انتهت مهلته
+    private static final String CLAIM_SQL =
+            "INSERT INTO idempotency_keys (scope, caller, idempotency_key, request_hash, status, claim_token, " +
+            "    lease_expires_at, expires_at) " +
+            "VALUES (?, ?, ?, ?, 'IN_PROGRESS', ?, NOW() + make_interval(secs => ?), ?) " +
+            "ON CONFLICT (scope, caller, idempotency_key) DO UPDATE " +
+            "SET request_hash = EXCLUDED.request_hash, status = 'IN_PROGRESS', response_body = NULL, " +
+            "    claim_token = EXCLUDED.claim_token, lease_expires_at = EXCLUDED.lease_expires_at, " +
+            "    expires_at = EXCLUDED.expires_at, created_at = NOW() " +
+            "WHERE idempotency_keys.expires_at < NOW() " +
+            "   OR (idempotency_keys.status = 'IN_PROGRESS' AND idempotency_keys.lease_expires_at < NOW())";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_keys SET status = 'COMPLETED', response_body = ?, lease_expires_at = NULL " +
+            "WHERE scope = ? AND caller = ? AND idempotency_key = ? AND claim_token = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate keyTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Duration localTtl;
+    private final Map<String, LocalEntry> localEntries;
+
+    @Autowired
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${app.idempotency.lease-seconds:60}") long leaseSeconds,
+                            @Value("${app.idempotency.local-ttl-seconds:300}") long localTtlSeconds,
+                            @Value("${app.idempotency.local-max-entries:10000}") int localMaxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        // كل كتابة على المفتاح معاملة قصيرة مستقلة عن أي معاملة للمستدعي
+        this.keyTemplate = new TransactionTemplate(transactionManager);
+        this.keyTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.localTtl = Duration.ofSeconds(localTtlSeconds);
+        this.localEntries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                return size() > localMaxEntries;
+            }
+        });
+    }
+
+    /**
+     * هوية المستدعي لطلب HTTP: المستخدم المصادق، ثم ترويسة X-Client-Id، ثم anonymous
+     * Caller identity of an HTTP request: the authenticated user, then the X-Client-Id header,
+     * then anonymous
+     */
+    public static String callerOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && principal.getName() != null) {
+            return "user:" + principal.getName();
+        }
+        String clientId = request.getHeader(AppConstants.CLIENT_ID_HEADER);
+        if (clientId != null && !clientId.isBlank()) {
+            return "client:" + clientId.trim();
+        }
+        return ANONYMOUS_CALLER;
+    }
+
+    /**
+     * تنفيذ عملية مرة واحدة لكل مفتاح ومستدعٍ
+     * Execute an operation at most once per key and caller
+     *
+     * العملية لا تعمل داخل معاملة المخزن؛ إذا توقفت العقدة بعد التزامها وقبل تسجيل الاستجابة
+     * يُعاد تنفيذها عند أول إعادة محاولة بعد انتهاء مهلة الحجز
+     * The operation does not run inside a store transaction; if the node dies after it commits
+     * and before the response is recorded, the first retry after the lease runs it again
+     *
+     * @param scope نطاق المفتاح (مثل payments)
+     * @param key قيمة ترويسة Idempotency-Key، أو null لتنفيذ العملية مباشرة
+     * @param caller هوية المستدعي - انظر callerOf
+     * @param request جسم الطلب - لاكتشاف إعادة استخدام المفتاح مع طلب مختلف
+     * @param responseType نوع الاستجابة
+     * @param operation العملية
+     * @return الاستجابة الأصلية عند التكرار، أو نتيجة العملية
+     * @throws BusinessException 409 إذا كان طلب بنفس المفتاح قيد التنفيذ، 422 إذا اختلف الطلب
+     */
+    public <T> T execute(String scope, String key, String caller, Object request, Class<T> responseType,
+                         Supplier<T> operation) {
+        if (key == null || key.isBlank()) {
+            return operation.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key cannot exceed " + MAX_KEY_LENGTH + " characters",
+                    "مفتاح عدم التكرار طويل جداً", 400);
+        }
+        String owner = caller == null || caller.isBlank() ? ANONYMOUS_CALLER : caller;
+        if (owner.length() > MAX_CALLER_LENGTH) {
+            throw new BusinessException("Client id cannot exceed " + MAX_CALLER_LENGTH + " characters",
+                    "معرف العميل طويل جداً", 400);
+        }
+
+        String localKey = scope + ":" + owner + ":" + key;
+        String requestHash = DigestUtils.sha256Hex(toJson(request));
+
+        LocalEntry local = localEntries.get(localKey);
+        if (local != null && local.expiresAt.isAfter(Instant.now())) {
+            checkSameRequest(local.requestHash, requestHash);
+            return fromJson(local.responseBody, responseType);
+        }
+
+        UUID claimToken = UUID.randomUUID();
+        if (!claim(scope, owner, key, requestHash, claimToken)) {
+            return replay(scope, owner, key, localKey, requestHash, responseType);
+        }
+
+        T response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException e) {
+            // تحرير المفتاح ليتمكن العميل من إعادة المحاولة
+            release(scope, owner, key, claimToken);
+            throw e;
+        }
+
+        String body = toJson(response);
+        Integer recorded = keyTemplate.execute(status ->
+                jdbcTemplate.update(COMPLETE_SQL, body, scope, owner, key, claimToken));
+        if (recorded == null || recorded == 0) {
+            // انتهت المهلة واستُعيد المفتاح - العملية نُفذت والاستجابة تعود للمستدعي دون تسجيل
+            logger.warn("Idempotency key {}:{} was reclaimed before its response was recorded", scope, key);
+        }
+        localEntries.put(localKey, new LocalEntry(requestHash, body, Instant.now().plus(localTtl)));
+        return response;
+    }
+
+    /**
+     * حذف المفاتيح المنتهية
+     * Purge expired keys
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < NOW()");
+        if (purged > 0) {
+            logger.debug("Purged {} expired idempotency keys", purged);
+        }
+        Instant now = Instant.now();
+        synchronized (localEntries) {
+            localEntries.values().removeIf(entry -> entry.expiresAt.isBefore(now));
+        }
+    }
+
+    private boolean claim(String scope, String caller, String key, String requestHash, UUID claimToken) {
+        Timestamp expiresAt = Timestamp.from(Instant.now().plus(ttl));
+        Integer claimed = keyTemplate.execute(status -> jdbcTemplate.update(CLAIM_SQL,
+                scope, caller, key, requestHash, claimToken, lease.getSeconds(), expiresAt));
+        return claimed != null && claimed == 1;
+    }
+
+    private <T> T replay(String scope, String caller, String key, String localKey, String requestHash,
+                         Class<T> responseType) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT request_hash, status, response_body FROM idempotency_keys " +
+                "WHERE scope = ? AND caller = ? AND idempotency_key = ?",
+                scope, caller, key);
+        if (rows.isEmpty()) {
+            // حُرر المفتاح بعد فشل الطلب الأول
+            throw new BusinessException("A request with this Idempotency-Key just failed, retry the request",
+                    "فشل طلب سابق بنفس مفتاح عدم التكرار، أعد المحاولة", 409);
+        }
+
+        Map<String, Object> row = rows.get(0);
+        checkSameRequest((String) row.get("request_hash"), requestHash);
+        if (!"COMPLETED".equals(row.get("status"))) {
+            throw new BusinessException("A request with this Idempotency-Key is already in progress",
+                    "طلب بنفس مفتاح عدم التكرار قيد التنفيذ", 409);
+        }
+
+        String body = (String) row.get("response_body");
+        localEntries.put(localKey, new LocalEntry(requestHash, body, Instant.now().plus(localTtl)));
+        return fromJson(body, responseType);
+    }
+
+    private void release(String scope, String caller, String key, UUID claimToken) {
+        try {
+            keyTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                    "DELETE FROM idempotency_keys WHERE scope = ? AND caller = ? AND idempotency_key = ? " +
+                    "AND claim_token = ? AND status = 'IN_PROGRESS'",
+                    scope, caller, key, claimToken));
+        } catch (RuntimeException e) {
+            // تنتهي مهلة الحجز فيُستعاد المفتاح
+            logger.warn("Failed to release idempotency key {}:{}: {}", scope, key, e.getMessage());
+        }
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new BusinessException("Idempotency-Key was already used with a different request",
+                    "مفتاح عدم التكرار مستخدم مع طلب مختلف", 422);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent payload", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize stored idempotent response", e);
+        }
+    }
+
+    private record LocalEntry(String requestHash, String responseBody, Instant expiresAt) {}
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.multistore.shared.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * حدث صادر من صندوق الأحداث
+ * Event delivered from the outbox
+ *
+ * يُسلّم مرة واحدة على الأقل، لذا يجب أن يتحمل المستمعون التكرار (باستخدام المعرف مثلاً)
+ * Delivered at least once, so listeners must tolerate duplicates (for example by id)
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class OutboxEvent {
+
+    private final long id;
+    private final String aggregateType;
+    private final UUID aggregateId;
+    private final String eventType;
+    private final String payload;
+    private final LocalDateTime createdAt;
+
+    public OutboxEvent(long id, String aggregateType, UUID aggregateId, String eventType,
+                       String payload, LocalDateTime createdAt) {
+        this.id = id;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() { return id; }
+
+    public String getAggregateType() { return aggregateType; }
+
+    public UUID getAggregateId() { return aggregateId; }
+
+    public String getEventType() { return eventType; }
+
+    public String getPayload() { return payload; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
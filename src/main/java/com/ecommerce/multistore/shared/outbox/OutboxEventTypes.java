@@ -0,0 +1,32 @@
+package com.ecommerce.multistore.shared.outbox;
+
+/**
+ * أنواع الأحداث الصادرة
+ * Outbox aggregate and event types
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public final class OutboxEventTypes {
+
+    // أنواع الكيانات - Aggregate Types
+    public static final String ORDER = "order";
+    public static final String PAYMENT = "payment";
+    public static final String PRODUCT = "product";
+
+    // أحداث الطلبات - Order Events
+    public static final String ORDER_CREATED = "order.created";
+    public static final String ORDER_STATUS_CHANGED = "order.status_changed";
+    public static final String ORDER_PAYMENT_STATUS_CHANGED = "order.payment_status_changed";
+
+    // أحداث المدفوعات - Payment Events
+    public static final String PAYMENT_STATUS_CHANGED = "payment.status_changed";
+    public static final String PAYMENT_COMPLETED = "payment.completed";
+
+    // أحداث المنتجات - Product Events
+    public static final String PRODUCT_STOCK_CHANGED = "product.stock_changed";
+
+    private OutboxEventTypes() {
+        // منع إنشاء كائن
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.multistore.shared.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * كاتب صندوق الأحداث
+ * Outbox writer
+ *
+ * يتطلب معاملة قائمة: الحدث يُحفظ مع تغيير الحالة أو لا يُحفظ أي منهما
+ * Requires an existing transaction: the event commits with the state change or neither does
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class OutboxPublisher {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload) VALUES (?, ?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxPublisher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * تسجيل حدث
+     * Record an event
+     *
+     * @param aggregateType نوع الكيان (order, payment, product)
+     * @param aggregateId معرف الكيان - يحدد ترتيب التسليم
+     * @param eventType نوع الحدث
+     * @param payload بيانات الحدث - تُحول إلى JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, UUID aggregateId, String eventType, Object payload) {
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregateId, eventType, toJson(payload));
+    }
+
+    /**
+     * تسجيل عدة أحداث من نفس النوع على دفعة واحدة
+     * Record many events of one type in a single JDBC batch
+     *
+     * @param payloads معرف الكيان -> بيانات الحدث
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(String aggregateType, String eventType, Map<UUID, ?> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(payloads.size());
+        payloads.forEach((aggregateId, payload) ->
+                rows.add(new Object[] { aggregateType, aggregateId, eventType, toJson(payload) }));
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.ecommerce.multistore.shared.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * مرحّل صندوق الأحداث
+ * Outbox relay
+ *
+ * عقدة واحدة فقط ترحّل في كل مرة (قفل pg_try_advisory_xact_lock)، وتسلم الأحداث بترتيب
+ * المعرف. لا يُختار حدث يسبقه حدث لنفس الكيان ينتظر موعد إعادة المحاولة أو تجاوز حد المحاولات
+ * (FAILED)، فالحدث الفاشل نهائياً يوقف كيانه حتى يُعالج يدوياً. وإذا فشل حدث داخل الدفعة يُوقف
+ * باقي أحداث كيانه فيها، فيبقى الترتيب لكل كيان محفوظاً. كل حدث يُسلم في معاملة مستقلة مع
+ * تعليمه منشوراً، فما يكتبه المستمع في قاعدة البيانات يُحفظ مع التعليم أو يُلغى معه
+ * Only one node relays at a time (pg_try_advisory_xact_lock), delivering events in id order.
+ * An event is not selected while an earlier event of the same aggregate is waiting for its retry
+ * time or has run out of attempts (FAILED), so a failed event parks its aggregate until it is
+ * resolved by hand. When an event fails within a batch, later events of its aggregate in the
+ * batch are held back too, preserving per-aggregate order. Each event is delivered in its own
+ * transaction together with its published mark, so a listener's database writes commit or roll
+ * back with it
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    // "outbox" كمفتاح للقفل الاستشاري
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    private static final long MAX_BACKOFF_SECONDS = 600;
+
+    // الأحداث المستحقة التي لا يسبقها حدث معلق غير مستحق أو فاشل لنفس الكيان؛ السابق المستحق
+    // يقع قبلها في نفس الدفعة لأن الترتيب بالمعرف
+    private static final String SELECT_PENDING_SQL =
+            "SELECT e.id, e.aggregate_type, e.aggregate_id, e.event_type, e.payload::text AS payload, " +
+            "       e.created_at, e.attempts " +
+            "FROM outbox_events e " +
+            "WHERE e.status = 'PENDING' AND e.next_attempt_at <= NOW() " +
+            "  AND NOT EXISTS ( " +
+            "      SELECT 1 FROM outbox_events prior " +
+            "      WHERE prior.aggregate_type = e.aggregate_type AND prior.aggregate_id = e.aggregate_id " +
+            "        AND prior.id < e.id " +
+            "        AND (prior.status = 'FAILED' OR (prior.status = 'PENDING' AND prior.next_attempt_at > NOW())) " +
+            "  ) " +
+            "ORDER BY e.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate relayTemplate;
+    private final TransactionTemplate deliveryTemplate;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:20}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Autowired
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.relayTemplate = new TransactionTemplate(transactionManager);
+        this.deliveryTemplate = new TransactionTemplate(transactionManager);
+        this.deliveryTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * ترحيل دفعة من الأحداث المعلقة
+     * Relay one batch of pending events
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void relay() {
+        relayTemplate.executeWithoutResult(status -> {
+            Boolean leader = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(leader)) {
+                return;
+            }
+
+            List<PendingEvent> batch = jdbcTemplate.query(SELECT_PENDING_SQL, PENDING_EVENT_MAPPER, batchSize);
+            Set<String> blocked = new HashSet<>();
+            int delivered = 0;
+
+            for (PendingEvent pending : batch) {
+                String aggregateKey = pending.event().getAggregateType() + ":" + pending.event().getAggregateId();
+                if (blocked.contains(aggregateKey)) {
+                    continue;
+                }
+                if (!deliver(pending)) {
+                    blocked.add(aggregateKey);
+                    continue;
+                }
+                delivered++;
+            }
+
+            if (delivered > 0) {
+                logger.debug("Outbox relay delivered {} events", delivered);
+            }
+        });
+    }
+
+    /**
+     * حذف الأحداث المنشورة القديمة
+     * Purge old published events
+     */
+    @Scheduled(cron = "${app.outbox.purge-cron:0 30 3 * * *}")
+    public void purgePublished() {
+        int purged = jdbcTemplate.update(
+                "DELETE FROM outbox_events WHERE status = 'PUBLISHED' AND published_at < NOW() - make_interval(days => ?)",
+                retentionDays);
+        if (purged > 0) {
+            logger.info("Purged {} published outbox events", purged);
+        }
+    }
+
+    private boolean deliver(PendingEvent pending) {
+        OutboxEvent event = pending.event();
+        try {
+            deliveryTemplate.executeWithoutResult(status -> {
+                eventPublisher.publishEvent(event);
+                jdbcTemplate.update("UPDATE outbox_events SET status = 'PUBLISHED', published_at = NOW(), " +
+                        "last_error = NULL WHERE id = ?", event.getId());
+            });
+            return true;
+        } catch (RuntimeException e) {
+            int attempts = pending.attempts() + 1;
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 20));
+            String nextStatus = attempts >= maxAttempts ? "FAILED" : "PENDING";
+            if ("FAILED".equals(nextStatus)) {
+                logger.error("Outbox event {} ({}) failed after {} attempts, parking {} {} until resolved: {}",
+                        event.getId(), event.getEventType(), attempts, event.getAggregateType(), event.getAggregateId(),
+                        e.getMessage());
+            } else {
+                logger.warn("Outbox event {} ({}) failed on attempt {}: {}", event.getId(), event.getEventType(), attempts, e.getMessage());
+            }
+            deliveryTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                    "UPDATE outbox_events SET attempts = ?, status = ?, last_error = ?, " +
+                    "next_attempt_at = NOW() + make_interval(secs => ?) WHERE id = ?",
+                    attempts, nextStatus, e.getMessage(), backoff, event.getId()));
+            return false;
+        }
+    }
+
+    private static final RowMapper<PendingEvent> PENDING_EVENT_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        OutboxEvent event = new OutboxEvent(
+                rs.getLong("id"),
+                rs.getString("aggregate_type"),
+                rs.getObject("aggregate_id", UUID.class),
+                rs.getString("event_type"),
+                rs.getString("payload"),
+                createdAt != null ? createdAt.toLocalDateTime() : null);
+        return new PendingEvent(event, rs.getInt("attempts"));
+    };
+
+    private record PendingEvent(OutboxEvent event, int attempts) {}
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.multistore.shared.outbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * نقل الأحداث إلى Redis Streams (اختياري)
+ * Redis Streams outbox transport (optional)
+ *
+ * يُفعّل بـ app.outbox.redis-stream.enabled=true؛ تدفق لكل نوع كيان، والترتيب داخله
+ * هو ترتيب المرحّل. فشل الكتابة يعيد الحدث إلى الطابور ليعاد تسليمه
+ * Enabled with app.outbox.redis-stream.enabled=true; one stream per aggregate type, ordered
+ * as the relay delivers. A failed write returns the event to the queue for redelivery
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.redis-stream.enabled", havingValue = "true")
+public class RedisStreamOutboxTransport {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String streamPrefix;
+    private final long maxLength;
+
+    @Autowired
+    public RedisStreamOutboxTransport(StringRedisTemplate redisTemplate,
+                                      @Value("${app.outbox.redis-stream.prefix:multistore:events:}") String streamPrefix,
+                                      @Value("${app.outbox.redis-stream.max-length:100000}") long maxLength) {
+        this.redisTemplate = redisTemplate;
+        this.streamPrefix = streamPrefix;
+        this.maxLength = maxLength;
+    }
+
+    @EventListener
+    public void onOutboxEvent(OutboxEvent event) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("id", String.valueOf(event.getId()));
+        fields.put("aggregate_type", event.getAggregateType());
+        fields.put("aggregate_id", event.getAggregateId().toString());
+        fields.put("event_type", event.getEventType());
+        fields.put("payload", event.getPayload());
+        fields.put("created_at", String.valueOf(event.getCreatedAt()));
+
+        String stream = streamPrefix + event.getAggregateType();
+        redisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(stream));
+        redisTemplate.opsForStream().trim(stream, maxLength, true);
+    }
+}
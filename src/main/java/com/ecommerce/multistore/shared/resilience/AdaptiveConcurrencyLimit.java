@@ -0,0 +1,98 @@
+package com.ecommerce.multistore.shared.resilience;
+
+/**
+ * حد تزامن متكيف (زيادة جمعية وتخفيض ضربي)
+ * Adaptive concurrency limit (additive increase, multiplicative decrease)
+ *
+ * كل استدعاء ناجح أسرع من الزمن المستهدف يرفع الحد بمقدار 1/الحد، أي طلب إضافي لكل جولة
+ * كاملة. إشارة ضغط (429 أو مهلة أو استدعاء أبطأ من الهدف) تنصّف الحد، مرة واحدة لكل فترة
+ * هدف حتى لا تنهار الاستدعاءات الجارية معاً بالحد إلى الأدنى
+ * Every call that succeeds faster than the target latency raises the limit by 1/limit, about one
+ * more request per full round. An overload signal (429, a timeout or a call slower than the target)
+ * halves it, at most once per target period so calls in flight together do not collapse it to the minimum
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos = System.nanoTime();
+
+    /**
+     * @param initialLimit الحد الابتدائي
+     * @param minLimit أدنى حد
+     * @param maxLimit أعلى حد
+     * @param targetLatencyNanos الزمن المستهدف للاستدعاء
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * حجز مكان لاستدعاء
+     * Reserve a slot for a call
+     *
+     * @return false إذا بلغ عدد الاستدعاءات الجارية الحد
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * استدعاء ناجح - يرفع الحد إذا كان أسرع من الهدف
+     * Successful call - raises the limit when it beat the target
+     */
+    public synchronized void onSuccess(long latencyNanos) {
+        inFlight--;
+        if (latencyNanos > targetLatencyNanos) {
+            decrease();
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * إشارة ضغط من الطرف الآخر - يخفض الحد
+     * Overload signal from the remote side - lowers the limit
+     */
+    public synchronized void onOverload() {
+        inFlight--;
+        decrease();
+    }
+
+    /**
+     * تحرير المكان دون تعديل الحد (فشل لا علاقة له بالحمل)
+     * Release the slot without adjusting the limit (a failure unrelated to load)
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() { return (int) limit; }
+
+    public synchronized int getInFlight() { return inFlight; }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos >= targetLatencyNanos) {
+            limit = Math.max(minLimit, limit / 2);
+            lastDecreaseNanos = now;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.ecommerce.multistore.shared.resilience;
+
+import java.time.Duration;
+
+/**
+ * قاطع دائرة بسيط قائم على عدد الاستدعاءات
+ * Simple count-based circuit breaker
+ *
+ * يتتبع نتائج آخر N استدعاء؛ عند تجاوز نسبة الفشل يفتح الدائرة ويرفض الاستدعاءات فوراً
+ * لمدة محددة، ثم يسمح باستدعاء تجريبي واحد يقرر الإغلاق أو إعادة الفتح
+ * Tracks the outcome of the last N calls; when the failure rate crosses the threshold it opens
+ * and rejects calls immediately for a cool-down, then lets a single trial call decide whether
+ * to close again or reopen
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class CircuitBreaker {
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+
+    // نافذة دائرية لنتائج آخر الاستدعاءات
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    /**
+     * @param name اسم القاطع للسجلات
+     * @param windowSize عدد الاستدعاءات في النافذة
+     * @param minimumCalls أقل عدد استدعاءات قبل تقييم نسبة الفشل
+     * @param failureRateThreshold نسبة الفشل المئوية التي تفتح الدائرة
+     * @param openDuration مدة بقاء الدائرة مفتوحة
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold, Duration openDuration) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * طلب إذن بالاستدعاء
+     * Ask for permission to make a call
+     *
+     * @return false إذا كانت الدائرة مفتوحة أو كان استدعاء تجريبي جارياً
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * تسجيل استدعاء ناجح
+     * Record a successful call
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * تسجيل استدعاء فاشل
+     * Record a failed call
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    /**
+     * إلغاء الإذن دون نتيجة - مثل رفض الحاجز
+     * Release a permission without an outcome, e.g. when the bulkhead rejected the call
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * نسبة الفشل الحالية في النافذة
+     * Current failure rate in the window, as a percentage
+     */
+    public synchronized int getFailureRate() {
+        return recorded == 0 ? 0 : failures * 100 / recorded;
+    }
+
+    public String getName() { return name; }
+
+    private void record(boolean failed) {
+        if (recorded == windowSize) {
+            if (outcomes[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[position] = failed;
+        if (failed) {
+            failures++;
+        }
+        position = (position + 1) % windowSize;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAtNanos = System.nanoTime();
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        trialInFlight = false;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    /**
+     * حالات القاطع
+     * Breaker states
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
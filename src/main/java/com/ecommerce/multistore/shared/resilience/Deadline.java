@@ -0,0 +1,59 @@
+package com.ecommerce.multistore.shared.resilience;
+
+import java.time.Duration;
+
+/**
+ * موعد نهائي لعملية كاملة
+ * Deadline for a whole operation
+ *
+ * يُمرر عبر الطبقات حتى لا تتجاوز المحاولات المتتالية الوقت المتاح للمستدعي
+ * Passed down the call chain so successive attempts never outlive the caller's budget
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public final class Deadline {
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * موعد بعد مدة من الآن
+     * Deadline a given duration from now
+     */
+    public static Deadline after(Duration duration) {
+        return new Deadline(System.nanoTime() + duration.toNanos());
+    }
+
+    public static Deadline afterMillis(long millis) {
+        return after(Duration.ofMillis(millis));
+    }
+
+    /**
+     * الوقت المتبقي - صفر عند الانتهاء
+     * Remaining time, zero once expired
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public long remainingMillis() {
+        return remaining().toMillis();
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * الأقصر بين الوقت المتبقي ومهلة محددة
+     * The shorter of the remaining time and a given timeout
+     */
+    public Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+}
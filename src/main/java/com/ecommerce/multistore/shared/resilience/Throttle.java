@@ -0,0 +1,49 @@
+package com.ecommerce.multistore.shared.resilience;
+
+/**
+ * محدد معدل بسيط يوزع الاستدعاءات على فترات متساوية
+ * Simple throttle that spaces calls at a fixed rate
+ *
+ * كل مستدعٍ يحجز الفترة التالية ثم ينتظرها، فلا تتجاوز الاستدعاءات المعدل حتى مع عدة خيوط
+ * Each caller reserves the next slot and waits for it, so calls never exceed the rate even across threads
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class Throttle {
+
+    private final long intervalNanos;
+    private long nextSlotNanos = System.nanoTime();
+
+    /**
+     * @param permitsPerSecond عدد الاستدعاءات المسموح بها في الثانية
+     */
+    public Throttle(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+    }
+
+    /**
+     * انتظار الفترة التالية المتاحة
+     * Wait for the next available slot
+     */
+    public void acquire() {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSlotNanos);
+            nextSlotNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while throttled", e);
+            }
+        }
+    }
+}
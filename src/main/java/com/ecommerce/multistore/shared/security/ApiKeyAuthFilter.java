@@ -65,6 +65,8 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
     private boolean isPublicPath(String path) {
         return path.startsWith("/api/v1/auth/") ||
+               path.startsWith("/api/v1/media/") ||
+               path.startsWith("/api/v1/webhooks/") ||
                path.startsWith("/swagger-ui/") ||
                path.startsWith("/v3/api-docs") ||
                path.equals("/health") ||
@@ -0,0 +1,141 @@
+package com.ecommerce.multistore.shared.utils;
+
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import com.ecommerce.multistore.shared.dto.CatalogVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * أدوات الطلبات الشرطية والتخزين المؤقت HTTP
+ * HTTP conditional request and cache utilities
+ *
+ * الـ ETag ضعيف (W/) لأن غلاف ApiResponse يحمل requestId و timestamp يتغيران في كل طلب،
+ * بينما البيانات نفسها متطابقة
+ * ETags are weak (W/) because the ApiResponse envelope carries a requestId and timestamp
+ * that change per request while the data itself is equivalent
+ */
+public class HttpCacheUtils {
+
+    /** عنصر واحد من الكتالوج - Single catalog item */
+    public static final CacheControl CATALOG_ITEM =
+            CacheControl.maxAge(AppConstants.CATALOG_ITEM_MAX_AGE_SECONDS, TimeUnit.SECONDS).cachePublic();
+
+    /** قوائم الكتالوج - Catalog lists */
+    public static final CacheControl CATALOG_LIST =
+            CacheControl.maxAge(AppConstants.CATALOG_LIST_MAX_AGE_SECONDS, TimeUnit.SECONDS).cachePublic();
+
+    /** نتائج البحث - إعادة التحقق دائماً - Search results, always revalidate */
+    public static final CacheControl CATALOG_SEARCH = CacheControl.noCache().cachePublic();
+
+    /**
+     * بناء ETag ضعيف من أجزاء النسخة
+     * Build a weak ETag from version parts
+     */
+    public static String weakETag(Object... parts) {
+        StringJoiner joiner = new StringJoiner("|");
+        for (Object part : parts) {
+            joiner.add(part != null ? part.toString() : "-");
+        }
+        return "W/\"" + DigestUtils.md5Hex(joiner.toString()) + "\"";
+    }
+
+    /**
+     * بناء ETag ضعيف لقائمة - نسخة المجموعة مع معاملات الطلب
+     * Build a weak ETag for a list - collection version plus request parameters
+     */
+    public static String weakETag(CatalogVersion version, HttpServletRequest request) {
+        return weakETag(version.getLastModified(), version.getTotal(), request.getRequestURI(), request.getQueryString());
+    }
+
+    /**
+     * هل لدى العميل النسخة الحالية؟
+     * Does the client already hold the current representation?
+     *
+     * If-None-Match له الأولوية؛ If-Modified-Since يُستخدم فقط في غيابه.
+     * يُستدعى فقط بعد التأكد من وجود المورد، لأن "*" يطابق أي نسخة حالية
+     * If-None-Match takes precedence; If-Modified-Since is only consulted when it is absent.
+     * Call only once the resource is known to exist, since "*" matches any current representation
+     */
+    public static boolean isNotModified(HttpServletRequest request, String etag, LocalDateTime lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return etagMatches(ifNoneMatch, etag);
+        }
+        if (lastModified == null) {
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince != -1 && toEpochSecond(lastModified) * 1000 <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * مقارنة ضعيفة لقائمة ETags
+     * Weak comparison against an If-None-Match list
+     *
+     * @param etag نسخة المورد الحالية - null إذا لم يوجد المورد، فلا يطابقه حتى "*"
+     */
+    public static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || stripWeak(value).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * استجابة 304 بدون جسم
+     * Empty 304 response
+     */
+    public static <T> ResponseEntity<T> notModified(String etag, LocalDateTime lastModified, CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl);
+        if (lastModified != null) {
+            builder.lastModified(toEpochSecond(lastModified) * 1000);
+        }
+        return builder.build();
+    }
+
+    /**
+     * استجابة 200 مع رؤوس التحقق والتخزين المؤقت
+     * 200 response with validators and cache headers
+     */
+    public static <T> ResponseEntity<T> ok(T body, String etag, LocalDateTime lastModified, CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl);
+        if (lastModified != null) {
+            builder.lastModified(toEpochSecond(lastModified) * 1000);
+        }
+        return builder.body(body);
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    // HTTP dates have second precision
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(ChronoUnit.SECONDS).atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.multistore.shared.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+
+/**
+ * قراءة حقل @JsonRawValue كنص JSON
+ * Read a @JsonRawValue field back as JSON text
+ *
+ * الحقل يُكتب ككائن JSON مضمن، فتحتاج إعادة قراءته (إعادة استجابة عدم التكرار أو الذاكرة المؤقتة)
+ * إلى تحويله لنص. النصوص القديمة المكتوبة كسلسلة مُهرّبة تُقرأ كما هي
+ * The field is written as an embedded JSON object, so reading it back (idempotent replays, caches)
+ * has to turn it into text again. Older payloads written as an escaped string are read as they are
+ *
+ * @author Multi-Store Team
+ * @version 1.0
+ */
+public class RawJsonDeserializer extends JsonDeserializer<String> {
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        return parser.readValueAsTree().toString();
+    }
+}
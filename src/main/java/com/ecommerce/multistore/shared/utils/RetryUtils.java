@@ -0,0 +1,66 @@
+package com.ecommerce.multistore.shared.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * أدوات إعادة المحاولة عند تعارض القفل التفاؤلي
+ * Retry utilities for optimistic locking conflicts
+ *
+ * كل محاولة يجب أن تعمل في معاملة جديدة حتى تُقرأ أحدث نسخة من الكيان
+ * Each attempt must run in a fresh transaction so it reads the latest entity version
+ */
+public class RetryUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryUtils.class);
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final long DEFAULT_BASE_BACKOFF_MS = 20;
+    private static final long MAX_BACKOFF_MS = 500;
+
+    /**
+     * تنفيذ مع إعادة المحاولة بالإعدادات الافتراضية
+     * Execute with the default retry settings
+     */
+    public static <T> T retryOnConflict(Supplier<T> action) {
+        return retryOnConflict(action, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_BACKOFF_MS);
+    }
+
+    /**
+     * تنفيذ مع إعادة المحاولة وتأخير أسي عشوائي (full jitter)
+     * Execute, retrying conflicts with exponential backoff and full jitter
+     *
+     * @throws OptimisticLockingFailureException إذا استمر التعارض بعد آخر محاولة
+     */
+    public static <T> T retryOnConflict(Supplier<T> action, int maxAttempts, long baseBackoffMs) {
+        int attempt = 1;
+        while (true) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    logger.warn("Optimistic locking conflict persisted after {} attempts", attempt);
+                    throw e;
+                }
+                long ceiling = Math.min(MAX_BACKOFF_MS, baseBackoffMs << (attempt - 1));
+                long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+                logger.debug("Optimistic locking conflict on attempt {}, retrying in {} ms", attempt, delay);
+                sleep(delay);
+                attempt++;
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- =====================================================
+-- البحث بمرجع البوابة في التسوية والاسترداد الجماعي
+-- Gateway reference lookups for batch settlement and refunds
+-- =====================================================
+-- كشوف البنوك تشير إلى الدفع برقم معاملة البوابة، وtransaction_id مفهرس مسبقاً في V7
+-- Bank statements reference payments by gateway transaction id; transaction_id is already indexed in V7
+CREATE INDEX idx_payments_gateway_transaction_id ON payments(gateway_transaction_id)
+    WHERE gateway_transaction_id IS NOT NULL;
@@ -0,0 +1,43 @@
+-- =====================================================
+-- تجميعات المدفوعات الزمنية للتقارير المالية
+-- Time-bucketed payment rollups for finance reporting
+-- =====================================================
+-- عدد ومبلغ المدفوعات لكل (فترة إنشاء، طريقة دفع، حالة حالية) بدقة دقيقة وساعة ويوم.
+-- كل انتقال حالة يضيف صفوف فروقات في نفس معاملته (إدراج فقط، بلا تنافس على صف اليوم)،
+-- ثم يدمجها مهمة دورية في جدول التجميعات
+-- Count and amount of payments per (creation bucket, payment method, current status) at minute,
+-- hour and day granularity. Each status transition appends delta rows in its own transaction
+-- (insert-only, no contention on the day row) and a periodic job folds them into the rollups
+CREATE TABLE payment_rollups (
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('MINUTE', 'HOUR', 'DAY')),
+    bucket_start TIMESTAMP NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    payment_count BIGINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    PRIMARY KEY (granularity, bucket_start, payment_method, status)
+);
+
+CREATE TABLE payment_rollup_deltas (
+    id BIGSERIAL PRIMARY KEY,
+    bucket_start TIMESTAMP NOT NULL,
+    payment_method VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    payment_count BIGINT NOT NULL,
+    total_amount DECIMAL(14,2) NOT NULL
+);
+
+-- الاستعلامات الآنية بالتاريخ على جدول المدفوعات
+-- Ad hoc date range queries on the payments table
+CREATE INDEX idx_payments_created_at ON payments(created_at);
+
+-- تعبئة أولية من المدفوعات الحالية - الدقائق لآخر 14 يوماً فقط (مدة الاحتفاظ الافتراضية)
+-- Initial backfill from existing payments; minutes only for the last 14 days (default retention)
+INSERT INTO payment_rollups (granularity, bucket_start, payment_method, status, payment_count, total_amount)
+SELECT g.granularity, date_trunc(g.unit, p.created_at), p.payment_method, p.status, COUNT(*), COALESCE(SUM(p.amount), 0)
+FROM payments p
+CROSS JOIN (VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS g(granularity, unit)
+WHERE p.created_at IS NOT NULL
+  AND (g.granularity <> 'MINUTE' OR p.created_at >= NOW() - INTERVAL '14 days')
+GROUP BY g.granularity, date_trunc(g.unit, p.created_at), p.payment_method, p.status;
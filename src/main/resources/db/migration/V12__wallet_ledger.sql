@@ -0,0 +1,97 @@
+-- =====================================================
+-- دفتر المحافظ بالقيد المزدوج
+-- Double-entry wallet ledger
+-- =====================================================
+-- كل قيد مجموع أسطره صفر (المدين موجب والدائن سالب). الأرصدة لا تُحدَّث مع كل سطر؛
+-- تُؤخذ لقطات دورية ويُحسب الرصيد من آخر لقطة مع الأسطر التي بعدها
+-- Every entry's postings sum to zero (debits positive, credits negative). Balances are not
+-- updated per posting; periodic snapshots are taken and a balance is the latest snapshot plus
+-- the postings after it
+CREATE TABLE ledger_accounts (
+    id BIGSERIAL PRIMARY KEY,
+    code VARCHAR(150) NOT NULL UNIQUE,
+    account_type VARCHAR(30) NOT NULL CHECK (account_type IN ('PROVIDER_CLEARING', 'PROVIDER_FEES', 'MERCHANT', 'CUSTOMER')),
+    wallet_type VARCHAR(50),
+    owner_ref VARCHAR(100),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+CREATE TABLE ledger_entries (
+    id BIGSERIAL PRIMARY KEY,
+    -- مفتاح عدم التكرار: نوع القيد ومعاملة المحفظة
+    entry_key VARCHAR(150) NOT NULL UNIQUE,
+    entry_type VARCHAR(30) NOT NULL CHECK (entry_type IN ('WALLET_CHARGE', 'WALLET_REFUND')),
+    wallet_transaction_id UUID,
+    payment_id UUID,
+    posted_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE ledger_postings (
+    id BIGSERIAL PRIMARY KEY,
+    entry_id BIGINT NOT NULL REFERENCES ledger_entries(id),
+    account_id BIGINT NOT NULL REFERENCES ledger_accounts(id),
+    amount DECIMAL(14,2) NOT NULL CHECK (amount <> 0),
+    posted_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE ledger_balance_snapshots (
+    account_id BIGINT NOT NULL REFERENCES ledger_accounts(id),
+    as_of_posting_id BIGINT NOT NULL,
+    balance DECIMAL(16,2) NOT NULL,
+    taken_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (account_id, as_of_posting_id)
+);
+
+-- ذيل الأسطر بعد آخر لقطة لكل حساب
+-- Tail of postings after an account's latest snapshot
+CREATE INDEX idx_ledger_postings_account ON ledger_postings(account_id, id);
+CREATE INDEX idx_ledger_entries_wallet_transaction ON ledger_entries(wallet_transaction_id);
+-- الأرصدة في تاريخ معين (تسوية نهاية الشهر)
+-- Balances as of a point in time (month-end reconciliation)
+CREATE INDEX idx_ledger_balance_snapshots_taken_at ON ledger_balance_snapshots(account_id, taken_at);
+-- علامة آخر لقطة
+-- Latest snapshot watermark
+CREATE INDEX idx_ledger_balance_snapshots_watermark ON ledger_balance_snapshots(as_of_posting_id);
+
+-- =====================================================
+-- قيد معاملات المحافظ المكتملة السابقة
+-- Post previously completed wallet transactions
+-- =====================================================
+INSERT INTO ledger_accounts (code, account_type, wallet_type)
+SELECT a.account_type || ':' || w.wallet_type, a.account_type, w.wallet_type
+FROM (VALUES ('JEEB'), ('FLOUSI'), ('MOBILE_MONEY')) AS w(wallet_type)
+CROSS JOIN (VALUES ('PROVIDER_CLEARING'), ('PROVIDER_FEES')) AS a(account_type);
+
+INSERT INTO ledger_accounts (code, account_type) VALUES ('MERCHANT', 'MERCHANT');
+
+CREATE TEMPORARY TABLE ledger_backfill ON COMMIT DROP AS
+SELECT wt.id AS wallet_transaction_id, wt.payment_id, wt.wallet_type, wt.amount, COALESCE(wt.fees, 0) AS fees,
+       COALESCE(wt.processed_at, wt.created_at, NOW()) AS posted_at,
+       COALESCE(o.user_id::text, 'phone:' || wt.wallet_phone) AS owner_ref
+FROM wallet_transactions wt
+LEFT JOIN payments p ON p.id = wt.payment_id
+LEFT JOIN orders o ON o.id = p.order_id
+WHERE wt.status = 'COMPLETED' AND wt.amount > 0;
+
+INSERT INTO ledger_accounts (code, account_type, owner_ref)
+SELECT DISTINCT 'CUSTOMER:' || owner_ref, 'CUSTOMER', owner_ref FROM ledger_backfill;
+
+INSERT INTO ledger_entries (entry_key, entry_type, wallet_transaction_id, payment_id, posted_at)
+SELECT 'WALLET_CHARGE:' || wallet_transaction_id, 'WALLET_CHARGE', wallet_transaction_id, payment_id, posted_at
+FROM ledger_backfill;
+
+-- البيع (مدين العميل، دائن التاجر) ثم السداد عبر المحفظة (مدين المقاصة والرسوم، دائن العميل)
+-- Sale (debit customer, credit merchant), then settlement through the wallet (debit clearing and fees, credit customer)
+INSERT INTO ledger_postings (entry_id, account_id, amount, posted_at)
+SELECT e.id, a.id, l.amount, b.posted_at
+FROM ledger_backfill b
+JOIN ledger_entries e ON e.entry_key = 'WALLET_CHARGE:' || b.wallet_transaction_id
+CROSS JOIN LATERAL (VALUES
+    ('CUSTOMER:' || b.owner_ref, b.amount),
+    ('MERCHANT', -b.amount),
+    ('PROVIDER_CLEARING:' || b.wallet_type, b.amount - b.fees),
+    ('PROVIDER_FEES:' || b.wallet_type, b.fees),
+    ('CUSTOMER:' || b.owner_ref, -b.amount)
+) AS l(code, amount)
+JOIN ledger_accounts a ON a.code = l.code
+WHERE l.amount <> 0;
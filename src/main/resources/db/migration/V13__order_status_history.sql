@@ -0,0 +1,17 @@
+-- =====================================================
+-- سجل انتقالات حالة الطلب
+-- Order status transition history
+-- =====================================================
+-- إدراج فقط: كل انتقال يضيف صفاً في نفس عبارة التحديث، فردياً كان أو جماعياً
+-- Append-only: every transition adds a row in the same statement as its update, single or bulk
+CREATE TABLE order_status_history (
+    id BIGSERIAL PRIMARY KEY,
+    order_id UUID NOT NULL,
+    from_status VARCHAR(50),
+    to_status VARCHAR(50) NOT NULL,
+    tracking_number VARCHAR(255),
+    source VARCHAR(20) NOT NULL CHECK (source IN ('SINGLE', 'BULK')),
+    changed_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_order_status_history_order ON order_status_history(order_id, id);
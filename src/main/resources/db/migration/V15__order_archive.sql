@@ -0,0 +1,39 @@
+-- =====================================================
+-- أرشيف الطلبات المنتهية (تخزين بارد)
+-- Archive of finished orders (cold storage)
+-- =====================================================
+-- الطلبات المسلّمة والملغاة الأقدم من مدة محددة تُنقل مع عناصرها من orders و order_items إلى
+-- جداول الأرشيف، فتبقى الجداول الأساسية بحجم مجموعة العمل. الاستعلامات تقرأ الجداول الأساسية
+-- افتراضياً والأرشيف عند الطلب الصريح فقط.
+-- تنبيه: أي تعديل على أعمدة orders أو order_items يجب أن يُطبق على جدول الأرشيف المقابل بنفس الترتيب
+-- Delivered and cancelled orders older than a configured age move with their items from orders and
+-- order_items into the archive tables, so the primary tables stay the size of the working set.
+-- Queries read the primary tables by default and the archive only when asked explicitly.
+-- Note: any column change on orders or order_items must be applied to its archive table in the same order
+CREATE TABLE orders_archive (LIKE orders INCLUDING DEFAULTS);
+ALTER TABLE orders_archive ADD PRIMARY KEY (id);
+ALTER TABLE orders_archive ADD COLUMN archived_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW();
+
+CREATE TABLE order_items_archive (LIKE order_items INCLUDING DEFAULTS);
+ALTER TABLE order_items_archive ADD PRIMARY KEY (id);
+
+CREATE UNIQUE INDEX idx_orders_archive_order_number ON orders_archive(order_number);
+CREATE INDEX idx_orders_archive_display_id ON orders_archive(display_id);
+CREATE INDEX idx_orders_archive_user_created ON orders_archive(user_id, created_at DESC);
+CREATE INDEX idx_orders_archive_status_created ON orders_archive(status, created_at DESC);
+CREATE INDEX idx_orders_archive_customer_email ON orders_archive(customer_email, created_at DESC);
+CREATE INDEX idx_orders_archive_created_at ON orders_archive(created_at);
+CREATE INDEX idx_order_items_archive_order_id ON order_items_archive(order_id);
+
+-- صفحات الجداول الحالية مرتبة بالأحدث (مستخدم، حالة، بريد العميل)
+-- Newest-first pages on the primary tables (user, status, customer email)
+CREATE INDEX idx_orders_user_created ON orders(user_id, created_at DESC);
+CREATE INDEX idx_orders_status_created ON orders(status, created_at DESC);
+CREATE INDEX idx_orders_customer_email ON orders(customer_email, created_at DESC);
+
+-- المدفوعات وسجلات OneX تبقى في مكانها وتشير لطلب قد يكون مؤرشفاً؛ حذف الطلب عند الأرشفة
+-- يجب ألا يحذفها تتابعياً
+-- Payments and OneX records stay in place and may point at an archived order; deleting the order
+-- on archival must not cascade to them
+ALTER TABLE payments DROP CONSTRAINT IF EXISTS payments_order_id_fkey;
+ALTER TABLE onex_integration DROP CONSTRAINT IF EXISTS onex_integration_order_id_fkey;
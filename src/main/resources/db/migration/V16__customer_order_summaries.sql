@@ -0,0 +1,57 @@
+-- =====================================================
+-- ملخص طلبات العميل (نموذج قراءة لشاشة "طلباتي")
+-- Customer order summaries (read model for the "My Orders" screen)
+-- =====================================================
+-- صف واحد لكل طلب يحوي ما تعرضه القائمة، يُحدَّث من أحداث الطلب في نفس معاملتها، ويُقرأ
+-- باستعلام فهرسي واحد دون عناصر الطلب. يبقى بعد أرشفة الطلب
+-- One row per order with what the list shows, maintained from order events in their own transaction
+-- and read with one indexed query without the order items. It stays after the order is archived
+CREATE TABLE customer_order_summaries (
+    order_id UUID PRIMARY KEY,
+    user_id UUID,
+    customer_email VARCHAR(255) NOT NULL,
+    order_number VARCHAR(50) NOT NULL,
+    display_id VARCHAR(20),
+    status VARCHAR(50) NOT NULL,
+    payment_status VARCHAR(50) NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    currency VARCHAR(3),
+    item_count INTEGER NOT NULL DEFAULT 0,
+    first_item_name VARCHAR(255),
+    first_item_name_ar VARCHAR(255),
+    first_item_thumbnail TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- الأحدث أولاً لكل مستخدم، مع المعرف لترتيب ثابت
+-- Newest first per user, with the id for a stable order
+CREATE INDEX idx_customer_order_summaries_user ON customer_order_summaries(user_id, created_at DESC, order_id DESC);
+
+-- تعبئة أولية من الطلبات الحالية والمؤرشفة
+-- Initial backfill from current and archived orders
+INSERT INTO customer_order_summaries (order_id, user_id, customer_email, order_number, display_id, status, payment_status,
+                                      total_amount, currency, item_count, first_item_name, first_item_name_ar,
+                                      first_item_thumbnail, created_at)
+SELECT o.id, o.user_id, o.customer_email, o.order_number, o.display_id, o.status, o.payment_status,
+       o.total_amount, o.currency, COALESCE(c.item_count, 0), f.product_name, f.product_name_ar,
+       (SELECT COALESCE(pi.thumbnail_url, pi.image_url) FROM product_images pi WHERE pi.product_id = f.product_id
+        ORDER BY pi.is_primary DESC, pi.sort_order, pi.created_at LIMIT 1),
+       COALESCE(o.created_at, NOW())
+FROM (SELECT id, user_id, customer_email, order_number, display_id, status, payment_status, total_amount, currency, created_at
+      FROM orders
+      UNION ALL
+      SELECT id, user_id, customer_email, order_number, display_id, status, payment_status, total_amount, currency, created_at
+      FROM orders_archive) o
+LEFT JOIN LATERAL (
+    SELECT SUM(quantity) AS item_count FROM (
+        SELECT quantity FROM order_items WHERE order_id = o.id
+        UNION ALL
+        SELECT quantity FROM order_items_archive WHERE order_id = o.id) i
+) c ON TRUE
+LEFT JOIN LATERAL (
+    SELECT product_id, product_name, product_name_ar, created_at FROM order_items WHERE order_id = o.id
+    UNION ALL
+    SELECT product_id, product_name, product_name_ar, created_at FROM order_items_archive WHERE order_id = o.id
+    ORDER BY created_at LIMIT 1
+) f ON TRUE;
@@ -0,0 +1,30 @@
+-- =====================================================
+-- فهارس بحث الطلبات في لوحة الإدارة
+-- Order search indexes for the admin console
+-- =====================================================
+-- البحث الجزئي (رقم الطلب، اسم العميل أو هاتفه أو بريده، رقم التتبع، رمز المنتج) يستخدم فهارس
+-- trigram بحيث لا يمسح ILIKE '%...%' الجدول. الصفحات تُقرأ بمفتاح (created_at, id) تنازلياً،
+-- ونطاق المبلغ له فهرسه. نفس الفهارس على جداول الأرشيف لأن البحث يشملها عند الطلب
+-- Partial lookups (order number, customer name, phone or email, tracking number, product SKU) use
+-- trigram indexes so ILIKE '%...%' does not scan the table. Pages are read by the (created_at, id)
+-- key descending, and the amount range has its own index. The archive tables get the same indexes
+-- because the search covers them on request
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_orders_order_number_trgm ON orders USING gin (order_number gin_trgm_ops);
+CREATE INDEX idx_orders_customer_name_trgm ON orders USING gin (customer_name gin_trgm_ops);
+CREATE INDEX idx_orders_customer_phone_trgm ON orders USING gin (customer_phone gin_trgm_ops);
+CREATE INDEX idx_orders_customer_email_trgm ON orders USING gin (customer_email gin_trgm_ops);
+CREATE INDEX idx_orders_tracking_number_trgm ON orders USING gin (tracking_number gin_trgm_ops);
+CREATE INDEX idx_orders_created_id ON orders(created_at DESC, id DESC);
+CREATE INDEX idx_orders_total_amount ON orders(total_amount);
+CREATE INDEX idx_order_items_product_sku_trgm ON order_items USING gin (product_sku gin_trgm_ops);
+
+CREATE INDEX idx_orders_archive_order_number_trgm ON orders_archive USING gin (order_number gin_trgm_ops);
+CREATE INDEX idx_orders_archive_customer_name_trgm ON orders_archive USING gin (customer_name gin_trgm_ops);
+CREATE INDEX idx_orders_archive_customer_phone_trgm ON orders_archive USING gin (customer_phone gin_trgm_ops);
+CREATE INDEX idx_orders_archive_customer_email_trgm ON orders_archive USING gin (customer_email gin_trgm_ops);
+CREATE INDEX idx_orders_archive_tracking_number_trgm ON orders_archive USING gin (tracking_number gin_trgm_ops);
+CREATE INDEX idx_orders_archive_created_id ON orders_archive(created_at DESC, id DESC);
+CREATE INDEX idx_orders_archive_total_amount ON orders_archive(total_amount);
+CREATE INDEX idx_order_items_archive_product_sku_trgm ON order_items_archive USING gin (product_sku gin_trgm_ops);
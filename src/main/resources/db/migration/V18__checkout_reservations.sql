@@ -0,0 +1,14 @@
+-- =====================================================
+-- حجوزات المخزون أثناء إتمام الشراء
+-- Checkout stock reservations
+-- =====================================================
+-- الحجز حركة RESERVED مرجعها عملية الدفع (checkout) حتى تنقلها معاملة الطلب إلى الطلب (order)،
+-- أو تُحرر بحركة RELEASED عند الفشل أو انتهاء المهلة
+-- A reservation is a RESERVED movement referencing the checkout until the order transaction moves
+-- it to the order, or it is released with a RELEASED movement on failure or expiry
+CREATE INDEX idx_inventory_movements_reference ON inventory_movements(reference_type, reference_id);
+
+-- الحجوزات المعلقة فقط، لمسح المنتهي منها
+-- Open reservations only, for the expiry sweep
+CREATE INDEX idx_inventory_movements_open_reservations ON inventory_movements(created_at)
+    WHERE reference_type = 'checkout';
@@ -0,0 +1,22 @@
+-- =====================================================
+-- مزامنة الطلبات مع نظام OneX
+-- Order sync with the OneX ERP
+-- =====================================================
+-- كل طلب جديد يُضاف كصف pending في نفس معاملة إنشائه، ويسحبه العامل الخلفي بـ
+-- FOR UPDATE SKIP LOCKED. next_attempt_at يحمل موعد المحاولة التالية أو نهاية مهلة
+-- السحب، فيكفي فهرس واحد للصفوف المستحقة. dead حالة نهائية بعد استنفاد المحاولات
+-- Each new order is queued as a pending row in the transaction that creates it, and the
+-- background worker claims it with FOR UPDATE SKIP LOCKED. next_attempt_at holds the next retry
+-- time or the end of the claim lease, so one index serves every due row. dead is the terminal
+-- state once attempts are exhausted
+ALTER TABLE onex_integration DROP CONSTRAINT IF EXISTS onex_integration_sync_status_check;
+ALTER TABLE onex_integration ADD CONSTRAINT onex_integration_sync_status_check
+    CHECK (sync_status IN ('pending', 'syncing', 'completed', 'failed', 'dead'));
+
+-- معرف OneX غير معروف حتى تنجح المزامنة
+ALTER TABLE onex_integration ALTER COLUMN onex_entity_id DROP NOT NULL;
+ALTER TABLE onex_integration ADD COLUMN next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW();
+
+CREATE UNIQUE INDEX uq_onex_integration_order_entity ON onex_integration(order_id, onex_entity_type);
+CREATE INDEX idx_onex_integration_due ON onex_integration(next_attempt_at)
+    WHERE sync_status IN ('pending', 'syncing', 'failed');
@@ -0,0 +1,18 @@
+-- =====================================================
+-- استخدامات الكوبونات لكل طلب
+-- Coupon redemptions per order
+-- =====================================================
+-- إتمام الشراء يكتب صفاً لكل طلب استهلك كوبوناً في نفس معاملة زيادة used_count. إلغاء الطلب
+-- يحذف الصف ويعيد الاستخدام، فلا يُعاد استخدام لم يُستهلك ولا يُعاد مرتين.
+-- لا مفتاح أجنبي على order_id لأن أرشفة الطلب تحذفه من orders
+-- Checkout writes one row per order that consumed a coupon, in the transaction that increments
+-- used_count. Cancelling the order deletes the row and gives the use back, so a use that was never
+-- consumed is not returned and none is returned twice.
+-- No foreign key on order_id because archiving an order deletes it from orders
+CREATE TABLE coupon_redemptions (
+    order_id UUID PRIMARY KEY,
+    coupon_id UUID NOT NULL REFERENCES coupons(id) ON DELETE CASCADE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_coupon_redemptions_coupon ON coupon_redemptions(coupon_id);
@@ -0,0 +1,10 @@
+-- =====================================================
+-- ترتيب صندوق الأحداث لكل كيان
+-- Per-aggregate outbox ordering
+-- =====================================================
+-- المرحّل يتخطى كل حدث يسبقه حدث لنفس الكيان غير مستحق أو فاشل؛ هذا الفهرس يجيب عن ذلك
+-- دون مسح كل أحداث الكيان المنشورة
+-- The relay skips any event that an earlier not-yet-due or failed event of the same aggregate
+-- precedes; this index answers that without scanning the aggregate's published events
+CREATE INDEX idx_outbox_events_aggregate_open ON outbox_events(aggregate_type, aggregate_id, id)
+    WHERE status IN ('PENDING', 'FAILED');
@@ -0,0 +1,16 @@
+-- =====================================================
+-- مفاتيح عدم التكرار لكل مستدعٍ مع مهلة للحجز
+-- Per-caller idempotency keys with a claim lease
+-- =====================================================
+-- المفتاح خاص بالمستدعي فلا يعيد عميل استجابة عميل آخر، والحجز IN_PROGRESS يُستعاد بعد
+-- انتهاء مهلته إذا توقفت العقدة قبل تسجيل الاستجابة؛ claim_token يضمن أن صاحب الحجز وحده يسجله
+-- Keys belong to a caller so one client cannot replay another's response, and an IN_PROGRESS
+-- claim can be taken over once its lease runs out if the node died before recording the response;
+-- claim_token makes sure only the holder of a claim records or releases it
+ALTER TABLE idempotency_keys ADD COLUMN caller VARCHAR(255) NOT NULL DEFAULT 'anonymous';
+ALTER TABLE idempotency_keys ADD COLUMN claim_token UUID;
+ALTER TABLE idempotency_keys ADD COLUMN lease_expires_at TIMESTAMP WITH TIME ZONE;
+
+ALTER TABLE idempotency_keys DROP CONSTRAINT idempotency_keys_scope_idempotency_key_key;
+ALTER TABLE idempotency_keys ADD CONSTRAINT uk_idempotency_keys_scope_caller_key
+    UNIQUE (scope, caller, idempotency_key);
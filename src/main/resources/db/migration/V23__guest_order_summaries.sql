@@ -0,0 +1,9 @@
+-- =====================================================
+-- ملخصات طلبات الزوار
+-- Guest order summaries
+-- =====================================================
+-- طلبات الزوار (user_id فارغ) تُقرأ ببريد العميل دون تمييز حالة الأحرف، الأحدث أولاً
+-- Guest orders (no user_id) are read by customer email, case-insensitively, newest first
+CREATE INDEX idx_customer_order_summaries_guest
+    ON customer_order_summaries(LOWER(customer_email), created_at DESC, order_id DESC)
+    WHERE user_id IS NULL;
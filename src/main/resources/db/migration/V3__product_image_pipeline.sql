@@ -0,0 +1,18 @@
+-- =====================================================
+-- خط معالجة صور المنتجات (Product Image Pipeline)
+-- =====================================================
+ALTER TABLE product_images
+    ADD COLUMN thumbnail_url TEXT,
+    ADD COLUMN content_type VARCHAR(100),
+    ADD COLUMN file_size BIGINT,
+    ADD COLUMN checksum VARCHAR(64),
+    ADD COLUMN thumbnail_status VARCHAR(20) NOT NULL DEFAULT 'PENDING';
+
+-- عرض صور المنتج بالترتيب
+CREATE INDEX idx_product_images_product_sort ON product_images(product_id, sort_order, created_at);
+
+-- مشاركة الملفات حسب المحتوى
+CREATE INDEX idx_product_images_checksum ON product_images(checksum);
+
+-- إعادة محاولة توليد المصغرات المعلقة
+CREATE INDEX idx_product_images_pending ON product_images(created_at) WHERE thumbnail_status = 'PENDING';
@@ -0,0 +1,6 @@
+-- =====================================================
+-- القفل التفاؤلي (Optimistic Locking)
+-- =====================================================
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders   ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE payments ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,93 @@
+-- =====================================================
+-- تتبع حدود المخزون (Stock Threshold Tracking)
+-- =====================================================
+-- مجموعة المنتجات منخفضة/نافدة المخزون تُحدث تدريجياً مع كل تغيير للمخزون
+-- بدلاً من فحص جدول المنتجات كاملاً عند كل طلب
+-- The low/out-of-stock set is maintained incrementally on every stock change
+-- instead of scanning the whole products table on every dashboard poll
+CREATE TABLE stock_alerts (
+    product_id UUID PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+    level VARCHAR(10) NOT NULL CHECK (level IN ('LOW', 'OUT')),
+    stock_quantity INTEGER NOT NULL,
+    min_stock_level INTEGER NOT NULL,
+    since TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- القوائم المرقمة: الأقدم في حالة التنبيه أولاً
+CREATE INDEX idx_stock_alerts_level_since ON stock_alerts(level, since, product_id);
+
+CREATE OR REPLACE FUNCTION stock_alert_level(quantity INTEGER, min_level INTEGER, tracked BOOLEAN, active BOOLEAN)
+RETURNS VARCHAR AS $$
+BEGIN
+    IF NOT COALESCE(tracked, true) OR NOT COALESCE(active, true) THEN
+        RETURN NULL;
+    ELSIF COALESCE(quantity, 0) <= 0 THEN
+        RETURN 'OUT';
+    ELSIF COALESCE(quantity, 0) <= COALESCE(min_level, 5) THEN
+        RETURN 'LOW';
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION track_stock_threshold()
+RETURNS TRIGGER AS $$
+DECLARE
+    old_level VARCHAR;
+    new_level VARCHAR;
+BEGIN
+    new_level := stock_alert_level(NEW.stock_quantity, NEW.min_stock_level, NEW.track_inventory, NEW.is_active);
+    IF TG_OP = 'UPDATE' THEN
+        old_level := stock_alert_level(OLD.stock_quantity, OLD.min_stock_level, OLD.track_inventory, OLD.is_active);
+    END IF;
+
+    IF new_level IS NULL THEN
+        IF old_level IS NOT NULL THEN
+            DELETE FROM stock_alerts WHERE product_id = NEW.id;
+        END IF;
+        RETURN NULL;
+    END IF;
+
+    INSERT INTO stock_alerts (product_id, level, stock_quantity, min_stock_level)
+    VALUES (NEW.id, new_level, COALESCE(NEW.stock_quantity, 0), COALESCE(NEW.min_stock_level, 5))
+    ON CONFLICT (product_id) DO UPDATE
+        SET level = EXCLUDED.level,
+            stock_quantity = EXCLUDED.stock_quantity,
+            min_stock_level = EXCLUDED.min_stock_level,
+            since = CASE WHEN stock_alerts.level = EXCLUDED.level THEN stock_alerts.since ELSE NOW() END,
+            updated_at = NOW();
+
+    -- إشعار فقط عند عبور الحد، وليس عند كل تغيير داخل نفس المستوى
+    IF new_level IS DISTINCT FROM old_level THEN
+        INSERT INTO notifications (type, title, title_ar, message, message_ar, data, channel, sent_at)
+        VALUES (
+            'system',
+            CASE new_level WHEN 'OUT' THEN 'Product out of stock' ELSE 'Product low on stock' END,
+            CASE new_level WHEN 'OUT' THEN 'منتج نفد من المخزون' ELSE 'مخزون المنتج منخفض' END,
+            NEW.name || ' (' || NEW.sku || '): ' || COALESCE(NEW.stock_quantity, 0) || ' left',
+            COALESCE(NEW.name_ar, NEW.name) || ' (' || NEW.sku || '): المتبقي ' || COALESCE(NEW.stock_quantity, 0),
+            jsonb_build_object('kind', 'stock_alert', 'level', new_level, 'product_id', NEW.id,
+                               'sku', NEW.sku, 'stock_quantity', NEW.stock_quantity,
+                               'min_stock_level', NEW.min_stock_level),
+            'push',
+            NOW()
+        );
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_track_stock_threshold
+    AFTER INSERT OR UPDATE OF stock_quantity, min_stock_level, track_inventory, is_active ON products
+    FOR EACH ROW EXECUTE FUNCTION track_stock_threshold();
+
+-- تعبئة أولية للمجموعة من البيانات الحالية
+INSERT INTO stock_alerts (product_id, level, stock_quantity, min_stock_level)
+SELECT id,
+       stock_alert_level(stock_quantity, min_stock_level, track_inventory, is_active),
+       COALESCE(stock_quantity, 0),
+       COALESCE(min_stock_level, 5)
+FROM products
+WHERE stock_alert_level(stock_quantity, min_stock_level, track_inventory, is_active) IS NOT NULL;
@@ -0,0 +1,14 @@
+-- =====================================================
+-- تسوية معاملات المحافظ المعلقة (Wallet Reconciliation)
+-- =====================================================
+-- كل عقدة تحجز دفعة بـ FOR UPDATE SKIP LOCKED وتسجل مهلة حجز،
+-- فلا تعالج عقدتان نفس المعاملة ولا تبقى الأقفال مفتوحة أثناء استدعاء المزود
+-- Each node claims a batch with FOR UPDATE SKIP LOCKED and records a lease,
+-- so no two nodes process the same row and no lock is held across provider calls
+ALTER TABLE wallet_transactions
+    ADD COLUMN reconcile_claimed_until TIMESTAMP WITH TIME ZONE,
+    ADD COLUMN reconcile_attempts INTEGER NOT NULL DEFAULT 0;
+
+-- المعاملات غير المحسومة فقط، بترتيب الأقدم
+CREATE INDEX idx_wallet_transactions_unsettled ON wallet_transactions(created_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
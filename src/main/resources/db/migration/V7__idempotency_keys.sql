@@ -0,0 +1,26 @@
+-- =====================================================
+-- مفاتيح عدم التكرار (Idempotency Keys)
+-- =====================================================
+-- القيد الفريد هو الحماية الدائمة: طلبان متزامنان بنفس المفتاح لا يمكن أن ينجح إدراجهما معاً
+-- The unique constraint is the durable guard: two concurrent requests with the same key cannot both claim it
+CREATE TABLE idempotency_keys (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    scope VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'IN_PROGRESS' CHECK (status IN ('IN_PROGRESS', 'COMPLETED')),
+    response_body TEXT,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    UNIQUE (scope, idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
+
+-- =====================================================
+-- أرقام المعاملات (Transaction IDs)
+-- =====================================================
+CREATE SEQUENCE payment_transaction_seq;
+
+CREATE UNIQUE INDEX uk_payments_transaction_id ON payments(transaction_id) WHERE transaction_id IS NOT NULL;
+CREATE UNIQUE INDEX uk_wallet_transactions_reference ON wallet_transactions(transaction_reference) WHERE transaction_reference IS NOT NULL;
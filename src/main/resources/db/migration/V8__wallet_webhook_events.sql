@@ -0,0 +1,24 @@
+-- =====================================================
+-- أحداث webhooks المحافظ (Wallet Webhook Events)
+-- =====================================================
+-- طابور محلي دائم: الاستلام يكتب صفاً واحداً ويرد فوراً، والمعالجة تتم لاحقاً بمجمع عمال.
+-- القيد الفريد يحول إعادة إرسال المزود لنفس الحدث إلى عملية لا تفعل شيئاً
+-- Durable local queue: ingestion writes one row and acknowledges immediately, a worker pool
+-- processes later. The unique constraint turns provider redeliveries into no-ops
+CREATE TABLE wallet_webhook_events (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    wallet_type VARCHAR(50) NOT NULL,
+    event_id VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'PROCESSED', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    claimed_until TIMESTAMP WITH TIME ZONE,
+    last_error TEXT,
+    received_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    processed_at TIMESTAMP WITH TIME ZONE,
+    UNIQUE (wallet_type, event_id)
+);
+
+-- الأحداث الجاهزة للمعالجة فقط
+CREATE INDEX idx_wallet_webhook_events_due ON wallet_webhook_events(next_attempt_at) WHERE status = 'PENDING';
@@ -0,0 +1,24 @@
+-- =====================================================
+-- صندوق الأحداث الصادرة (Transactional Outbox)
+-- =====================================================
+-- يُكتب الحدث في نفس معاملة تغيير الحالة، ثم ينقله المرحّل للمستمعين بترتيب المعرف
+-- Events are written in the same transaction as the state change; the relay then
+-- delivers them to listeners in id order
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL DEFAULT '{}',
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'PUBLISHED', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    last_error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    published_at TIMESTAMP WITH TIME ZONE
+);
+
+-- الأحداث المعلقة بترتيب الإدراج
+CREATE INDEX idx_outbox_events_pending ON outbox_events(id) WHERE status = 'PENDING';
+-- تنظيف الأحداث المنشورة
+CREATE INDEX idx_outbox_events_published_at ON outbox_events(published_at) WHERE status = 'PUBLISHED';
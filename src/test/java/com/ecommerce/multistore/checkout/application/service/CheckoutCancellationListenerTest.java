@@ -0,0 +1,95 @@
+package com.ecommerce.multistore.checkout.application.service;
+
+import com.ecommerce.multistore.inventory.application.service.StockReservationService;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.event.OrderStatusChangedEvent;
+import com.ecommerce.multistore.order.domain.event.OrderStatusesChangedEvent;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class CheckoutCancellationListenerTest extends PostgresIntegrationTest {
+
+    private StockReservationService stockReservationService;
+    private CheckoutCancellationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationService = new StockReservationService(jdbcTemplate, transactionTemplate, mock(OutboxPublisher.class));
+        listener = new CheckoutCancellationListener(jdbcTemplate, stockReservationService);
+    }
+
+    @Test
+    void cancelReleasesReservationAndCouponOnce() {
+        UUID productId = insertProduct(BigDecimal.TEN, 10);
+        UUID couponId = insertCoupon(code(), 1);
+        UUID orderId = placeOrder(productId, 3, couponId);
+        assertEquals(7, stockOf(productId));
+
+        OrderStatusChangedEvent cancelled = new OrderStatusChangedEvent(orderId, "ORD-1", OrderStatus.PENDING, OrderStatus.CANCELLED, null);
+        transactionTemplate.executeWithoutResult(status -> listener.onOrderStatusChanged(cancelled));
+
+        assertEquals(10, stockOf(productId));
+        assertEquals(0, usedCount(couponId));
+
+        // إلغاء مكرر لا يعيد شيئاً
+        transactionTemplate.executeWithoutResult(status -> listener.onOrderStatusChanged(cancelled));
+
+        assertEquals(10, stockOf(productId));
+        assertEquals(0, usedCount(couponId));
+    }
+
+    @Test
+    void bulkCancelReleasesOnlyCancelledOrders() {
+        UUID productId = insertProduct(BigDecimal.TEN, 10);
+        UUID couponId = insertCoupon(code(), 2);
+        UUID cancelledOrder = placeOrder(productId, 2, couponId);
+        UUID shippedOrder = placeOrder(productId, 3, couponId);
+        assertEquals(5, stockOf(productId));
+
+        OrderStatusesChangedEvent event = new OrderStatusesChangedEvent(List.of(
+                new OrderStatusChangedEvent(cancelledOrder, "ORD-1", OrderStatus.CONFIRMED, OrderStatus.CANCELLED, null),
+                new OrderStatusChangedEvent(shippedOrder, "ORD-2", OrderStatus.PROCESSING, OrderStatus.SHIPPED, "TRK")));
+        transactionTemplate.executeWithoutResult(status -> listener.onOrderStatusesChanged(event));
+
+        assertEquals(7, stockOf(productId));
+        assertEquals(1, usedCount(couponId));
+    }
+
+    @Test
+    void otherTransitionsKeepReservation() {
+        UUID productId = insertProduct(BigDecimal.TEN, 10);
+        UUID orderId = placeOrder(productId, 4, null);
+
+        transactionTemplate.executeWithoutResult(status -> listener.onOrderStatusChanged(
+                new OrderStatusChangedEvent(orderId, "ORD-1", OrderStatus.PENDING, OrderStatus.CONFIRMED, null)));
+
+        assertEquals(6, stockOf(productId));
+    }
+
+    /**
+     * طلب كما يتركه إتمام الشراء: حجز منقول إلى الطلب واستخدام كوبون مسجل
+     */
+    private UUID placeOrder(UUID productId, int quantity, UUID couponId) {
+        UUID checkoutId = UUID.randomUUID();
+        UUID orderId = UUID.randomUUID();
+        int reserved = stockReservationService.reserve(checkoutId, Map.of(productId, quantity));
+        transactionTemplate.executeWithoutResult(status -> {
+            stockReservationService.claim(checkoutId, orderId, reserved);
+            if (couponId != null) {
+                jdbcTemplate.update("UPDATE coupons SET used_count = used_count + 1 WHERE id = ?", couponId);
+                jdbcTemplate.update("INSERT INTO coupon_redemptions (order_id, coupon_id) VALUES (?, ?)", orderId, couponId);
+            }
+        });
+        return orderId;
+    }
+}
@@ -0,0 +1,158 @@
+package com.ecommerce.multistore.checkout.application.service;
+
+import com.ecommerce.multistore.checkout.application.dto.CheckoutItem;
+import com.ecommerce.multistore.checkout.application.dto.CheckoutRequest;
+import com.ecommerce.multistore.inventory.application.service.StockReservationService;
+import com.ecommerce.multistore.order.application.dto.OrderResponse;
+import com.ecommerce.multistore.order.application.service.OrderService;
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.event.OrderStatusChangedEvent;
+import com.ecommerce.multistore.payment.application.dto.PaymentResponse;
+import com.ecommerce.multistore.payment.application.service.PaymentService;
+import com.ecommerce.multistore.payment.domain.PaymentMethod;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderGateway;
+import com.ecommerce.multistore.shared.exception.BusinessException;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CheckoutServiceCompensationTest extends PostgresIntegrationTest {
+
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID paymentId = UUID.randomUUID();
+
+    private ExecutorService executor;
+    private OrderService orderService;
+    private PaymentService paymentService;
+    private CheckoutService checkoutService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        orderService = mock(OrderService.class);
+        paymentService = mock(PaymentService.class);
+        StockReservationService stockReservationService =
+                new StockReservationService(jdbcTemplate, transactionTemplate, mock(OutboxPublisher.class));
+        CheckoutCancellationListener listener = new CheckoutCancellationListener(jdbcTemplate, stockReservationService);
+
+        OrderResponse order = new OrderResponse();
+        order.setId(orderId);
+        order.setOrderNumber("ORD-TEST");
+        order.setTotalAmount(BigDecimal.valueOf(19));
+        order.setCurrency("YER");
+        when(orderService.createOrder(any(), any(), any())).thenReturn(order);
+        // الإلغاء الحقيقي ينشر الحدث في معاملته عبر OrderStateMachine
+        doAnswer(invocation -> {
+            listener.onOrderStatusChanged(new OrderStatusChangedEvent(orderId, "ORD-TEST",
+                    OrderStatus.PENDING, OrderStatus.CANCELLED, null));
+            return order;
+        }).when(orderService).cancelOrder(orderId);
+        when(paymentService.createIntent(any())).thenReturn(payment(PaymentStatus.PENDING, null));
+
+        checkoutService = new CheckoutService(jdbcTemplate, transactionTemplate, orderService, paymentService,
+                stockReservationService, mock(WalletProviderGateway.class), executor);
+        ReflectionTestUtils.setField(checkoutService, "stageTimeoutMs", 10_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void declinedWalletPaymentCancelsOrderAndGivesBackStockAndCoupon() {
+        UUID productId = insertProduct(BigDecimal.TEN, 10);
+        String couponCode = code();
+        UUID couponId = insertCoupon(couponCode, 5);
+        when(paymentService.processIntent(eq(paymentId), any()))
+                .thenReturn(payment(PaymentStatus.FAILED, "Insufficient wallet balance"));
+
+        BusinessException declined = assertThrows(BusinessException.class,
+                () -> checkoutService.checkout(request(productId, couponCode)));
+
+        assertEquals(402, declined.getStatusCode());
+        verify(orderService).cancelOrder(orderId);
+        // الدفع سجله المزود FAILED فلا يُرفض مرة أخرى
+        verify(paymentService, never()).rejectPayment(any(), anyString());
+        assertEquals(10, stockOf(productId));
+        assertEquals(0, usedCount(couponId));
+        assertEquals(0, redemptions(orderId));
+    }
+
+    @Test
+    void providerErrorCancelsOrderAndFailsIntent() {
+        UUID productId = insertProduct(BigDecimal.TEN, 10);
+        String couponCode = code();
+        UUID couponId = insertCoupon(couponCode, 5);
+        when(paymentService.processIntent(eq(paymentId), any())).thenThrow(new IllegalStateException("provider down"));
+
+        assertThrows(IllegalStateException.class, () -> checkoutService.checkout(request(productId, couponCode)));
+
+        verify(orderService).cancelOrder(orderId);
+        verify(paymentService).rejectPayment(eq(paymentId), anyString());
+        assertEquals(10, stockOf(productId));
+        assertEquals(0, usedCount(couponId));
+    }
+
+    @Test
+    void acceptedWalletPaymentKeepsReservationAndCoupon() {
+        UUID productId = insertProduct(BigDecimal.TEN, 10);
+        String couponCode = code();
+        UUID couponId = insertCoupon(couponCode, 5);
+        when(paymentService.processIntent(eq(paymentId), any())).thenReturn(payment(PaymentStatus.PROCESSING, null));
+
+        checkoutService.checkout(request(productId, couponCode));
+
+        verify(orderService, never()).cancelOrder(any());
+        assertEquals(8, stockOf(productId));
+        assertEquals(1, usedCount(couponId));
+        assertEquals(1, redemptions(orderId));
+    }
+
+    private CheckoutRequest request(UUID productId, String couponCode) {
+        CheckoutItem item = new CheckoutItem();
+        item.setProductId(productId);
+        item.setQuantity(2);
+        CheckoutRequest request = new CheckoutRequest();
+        request.setCustomerEmail("buyer@example.com");
+        request.setCustomerName("Buyer");
+        request.setItems(List.of(item));
+        request.setCouponCode(couponCode);
+        request.setPaymentMethod(PaymentMethod.JEEB);
+        request.setWalletPhone("777000000");
+        return request;
+    }
+
+    private PaymentResponse payment(PaymentStatus status, String failureReason) {
+        PaymentResponse payment = new PaymentResponse();
+        payment.setId(paymentId);
+        payment.setStatus(status);
+        payment.setFailureReason(failureReason);
+        return payment;
+    }
+
+    private int redemptions(UUID order) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM coupon_redemptions WHERE order_id = ?", Integer.class, order);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ecommerce.multistore.inventory.application.service;
+
+import com.ecommerce.multistore.inventory.application.dto.BulkStockUpdateRequest;
+import com.ecommerce.multistore.inventory.application.dto.BulkStockUpdateResponse;
+import com.ecommerce.multistore.inventory.application.dto.StockUpdateRequest;
+import com.ecommerce.multistore.inventory.application.dto.StockUpdateResult;
+import com.ecommerce.multistore.shared.constants.AppConstants;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class InventoryServiceTest extends PostgresIntegrationTest {
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(jdbcTemplate, transactionTemplate, mock(OutboxPublisher.class));
+    }
+
+    @Test
+    void rejectedRowDoesNotFailOtherRowsOfTheSameProduct() {
+        UUID productId = insertProduct(BigDecimal.TEN, 10);
+        String sku = skuOf(productId);
+
+        BulkStockUpdateResponse response = inventoryService.bulkUpdateStock(request(
+                byId(productId, -20, null),
+                byId(productId, 5, null),
+                bySku(sku, null, 3)));
+
+        assertResult(response.getResults().get(0), productId, StockUpdateResult.Status.INSUFFICIENT_STOCK, 10);
+        assertResult(response.getResults().get(1), productId, StockUpdateResult.Status.APPLIED, 15);
+        // الصف المحدد بـ SKU يعيد معرف المنتج الذي حُلَّ إليه
+        assertResult(response.getResults().get(2), productId, StockUpdateResult.Status.APPLIED, 3);
+        assertEquals(2, response.getApplied());
+        assertEquals(3, stockOf(productId));
+        assertEquals(1, movements(productId));
+    }
+
+    @Test
+    void quantitiesAboveTheMaximumAreRejected() {
+        UUID productId = insertProduct(BigDecimal.TEN, AppConstants.MAX_STOCK_QUANTITY - 1);
+
+        BulkStockUpdateResponse response = inventoryService.bulkUpdateStock(request(
+                byId(productId, null, AppConstants.MAX_STOCK_QUANTITY + 1),
+                byId(productId, 2, null),
+                byId(productId, Integer.MAX_VALUE, null),
+                byId(productId, 1, null)));
+
+        assertResult(response.getResults().get(0), productId, StockUpdateResult.Status.INVALID, null);
+        assertResult(response.getResults().get(1), productId, StockUpdateResult.Status.EXCEEDS_MAX_STOCK,
+                AppConstants.MAX_STOCK_QUANTITY - 1);
+        assertResult(response.getResults().get(2), productId, StockUpdateResult.Status.EXCEEDS_MAX_STOCK,
+                AppConstants.MAX_STOCK_QUANTITY - 1);
+        assertResult(response.getResults().get(3), productId, StockUpdateResult.Status.APPLIED,
+                AppConstants.MAX_STOCK_QUANTITY);
+        assertEquals(AppConstants.MAX_STOCK_QUANTITY, stockOf(productId));
+    }
+
+    @Test
+    void unknownProductsAndMalformedRowsAreReportedPerRow() {
+        UUID productId = insertProduct(BigDecimal.TEN, 4);
+
+        BulkStockUpdateResponse response = inventoryService.bulkUpdateStock(request(
+                bySku("NO-SUCH-SKU", 1, null),
+                byId(UUID.randomUUID(), 1, null),
+                byId(productId, 1, 1),
+                byId(productId, -4, null)));
+
+        assertResult(response.getResults().get(0), null, StockUpdateResult.Status.NOT_FOUND, null);
+        assertEquals(StockUpdateResult.Status.NOT_FOUND, response.getResults().get(1).getStatus());
+        assertResult(response.getResults().get(2), productId, StockUpdateResult.Status.INVALID, null);
+        assertResult(response.getResults().get(3), productId, StockUpdateResult.Status.APPLIED, 0);
+        assertEquals(0, stockOf(productId));
+    }
+
+    @Test
+    void rowsThatLeaveTheQuantityUnchangedWriteNoMovement() {
+        UUID productId = insertProduct(BigDecimal.TEN, 6);
+
+        BulkStockUpdateResponse response = inventoryService.bulkUpdateStock(request(
+                byId(productId, 3, null),
+                byId(productId, null, 6)));
+
+        assertEquals(2, response.getApplied());
+        assertEquals(6, stockOf(productId));
+        assertEquals(0, movements(productId));
+    }
+
+    private static BulkStockUpdateRequest request(StockUpdateRequest... rows) {
+        BulkStockUpdateRequest request = new BulkStockUpdateRequest();
+        request.setUpdates(List.of(rows));
+        return request;
+    }
+
+    private static StockUpdateRequest byId(UUID productId, Integer delta, Integer quantity) {
+        StockUpdateRequest row = new StockUpdateRequest();
+        row.setProductId(productId);
+        row.setDelta(delta);
+        row.setQuantity(quantity);
+        return row;
+    }
+
+    private static StockUpdateRequest bySku(String sku, Integer delta, Integer quantity) {
+        StockUpdateRequest row = new StockUpdateRequest();
+        row.setSku(sku);
+        row.setDelta(delta);
+        row.setQuantity(quantity);
+        return row;
+    }
+
+    private static void assertResult(StockUpdateResult result, UUID productId, StockUpdateResult.Status status,
+                                     Integer stockQuantity) {
+        assertEquals(productId, result.getProductId());
+        assertEquals(status, result.getStatus());
+        assertEquals(stockQuantity, result.getStockQuantity());
+    }
+
+    private static String skuOf(UUID productId) {
+        return jdbcTemplate.queryForObject("SELECT sku FROM products WHERE id = ?", String.class, productId);
+    }
+
+    private static int movements(UUID productId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_movements WHERE product_id = ?",
+                Integer.class, productId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.application.dto.CustomerOrderSummary;
+import com.ecommerce.multistore.order.application.dto.CustomerOrderSummaryPage;
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CustomerOrderSummaryServiceTest extends PostgresIntegrationTest {
+
+    private CustomerOrderSummaryService service;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        service = new CustomerOrderSummaryService(jdbcTemplate);
+        email = UUID.randomUUID() + "@example.com";
+    }
+
+    @Test
+    void cursorWalksEveryOrderOnceNewestFirst() {
+        UUID userId = UUID.randomUUID();
+        // طلبان بنفس الوقت يُفصلان بالمعرف
+        UUID oldest = insertSummary(userId, email, 30);
+        UUID tieA = insertSummary(userId, email, 10);
+        UUID tieB = insertSummary(userId, email, 10);
+        UUID newest = insertSummary(userId, email, 0);
+
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CustomerOrderSummaryPage page = service.getUserOrders(userId, cursor, 3);
+            page.getSummaries().forEach(summary -> seen.add(summary.getOrderId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // ترتيب uuid في PostgreSQL غير ترتيب UUID.compareTo في Java
+        List<UUID> ties = jdbcTemplate.queryForList(
+                "SELECT id FROM (VALUES (?::uuid), (?::uuid)) t(id) ORDER BY id DESC", UUID.class, tieA, tieB);
+        assertEquals(List.of(newest, ties.get(0), ties.get(1), oldest), seen);
+        assertEquals(2, pages);
+    }
+
+    @Test
+    void guestOrdersAreFoundByEmailWithoutAccountOrders() {
+        UUID guest = insertSummary(null, email, 0);
+        insertSummary(UUID.randomUUID(), email, 0);
+        insertSummary(null, "other-" + email, 0);
+
+        CustomerOrderSummaryPage page = service.getGuestOrders(email.toUpperCase(), null, 20);
+
+        assertEquals(List.of(guest), page.getSummaries().stream().map(CustomerOrderSummary::getOrderId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.getGuestOrders(email, "not-a-cursor", 20));
+    }
+
+    private UUID insertSummary(UUID userId, String customerEmail, int ageMinutes) {
+        UUID orderId = UUID.randomUUID();
+        jdbcTemplate.update(
+                "INSERT INTO customer_order_summaries (order_id, user_id, customer_email, order_number, status, " +
+                "payment_status, total_amount, currency, item_count, created_at) " +
+                "VALUES (?, ?, ?, ?, 'PENDING', 'PENDING', 19, 'YER', 1, " +
+                "TIMESTAMP '2024-06-01 12:00' - make_interval(mins => ?))",
+                orderId, userId, customerEmail, "ORD-" + orderId.toString().substring(0, 8), ageMinutes);
+        return orderId;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.infrastructure.onex.OnexClient;
+import com.ecommerce.multistore.order.infrastructure.onex.OnexUnavailableException;
+import com.ecommerce.multistore.shared.resilience.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OnexSyncServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private OnexClient onexClient;
+    private OnexSyncService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        onexClient = mock(OnexClient.class);
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        // هدف صفري: كل إشارة ضغط تخفض الحد
+        service = new OnexSyncService(jdbcTemplate, transactionTemplate, onexClient, executor, 4, 1, 8, 0);
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "maxAttempts", 10);
+        ReflectionTestUtils.setField(service, "leaseSeconds", 300);
+
+        // دفعة من طلب واحد عبر RowMapper الخدمة نفسه
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getObject("id", UUID.class)).thenReturn(UUID.randomUUID());
+            when(rs.getObject("order_id", UUID.class)).thenReturn(UUID.randomUUID());
+            return List.of(invocation.getArgument(1, RowMapper.class).mapRow(rs, 0));
+        }).when(jdbcTemplate).query(contains("FOR UPDATE SKIP LOCKED"), any(RowMapper.class), any(), any(), any());
+    }
+
+    @Test
+    void failedDocumentLoadReleasesSlot() {
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+
+        service.dispatch();
+
+        assertEquals(0, limit().getInFlight());
+        assertEquals(4, limit().getLimit());
+    }
+
+    @Test
+    void overloadedOnexReleasesSlotAndHalvesLimit() {
+        loadsOneOrder();
+        when(onexClient.pushOrders(any())).thenThrow(new OnexUnavailableException("OneX returned HTTP 429", true));
+
+        service.dispatch();
+
+        assertEquals(0, limit().getInFlight());
+        assertEquals(2, limit().getLimit());
+    }
+
+    @Test
+    void unexpectedClientErrorReleasesSlot() {
+        loadsOneOrder();
+        when(onexClient.pushOrders(any())).thenThrow(new IllegalStateException("Failed to serialize OneX batch"));
+
+        service.dispatch();
+
+        assertEquals(0, limit().getInFlight());
+        assertEquals(4, limit().getLimit());
+    }
+
+    private void loadsOneOrder() {
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getObject("id", UUID.class)).thenReturn(UUID.randomUUID());
+            when(rs.getBigDecimal(anyString())).thenReturn(BigDecimal.ONE);
+            when(rs.getTimestamp("created_at")).thenReturn(new Timestamp(System.currentTimeMillis()));
+            invocation.getArgument(2, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM orders"), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+    }
+
+    private AdaptiveConcurrencyLimit limit() {
+        return (AdaptiveConcurrencyLimit) ReflectionTestUtils.getField(service, "limit");
+    }
+}
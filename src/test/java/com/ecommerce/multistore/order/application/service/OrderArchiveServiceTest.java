@@ -0,0 +1,92 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.domain.Order;
+import com.ecommerce.multistore.order.infrastructure.OrderArchiveRepository;
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderArchiveServiceTest extends PostgresIntegrationTest {
+
+    private OrderArchiveService archiveService;
+    private OrderArchiveRepository archiveRepository;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new OrderArchiveService(jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(archiveService, "minAgeDays", 180);
+        ReflectionTestUtils.setField(archiveService, "batchSize", 1000);
+        archiveRepository = new OrderArchiveRepository(jdbcTemplate);
+        email = UUID.randomUUID() + "@example.com";
+    }
+
+    @Test
+    void finishedOrderMovesWithEveryColumnAndItsItems() {
+        UUID orderId = insertOrder("DELIVERED", 400);
+        jdbcTemplate.update("UPDATE orders SET tracking_number = 'TRK-1', version = 3 WHERE id = ?", orderId);
+
+        archiveService.archive();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM orders WHERE id = ?", orderId));
+        assertEquals(0, count("SELECT COUNT(*) FROM order_items WHERE order_id = ?", orderId));
+        Map<String, Object> archived = jdbcTemplate.queryForMap(
+                "SELECT customer_email, total_amount, tracking_number, version, shipping_address->>'city' AS city " +
+                "FROM orders_archive WHERE id = ?", orderId);
+        assertEquals(email, archived.get("customer_email"));
+        assertEquals(0, new BigDecimal("19.00").compareTo((BigDecimal) archived.get("total_amount")));
+        assertEquals("TRK-1", archived.get("tracking_number"));
+        assertEquals(3L, ((Number) archived.get("version")).longValue());
+        assertEquals("Sanaa", archived.get("city"));
+        assertEquals("blue", jdbcTemplate.queryForObject(
+                "SELECT attributes->>'color' FROM order_items_archive WHERE order_id = ?", String.class, orderId));
+    }
+
+    @Test
+    void archivedOrdersStayVisibleToEmailAndDateRangeLookups() {
+        UUID archived = insertOrder("DELIVERED", 400);
+        UUID hot = insertOrder("PENDING", 400);
+        archiveService.archive();
+        PageRequest page = PageRequest.of(0, 10);
+
+        assertEquals(List.of(archived), ids(archiveRepository.findByCustomerEmail(email, page, false)));
+        assertEquals(2, archiveRepository.findByCustomerEmail(email, page, true).getTotalElements());
+
+        LocalDateTime from = LocalDateTime.now().minusDays(401);
+        LocalDateTime to = LocalDateTime.now().minusDays(399);
+        List<UUID> inRange = ids(archiveRepository.findByDateRange(from, to, PageRequest.of(0, 1000), true));
+        assertTrue(inRange.containsAll(List.of(archived, hot)));
+    }
+
+    private UUID insertOrder(String status, int ageDays) {
+        UUID orderId = jdbcTemplate.queryForObject(
+                "INSERT INTO orders (order_number, status, customer_email, customer_name, shipping_address, " +
+                "subtotal, total_amount, created_at) VALUES (?, ?, ?, 'Buyer', '{\"city\":\"Sanaa\"}'::jsonb, " +
+                "19, 19, NOW() - make_interval(days => ?)) RETURNING id",
+                UUID.class, "ORD-" + UUID.randomUUID(), status, email, ageDays);
+        jdbcTemplate.update(
+                "INSERT INTO order_items (order_id, product_name, quantity, unit_price, total_price, attributes) " +
+                "VALUES (?, 'Product', 1, 19, 19, '{\"color\":\"blue\"}'::jsonb)", orderId);
+        return orderId;
+    }
+
+    private static List<UUID> ids(Page<Order> orders) {
+        return orders.map(Order::getId).getContent();
+    }
+
+    private static int count(String sql, UUID id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.application.dto.OrderSearchRequest;
+import com.ecommerce.multistore.order.application.dto.OrderSearchResponse;
+import com.ecommerce.multistore.order.application.dto.OrderSearchResult;
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderSearchServiceTest extends PostgresIntegrationTest {
+
+    private OrderSearchService searchService;
+    private String customer;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new OrderSearchService(jdbcTemplate);
+        customer = "Buyer " + UUID.randomUUID();
+    }
+
+    @Test
+    void ordersWithoutCreationTimeArePagedLikeAnyOther() {
+        UUID undated = insertOrder(null);
+        UUID newer = insertOrder("2024-06-02 12:00");
+        UUID older = insertOrder("2024-06-01 12:00");
+
+        List<OrderSearchResult> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderSearchResponse page = searchService.search(request(cursor));
+            seen.addAll(page.getResults());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // الفارغ أولاً كما في فهرس (created_at DESC, id DESC)
+        assertEquals(List.of(undated, newer, older), seen.stream().map(OrderSearchResult::getId).toList());
+        assertNull(seen.get(0).getCreatedAt());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(request("not-a-cursor")));
+    }
+
+    private OrderSearchRequest request(String cursor) {
+        OrderSearchRequest request = new OrderSearchRequest();
+        request.setCustomer(customer);
+        request.setCursor(cursor);
+        request.setSize(1);
+        return request;
+    }
+
+    private UUID insertOrder(String createdAt) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO orders (order_number, status, payment_status, customer_email, customer_name, " +
+                "shipping_address, subtotal, total_amount, created_at) " +
+                "VALUES (?, 'PENDING', 'PENDING', 'buyer@example.com', ?, '{}'::jsonb, 19, 19, ?::timestamptz) RETURNING id",
+                UUID.class, "ORD-" + UUID.randomUUID(), customer, createdAt);
+    }
+}
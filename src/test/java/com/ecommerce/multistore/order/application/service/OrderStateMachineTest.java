@@ -0,0 +1,126 @@
+package com.ecommerce.multistore.order.application.service;
+
+import com.ecommerce.multistore.order.domain.OrderStatus;
+import com.ecommerce.multistore.order.domain.OrderTransition;
+import com.ecommerce.multistore.order.domain.event.OrderStatusChangedEvent;
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStateMachineTest extends PostgresIntegrationTest {
+
+    private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+    private OrderStateMachine stateMachine;
+
+    @BeforeEach
+    void setUp() {
+        stateMachine = new OrderStateMachine(jdbcTemplate, Jackson2ObjectMapperBuilder.json().build(), events::add);
+    }
+
+    @Test
+    void transitionReturnsTheNewRowWithItemsAndRecordsHistory() {
+        UUID orderId = insertOrder("PROCESSING", "PAID");
+
+        OrderStateMachine.TransitionResult result = stateMachine.apply(orderId, OrderTransition.SHIP, "TRK-1");
+
+        assertEquals(OrderStatus.SHIPPED, result.getOrder().getStatus());
+        assertEquals(OrderStatus.PROCESSING, result.getPreviousStatus());
+        assertEquals("TRK-1", result.getOrder().getTrackingNumber());
+        assertNotNull(result.getOrder().getShippedAt());
+        assertEquals(1L, result.getOrder().getVersion());
+        assertEquals(1, result.getItems().size());
+        assertNotNull(result.getItems().get(0).getCreatedAt());
+        assertEquals("SHIPPED", jdbcTemplate.queryForObject(
+                "SELECT to_status FROM order_status_history WHERE order_id = ?", String.class, orderId));
+        OrderStatusChangedEvent event = (OrderStatusChangedEvent) events.get(0);
+        assertEquals(OrderStatus.PROCESSING, event.getPreviousStatus());
+        assertEquals(OrderStatus.SHIPPED, event.getStatus());
+    }
+
+    @Test
+    void paymentGuardRejectsShippingAnUnpaidOrder() {
+        UUID orderId = insertOrder("PROCESSING", "PENDING");
+
+        IllegalStateException rejected = assertThrows(IllegalStateException.class,
+                () -> stateMachine.apply(orderId, OrderTransition.SHIP, "TRK-1"));
+
+        assertTrue(rejected.getMessage().contains("payment status PENDING"));
+        assertEquals("PROCESSING", statusOf(orderId));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void transitionFromAStatusOutsideTheTableIsRejected() {
+        UUID orderId = insertOrder("DELIVERED", "PAID");
+
+        assertThrows(IllegalStateException.class, () -> stateMachine.apply(orderId, OrderTransition.CANCEL, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> stateMachine.apply(UUID.randomUUID(), OrderTransition.CANCEL, null));
+        assertEquals("DELIVERED", statusOf(orderId));
+    }
+
+    @Test
+    void concurrentTransitionsLetExactlyOneWin() throws Exception {
+        UUID orderId = insertOrder("PENDING", "PENDING");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<OrderStateMachine.TransitionResult> confirm = () -> {
+                start.await();
+                return stateMachine.apply(orderId, OrderTransition.CONFIRM, null);
+            };
+            Future<OrderStateMachine.TransitionResult> first = executor.submit(confirm);
+            Future<OrderStateMachine.TransitionResult> second = executor.submit(confirm);
+            start.countDown();
+
+            int won = 0;
+            for (Future<OrderStateMachine.TransitionResult> future : List.of(first, second)) {
+                try {
+                    future.get();
+                    won++;
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+            assertEquals(1, won);
+            assertEquals(List.of("CONFIRMED"), jdbcTemplate.queryForList(
+                    "SELECT to_status FROM order_status_history WHERE order_id = ?", String.class, orderId));
+            assertEquals(1, events.size());
+            assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM orders WHERE id = ?", Long.class, orderId));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private UUID insertOrder(String status, String paymentStatus) {
+        UUID orderId = jdbcTemplate.queryForObject(
+                "INSERT INTO orders (order_number, status, payment_status, customer_email, customer_name, " +
+                "shipping_address, subtotal, total_amount) " +
+                "VALUES (?, ?, ?, 'buyer@example.com', 'Buyer', '{}'::jsonb, 19, 19) RETURNING id",
+                UUID.class, "ORD-" + UUID.randomUUID(), status, paymentStatus);
+        jdbcTemplate.update("INSERT INTO order_items (order_id, product_name, quantity, unit_price, total_price) " +
+                "VALUES (?, 'Product', 1, 19, 19)", orderId);
+        return orderId;
+    }
+
+    private String statusOf(UUID orderId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, orderId);
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.application.dto.BatchPaymentRequest;
+import com.ecommerce.multistore.payment.application.dto.BatchPaymentResponse;
+import com.ecommerce.multistore.payment.application.dto.PaymentBatchResult;
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.infrastructure.PaymentRepository;
+import com.ecommerce.multistore.payment.infrastructure.TransactionIdGenerator;
+import com.ecommerce.multistore.payment.infrastructure.WalletTransactionRepository;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderGateway;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentServiceRefundTest {
+
+    private final UUID paymentId = UUID.randomUUID();
+
+    private PaymentBatchService paymentBatchService;
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        paymentBatchService = mock(PaymentBatchService.class);
+        paymentService = new PaymentService(mock(PaymentRepository.class), mock(WalletTransactionRepository.class),
+                mock(WalletPaymentService.class), mock(PaymentStatisticsTracker.class),
+                mock(TransactionIdGenerator.class), mock(WalletProviderRegistry.class),
+                mock(WalletProviderGateway.class), mock(TransactionTemplate.class), paymentBatchService);
+    }
+
+    @Test
+    void singleRefundGoesThroughTheBatchRefundPath() {
+        when(paymentBatchService.refund(any())).thenReturn(response(PaymentBatchResult.Status.INVALID_STATE,
+                "Only successful payments can be refunded"));
+
+        IllegalStateException rejected = assertThrows(IllegalStateException.class,
+                () -> paymentService.refundPayment(paymentId));
+
+        assertEquals("Only successful payments can be refunded", rejected.getMessage());
+        ArgumentCaptor<BatchPaymentRequest> request = ArgumentCaptor.forClass(BatchPaymentRequest.class);
+        verify(paymentBatchService).refund(request.capture());
+        assertEquals(1, request.getValue().getItems().size());
+        assertEquals(paymentId, request.getValue().getItems().get(0).getPaymentId());
+    }
+
+    @Test
+    void unknownPaymentIsNotFound() {
+        when(paymentBatchService.refund(any())).thenReturn(response(PaymentBatchResult.Status.NOT_FOUND, "Payment not found"));
+
+        assertThrows(IllegalArgumentException.class, () -> paymentService.refundPayment(paymentId));
+    }
+
+    @Test
+    void providerFailureIsReportedWithItsMessage() {
+        when(paymentBatchService.refund(any())).thenReturn(response(PaymentBatchResult.Status.PROVIDER_FAILED,
+                "Refund declined by wallet provider"));
+
+        IllegalStateException failed = assertThrows(IllegalStateException.class,
+                () -> paymentService.refundPayment(paymentId));
+
+        assertEquals("Refund declined by wallet provider", failed.getMessage());
+    }
+
+    private BatchPaymentResponse response(PaymentBatchResult.Status status, String message) {
+        return new BatchPaymentResponse(List.of(
+                new PaymentBatchResult(0, paymentId, status, PaymentStatus.COMPLETED, message)));
+    }
+}
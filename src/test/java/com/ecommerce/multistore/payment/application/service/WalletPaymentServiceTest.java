@@ -0,0 +1,184 @@
+package com.ecommerce.multistore.payment.application.service;
+
+import com.ecommerce.multistore.payment.domain.PaymentStatus;
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.ecommerce.multistore.payment.infrastructure.WalletTransactionRepository;
+import com.ecommerce.multistore.payment.infrastructure.wallet.SimulatedWalletProviderClient;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderClient;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderGateway;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderRegistry;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderStatus;
+import com.ecommerce.multistore.payment.infrastructure.wallet.WalletProviderUnavailableException;
+import com.ecommerce.multistore.shared.resilience.Deadline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WalletPaymentServiceTest {
+
+    private static final String PREFIX = "app.wallets.providers.jeeb.";
+
+    private HttpServer server;
+    private volatile int responseCode = 200;
+    private volatile String responseBody = "{\"status\":\"success\",\"transaction_id\":\"JEEB-1\"}";
+
+    private WalletTransactionRepository repository;
+    private WalletSettlementService settlementService;
+    private WalletProviderClient client;
+    private TransactionTemplate callerTransaction;
+    private WalletPaymentService walletPaymentService;
+
+    private final List<PaymentStatus> savedStatuses = new ArrayList<>();
+    private final List<Boolean> transactionActiveDuringCharge = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(responseCode, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty(PREFIX + "base-url", "http://127.0.0.1:" + server.getAddress().getPort())
+                .withProperty(PREFIX + "api-key", "test-key")
+                .withProperty(PREFIX + "merchant-id", "merchant")
+                .withProperty(PREFIX + "max-attempts", "1");
+        WalletProviderRegistry registry = new WalletProviderRegistry(mock(JdbcTemplate.class), environment, new ObjectMapper());
+        WalletProviderGateway gateway = new WalletProviderGateway(registry, new ObjectMapper(),
+                mock(SimulatedWalletProviderClient.class), 5000);
+
+        // المزود الحقيقي خلف HTTP محلي، مع تسجيل حالة المعاملة لحظة الاتصال
+        client = mock(WalletProviderClient.class);
+        when(client.charge(any(), any())).thenAnswer(invocation -> {
+            transactionActiveDuringCharge.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return gateway.charge(invocation.getArgument(0), invocation.getArgument(1, Deadline.class));
+        });
+
+        repository = mock(WalletTransactionRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            WalletTransaction transaction = invocation.getArgument(0);
+            savedStatuses.add(transaction.getStatus());
+            return transaction;
+        });
+        settlementService = mock(WalletSettlementService.class);
+
+        // معاملات حقيقية على H2 ووكيل @Transactional كما يبنيه Spring
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(
+                new DriverManagerDataSource("jdbc:h2:mem:wallet-payments;DB_CLOSE_DELAY=-1", "sa", ""));
+        callerTransaction = new TransactionTemplate(transactionManager);
+        ProxyFactory proxyFactory = new ProxyFactory(
+                new WalletPaymentService(repository, client, settlementService, 5000));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        walletPaymentService = (WalletPaymentService) proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void chargeRunsOutsideTheCallersTransactionAndSettlesAfterwards() {
+        WalletTransaction transaction = transaction();
+
+        callerTransaction.executeWithoutResult(status -> walletPaymentService.processWalletPayment(transaction));
+
+        assertEquals(List.of(false), transactionActiveDuringCharge);
+        assertEquals(List.of(PaymentStatus.PROCESSING), savedStatuses);
+        InOrder order = inOrder(repository, client, settlementService);
+        order.verify(repository).save(transaction);
+        order.verify(client).charge(eq(transaction), any());
+        order.verify(settlementService).settle(eq(transaction.getId()),
+                argThat(status -> status.getState() == WalletProviderStatus.State.COMPLETED
+                        && "JEEB-1".equals(status.getProviderTransactionId())), isNull());
+    }
+
+    @Test
+    void declinedChargeIsSettledAsFailedWithProviderMessage() {
+        responseBody = "{\"status\":\"declined\",\"message\":\"Insufficient balance\"}";
+        WalletTransaction transaction = transaction();
+
+        walletPaymentService.processWalletPayment(transaction);
+
+        verify(settlementService).settle(eq(transaction.getId()),
+                argThat(status -> status.getState() == WalletProviderStatus.State.FAILED), eq("Insufficient balance"));
+    }
+
+    @Test
+    void unknownOutcomeStaysProcessingForReconciliation() {
+        responseCode = 500;
+        WalletTransaction transaction = transaction();
+
+        walletPaymentService.processWalletPayment(transaction);
+
+        assertEquals(List.of(PaymentStatus.PROCESSING), savedStatuses);
+        verify(settlementService, never()).settle(any(), any(), any());
+    }
+
+    @Test
+    void rejectedRequestMarksTransactionFailedWithoutSettling() {
+        responseCode = 429;
+        WalletTransaction transaction = transaction();
+
+        assertThrows(WalletProviderUnavailableException.class,
+                () -> callerTransaction.executeWithoutResult(status -> walletPaymentService.processWalletPayment(transaction)));
+
+        assertFalse(transactionActiveDuringCharge.get(0));
+        assertEquals(List.of(PaymentStatus.PROCESSING, PaymentStatus.FAILED), savedStatuses);
+        assertTrue(transaction.getErrorMessage().contains("HTTP 429"));
+        verify(settlementService, never()).settle(any(), any(), any());
+    }
+
+    private WalletTransaction transaction() {
+        WalletTransaction transaction = new WalletTransaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setPaymentId(UUID.randomUUID());
+        transaction.setWalletType(WalletType.JEEB);
+        transaction.setTransactionReference("WTX-" + UUID.randomUUID());
+        transaction.setWalletPhone("777000000");
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setStatus(PaymentStatus.PENDING);
+        return transaction;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.multistore.payment.infrastructure.wallet;
+
+import com.ecommerce.multistore.payment.domain.WalletTransaction;
+import com.ecommerce.multistore.payment.domain.WalletType;
+import com.ecommerce.multistore.shared.resilience.CircuitBreaker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class WalletProviderGatewayTest {
+
+    private static final String PREFIX = "app.wallets.providers.jeeb.";
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile int responseCode = 500;
+    private WalletProviderGateway gateway;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            byte[] body = "{\"status\":\"pending\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(responseCode, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        // نافذة من استدعاء واحد ومدة فتح صفرية: فشل واحد يفتح الدائرة والاستدعاء التالي تجريبي
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty(PREFIX + "base-url", "http://127.0.0.1:" + server.getAddress().getPort())
+                .withProperty(PREFIX + "api-key", "test-key")
+                .withProperty(PREFIX + "merchant-id", "merchant")
+                .withProperty(PREFIX + "max-attempts", "1")
+                .withProperty(PREFIX + "breaker.window-size", "2")
+                .withProperty(PREFIX + "breaker.minimum-calls", "1")
+                .withProperty(PREFIX + "breaker.failure-rate", "50")
+                .withProperty(PREFIX + "breaker.open-seconds", "0");
+        WalletProviderRegistry registry = new WalletProviderRegistry(mock(JdbcTemplate.class), environment, new ObjectMapper());
+        gateway = new WalletProviderGateway(registry, new ObjectMapper(), mock(SimulatedWalletProviderClient.class), 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void unexpectedErrorInTrialCallReleasesPermission() {
+        assertThrows(WalletProviderUnavailableException.class, () -> gateway.queryStatus(transaction("ref-1")));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, gateway.health(WalletType.JEEB).getCircuitState());
+
+        // الاستدعاء التجريبي يفشل بخطأ غير متوقع قبل الوصول إلى المزود
+        assertThrows(NullPointerException.class, () -> gateway.queryStatus(transaction(null)));
+
+        // الإذن أُعيد: الاستدعاء التالي يصل إلى المزود ولا يُرفض بـ "circuit open"
+        int before = hits.get();
+        responseCode = 200;
+        WalletProviderStatus status = gateway.queryStatus(transaction("ref-2"));
+
+        assertEquals(before + 1, hits.get());
+        assertEquals(WalletProviderStatus.State.PENDING, status.getState());
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.health(WalletType.JEEB).getCircuitState());
+    }
+
+    @Test
+    void providerErrorIsReportedAsUnavailable() {
+        WalletProviderUnavailableException e = assertThrows(WalletProviderUnavailableException.class,
+                () -> gateway.queryStatus(transaction("ref-1")));
+
+        assertTrue(e.getMessage().contains("HTTP 500"));
+        assertEquals(1, hits.get());
+    }
+
+    private WalletTransaction transaction(String reference) {
+        WalletTransaction transaction = new WalletTransaction();
+        transaction.setWalletType(WalletType.JEEB);
+        transaction.setTransactionReference(reference);
+        transaction.setWalletPhone("777000000");
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setPaymentId(UUID.randomUUID());
+        return transaction;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.multistore.product.application.service;
+
+import com.ecommerce.multistore.product.application.dto.CreateProductRequest;
+import com.ecommerce.multistore.product.application.dto.ProductStockVersion;
+import com.ecommerce.multistore.product.domain.Product;
+import com.ecommerce.multistore.product.infrastructure.ProductRepository;
+import com.ecommerce.multistore.shared.outbox.OutboxEventTypes;
+import com.ecommerce.multistore.shared.outbox.OutboxPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceStockEventTest {
+
+    private final UUID productId = UUID.randomUUID();
+
+    private ProductRepository productRepository;
+    private OutboxPublisher outboxPublisher;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        outboxPublisher = mock(OutboxPublisher.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        productService = new ProductService(productRepository, transactionTemplate, outboxPublisher);
+    }
+
+    @Test
+    void stockSetCarriesTheQuantityItReplaced() {
+        stubUpdatedProduct(3);
+        when(productRepository.findStockVersionById(productId)).thenReturn(Optional.of(stockVersion(7, 4L)));
+        when(productRepository.setStock(productId, 3, 4L)).thenReturn(1);
+
+        productService.updateProductStock(productId, 3);
+
+        Map<?, ?> payload = publishedPayload();
+        assertEquals(7, payload.get("from"));
+        assertEquals(3, payload.get("to"));
+    }
+
+    @Test
+    void concurrentStockChangeIsRereadAndRetried() {
+        stubUpdatedProduct(3);
+        ProductStockVersion stale = stockVersion(7, 4L);
+        ProductStockVersion fresh = stockVersion(9, 5L);
+        when(productRepository.findStockVersionById(productId)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(productRepository.setStock(productId, 3, 4L)).thenReturn(0);
+        when(productRepository.setStock(productId, 3, 5L)).thenReturn(1);
+
+        productService.updateProductStock(productId, 3);
+
+        verify(productRepository, times(2)).findStockVersionById(productId);
+        assertEquals(9, publishedPayload().get("from"));
+    }
+
+    @Test
+    void createdProductPublishesItsOpeningStock() {
+        when(productRepository.save(any())).thenAnswer(invocation -> {
+            Product saved = invocation.getArgument(0);
+            saved.setId(productId);
+            return saved;
+        });
+        CreateProductRequest request = new CreateProductRequest();
+        request.setName("Product");
+        request.setSku("SKU-1");
+        request.setSlug("product");
+        request.setPrice(BigDecimal.TEN);
+        request.setStockQuantity(12);
+
+        productService.createProduct(request);
+
+        Map<?, ?> payload = publishedPayload();
+        assertEquals(0, payload.get("from"));
+        assertEquals(12, payload.get("to"));
+    }
+
+    private void stubUpdatedProduct(int stockQuantity) {
+        Product product = mock(Product.class);
+        when(product.getId()).thenReturn(productId);
+        when(product.getSku()).thenReturn("SKU-1");
+        when(product.getStockQuantity()).thenReturn(stockQuantity);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+    }
+
+    private static ProductStockVersion stockVersion(int stockQuantity, long version) {
+        ProductStockVersion stock = mock(ProductStockVersion.class);
+        when(stock.getStockQuantity()).thenReturn(stockQuantity);
+        when(stock.getVersion()).thenReturn(version);
+        return stock;
+    }
+
+    private Map<?, ?> publishedPayload() {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(outboxPublisher).publish(eq(OutboxEventTypes.PRODUCT), eq(productId),
+                eq(OutboxEventTypes.PRODUCT_STOCK_CHANGED), payload.capture());
+        return (Map<?, ?>) payload.getValue();
+    }
+}
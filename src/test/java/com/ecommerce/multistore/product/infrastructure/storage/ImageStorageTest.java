@@ -0,0 +1,66 @@
+package com.ecommerce.multistore.product.infrastructure.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageStorageTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void concurrentUploadsOfTheSameContentAllSucceed() throws Exception {
+        ImageStorage storage = new ImageStorage(root.toString());
+        byte[] content = "same image bytes".getBytes(StandardCharsets.UTF_8);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Callable<ImageStorage.StoredImage> upload = () -> {
+                start.await();
+                return storage.store(new ByteArrayInputStream(content), "jpeg");
+            };
+            List<Future<ImageStorage.StoredImage>> uploads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                uploads.add(executor.submit(upload));
+            }
+            start.countDown();
+
+            String fileName = uploads.get(0).get().fileName();
+            for (Future<ImageStorage.StoredImage> stored : uploads) {
+                assertEquals(fileName, stored.get().fileName());
+            }
+            assertTrue(storage.isStored(fileName));
+            assertArrayEquals(content, Files.readAllBytes(storage.resolveOriginal(fileName)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void deletedOriginalIsNoLongerStored() throws Exception {
+        ImageStorage storage = new ImageStorage(root.toString());
+        ImageStorage.StoredImage stored = storage.store(
+                new ByteArrayInputStream("bytes".getBytes(StandardCharsets.UTF_8)), "png");
+
+        storage.delete(stored.checksum(), stored.extension());
+
+        assertFalse(storage.isStored(stored.fileName()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.multistore.shared.idempotency;
+
+import com.ecommerce.multistore.shared.exception.BusinessException;
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest extends PostgresIntegrationTest {
+
+    private static final String SCOPE = "payments";
+    private static final Map<String, Object> REQUEST = Map.of("amount", 10);
+
+    private final AtomicInteger runs = new AtomicInteger();
+    private String key;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        key = UUID.randomUUID().toString();
+        // بلا ذاكرة محلية حتى يمر كل تكرار على الجدول
+        store = new IdempotencyStore(jdbcTemplate, transactionManager, new ObjectMapper(), 24, 60, 0, 100);
+    }
+
+    @Test
+    void repeatReturnsTheRecordedResponseWithoutRunningAgain() {
+        String first = store.execute(SCOPE, key, "client:a", REQUEST, String.class, this::operation);
+        String second = store.execute(SCOPE, key, "client:a", REQUEST, String.class, this::operation);
+
+        assertEquals("response-1", first);
+        assertEquals("response-1", second);
+        assertEquals(1, runs.get());
+        assertEquals("COMPLETED", statusOf("client:a"));
+    }
+
+    @Test
+    void sameKeyFromAnotherCallerIsAnotherRequest() {
+        store.execute(SCOPE, key, "client:a", REQUEST, String.class, this::operation);
+
+        String other = store.execute(SCOPE, key, "client:b", REQUEST, String.class, this::operation);
+
+        assertEquals("response-2", other);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void concurrentDuplicateIsRejectedWhileTheFirstRuns() {
+        List<Integer> nestedStatus = new ArrayList<>();
+
+        store.execute(SCOPE, key, "client:a", REQUEST, String.class, () -> {
+            BusinessException duplicate = assertThrows(BusinessException.class,
+                    () -> store.execute(SCOPE, key, "client:a", REQUEST, String.class, this::operation));
+            nestedStatus.add(duplicate.getStatusCode());
+            return operation();
+        });
+
+        assertEquals(List.of(409), nestedStatus);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void claimLeftByACrashedNodeIsTakenOverOnceItsLeaseRunsOut() {
+        // Error لا يحرر المفتاح - كأن العقدة توقفت أثناء العملية
+        assertThrows(Error.class, () -> store.execute(SCOPE, key, "client:a", REQUEST, String.class, () -> {
+            throw new Error("node died");
+        }));
+        BusinessException held = assertThrows(BusinessException.class,
+                () -> store.execute(SCOPE, key, "client:a", REQUEST, String.class, this::operation));
+        assertEquals(409, held.getStatusCode());
+
+        jdbcTemplate.update("UPDATE idempotency_keys SET lease_expires_at = NOW() - INTERVAL '1 second' " +
+                "WHERE idempotency_key = ?", key);
+        String response = store.execute(SCOPE, key, "client:a", REQUEST, String.class, this::operation);
+
+        assertEquals("response-1", response);
+        assertEquals("COMPLETED", statusOf("client:a"));
+    }
+
+    @Test
+    void reusingTheKeyForAnotherRequestIsRejected() {
+        store.execute(SCOPE, key, "client:a", REQUEST, String.class, this::operation);
+
+        BusinessException mismatch = assertThrows(BusinessException.class,
+                () -> store.execute(SCOPE, key, "client:a", Map.of("amount", 20), String.class, this::operation));
+
+        assertEquals(422, mismatch.getStatusCode());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void failedOperationReleasesTheKey() {
+        assertThrows(IllegalStateException.class, () -> store.execute(SCOPE, key, "client:a", REQUEST, String.class,
+                () -> {
+                    throw new IllegalStateException("declined");
+                }));
+
+        assertEquals(0, rows("client:a"));
+        assertEquals("response-1", store.execute(SCOPE, key, "client:a", REQUEST, String.class, this::operation));
+    }
+
+    @Test
+    void operationRunsWithoutAStoreTransaction() {
+        List<Boolean> transactionActive = new ArrayList<>();
+
+        store.execute(SCOPE, key, "client:a", REQUEST, String.class, () -> {
+            transactionActive.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return operation();
+        });
+
+        assertEquals(List.of(false), transactionActive);
+    }
+
+    private String operation() {
+        return "response-" + runs.incrementAndGet();
+    }
+
+    private String statusOf(String caller) {
+        return jdbcTemplate.queryForObject("SELECT status FROM idempotency_keys " +
+                "WHERE scope = ? AND caller = ? AND idempotency_key = ?", String.class, SCOPE, caller, key);
+    }
+
+    private int rows(String caller) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys " +
+                "WHERE scope = ? AND caller = ? AND idempotency_key = ?", Integer.class, SCOPE, caller, key);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.multistore.shared.outbox;
+
+import com.ecommerce.multistore.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OutboxRelayTest extends PostgresIntegrationTest {
+
+    private final List<Long> delivered = new ArrayList<>();
+    private final Set<Long> failing = new HashSet<>();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        relay = new OutboxRelay(jdbcTemplate, event -> {
+            long id = ((OutboxEvent) event).getId();
+            if (failing.contains(id)) {
+                throw new IllegalStateException("listener failed");
+            }
+            delivered.add(id);
+        }, transactionManager);
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 20);
+    }
+
+    @Test
+    void dueEventsOfAnAggregateAreDeliveredInOrder() {
+        UUID aggregate = UUID.randomUUID();
+        long first = insert(aggregate, "PENDING", 0);
+        long second = insert(aggregate, "PENDING", 0);
+
+        relay.relay();
+
+        assertEquals(List.of(first, second), delivered);
+        assertEquals("PUBLISHED", statusOf(second));
+    }
+
+    @Test
+    void eventWaitingForRetryHoldsBackLaterEventsOfItsAggregate() {
+        UUID waiting = UUID.randomUUID();
+        long head = insert(waiting, "PENDING", 3600);
+        long next = insert(waiting, "PENDING", 0);
+        long other = insert(UUID.randomUUID(), "PENDING", 0);
+
+        relay.relay();
+
+        assertEquals(List.of(other), delivered);
+        assertEquals("PENDING", statusOf(head));
+        assertEquals("PENDING", statusOf(next));
+    }
+
+    @Test
+    void failedEventParksItsAggregate() {
+        UUID parked = UUID.randomUUID();
+        insert(parked, "FAILED", 0);
+        long next = insert(parked, "PENDING", 0);
+        long other = insert(UUID.randomUUID(), "PENDING", 0);
+
+        relay.relay();
+        relay.relay();
+
+        assertEquals(List.of(other), delivered);
+        assertEquals("PENDING", statusOf(next));
+    }
+
+    @Test
+    void eventRunningOutOfAttemptsBecomesFailedAndParksItsAggregate() {
+        ReflectionTestUtils.setField(relay, "maxAttempts", 1);
+        UUID aggregate = UUID.randomUUID();
+        long head = insert(aggregate, "PENDING", 0);
+        long next = insert(aggregate, "PENDING", 0);
+        failing.add(head);
+
+        relay.relay();
+        relay.relay();
+
+        assertEquals(List.of(), delivered);
+        assertEquals("FAILED", statusOf(head));
+        assertEquals("PENDING", statusOf(next));
+    }
+
+    @Test
+    void retryableFailureHoldsBackTheRestOfTheBatchForItsAggregate() {
+        UUID aggregate = UUID.randomUUID();
+        long head = insert(aggregate, "PENDING", 0);
+        long next = insert(aggregate, "PENDING", 0);
+        long other = insert(UUID.randomUUID(), "PENDING", 0);
+        failing.add(head);
+
+        relay.relay();
+        // المحاولة التالية مؤجلة فلا يتجاوزها الحدث اللاحق في الدفعة التالية أيضاً
+        relay.relay();
+
+        assertEquals(List.of(other), delivered);
+        assertEquals("PENDING", statusOf(head));
+        assertEquals("PENDING", statusOf(next));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT attempts FROM outbox_events WHERE id = ?", Integer.class, head));
+    }
+
+    private long insert(UUID aggregateId, String status, int dueInSeconds) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload, status, next_attempt_at) " +
+                "VALUES ('PRODUCT', ?, 'PRODUCT_STOCK_CHANGED', '{}'::jsonb, ?, NOW() + make_interval(secs => ?)) RETURNING id",
+                Long.class, aggregateId, status, dueInSeconds);
+    }
+
+    private String statusOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM outbox_events WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.multistore.shared.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long TARGET = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void acquireStopsAtLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, TARGET);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        limit.release();
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void fastCallsRaiseLimitGradually() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, TARGET);
+
+        // 2 -> 2.5 -> 2.9 -> 3.24
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+            limit.onSuccess(TARGET / 10);
+        }
+
+        assertEquals(3, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void limitNeverExceedsMax() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 1, 3, TARGET);
+
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.onSuccess(0);
+        }
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void overloadHalvesLimitDownToMin() {
+        // هدف صفري حتى لا تحجب فترة الهدف التخفيض المتتالي
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 3, 10, 0);
+
+        limit.tryAcquire();
+        limit.onOverload();
+        assertEquals(4, limit.getLimit());
+
+        limit.tryAcquire();
+        limit.onOverload();
+        assertEquals(3, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void slowSuccessCountsAsOverload() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 10, 0);
+
+        limit.tryAcquire();
+        limit.onSuccess(1);
+
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void decreaseAppliesOncePerTargetPeriod() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 10, Duration.ofHours(1).toNanos());
+
+        // أول فترة لم تنقض منذ الإنشاء - إشارات الضغط المتزامنة لا تنهار بالحد
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+        }
+        for (int i = 0; i < 3; i++) {
+            limit.onOverload();
+        }
+
+        assertEquals(8, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(1, 0, 5, TARGET));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(1, 5, 4, TARGET));
+    }
+}
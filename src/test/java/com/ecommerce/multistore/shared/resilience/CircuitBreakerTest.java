@@ -0,0 +1,100 @@
+package com.ecommerce.multistore.shared.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 50, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onFailure();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(100, breaker.getFailureRate());
+    }
+
+    @Test
+    void opensAtFailureRateAndRejectsCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 50, Duration.ofMinutes(1));
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void windowForgetsOldOutcomes() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 2, 100, Duration.ofMinutes(1));
+
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onSuccess();
+
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    @Test
+    void halfOpenAllowsOneTrialThatClosesOnSuccess() {
+        CircuitBreaker breaker = openBreaker();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void failedTrialReopens() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 1, 50, Duration.ofMinutes(1));
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquirePermission());
+
+        CircuitBreaker zeroWait = openBreaker();
+        assertTrue(zeroWait.tryAcquirePermission());
+        zeroWait.onFailure();
+
+        // مدة الفتح صفرية، فيعود نصف مفتوح ويسمح بتجربة جديدة
+        assertEquals(CircuitBreaker.State.HALF_OPEN, zeroWait.getState());
+        assertTrue(zeroWait.tryAcquirePermission());
+    }
+
+    @Test
+    void releasedTrialPermissionAllowsAnotherTrial() {
+        CircuitBreaker breaker = openBreaker();
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.releasePermission();
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    /**
+     * قاطع مفتوح بمدة فتح صفرية - الإذن التالي تجريبي
+     */
+    private CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 1, 50, Duration.ZERO);
+        breaker.onFailure();
+        return breaker;
+    }
+}